@@ -58,7 +58,9 @@ import org.slf4j.LoggerFactory;
  *
  * @see CacheStore
  * @see LruCache
+ * @see ConcurrentLruCache
  * @see CachingPolicy
+ * @see EvictionPolicy
  */
 public class App {
 
@@ -72,6 +72,21 @@ public final class AppManager {
     CacheStore.initCapacity(capacity);
   }
 
+  /**
+   * Initialize eviction policy, LRU by default.
+   */
+  public static void initEvictionPolicy(EvictionPolicy policy) {
+    CacheStore.initEvictionPolicy(policy);
+  }
+
+  /**
+   * Write LRU data evicted under the write-behind policy in the background, in batches.
+   */
+  public static void initWriteBehindFlusher(int batchSize, long maxDelayMillis,
+      int queueCapacity) {
+    CacheStore.initWriteBehindFlusher(batchSize, maxDelayMillis, queueCapacity);
+  }
+
   /**
    * Find user account.
    */
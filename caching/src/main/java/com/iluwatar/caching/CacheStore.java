@@ -25,6 +25,8 @@ package com.iluwatar.caching;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +38,17 @@ public class CacheStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CacheStore.class);
 
-  private static LruCache cache;
+  private static volatile UserAccountCache cache;
+
+  private static EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+  private static int capacity;
+
+  private static final LongAdder HIT_COUNT = new LongAdder();
+  private static final LongAdder MISS_COUNT = new LongAdder();
+  private static final LongAdder EVICTION_COUNT = new LongAdder();
+
+  private static volatile WriteBehindFlusher flusher;
 
   private CacheStore() {
   }
@@ -44,25 +56,75 @@ public class CacheStore {
   /**
    * Init cache capacity.
    */
-  public static void initCapacity(int capacity) {
+  public static synchronized void initCapacity(int capacity) {
+    CacheStore.capacity = capacity;
     if (cache == null) {
-      cache = new LruCache(capacity);
+      cache = evictionPolicy.createCache(capacity);
     } else {
       cache.setCapacity(capacity);
     }
   }
 
+  /**
+   * Init eviction policy. An existing cache is replaced by an empty one of the same capacity.
+   */
+  public static synchronized void initEvictionPolicy(EvictionPolicy policy) {
+    evictionPolicy = policy;
+    if (cache != null) {
+      cache = policy.createCache(capacity);
+    }
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts since the last reset.
+   */
+  public static CacheStats getStats() {
+    return new CacheStats(HIT_COUNT.sum(), MISS_COUNT.sum(), EVICTION_COUNT.sum());
+  }
+
+  /**
+   * Resets the hit, miss and eviction counts.
+   */
+  public static void resetStats() {
+    HIT_COUNT.reset();
+    MISS_COUNT.reset();
+    EVICTION_COUNT.reset();
+  }
+
+  /**
+   * Write LRU data evicted under the write-behind policy asynchronously, in batches of up to
+   * batchSize users or after at most maxDelayMillis. Replaces a previously started flusher.
+   */
+  public static synchronized void initWriteBehindFlusher(int batchSize, long maxDelayMillis,
+      int queueCapacity) {
+    stopWriteBehindFlusher();
+    flusher = new WriteBehindFlusher(batchSize, maxDelayMillis, TimeUnit.MILLISECONDS,
+        queueCapacity);
+  }
+
+  /**
+   * Write the queued LRU data and go back to writing evicted data on the caller's thread.
+   */
+  public static synchronized void stopWriteBehindFlusher() {
+    if (flusher != null) {
+      flusher.close();
+      flusher = null;
+    }
+  }
+
   /**
    * Get user account using read-through cache.
    */
   public static UserAccount readThrough(String userId) {
     if (cache.contains(userId)) {
       LOGGER.info("# Cache Hit!");
+      HIT_COUNT.increment();
       return cache.get(userId);
     }
     LOGGER.info("# Cache Miss!");
-    UserAccount userAccount = DbManager.readFromDb(userId);
-    cache.set(userId, userAccount);
+    MISS_COUNT.increment();
+    UserAccount userAccount = readFromDb(userId);
+    recordEviction(cache.set(userId, userAccount));
     return userAccount;
   }
 
@@ -75,7 +137,7 @@ public class CacheStore {
     } else {
       DbManager.writeToDb(userAccount);
     }
-    cache.set(userAccount.getUserId(), userAccount);
+    recordEviction(cache.set(userAccount.getUserId(), userAccount));
   }
 
   /**
@@ -97,16 +159,13 @@ public class CacheStore {
   public static UserAccount readThroughWithWriteBackPolicy(String userId) {
     if (cache.contains(userId)) {
       LOGGER.info("# Cache Hit!");
+      HIT_COUNT.increment();
       return cache.get(userId);
     }
     LOGGER.info("# Cache Miss!");
-    UserAccount userAccount = DbManager.readFromDb(userId);
-    if (cache.isFull()) {
-      LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-      UserAccount toBeWrittenToDb = cache.getLruData();
-      DbManager.upsertDb(toBeWrittenToDb);
-    }
-    cache.set(userId, userAccount);
+    MISS_COUNT.increment();
+    UserAccount userAccount = readFromDb(userId);
+    writeBack(cache.set(userId, userAccount));
     return userAccount;
   }
 
@@ -114,12 +173,40 @@ public class CacheStore {
    * Set user account.
    */
   public static void writeBehind(UserAccount userAccount) {
-    if (cache.isFull() && !cache.contains(userAccount.getUserId())) {
+    writeBack(cache.set(userAccount.getUserId(), userAccount));
+  }
+
+  /**
+   * Writes the LRU data evicted by a set into the DB. The evicted entry is the one handed back by
+   * the cache itself, so concurrent writers can not write back an entry that is still cached.
+   */
+  private static void writeBack(UserAccount evicted) {
+    if (evicted == null) {
+      return;
+    }
+    EVICTION_COUNT.increment();
+    var currentFlusher = flusher;
+    if (currentFlusher != null) {
+      LOGGER.info("# Cache is FULL! Queueing LRU data for DB...");
+      currentFlusher.enqueue(evicted);
+    } else {
       LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-      UserAccount toBeWrittenToDb = cache.getLruData();
-      DbManager.upsertDb(toBeWrittenToDb);
+      DbManager.upsertDb(evicted);
+    }
+  }
+
+  /**
+   * Reads from the DB, unless a newer version is still waiting in the write-behind flusher.
+   */
+  private static UserAccount readFromDb(String userId) {
+    var currentFlusher = flusher;
+    if (currentFlusher != null) {
+      var pending = currentFlusher.getPending(userId);
+      if (pending != null) {
+        return pending;
+      }
     }
-    cache.set(userAccount.getUserId(), userAccount);
+    return DbManager.readFromDb(userId);
   }
 
   /**
@@ -132,12 +219,18 @@ public class CacheStore {
   }
 
   /**
-   * Writes remaining content in the cache into the DB.
+   * Writes remaining content in the cache into the DB. Blocks until the LRU data queued in the
+   * write-behind flusher has been written as well, or the flusher gave up on the DB, so it is
+   * safe to call on shutdown.
    */
   public static void flushCache() {
     LOGGER.info("# flushCache...");
+    var currentFlusher = flusher;
+    if (currentFlusher != null && !currentFlusher.flush()) {
+      LOGGER.error("# LRU data queued for write-behind is not written to DB yet");
+    }
     Optional.ofNullable(cache)
-        .map(LruCache::getCacheDataInListForm)
+        .map(UserAccountCache::getCacheDataInListForm)
         .orElse(List.of())
         .forEach(DbManager::updateDb);
   }
@@ -147,7 +240,7 @@ public class CacheStore {
    */
   public static String print() {
     return Optional.ofNullable(cache)
-        .map(LruCache::getCacheDataInListForm)
+        .map(UserAccountCache::getCacheDataInListForm)
         .orElse(List.of())
         .stream()
         .map(userAccount -> userAccount.toString() + "\n")
@@ -158,14 +251,22 @@ public class CacheStore {
    * Delegate to backing cache store.
    */
   public static UserAccount get(String userId) {
-    return cache.get(userId);
+    var userAccount = cache.get(userId);
+    (userAccount != null ? HIT_COUNT : MISS_COUNT).increment();
+    return userAccount;
   }
 
   /**
    * Delegate to backing cache store.
    */
   public static void set(String userId, UserAccount userAccount) {
-    cache.set(userId, userAccount);
+    recordEviction(cache.set(userId, userAccount));
+  }
+
+  private static void recordEviction(UserAccount evicted) {
+    if (evicted != null) {
+      EVICTION_COUNT.increment();
+    }
   }
 
   /**
@@ -0,0 +1,265 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread-safe replacement of {@link LruCache}. Lookups go through a {@link ConcurrentHashMap} and
+ * never take a lock; instead of moving the node to the front of the LRU list straight away, a read
+ * is recorded in a small striped buffer. The buffers are drained into the linked-list under the
+ * eviction lock whenever a writer holds it anyway, or when a buffer fills up and the reader manages
+ * to acquire the lock without blocking. If a buffer is full and the lock is busy the access is
+ * simply dropped, which only makes the recency order slightly less precise.
+ *
+ * <p>Every operation that depends on the LRU order ({@link #getLruData()}, eviction on {@link
+ * #set(String, UserAccount)}, {@link #getCacheDataInListForm()}) drains the pending reads first,
+ * so the list is in the same order the single-threaded {@link LruCache} would keep for the
+ * recorded accesses.
+ */
+public class ConcurrentLruCache implements UserAccountCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentLruCache.class);
+
+  static class Node {
+    final String userId;
+    volatile UserAccount userAccount;
+    Node previous;
+    Node next;
+    boolean linked;
+
+    Node(String userId, UserAccount userAccount) {
+      this.userId = userId;
+      this.userAccount = userAccount;
+    }
+  }
+
+  private final ConcurrentHashMap<String, Node> cache = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ReadBuffer<Node> readBuffer = new ReadBuffer<>();
+  private volatile int capacity;
+  private Node head;
+  private Node end;
+
+  public ConcurrentLruCache(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Get user account.
+   */
+  @Override
+  public UserAccount get(String userId) {
+    var node = cache.get(userId);
+    if (node == null) {
+      return null;
+    }
+    recordRead(node);
+    return node.userAccount;
+  }
+
+  /**
+   * Set user account. Returns the user account that had to be evicted to make room for the new
+   * entry, or null if nothing was evicted.
+   */
+  @Override
+  public UserAccount set(String userId, UserAccount userAccount) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      var old = cache.get(userId);
+      if (old != null) {
+        old.userAccount = userAccount;
+        moveToHead(old);
+        return null;
+      }
+      UserAccount evicted = null;
+      if (cache.size() >= capacity && end != null) {
+        LOGGER.info("# Cache is FULL! Removing {} from cache...", end.userId);
+        var lru = end;
+        cache.remove(lru.userId); // remove LRU data from cache.
+        unlink(lru);
+        evicted = lru.userAccount;
+      }
+      var newNode = new Node(userId, userAccount);
+      linkHead(newNode);
+      cache.put(userId, newNode);
+      return evicted;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean contains(String userId) {
+    return cache.containsKey(userId);
+  }
+
+  /**
+   * Invalidate cache for user.
+   */
+  @Override
+  public void invalidate(String userId) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      var toBeRemoved = cache.remove(userId);
+      if (toBeRemoved != null) {
+        LOGGER.info("# {} has been updated! Removing older version from cache...", userId);
+        unlink(toBeRemoved);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isFull() {
+    return cache.size() >= capacity;
+  }
+
+  /**
+   * Returns the least recently used user account, or null if the cache is empty.
+   */
+  public UserAccount getLruData() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      return end == null ? null : end.userAccount;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Clear cache.
+   */
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (var node = head; node != null; node = node.next) {
+        node.linked = false;
+      }
+      head = null;
+      end = null;
+      cache.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns cache data in list form, most recently used first.
+   */
+  @Override
+  public List<UserAccount> getCacheDataInListForm() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      var listOfCacheData = new ArrayList<UserAccount>();
+      for (var node = head; node != null; node = node.next) {
+        listOfCacheData.add(node.userAccount);
+      }
+      return listOfCacheData;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Set cache capacity.
+   */
+  @Override
+  public void setCapacity(int newCapacity) {
+    if (capacity > newCapacity) {
+      clear(); // Same behavior as LruCache, a smaller cache is simply started from scratch.
+    } else {
+      this.capacity = newCapacity;
+    }
+  }
+
+  private void recordRead(Node node) {
+    if (!readBuffer.offer(node) && evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+        onAccess(node);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainReadBuffers() {
+    readBuffer.drainTo(this::onAccess);
+  }
+
+  private void onAccess(Node node) {
+    if (node.linked) {
+      moveToHead(node);
+    }
+  }
+
+  private void moveToHead(Node node) {
+    if (head != node) {
+      unlink(node);
+      linkHead(node);
+    }
+  }
+
+  private void unlink(Node node) {
+    if (node.previous != null) {
+      node.previous.next = node.next;
+    } else {
+      head = node.next;
+    }
+    if (node.next != null) {
+      node.next.previous = node.previous;
+    } else {
+      end = node.previous;
+    }
+    node.previous = null;
+    node.next = null;
+    node.linked = false;
+  }
+
+  private void linkHead(Node node) {
+    node.next = head;
+    node.previous = null;
+    if (head != null) {
+      head.previous = node;
+    }
+    head = node;
+    if (end == null) {
+      end = node;
+    }
+    node.linked = true;
+  }
+}
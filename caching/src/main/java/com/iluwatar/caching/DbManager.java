@@ -26,10 +26,13 @@ package com.iluwatar.caching;
 import com.iluwatar.caching.constants.CachingConstants;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
 import java.text.ParseException;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import org.bson.Document;
 
 /**
@@ -57,7 +60,7 @@ public final class DbManager {
    */
   public static void createVirtualDb() {
     useMongoDB = false;
-    virtualDB = new HashMap<>();
+    virtualDB = new ConcurrentHashMap<>();
   }
 
   /**
@@ -166,4 +169,35 @@ public final class DbManager {
         new UpdateOptions().upsert(true)
     );
   }
+
+  /**
+   * Upsert a batch of user accounts in a single round trip.
+   */
+  public static void upsertDb(List<UserAccount> userAccounts) {
+    if (userAccounts.isEmpty()) {
+      return;
+    }
+    if (!useMongoDB) {
+      userAccounts.forEach(userAccount -> virtualDB.put(userAccount.getUserId(), userAccount));
+      return;
+    }
+    if (db == null) {
+      try {
+        connect();
+      } catch (ParseException e) {
+        e.printStackTrace();
+      }
+    }
+    var requests = userAccounts.stream()
+        .map(userAccount -> new UpdateOneModel<Document>(
+            new Document(CachingConstants.USER_ID, userAccount.getUserId()),
+            new Document("$set",
+                new Document(CachingConstants.USER_ID, userAccount.getUserId())
+                    .append(CachingConstants.USER_NAME, userAccount.getUserName())
+                    .append(CachingConstants.ADD_INFO, userAccount.getAdditionalInfo())
+            ),
+            new UpdateOptions().upsert(true)))
+        .collect(Collectors.toList());
+    db.getCollection(CachingConstants.USER_ACCOUNT).bulkWrite(requests);
+  }
 }
@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.function.IntFunction;
+
+/**
+ * Enum class containing the eviction policies the cache can be created with.
+ */
+public enum EvictionPolicy {
+  /**
+   * Evicts the least recently used user account.
+   */
+  LRU(ConcurrentLruCache::new),
+  /**
+   * Window TinyLFU: a small LRU window in front of a segmented LRU, with a frequency sketch that
+   * only admits a user account into the main space if it is used more often than the one it
+   * replaces. Keeps hot user accounts cached through scans of one-off lookups.
+   */
+  TINY_LFU(TinyLfuCache::new);
+
+  private final IntFunction<UserAccountCache> factory;
+
+  EvictionPolicy(IntFunction<UserAccountCache> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Creates an empty cache using this policy.
+   */
+  public UserAccountCache createCache(int capacity) {
+    return factory.apply(capacity);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often a key was used recently. Each key maps
+ * to one counter in each of four rows; the estimate is the smallest of those counters. Counters
+ * saturate at 15. Once the number of recorded uses reaches ten times the cache capacity, every
+ * counter is halved, so the popularity of keys that are no longer used ages out.
+ *
+ * <p>Not thread-safe, the owning cache only touches it under its eviction lock.
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int DEPTH = SEEDS.length;
+
+  private long[] table;
+  private int counterMask;
+  private int sampleSize;
+  private int size;
+
+  FrequencySketch(int capacity) {
+    ensureCapacity(capacity);
+  }
+
+  /**
+   * Resizes the sketch for a new cache capacity, dropping the recorded frequencies.
+   */
+  final void ensureCapacity(int capacity) {
+    var maximum = Math.max(capacity, 16);
+    var longs = Integer.highestOneBit(maximum - 1) << 1; // next power of two
+    if (table != null && table.length >= longs) {
+      return;
+    }
+    table = new long[longs];
+    counterMask = longs * 16 - 1;
+    sampleSize = 10 * maximum;
+    size = 0;
+  }
+
+  /**
+   * Returns the estimated number of recent uses of the key, at most 15.
+   */
+  int frequency(String key) {
+    var hash = spread(key.hashCode());
+    var frequency = Integer.MAX_VALUE;
+    for (var row = 0; row < DEPTH; row++) {
+      frequency = Math.min(frequency, counterAt(indexOf(hash, row)));
+    }
+    return frequency;
+  }
+
+  /**
+   * Records a use of the key, ageing all counters once the sample size is reached.
+   */
+  void increment(String key) {
+    var hash = spread(key.hashCode());
+    var added = false;
+    for (var row = 0; row < DEPTH; row++) {
+      added |= incrementAt(indexOf(hash, row));
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private int indexOf(int hash, int row) {
+    var h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & counterMask;
+  }
+
+  private int counterAt(int counter) {
+    return (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 0xf;
+  }
+
+  private boolean incrementAt(int counter) {
+    var index = counter >>> 4;
+    var offset = (counter & 15) << 2;
+    var mask = 0xfL << offset;
+    if ((table[index] & mask) == mask) {
+      return false;
+    }
+    table[index] += 1L << offset;
+    return true;
+  }
+
+  private void reset() {
+    for (var i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size /= 2;
+  }
+
+  private static int spread(int hash) {
+    var h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy buffer of recorded reads, striped over the threads so readers rarely contend. Readers
+ * claim a slot with a CAS on the write counter of their stripe; the single consumer is whoever
+ * holds the eviction lock of the owning cache and replays the reads into its eviction order.
+ *
+ * @param <E> the recorded cache entry
+ */
+class ReadBuffer<E> {
+
+  private static final int STRIPE_SIZE = 64;
+  private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+  private static class Stripe<E> {
+    final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+    final AtomicLong writeCounter = new AtomicLong();
+    volatile long readCounter;
+
+    boolean offer(E entry) {
+      while (true) {
+        var write = writeCounter.get();
+        if (write - readCounter >= STRIPE_SIZE) {
+          return false;
+        }
+        if (writeCounter.compareAndSet(write, write + 1)) {
+          slots.lazySet((int) (write & STRIPE_MASK), entry);
+          return true;
+        }
+      }
+    }
+
+    void drainTo(Consumer<E> consumer) {
+      var read = readCounter;
+      var write = writeCounter.get();
+      while (read < write) {
+        var index = (int) (read & STRIPE_MASK);
+        var entry = slots.get(index);
+        if (entry == null) {
+          break; // slot claimed but not yet published, pick it up on the next drain
+        }
+        slots.lazySet(index, null);
+        consumer.accept(entry);
+        read++;
+      }
+      readCounter = read;
+    }
+  }
+
+  private final Stripe<E>[] stripes;
+
+  @SuppressWarnings("unchecked")
+  ReadBuffer() {
+    var count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    stripes = new Stripe[count];
+    for (var i = 0; i < count; i++) {
+      stripes[i] = new Stripe<>();
+    }
+  }
+
+  /**
+   * Records a read. Returns false if the stripe of the calling thread is full and needs a drain.
+   */
+  boolean offer(E entry) {
+    return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)].offer(entry);
+  }
+
+  /**
+   * Replays every published read. Must only be called by one thread at a time.
+   */
+  void drainTo(Consumer<E> consumer) {
+    for (var stripe : stripes) {
+      stripe.drainTo(consumer);
+    }
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Window TinyLFU cache. New user accounts enter a small LRU window (1% of the capacity). When the
+ * window overflows, its LRU entry becomes a candidate for the main space, a segmented LRU made of
+ * a probation and a protected (80%) segment. The candidate is only admitted if the {@link
+ * FrequencySketch} estimates that it is used more often than the probation LRU entry it would
+ * replace; otherwise the candidate itself is evicted. Entries read while on probation move to the
+ * protected segment, whose overflow is demoted back to probation.
+ *
+ * <p>A scan of one-off lookups therefore only churns the window and can not push frequently used
+ * user accounts out of the cache. Reads are lock-free and recorded the same way as in {@link
+ * ConcurrentLruCache}.
+ */
+public class TinyLfuCache implements UserAccountCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TinyLfuCache.class);
+
+  private static final double WINDOW_RATIO = 0.01;
+  private static final double PROTECTED_RATIO = 0.8;
+
+  private enum Region {
+    WINDOW, PROBATION, PROTECTED
+  }
+
+  static class Node {
+    final String userId;
+    volatile UserAccount userAccount;
+    Node previous;
+    Node next;
+    Region region;
+
+    Node(String userId, UserAccount userAccount) {
+      this.userId = userId;
+      this.userAccount = userAccount;
+    }
+  }
+
+  /**
+   * Doubly linked list of nodes, most recently used first.
+   */
+  private static class AccessOrder {
+    Node head;
+    Node end;
+    int size;
+
+    void addFirst(Node node) {
+      node.next = head;
+      node.previous = null;
+      if (head != null) {
+        head.previous = node;
+      }
+      head = node;
+      if (end == null) {
+        end = node;
+      }
+      size++;
+    }
+
+    void remove(Node node) {
+      if (node.previous != null) {
+        node.previous.next = node.next;
+      } else {
+        head = node.next;
+      }
+      if (node.next != null) {
+        node.next.previous = node.previous;
+      } else {
+        end = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToFirst(Node node) {
+      if (head != node) {
+        remove(node);
+        addFirst(node);
+      }
+    }
+
+    void clear() {
+      head = null;
+      end = null;
+      size = 0;
+    }
+  }
+
+  private final ConcurrentHashMap<String, Node> cache = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ReadBuffer<Node> readBuffer = new ReadBuffer<>();
+  private final AccessOrder window = new AccessOrder();
+  private final AccessOrder probation = new AccessOrder();
+  private final AccessOrder protectedSegment = new AccessOrder();
+  private final FrequencySketch sketch;
+  private volatile int capacity;
+  private int maxWindow;
+  private int maxProtected;
+
+  /**
+   * Creates an empty cache.
+   */
+  public TinyLfuCache(int capacity) {
+    this.sketch = new FrequencySketch(capacity);
+    resize(capacity);
+  }
+
+  @Override
+  public UserAccount get(String userId) {
+    var node = cache.get(userId);
+    if (node == null) {
+      return null;
+    }
+    if (!readBuffer.offer(node) && evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+        onAccess(node);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return node.userAccount;
+  }
+
+  @Override
+  public UserAccount set(String userId, UserAccount userAccount) {
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      var old = cache.get(userId);
+      if (old != null) {
+        old.userAccount = userAccount;
+        onAccess(old);
+        return null;
+      }
+      var node = new Node(userId, userAccount);
+      cache.put(userId, node);
+      sketch.increment(userId);
+      node.region = Region.WINDOW;
+      window.addFirst(node);
+      return evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean contains(String userId) {
+    return cache.containsKey(userId);
+  }
+
+  @Override
+  public void invalidate(String userId) {
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      var toBeRemoved = cache.remove(userId);
+      if (toBeRemoved != null) {
+        LOGGER.info("# {} has been updated! Removing older version from cache...", userId);
+        unlink(toBeRemoved);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isFull() {
+    return cache.size() >= capacity;
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      clearRegions();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns cache data in list form: the window, then the protected and probation segments.
+   */
+  @Override
+  public List<UserAccount> getCacheDataInListForm() {
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      var listOfCacheData = new ArrayList<UserAccount>(cache.size());
+      for (var region : new AccessOrder[]{window, protectedSegment, probation}) {
+        for (var node = region.head; node != null; node = node.next) {
+          listOfCacheData.add(node.userAccount);
+        }
+      }
+      return listOfCacheData;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void setCapacity(int newCapacity) {
+    evictionLock.lock();
+    try {
+      if (capacity > newCapacity) {
+        clearRegions(); // Same behavior as LruCache, a smaller cache starts from scratch.
+      } else {
+        resize(newCapacity);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void resize(int newCapacity) {
+    capacity = newCapacity;
+    maxWindow = Math.max(1, (int) (newCapacity * WINDOW_RATIO));
+    maxProtected = (int) ((newCapacity - maxWindow) * PROTECTED_RATIO);
+    sketch.ensureCapacity(newCapacity);
+  }
+
+  private void clearRegions() {
+    drainReadBuffer();
+    for (var region : new AccessOrder[]{window, probation, protectedSegment}) {
+      for (var node = region.head; node != null; node = node.next) {
+        node.region = null;
+      }
+      region.clear();
+    }
+    cache.clear();
+  }
+
+  private void drainReadBuffer() {
+    readBuffer.drainTo(this::onAccess);
+  }
+
+  private void onAccess(Node node) {
+    if (node.region == null) {
+      return; // evicted or invalidated since the read was recorded
+    }
+    sketch.increment(node.userId);
+    switch (node.region) {
+      case WINDOW:
+        window.moveToFirst(node);
+        break;
+      case PROBATION:
+        probation.remove(node);
+        node.region = Region.PROTECTED;
+        protectedSegment.addFirst(node);
+        if (protectedSegment.size > maxProtected) {
+          var demoted = protectedSegment.end;
+          protectedSegment.remove(demoted);
+          demoted.region = Region.PROBATION;
+          probation.addFirst(demoted);
+        }
+        break;
+      default:
+        protectedSegment.moveToFirst(node);
+    }
+  }
+
+  /**
+   * Moves the window overflow to probation and, if the cache is over capacity, evicts either the
+   * new candidate or the probation victim, whichever is used less often.
+   */
+  private UserAccount evict() {
+    Node candidate = null;
+    if (window.size > maxWindow) {
+      candidate = window.end;
+      window.remove(candidate);
+      candidate.region = Region.PROBATION;
+      probation.addFirst(candidate);
+    }
+    if (cache.size() <= capacity) {
+      return null;
+    }
+    var victim = probation.end != null ? probation.end
+        : protectedSegment.end != null ? protectedSegment.end : window.end;
+    var evicted = victim;
+    if (candidate != null && candidate != victim
+        && sketch.frequency(candidate.userId) <= sketch.frequency(victim.userId)) {
+      evicted = candidate;
+    }
+    LOGGER.info("# Cache is FULL! Removing {} from cache...", evicted.userId);
+    cache.remove(evicted.userId);
+    unlink(evicted);
+    return evicted.userAccount;
+  }
+
+  private void unlink(Node node) {
+    switch (node.region) {
+      case WINDOW:
+        window.remove(node);
+        break;
+      case PROBATION:
+        probation.remove(node);
+        break;
+      default:
+        protectedSegment.remove(node);
+    }
+    node.region = null;
+  }
+}
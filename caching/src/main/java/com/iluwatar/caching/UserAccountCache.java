@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.List;
+
+/**
+ * Thread-safe cache engine behind {@link CacheStore}. Implementations differ in the eviction
+ * policy they use to decide which user account has to leave the cache when it is full.
+ */
+public interface UserAccountCache {
+
+  /**
+   * Returns the cached user account, or null if it is not cached.
+   */
+  UserAccount get(String userId);
+
+  /**
+   * Caches the user account. Returns the user account that was evicted because of it, which may
+   * be the given one if the eviction policy refused to admit it, or null if nothing was evicted.
+   */
+  UserAccount set(String userId, UserAccount userAccount);
+
+  boolean contains(String userId);
+
+  /**
+   * Removes the user account from the cache.
+   */
+  void invalidate(String userId);
+
+  boolean isFull();
+
+  /**
+   * Removes every user account from the cache.
+   */
+  void clear();
+
+  /**
+   * Returns cache data in list form.
+   */
+  List<UserAccount> getCacheDataInListForm();
+
+  /**
+   * Changes the capacity; the cache is cleared when it shrinks.
+   */
+  void setCapacity(int newCapacity);
+}
@@ -0,0 +1,346 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background writer for the write-behind policy. Dirty user accounts evicted from the cache are
+ * queued here instead of being written on the caller's thread. A single flusher thread collects
+ * them into batches and hands every batch to {@link DbManager#upsertDb(java.util.List)} once
+ * either the batch size is reached or the oldest queued write has waited for the maximum delay.
+ *
+ * <p>Repeated writes to the same user are coalesced, only the latest version is written. The
+ * queue is bounded, the batch being written included: when it is full, callers block until the
+ * flusher has written the next batch, which keeps memory use in check if the DB can not keep up.
+ * Writes that failed are re-queued (unless a newer version is already queued) and retried with the
+ * next batch, after a delay that doubles with every failure up to {@value #MAX_RETRY_DELAY_MILLIS}
+ * ms.
+ *
+ * <p>{@link #flush(long, TimeUnit)} and {@link #close(long, TimeUnit)} give up after a timeout,
+ * so they do not hang while the DB is down. Closing drops the writes it could not make.
+ */
+public class WriteBehindFlusher implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindFlusher.class);
+
+  /**
+   * Timeout of {@link #flush()} and {@link #close()}.
+   */
+  public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+  static final long MIN_RETRY_DELAY_MILLIS = 10;
+
+  static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+
+  private final int batchSize;
+  private final long maxDelayNanos;
+  private final int queueCapacity;
+  private final Consumer<List<UserAccount>> writer;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final Condition batchReady = lock.newCondition();
+  private final Condition persisted = lock.newCondition();
+
+  private LinkedHashMap<String, UserAccount> pending = new LinkedHashMap<>();
+  private Map<String, UserAccount> inFlight = Map.of();
+  private long oldestPendingNanos;
+  private long enqueuedCount;
+  private long persistedCount;
+  private long flushRequestedCount;
+  private long retryDelayNanos;
+  private long retryAtNanos;
+  private boolean running = true;
+  private boolean abandoned;
+
+  private final Thread worker;
+
+  /**
+   * Creates and starts the flusher.
+   *
+   * @param batchSize     number of queued users that triggers a write
+   * @param maxDelay      longest time a queued write waits before it is written
+   * @param unit          unit of the max delay
+   * @param queueCapacity maximum number of distinct users waiting to be written
+   */
+  public WriteBehindFlusher(int batchSize, long maxDelay, TimeUnit unit, int queueCapacity) {
+    this(batchSize, maxDelay, unit, queueCapacity, DbManager::upsertDb);
+  }
+
+  WriteBehindFlusher(int batchSize, long maxDelay, TimeUnit unit, int queueCapacity,
+      Consumer<List<UserAccount>> writer) {
+    if (batchSize < 1 || queueCapacity < batchSize) {
+      throw new IllegalArgumentException("Invalid batch size or queue capacity");
+    }
+    this.batchSize = batchSize;
+    this.maxDelayNanos = unit.toNanos(maxDelay);
+    this.queueCapacity = queueCapacity;
+    this.writer = writer;
+    this.worker = new Thread(this::runFlusher, "write-behind-flusher");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * Queues a dirty user account, blocking while the queue is full.
+   */
+  public void enqueue(UserAccount userAccount) {
+    var userId = userAccount.getUserId();
+    lock.lock();
+    try {
+      while (running && !pending.containsKey(userId)
+          && pending.size() + inFlight.size() >= queueCapacity) {
+        notFull.awaitUninterruptibly();
+      }
+      if (!running) {
+        throw new IllegalStateException("Flusher has been closed");
+      }
+      if (pending.isEmpty()) {
+        oldestPendingNanos = System.nanoTime();
+      }
+      pending.put(userId, userAccount);
+      enqueuedCount++;
+      if (pending.size() >= batchSize) {
+        batchReady.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the queued or currently written version of the user, or null if there is none. Reads
+   * that miss the cache must look here first, the DB may not have seen the latest write yet.
+   */
+  public UserAccount getPending(String userId) {
+    lock.lock();
+    try {
+      var userAccount = pending.get(userId);
+      return userAccount != null ? userAccount : inFlight.get(userId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Blocks until every write queued before this call has been written to the DB, for at most
+   * {@value #DEFAULT_TIMEOUT_MILLIS} ms.
+   *
+   * @return false if the writes were not all made in time
+   */
+  public boolean flush() {
+    return flush(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Blocks until every write queued before this call has been written to the DB, or the timeout
+   * is over.
+   *
+   * @param timeout longest time to wait
+   * @param unit    unit of the timeout
+   * @return false if the writes were not all made in time
+   */
+  public boolean flush(long timeout, TimeUnit unit) {
+    var remaining = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      var target = enqueuedCount;
+      flushRequestedCount = Math.max(flushRequestedCount, target);
+      batchReady.signal();
+      while (persistedCount < target) {
+        if (remaining <= 0) {
+          return false;
+        }
+        try {
+          remaining = persisted.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of distinct users currently waiting to be written.
+   */
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes everything that is still queued and stops the flusher thread, giving up after
+   * {@value #DEFAULT_TIMEOUT_MILLIS} ms.
+   */
+  @Override
+  public void close() {
+    close(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Writes everything that is still queued and stops the flusher thread. The writes not made
+   * before the timeout are dropped.
+   *
+   * @param timeout longest time to wait
+   * @param unit    unit of the timeout
+   * @return false if writes were dropped
+   */
+  public boolean close(long timeout, TimeUnit unit) {
+    var deadline = System.nanoTime() + unit.toNanos(timeout);
+    var flushed = flush(timeout, unit);
+    lock.lock();
+    try {
+      running = false;
+      if (!flushed) {
+        abandoned = true;
+        LOGGER.error("# Giving up, {} user accounts were not written to DB",
+            pending.size() + inFlight.size());
+        pending = new LinkedHashMap<>();
+      }
+      batchReady.signal();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      var remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      worker.join(Math.max(1, remainingMillis));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return flushed;
+  }
+
+  private void runFlusher() {
+    while (true) {
+      Map<String, UserAccount> batch;
+      long batchEnd;
+      lock.lock();
+      try {
+        if (!awaitBatch()) {
+          return;
+        }
+        batch = pending;
+        batchEnd = enqueuedCount;
+        pending = new LinkedHashMap<>();
+        inFlight = batch;
+      } finally {
+        lock.unlock();
+      }
+      var written = write(batch);
+      lock.lock();
+      try {
+        inFlight = Map.of();
+        if (written) {
+          persistedCount = batchEnd;
+          retryDelayNanos = 0;
+          persisted.signalAll();
+        } else if (!abandoned) {
+          requeue(batch);
+        }
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Waits until a batch should be written. Returns false when the flusher has been closed and
+   * there is nothing left to write.
+   */
+  private boolean awaitBatch() {
+    while (true) {
+      if (abandoned || (pending.isEmpty() && !running)) {
+        return false;
+      }
+      if (pending.isEmpty()) {
+        batchReady.awaitUninterruptibly();
+        continue;
+      }
+      long remaining;
+      if (retryDelayNanos > 0) {
+        // after a failure nothing but the end of the delay triggers the retry
+        remaining = retryAtNanos - System.nanoTime();
+      } else if (pending.size() >= batchSize || flushRequestedCount > persistedCount
+          || !running) {
+        return true;
+      } else {
+        remaining = oldestPendingNanos + maxDelayNanos - System.nanoTime();
+      }
+      if (remaining <= 0) {
+        return true;
+      }
+      try {
+        batchReady.awaitNanos(remaining);
+      } catch (InterruptedException e) {
+        LOGGER.debug("# Flusher interrupted, it is only stopped through close()");
+      }
+    }
+  }
+
+  private boolean write(Map<String, UserAccount> batch) {
+    try {
+      LOGGER.info("# Writing batch of {} user accounts to DB...", batch.size());
+      writer.accept(new ArrayList<>(batch.values()));
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.error("# Failed to write batch, retrying with the next one", e);
+      return false;
+    }
+  }
+
+  /*
+   * Puts the failed batch back and schedules the retry. The batch counted against the capacity
+   * while it was written, so the queue stays within it.
+   */
+  private void requeue(Map<String, UserAccount> batch) {
+    var merged = new LinkedHashMap<>(batch);
+    merged.putAll(pending); // newer versions queued in the meantime win
+    pending = merged;
+    oldestPendingNanos = System.nanoTime();
+    retryDelayNanos = retryDelayNanos == 0
+        ? TimeUnit.MILLISECONDS.toNanos(MIN_RETRY_DELAY_MILLIS)
+        : Math.min(retryDelayNanos * 2, TimeUnit.MILLISECONDS.toNanos(MAX_RETRY_DELAY_MILLIS));
+    retryAtNanos = oldestPendingNanos + retryDelayNanos;
+  }
+}
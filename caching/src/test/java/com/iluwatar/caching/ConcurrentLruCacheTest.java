@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ConcurrentLruCache}.
+ */
+public class ConcurrentLruCacheTest {
+
+  private static UserAccount account(String userId) {
+    return new UserAccount(userId, "name" + userId, "info" + userId);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    var cache = new ConcurrentLruCache(3);
+    var first = account("1");
+    assertNull(cache.set("1", first));
+    assertNull(cache.set("2", account("2")));
+    assertNull(cache.set("3", account("3")));
+    assertTrue(cache.isFull());
+    assertSame(first, cache.getLruData());
+
+    // reading "1" makes "2" the least recently used entry
+    assertSame(first, cache.get("1"));
+    var second = cache.getLruData();
+    assertEquals("2", second.getUserId());
+
+    assertSame(second, cache.set("4", account("4")));
+    assertFalse(cache.contains("2"));
+    assertEquals(List.of("4", "1", "3"), userIds(cache.getCacheDataInListForm()));
+  }
+
+  @Test
+  public void testInvalidateAndClear() {
+    var cache = new ConcurrentLruCache(2);
+    cache.set("1", account("1"));
+    cache.set("2", account("2"));
+    cache.invalidate("1");
+    assertFalse(cache.contains("1"));
+    assertEquals("2", cache.getLruData().getUserId());
+
+    cache.clear();
+    assertNull(cache.getLruData());
+    assertTrue(cache.getCacheDataInListForm().isEmpty());
+  }
+
+  @Test
+  public void testConcurrentAccessKeepsCapacity() throws Exception {
+    var capacity = 64;
+    var cache = new ConcurrentLruCache(capacity);
+    var executor = Executors.newFixedThreadPool(8);
+    for (var t = 0; t < 8; t++) {
+      executor.execute(() -> {
+        for (var i = 0; i < 10_000; i++) {
+          var userId = String.valueOf(i % 256);
+          if (cache.get(userId) == null) {
+            cache.set(userId, account(userId));
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    var content = cache.getCacheDataInListForm();
+    assertEquals(capacity, content.size());
+    assertEquals(capacity, content.stream().map(UserAccount::getUserId).distinct().count());
+    assertSame(content.get(capacity - 1), cache.getLruData());
+  }
+
+  private static List<String> userIds(List<UserAccount> accounts) {
+    return accounts.stream().map(UserAccount::getUserId).collect(Collectors.toList());
+  }
+}
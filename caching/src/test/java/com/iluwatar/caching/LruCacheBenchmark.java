@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the single-threaded {@link LruCache} (made safe by a global monitor, which is the only
+ * way to share it between threads) with {@link ConcurrentLruCache} on a read-mostly workload of 90%
+ * gets and 10% sets over a key space twice the capacity of the cache.
+ *
+ * <p>Run {@link #main(String[])} to execute the benchmark with 1, 4 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LruCacheBenchmark {
+
+  private static final int CAPACITY = 1 << 14;
+  private static final int KEY_SPACE = CAPACITY * 2;
+
+  private String[] keys;
+  private UserAccount[] accounts;
+  private LruCache lruCache;
+  private ConcurrentLruCache concurrentLruCache;
+
+  /**
+   * Fills both caches with the same data.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    keys = new String[KEY_SPACE];
+    accounts = new UserAccount[KEY_SPACE];
+    lruCache = new LruCache(CAPACITY);
+    concurrentLruCache = new ConcurrentLruCache(CAPACITY);
+    for (var i = 0; i < KEY_SPACE; i++) {
+      keys[i] = String.valueOf(i);
+      accounts[i] = new UserAccount(keys[i], "user" + i, "benchmark");
+    }
+    for (var i = 0; i < CAPACITY; i++) {
+      lruCache.set(keys[i], accounts[i]);
+      concurrentLruCache.set(keys[i], accounts[i]);
+    }
+  }
+
+  /**
+   * Single-threaded cache behind a global lock.
+   */
+  @Benchmark
+  public UserAccount synchronizedLruCache() {
+    var random = ThreadLocalRandom.current();
+    var index = random.nextInt(KEY_SPACE);
+    synchronized (lruCache) {
+      if (random.nextInt(10) == 0) {
+        lruCache.set(keys[index], accounts[index]);
+        return null;
+      }
+      return lruCache.get(keys[index]);
+    }
+  }
+
+  /**
+   * Lock-free reads with buffered recency updates.
+   */
+  @Benchmark
+  public UserAccount concurrentLruCache() {
+    var random = ThreadLocalRandom.current();
+    var index = random.nextInt(KEY_SPACE);
+    if (random.nextInt(10) == 0) {
+      return concurrentLruCache.set(keys[index], accounts[index]);
+    }
+    return concurrentLruCache.get(keys[index]);
+  }
+
+  /**
+   * Runs the benchmark once for every thread count.
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (var threads : new int[]{1, 4, 16}) {
+      var options = new OptionsBuilder()
+          .include(LruCacheBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link TinyLfuCache} and the hit ratio statistics of {@link CacheStore}.
+ */
+public class TinyLfuCacheTest {
+
+  private static final int CAPACITY = 100;
+
+  @BeforeEach
+  public void setUp() {
+    AppManager.initDb(false);
+    for (var i = 0; i < 10_000; i++) {
+      DbManager.writeToDb(account(i));
+    }
+  }
+
+  @AfterEach
+  public void tearDown() {
+    AppManager.initEvictionPolicy(EvictionPolicy.LRU);
+  }
+
+  private static UserAccount account(int id) {
+    return new UserAccount(String.valueOf(id), "name" + id, "info" + id);
+  }
+
+  @Test
+  public void testKeepsFrequentlyUsedThroughScan() {
+    var cache = new TinyLfuCache(10);
+    for (var i = 0; i < 9; i++) {
+      cache.set(String.valueOf(i), account(i));
+      for (var read = 0; read < 5; read++) {
+        cache.get(String.valueOf(i));
+      }
+    }
+    cache.set("9", account(9));
+    assertTrue(cache.isFull());
+
+    // one-off users only churn the window, each of them is rejected when it leaves it
+    for (var i = 100; i < 200; i++) {
+      var evicted = cache.set(String.valueOf(i), account(i));
+      assertEquals(String.valueOf(i == 100 ? 9 : i - 1), evicted.getUserId());
+    }
+    for (var i = 0; i < 9; i++) {
+      assertTrue(cache.contains(String.valueOf(i)));
+    }
+    assertEquals(10, cache.getCacheDataInListForm().size());
+  }
+
+  @Test
+  public void testInvalidateAndClear() {
+    var cache = new TinyLfuCache(10);
+    cache.set("1", account(1));
+    cache.set("2", account(2));
+    cache.invalidate("1");
+    assertFalse(cache.contains("1"));
+    assertEquals(1, cache.getCacheDataInListForm().size());
+    cache.clear();
+    assertTrue(cache.getCacheDataInListForm().isEmpty());
+  }
+
+  @Test
+  public void testScanResistantHitRatio() {
+    var lruHitRatio = replayTrace(EvictionPolicy.LRU);
+    var tinyLfuHitRatio = replayTrace(EvictionPolicy.TINY_LFU);
+    assertTrue(tinyLfuHitRatio > lruHitRatio,
+        "TinyLFU " + tinyLfuHitRatio + " should beat LRU " + lruHitRatio);
+  }
+
+  /**
+   * Hot set of 50 users, each lookup followed by a scan of one-off users that is bigger than the
+   * cache.
+   */
+  private static double replayTrace(EvictionPolicy policy) {
+    AppManager.initCacheCapacity(CAPACITY);
+    AppManager.initEvictionPolicy(policy);
+    AppManager.initCachingPolicy(CachingPolicy.THROUGH);
+    CacheStore.resetStats();
+    var scanned = 1000;
+    for (var round = 0; round < 20; round++) {
+      for (var hot = 0; hot < 50; hot++) {
+        AppManager.find(String.valueOf(hot));
+      }
+      for (var scan = 0; scan < 2 * CAPACITY; scan++) {
+        AppManager.find(String.valueOf(scanned++));
+      }
+    }
+    var stats = CacheStore.getStats();
+    assertEquals(20 * (50 + 2 * CAPACITY), stats.getRequestCount());
+    return stats.getHitRatio();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Latency distribution (including p99) of {@link CacheStore#writeBehind(UserAccount)} with the
+ * evicted LRU data written on the caller's thread versus queued in the {@link WriteBehindFlusher}.
+ * The key space is ten times the cache capacity, so most calls evict an entry.
+ *
+ * <p>Uses the virtual DB by default; set the useMongoDb param to true to measure against a local
+ * MongoDB instance, where the round trip saved on the caller's thread is much larger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBehindBenchmark {
+
+  private static final int CAPACITY = 1000;
+  private static final int KEY_SPACE = CAPACITY * 10;
+
+  @Param({"false", "true"})
+  public boolean asyncWriteBack;
+
+  @Param({"false"})
+  public boolean useMongoDb;
+
+  private UserAccount[] accounts;
+
+  /**
+   * Sets up the DB, the cache and, for the async case, the flusher.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    AppManager.initDb(useMongoDb);
+    AppManager.initCacheCapacity(CAPACITY);
+    AppManager.initCachingPolicy(CachingPolicy.BEHIND);
+    if (asyncWriteBack) {
+      AppManager.initWriteBehindFlusher(256, 10, 64 * 1024);
+    }
+    accounts = new UserAccount[KEY_SPACE];
+    for (var i = 0; i < KEY_SPACE; i++) {
+      accounts[i] = new UserAccount(String.valueOf(i), "user" + i, "benchmark");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    CacheStore.stopWriteBehindFlusher();
+  }
+
+  @Benchmark
+  public void writeBehind() {
+    CacheStore.writeBehind(accounts[ThreadLocalRandom.current().nextInt(KEY_SPACE)]);
+  }
+
+  /**
+   * Runs the benchmark with 1 and 4 writer threads.
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (var threads : new int[]{1, 4}) {
+      var options = new OptionsBuilder()
+          .include(WriteBehindBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link WriteBehindFlusher}.
+ */
+public class WriteBehindFlusherTest {
+
+  @BeforeEach
+  public void setUp() {
+    AppManager.initDb(false);
+  }
+
+  @Test
+  public void testFlushCoalescesWritesToTheSameUser() {
+    try (var flusher = new WriteBehindFlusher(100, 1, TimeUnit.HOURS, 100)) {
+      var older = new UserAccount("001", "John", "older");
+      var newer = new UserAccount("001", "John", "newer");
+      flusher.enqueue(older);
+      flusher.enqueue(newer);
+      assertEquals(1, flusher.getQueueSize());
+      assertSame(newer, flusher.getPending("001"));
+      assertNull(DbManager.readFromDb("001"));
+
+      flusher.flush();
+      assertEquals(0, flusher.getQueueSize());
+      assertNull(flusher.getPending("001"));
+      assertSame(newer, DbManager.readFromDb("001"));
+    }
+  }
+
+  @Test
+  public void testBatchSizeTriggersWrite() throws Exception {
+    try (var flusher = new WriteBehindFlusher(2, 1, TimeUnit.HOURS, 4)) {
+      flusher.enqueue(new UserAccount("001", "John", "info"));
+      flusher.enqueue(new UserAccount("002", "Jane", "info"));
+      for (var i = 0; i < 100 && DbManager.readFromDb("002") == null; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals("Jane", DbManager.readFromDb("002").getUserName());
+    }
+  }
+
+  @Test
+  public void testCacheStoreReadsQueuedData() {
+    AppManager.initCacheCapacity(3);
+    AppManager.initCachingPolicy(CachingPolicy.BEHIND);
+    AppManager.initWriteBehindFlusher(100, TimeUnit.HOURS.toMillis(1), 100);
+    try {
+      for (var i = 1; i <= 4; i++) {
+        AppManager.save(new UserAccount("00" + i, "user" + i, "info"));
+      }
+      // "001" got evicted and is only queued, it still has to be found
+      assertNull(DbManager.readFromDb("001"));
+      assertEquals("user1", AppManager.find("001").getUserName());
+
+      CacheStore.flushCache();
+      for (var i = 1; i <= 4; i++) {
+        assertEquals("user" + i, DbManager.readFromDb("00" + i).getUserName());
+      }
+    } finally {
+      CacheStore.stopWriteBehindFlusher();
+    }
+  }
+
+  @Test
+  public void testDbDownBacksOffAndKeepsCapacity() throws Exception {
+    var attempts = new AtomicInteger();
+    var dbDown = new AtomicBoolean(true);
+    Consumer<List<UserAccount>> writer = userAccounts -> {
+      attempts.incrementAndGet();
+      if (dbDown.get()) {
+        throw new IllegalStateException("DB down");
+      }
+      DbManager.upsertDb(userAccounts);
+    };
+    try (var flusher = new WriteBehindFlusher(2, 1, TimeUnit.HOURS, 4, writer)) {
+      for (var i = 1; i <= 4; i++) {
+        flusher.enqueue(new UserAccount("00" + i, "user" + i, "info"));
+      }
+      var blocked = CompletableFuture.runAsync(
+          () -> flusher.enqueue(new UserAccount("005", "user5", "info")));
+
+      assertFalse(flusher.flush(300, TimeUnit.MILLISECONDS));
+      // a hot loop would have retried thousands of times
+      assertTrue(attempts.get() < 20, "attempts: " + attempts.get());
+      assertFalse(blocked.isDone());
+      assertTrue(flusher.getQueueSize() <= 4);
+
+      dbDown.set(false);
+      blocked.get(5, TimeUnit.SECONDS);
+      assertTrue(flusher.flush(5, TimeUnit.SECONDS));
+      for (var i = 1; i <= 5; i++) {
+        assertEquals("user" + i, DbManager.readFromDb("00" + i).getUserName());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseGivesUpWhenDbStaysDown() {
+    var flusher = new WriteBehindFlusher(2, 1, TimeUnit.HOURS, 4, userAccounts -> {
+      throw new IllegalStateException("DB down");
+    });
+    flusher.enqueue(new UserAccount("001", "John", "info"));
+    var start = System.nanoTime();
+    assertFalse(flusher.close(200, TimeUnit.MILLISECONDS));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    assertNull(DbManager.readFromDb("001"));
+  }
+}
@@ -74,6 +74,7 @@ public class App {
       LOGGER.info(obj.localResourceResponse());
       LOGGER.info(obj.remoteResourceResponse(circuitBreaker, serverStartTime));
       LOGGER.info(circuitBreaker.getState());
+      LOGGER.info(obj.remoteResourceMetrics(circuitBreaker).toString());
       try {
         Thread.sleep(5 * 1000);
       } catch (InterruptedException e) {
@@ -23,69 +23,124 @@
 
 package com.iluwatar.circuitbreaker;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * The circuit breaker class with all configurations.
+ *
+ * <p>The breaker decides on the failure rate of the last calls rather than on an absolute number
+ * of failures. The outcomes of the last calls are kept in an {@link OutcomeWindow}, and once it
+ * holds at least the minimum number of calls the breaker opens when the percentage of failed calls
+ * or of slow calls reaches its threshold. After the open duration the next call moves the breaker
+ * to half-open, where only a limited number of trial calls are let through. When all of them have
+ * completed the breaker closes again, or opens again if too many of them failed or were slow.
+ *
+ * <p>The breaker is thread safe without taking any lock. Its state is a single {@code long} that
+ * holds the state, the trial calls of the half-open state, when the state was entered and a
+ * generation that changes with every transition. Transitions and the trial calls are counted with
+ * a CAS on that word, and the outcome of a call permitted in an earlier generation is ignored.
+ *
+ * <p>Every call runs on the executor of the breaker and is given up once the timeout has passed:
+ * the future of the call is completed with a {@link TimeoutException}, the call is counted as
+ * failed and the thread running it is interrupted. The outcome of a call is recorded before its
+ * future completes, so the state and the metrics include the call once it has returned.
  */
 public class CircuitBreaker {
-  private final long timeout;
-  private final long retryTimePeriod;
-  long lastFailureTime;
-  int failureCount;
-  private final int failureThreshold;
-  private State state;
-  private final long futureTime = 1000 * 1000 * 1000 * 1000;
+
+  private static final long NOT_PERMITTED = -1;
+
+  // layout of the state word
+  private static final int STATE_MASK = 0x3;
+  private static final int COUNTER_BITS = 6;
+  private static final int COUNTER_MASK = (1 << COUNTER_BITS) - 1;
+  private static final int PERMITS_SHIFT = 2;
+  private static final int COMPLETED_SHIFT = PERMITS_SHIFT + COUNTER_BITS;
+  private static final int FAILURES_SHIFT = COMPLETED_SHIFT + COUNTER_BITS;
+  private static final int SLOW_SHIFT = FAILURES_SHIFT + COUNTER_BITS;
+  private static final int GENERATION_SHIFT = SLOW_SHIFT + COUNTER_BITS;
+  private static final int SINCE_SHIFT = 32;
+
+  /**
+   * The most trial calls the half-open state can count.
+   */
+  static final int MAX_PERMITTED_CALLS_IN_HALF_OPEN = COUNTER_MASK;
+
+  private static final State[] STATES = State.values();
+
+  private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(
+      new DaemonThreadFactory());
+
+  private final long timeoutNanos;
+  private final int minimumCalls;
+  private final float failureRateThreshold;
+  private final long slowCallNanos;
+  private final float slowCallRateThreshold;
+  private final int openMillis;
+  private final int permittedCallsInHalfOpen;
+  private final ExecutorService executor;
+
+  private final long createdNanos = System.nanoTime();
+  private final AtomicLong state;
+  private final OutcomeWindow window;
+  private final LongAdder successfulCalls = new LongAdder();
+  private final LongAdder failedCalls = new LongAdder();
+  private final LongAdder timedOutCalls = new LongAdder();
+  private final LongAdder notPermittedCalls = new LongAdder();
 
   /**
-   * Constructor to create an instance of Circuit Breaker.
+   * Constructor to create an instance of Circuit Breaker that opens after more than
+   * failureThreshold failed calls in a row, and tries a single call in half-open.
    *
-   * @param timeout          Timeout for the API request. Not necessary for this simple example
+   * @param timeout          Timeout for the API request in milliseconds
    * @param failureThreshold Number of failures we receive from the depended service before changing
    *                         state to 'OPEN'
-   * @param retryTimePeriod  Time period after which a new request is made to remote service for
-   *                         status check.
+   * @param retryTimePeriod  Time period in nanoseconds after which a new request is made to remote
+   *                         service for status check.
    */
   CircuitBreaker(long timeout, int failureThreshold, long retryTimePeriod) {
+    this(new Builder()
+        .withTimeout(timeout, TimeUnit.MILLISECONDS)
+        .withWindowSize(failureThreshold + 1)
+        .withMinimumCalls(failureThreshold + 1)
+        .withFailureRateThreshold(100)
+        .withOpenDuration(retryTimePeriod, TimeUnit.NANOSECONDS)
+        .withPermittedCallsInHalfOpen(1));
+  }
+
+  private CircuitBreaker(Builder builder) {
+    this.timeoutNanos = builder.timeoutNanos;
+    this.minimumCalls = builder.minimumCalls;
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallNanos = builder.slowCallNanos;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.openMillis = builder.openMillis;
+    this.permittedCallsInHalfOpen = builder.permittedCallsInHalfOpen;
+    this.executor = builder.executor;
+    this.window = new OutcomeWindow(builder.windowSize);
     // We start in a closed state hoping that everything is fine
-    this.state = State.CLOSED;
-    this.failureThreshold = failureThreshold;
-    // Timeout for the API request.
-    // Used to break the calls made to remote resource if it exceeds the limit
-    this.timeout = timeout;
-    this.retryTimePeriod = retryTimePeriod;
-    //An absurd amount of time in future which basically indicates the last failure never happened
-    this.lastFailureTime = System.nanoTime() + futureTime;
-    this.failureCount = 0;
-  }
-
-  //Reset everything to defaults
-  private void reset() {
-    this.failureCount = 0;
-    this.lastFailureTime = System.nanoTime() + futureTime;
-    this.state = State.CLOSED;
-  }
-
-  private void recordFailure() {
-    failureCount = failureCount + 1;
-    this.lastFailureTime = System.nanoTime();
-  }
-
-  protected void setState() {
-    if (failureCount > failureThreshold) { //Then something is wrong with remote service
-      if ((System.nanoTime() - lastFailureTime) > retryTimePeriod) {
-        //We have waited long enough and should try checking if service is up
-        state = State.HALF_OPEN;
-      } else {
-        //Service would still probably be down
-        state = State.OPEN;
-      }
-    } else {
-      //Everything is working fine
-      state = State.CLOSED;
-    }
+    this.state = new AtomicLong(word(State.CLOSED, 0, 0));
   }
 
+  /**
+   * Returns the state the breaker is in. An open breaker only moves to half-open when a call
+   * arrives after the open duration.
+   */
   public String getState() {
-    return state.name();
+    return stateOf(state.get()).name();
   }
 
   /**
@@ -95,7 +150,19 @@ public class CircuitBreaker {
    * @param state State at which circuit is in
    */
   public void setStateForBypass(State state) {
-    this.state = state;
+    if (state == State.CLOSED) {
+      window.reset();
+    }
+    this.state.getAndUpdate(current -> transition(current, state));
+  }
+
+  /**
+   * Returns the metrics of the breaker, read without taking any lock.
+   */
+  public CircuitBreakerMetrics getMetrics() {
+    return new CircuitBreakerMetrics(stateOf(state.get()), window.getCalls(),
+        window.getFailures(), window.getSlowCalls(), successfulCalls.sum(), failedCalls.sum(),
+        timedOutCalls.sum(), notPermittedCalls.sum());
   }
 
   /**
@@ -108,30 +175,393 @@ public class CircuitBreaker {
    * @return Value from the remote resource, stale response or a custom exception
    */
   public String call(String serviceToCall, long serverStartTime) throws Exception {
-    setState();
-    if (state == State.OPEN) {
-      // return  cached response if no the circuit is in OPEN state
+    try {
+      return call(() -> {
+        if (serviceToCall.equals("delayedService")) {
+          var delayedService = new DelayedService(20);
+          var response = delayedService.response(serverStartTime);
+          if (response.split(" ")[3].equals("working")) {
+            return response;
+          }
+          throw new Exception("Remote service not responding");
+        }
+        throw new Exception("Unknown Service Name");
+      });
+    } catch (CallNotPermittedException e) {
+      // return cached response if the circuit does not let the call through
       return "This is stale response from API";
+    }
+  }
+
+  /**
+   * Calls the service through the breaker and waits for the result. Fails with a {@link
+   * CallNotPermittedException} if the breaker does not let the call through, and with a {@link
+   * TimeoutException} if the call did not complete within the timeout.
+   *
+   * @param callable the call of the service
+   * @return the result of the call
+   * @throws Exception the rejection, the timeout or the exception thrown by the call
+   */
+  public <T> T call(Callable<T> callable) throws Exception {
+    var future = callAsync(callable);
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Calls the service through the breaker on its executor. The returned future fails with a
+   * {@link CallNotPermittedException} if the breaker does not let the call through, and with a
+   * {@link TimeoutException} if the call does not complete within the timeout. The thread running
+   * the call is interrupted when the call times out or the returned future is cancelled.
+   *
+   * @param callable the call of the service
+   * @return the future result of the call
+   */
+  public <T> CompletableFuture<T> callAsync(Callable<T> callable) {
+    var permission = acquirePermission();
+    if (permission == NOT_PERMITTED) {
+      return CompletableFuture.failedFuture(new CallNotPermittedException(stateOf(state.get())));
+    }
+    var result = new CompletableFuture<T>();
+    var returned = new CompletableFuture<T>();
+    var start = System.nanoTime();
+    Future<?> task;
+    try {
+      task = executor.submit(() -> {
+        try {
+          result.complete(callable.call());
+        } catch (Throwable e) {
+          result.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      releasePermission(permission);
+      return CompletableFuture.failedFuture(e);
+    }
+    // the call is either recorded when it completes or given back when it is cancelled,
+    // whichever comes first
+    var settled = new AtomicBoolean();
+    result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+      try {
+        if (error instanceof TimeoutException) {
+          task.cancel(true);
+        }
+        if (settled.compareAndSet(false, true)) {
+          record(permission, error, System.nanoTime() - start);
+        }
+      } finally {
+        // completed only now, so the caller sees the call recorded
+        if (error == null) {
+          returned.complete(value);
+        } else {
+          returned.completeExceptionally(error);
+        }
+      }
+    });
+    returned.whenComplete((value, error) -> {
+      if (error instanceof CancellationException) {
+        task.cancel(true);
+        if (settled.compareAndSet(false, true)) {
+          releasePermission(permission);
+        }
+        // stops the timeout, the outcome of the call is ignored now
+        result.cancel(true);
+      }
+    });
+    return returned;
+  }
+
+  private void record(long permission, Throwable error, long elapsedNanos) {
+    if (error instanceof TimeoutException) {
+      timedOutCalls.increment();
+    }
+    if (error == null) {
+      successfulCalls.increment();
     } else {
-      // Make the API request if the circuit is not OPEN
-      if (serviceToCall.equals("delayedService")) {
-        var delayedService = new DelayedService(20);
-        var response = delayedService.response(serverStartTime);
-        //In a real application, this would be run in a thread and the timeout
-        //parameter of the circuit breaker would be utilized to know if service
-        //is working. Here, we simulate that based on server response itself
-        if (response.split(" ")[3].equals("working")) {
-          // Yay!! the API responded fine. Let's reset everything.
-          reset();
-          return response;
+      failedCalls.increment();
+    }
+    onResult(permission, error != null, elapsedNanos >= slowCallNanos);
+  }
+
+  /**
+   * Returns the state word the call was permitted in, or {@link #NOT_PERMITTED}. Moves an open
+   * breaker to half-open once the open duration has passed.
+   */
+  private long acquirePermission() {
+    while (true) {
+      var current = state.get();
+      switch (stateOf(current)) {
+        case CLOSED:
+          return current;
+        case OPEN:
+          if (!openDurationPassed(current)) {
+            notPermittedCalls.increment();
+            return NOT_PERMITTED;
+          }
+          state.compareAndSet(current, transition(current, State.HALF_OPEN));
+          break;
+        default:
+          if (counter(current, PERMITS_SHIFT) >= permittedCallsInHalfOpen) {
+            notPermittedCalls.increment();
+            return NOT_PERMITTED;
+          }
+          var next = current + (1L << PERMITS_SHIFT);
+          if (state.compareAndSet(current, next)) {
+            return next;
+          }
+      }
+    }
+  }
+
+  /**
+   * Gives a trial call of the half-open state back if the call was not made after all.
+   */
+  private void releasePermission(long permission) {
+    while (true) {
+      var current = state.get();
+      if (stateOf(current) != State.HALF_OPEN || !sameGeneration(current, permission)
+          || state.compareAndSet(current, current - (1L << PERMITS_SHIFT))) {
+        return;
+      }
+    }
+  }
+
+  private void onResult(long permission, boolean failure, boolean slow) {
+    while (true) {
+      var current = state.get();
+      if (!sameGeneration(current, permission)) {
+        // the breaker has changed its state since the call was permitted
+        return;
+      }
+      if (stateOf(current) == State.CLOSED) {
+        window.record(failure, slow);
+        var calls = window.getCalls();
+        if (calls >= minimumCalls
+            && (exceeds(window.getFailures(), calls, failureRateThreshold)
+            || exceeds(window.getSlowCalls(), calls, slowCallRateThreshold))) {
+          state.compareAndSet(current, transition(current, State.OPEN));
+        }
+        return;
+      }
+      var next = current + (1L << COMPLETED_SHIFT)
+          + (failure ? 1L << FAILURES_SHIFT : 0) + (slow ? 1L << SLOW_SHIFT : 0);
+      if (counter(next, COMPLETED_SHIFT) == permittedCallsInHalfOpen) {
+        var failures = counter(next, FAILURES_SHIFT);
+        var slowCalls = counter(next, SLOW_SHIFT);
+        if (exceeds(failures, permittedCallsInHalfOpen, failureRateThreshold)
+            || exceeds(slowCalls, permittedCallsInHalfOpen, slowCallRateThreshold)) {
+          next = transition(current, State.OPEN);
         } else {
-          // Uh-oh!! the call still failed. Let's update that in our records.
-          recordFailure();
-          throw new Exception("Remote service not responding");
+          // nobody records into the window while the breaker is half-open
+          window.reset();
+          next = transition(current, State.CLOSED);
         }
-      } else {
-        throw new Exception("Unknown Service Name");
       }
+      if (state.compareAndSet(current, next)) {
+        return;
+      }
+    }
+  }
+
+  private static boolean exceeds(int calls, int total, float threshold) {
+    return calls * 100f >= threshold * total;
+  }
+
+  private boolean openDurationPassed(long word) {
+    // both times are truncated to milliseconds, so only more than openMillis is long enough
+    var elapsed = now() - since(word);
+    // negative once the clock has wrapped around, after more than 24 days
+    return elapsed < 0 || elapsed > openMillis;
+  }
+
+  /**
+   * Milliseconds since the breaker was created, wrapping around after 24 days.
+   */
+  private int now() {
+    return (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos);
+  }
+
+  private long transition(long word, State to) {
+    return word(to, now(), (generation(word) + 1) & COUNTER_MASK);
+  }
+
+  private static long word(State state, int since, int generation) {
+    return (long) since << SINCE_SHIFT | (long) generation << GENERATION_SHIFT | state.ordinal();
+  }
+
+  private static State stateOf(long word) {
+    return STATES[(int) word & STATE_MASK];
+  }
+
+  private static int counter(long word, int shift) {
+    return (int) (word >>> shift) & COUNTER_MASK;
+  }
+
+  private static int generation(long word) {
+    return counter(word, GENERATION_SHIFT);
+  }
+
+  private static int since(long word) {
+    return (int) (word >>> SINCE_SHIFT);
+  }
+
+  private static boolean sameGeneration(long word, long other) {
+    return generation(word) == generation(other) && since(word) == since(other);
+  }
+
+  /**
+   * Names the threads of the default executor and lets the JVM exit while they are idle.
+   */
+  private static final class DaemonThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      var thread = new Thread(runnable, "circuit-breaker-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /**
+   * The builder class. By default a call times out after a second, and the breaker opens when half
+   * of the last 100 calls failed, once at least 10 calls have been made. Calls slower than a minute
+   * count as slow, and the breaker opens if all of them are. It stays open for a minute and then
+   * lets 10 trial calls through.
+   */
+  public static class Builder {
+
+    private long timeoutNanos = TimeUnit.SECONDS.toNanos(1);
+    private int windowSize = 100;
+    private int minimumCalls = 10;
+    private float failureRateThreshold = 50;
+    private long slowCallNanos = TimeUnit.MINUTES.toNanos(1);
+    private float slowCallRateThreshold = 100;
+    private int openMillis = (int) TimeUnit.MINUTES.toMillis(1);
+    private int permittedCallsInHalfOpen = 10;
+    private ExecutorService executor = DEFAULT_EXECUTOR;
+
+    /**
+     * Sets the time after which a call is given up and counted as failed.
+     */
+    public Builder withTimeout(long timeout, TimeUnit unit) {
+      this.timeoutNanos = positive(unit.toNanos(timeout), "timeout");
+      return this;
+    }
+
+    /**
+     * Sets the number of last calls the rates are computed on.
+     */
+    public Builder withWindowSize(int windowSize) {
+      this.windowSize = (int) positive(windowSize, "windowSize");
+      return this;
+    }
+
+    /**
+     * Sets the number of calls needed before the rates can open the breaker.
+     */
+    public Builder withMinimumCalls(int minimumCalls) {
+      this.minimumCalls = (int) positive(minimumCalls, "minimumCalls");
+      return this;
+    }
+
+    /**
+     * Sets the percentage of failed calls at which the breaker opens.
+     */
+    public Builder withFailureRateThreshold(float failureRateThreshold) {
+      this.failureRateThreshold = percentage(failureRateThreshold, "failureRateThreshold");
+      return this;
+    }
+
+    /**
+     * Sets the duration from which on a call counts as slow.
+     */
+    public Builder withSlowCallDuration(long slowCallDuration, TimeUnit unit) {
+      this.slowCallNanos = positive(unit.toNanos(slowCallDuration), "slowCallDuration");
+      return this;
+    }
+
+    /**
+     * Sets the percentage of slow calls at which the breaker opens.
+     */
+    public Builder withSlowCallRateThreshold(float slowCallRateThreshold) {
+      this.slowCallRateThreshold = percentage(slowCallRateThreshold, "slowCallRateThreshold");
+      return this;
+    }
+
+    /**
+     * Sets how long the breaker stays open before it lets trial calls through, rounded up to
+     * milliseconds. Must be shorter than 24 days.
+     */
+    public Builder withOpenDuration(long openDuration, TimeUnit unit) {
+      var millis = TimeUnit.NANOSECONDS.toMillis(unit.toNanos(openDuration) + 999_999);
+      if (millis < 0 || millis >= Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("openDuration must be shorter than 24 days");
+      }
+      this.openMillis = (int) millis;
+      return this;
+    }
+
+    /**
+     * Sets the number of trial calls let through in half-open, at most 63.
+     */
+    public Builder withPermittedCallsInHalfOpen(int permittedCallsInHalfOpen) {
+      if (permittedCallsInHalfOpen < 1
+          || permittedCallsInHalfOpen > MAX_PERMITTED_CALLS_IN_HALF_OPEN) {
+        throw new IllegalArgumentException("permittedCallsInHalfOpen must be between 1 and "
+            + MAX_PERMITTED_CALLS_IN_HALF_OPEN);
+      }
+      this.permittedCallsInHalfOpen = permittedCallsInHalfOpen;
+      return this;
+    }
+
+    /**
+     * Sets the executor the calls run on, a shared pool of daemon threads by default.
+     */
+    public Builder withExecutor(ExecutorService executor) {
+      if (executor == null) {
+        throw new IllegalArgumentException("executor can not be null");
+      }
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Creates the circuit breaker.
+     */
+    public CircuitBreaker build() {
+      if (minimumCalls > windowSize) {
+        throw new IllegalArgumentException("minimumCalls can not exceed windowSize");
+      }
+      return new CircuitBreaker(this);
+    }
+
+    private static long positive(long value, String name) {
+      if (value <= 0) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return value;
+    }
+
+    private static float percentage(float value, String name) {
+      if (value <= 0 || value > 100) {
+        throw new IllegalArgumentException(name + " must be between 0 and 100");
+      }
+      return value;
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.circuitbreaker;
+
+/**
+ * Snapshot of the metrics of a {@link CircuitBreaker}, read from its atomic counters without
+ * taking any lock, so monitoring never slows the calls down.
+ */
+public final class CircuitBreakerMetrics {
+
+  private final State state;
+  private final int bufferedCalls;
+  private final int failedBufferedCalls;
+  private final int slowBufferedCalls;
+  private final long successfulCalls;
+  private final long failedCalls;
+  private final long timedOutCalls;
+  private final long notPermittedCalls;
+
+  CircuitBreakerMetrics(State state, int bufferedCalls, int failedBufferedCalls,
+                        int slowBufferedCalls, long successfulCalls, long failedCalls,
+                        long timedOutCalls, long notPermittedCalls) {
+    this.state = state;
+    this.bufferedCalls = bufferedCalls;
+    this.failedBufferedCalls = failedBufferedCalls;
+    this.slowBufferedCalls = slowBufferedCalls;
+    this.successfulCalls = successfulCalls;
+    this.failedCalls = failedCalls;
+    this.timedOutCalls = timedOutCalls;
+    this.notPermittedCalls = notPermittedCalls;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the number of calls in the sliding window.
+   */
+  public int getBufferedCalls() {
+    return bufferedCalls;
+  }
+
+  /**
+   * Returns the percentage of failed calls in the sliding window, -1 if it is empty.
+   */
+  public float getFailureRate() {
+    return rate(failedBufferedCalls);
+  }
+
+  /**
+   * Returns the percentage of slow calls in the sliding window, -1 if it is empty.
+   */
+  public float getSlowCallRate() {
+    return rate(slowBufferedCalls);
+  }
+
+  private float rate(int calls) {
+    return bufferedCalls == 0 ? -1 : Math.min(calls * 100f / bufferedCalls, 100f);
+  }
+
+  public long getSuccessfulCalls() {
+    return successfulCalls;
+  }
+
+  /**
+   * Returns the number of failed calls since the breaker was created, timed out calls included.
+   */
+  public long getFailedCalls() {
+    return failedCalls;
+  }
+
+  public long getTimedOutCalls() {
+    return timedOutCalls;
+  }
+
+  /**
+   * Returns the number of calls rejected without calling the service.
+   */
+  public long getNotPermittedCalls() {
+    return notPermittedCalls;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("CircuitBreakerMetrics state=%s failureRate=%.1f%% slowCallRate=%.1f%% "
+            + "successful=%d failed=%d timedOut=%d notPermitted=%d", state, getFailureRate(),
+        getSlowCallRate(), successfulCalls, failedCalls, timedOutCalls, notPermittedCalls);
+  }
+}
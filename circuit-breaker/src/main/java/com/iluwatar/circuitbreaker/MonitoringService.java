@@ -49,4 +49,14 @@ public class MonitoringService {
       return e.getMessage();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Reads the metrics of the remote calls, without taking any lock.
+   *
+   * @param circuitBreaker The circuitBreaker object the remote calls are made through
+   * @return snapshot of the metrics of the circuit breaker
+   */
+  public CircuitBreakerMetrics remoteResourceMetrics(CircuitBreaker circuitBreaker) {
+    return circuitBreaker.getMetrics();
+  }
+}
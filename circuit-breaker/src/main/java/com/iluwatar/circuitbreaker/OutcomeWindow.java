@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window over the outcomes of the last calls, kept in a ring buffer. A new outcome takes
+ * the slot of the oldest one, and the number of calls, failures and slow calls in the window are
+ * kept up to date on the way, so reading them does not scan the buffer. Everything is updated with
+ * atomic operations only; while calls are being recorded the three counts are read one after the
+ * other and may be off by the calls in flight.
+ */
+final class OutcomeWindow {
+
+  private static final int EMPTY = 0;
+  private static final int SUCCESS = 1;
+  private static final int FAILURE = 2;
+  private static final int SLOW = 4;
+
+  private final AtomicIntegerArray outcomes;
+  private final AtomicLong cursor = new AtomicLong();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicInteger slowCalls = new AtomicInteger();
+
+  OutcomeWindow(int size) {
+    this.outcomes = new AtomicIntegerArray(size);
+  }
+
+  void record(boolean failure, boolean slow) {
+    var outcome = (failure ? FAILURE : SUCCESS) | (slow ? SLOW : 0);
+    var index = (int) (cursor.getAndIncrement() % outcomes.length());
+    count(outcomes.getAndSet(index, outcome), -1);
+    count(outcome, 1);
+  }
+
+  /**
+   * Forgets all outcomes.
+   */
+  void reset() {
+    for (var i = 0; i < outcomes.length(); i++) {
+      count(outcomes.getAndSet(i, EMPTY), -1);
+    }
+  }
+
+  private void count(int outcome, int delta) {
+    if (outcome == EMPTY) {
+      return;
+    }
+    calls.addAndGet(delta);
+    if ((outcome & FAILURE) != 0) {
+      failures.addAndGet(delta);
+    }
+    if ((outcome & SLOW) != 0) {
+      slowCalls.addAndGet(delta);
+    }
+  }
+
+  int getCalls() {
+    return Math.max(calls.get(), 0);
+  }
+
+  int getFailures() {
+    return Math.max(failures.get(), 0);
+  }
+
+  int getSlowCalls() {
+    return Math.max(slowCalls.get(), 0);
+  }
+}
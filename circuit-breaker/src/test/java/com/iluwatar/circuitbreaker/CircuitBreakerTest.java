@@ -24,7 +24,16 @@
 package com.iluwatar.circuitbreaker;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -32,32 +41,32 @@ import org.junit.jupiter.api.Test;
  */
 public class CircuitBreakerTest {
 
+  private static final Exception FAILURE = new Exception("Remote service not responding");
+
   //long timeout, int failureThreshold, long retryTimePeriod
   @Test
-  public void testSetState() {
-    var circuitBreaker = new CircuitBreaker(1, 1, 100);
+  public void testSetState() throws Exception {
+    var circuitBreaker = new CircuitBreaker(1000, 1, 50 * 1000 * 1000);
     //Right now, failureCount<failureThreshold, so state should be closed
     assertEquals(circuitBreaker.getState(), "CLOSED");
-    circuitBreaker.failureCount = 4;
-    circuitBreaker.lastFailureTime = System.nanoTime();
-    circuitBreaker.setState();
-    //Since failureCount>failureThreshold, and lastFailureTime is nearly equal to current time,
-    //state should be half-open
-    assertEquals(circuitBreaker.getState(), "HALF_OPEN");
-    //Since failureCount>failureThreshold, and lastFailureTime is much lesser current time,
-    //state should be open
-    circuitBreaker.lastFailureTime = System.nanoTime() - 1000 * 1000 * 1000 * 1000;
-    circuitBreaker.setState();
+    var serverStartTime = System.nanoTime();
+    assertThrows(Exception.class, () -> circuitBreaker.call("delayedService", serverStartTime));
+    assertEquals(circuitBreaker.getState(), "CLOSED");
+    //Since failureCount>failureThreshold, state should be open
+    assertThrows(Exception.class, () -> circuitBreaker.call("delayedService", serverStartTime));
     assertEquals(circuitBreaker.getState(), "OPEN");
-    //Now set it back again to closed to test idempotency
-    circuitBreaker.failureCount = 0;
-    circuitBreaker.setState();
+    assertEquals(circuitBreaker.call("delayedService", serverStartTime),
+        "This is stale response from API");
+    //After the retry time period a call is tried again, and it closes the circuit if it works
+    Thread.sleep(100);
+    var response = circuitBreaker.call("delayedService", serverStartTime - 60_000_000_000L);
+    assertEquals(response, "Delayed service is working");
     assertEquals(circuitBreaker.getState(), "CLOSED");
   }
 
   @Test
   public void testSetStateForBypass() {
-    var circuitBreaker = new CircuitBreaker(1, 1, 100);
+    var circuitBreaker = new CircuitBreaker(1000, 1, 100);
     //Right now, failureCount<failureThreshold, so state should be closed
     //Bypass it and set it to open
     circuitBreaker.setStateForBypass(State.OPEN);
@@ -66,7 +75,7 @@ public class CircuitBreakerTest {
 
   @Test
   public void testApiResponses() {
-    var circuitBreaker = new CircuitBreaker(1, 1, 100);
+    var circuitBreaker = new CircuitBreaker(1000, 1, 100);
     try {
       //Call with the paramater start_time set to huge amount of time in past so that service 
       //replies with "Ok". Also, state is CLOSED in start
@@ -77,4 +86,194 @@ public class CircuitBreakerTest {
       System.out.println(e.getMessage());
     }
   }
+
+  @Test
+  public void testFailureRate() throws Exception {
+    var circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(10)
+        .withMinimumCalls(4)
+        .withFailureRateThreshold(50)
+        .build();
+    circuitBreaker.call(() -> "ok");
+    assertThrows(Exception.class, () -> circuitBreaker.call(this::fail));
+    circuitBreaker.call(() -> "ok");
+    //a failure rate of 33% is below the threshold
+    assertEquals(circuitBreaker.getState(), "CLOSED");
+    assertThrows(Exception.class, () -> circuitBreaker.call(this::fail));
+    assertEquals(circuitBreaker.getState(), "OPEN");
+    assertThrows(CallNotPermittedException.class, () -> circuitBreaker.call(() -> "ok"));
+    var metrics = circuitBreaker.getMetrics();
+    assertEquals(metrics.getBufferedCalls(), 4);
+    assertEquals(metrics.getFailureRate(), 50f);
+    assertEquals(metrics.getSuccessfulCalls(), 2L);
+    assertEquals(metrics.getFailedCalls(), 2L);
+    assertEquals(metrics.getNotPermittedCalls(), 1L);
+  }
+
+  @Test
+  public void testSlowCallRate() throws Exception {
+    var circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(2)
+        .withMinimumCalls(2)
+        .withSlowCallDuration(10, TimeUnit.MILLISECONDS)
+        .withSlowCallRateThreshold(50)
+        .build();
+    circuitBreaker.call(() -> "fast");
+    assertEquals(circuitBreaker.getState(), "CLOSED");
+    circuitBreaker.call(() -> {
+      Thread.sleep(20);
+      return "slow";
+    });
+    assertEquals(circuitBreaker.getState(), "OPEN");
+    assertEquals(circuitBreaker.getMetrics().getSlowCallRate(), 50f);
+    assertEquals(circuitBreaker.getMetrics().getFailedCalls(), 0L);
+  }
+
+  @Test
+  public void testHalfOpenPermitsLimitedCalls() throws Exception {
+    var circuitBreaker = openBreaker(2);
+    var release = new CountDownLatch(1);
+    var first = circuitBreaker.callAsync(() -> release.await(1, TimeUnit.SECONDS));
+    var second = circuitBreaker.callAsync(() -> release.await(1, TimeUnit.SECONDS));
+    assertEquals(circuitBreaker.getState(), "HALF_OPEN");
+    //both trial calls are under way, so no other call is let through
+    assertThrows(CallNotPermittedException.class, () -> circuitBreaker.call(() -> "ok"));
+    release.countDown();
+    assertTrue(first.get());
+    assertTrue(second.get());
+    assertEquals(circuitBreaker.getState(), "CLOSED");
+    assertEquals(circuitBreaker.getMetrics().getBufferedCalls(), 0);
+  }
+
+  @Test
+  public void testHalfOpenReopens() throws Exception {
+    var circuitBreaker = openBreaker(2);
+    circuitBreaker.call(() -> "ok");
+    assertEquals(circuitBreaker.getState(), "HALF_OPEN");
+    assertThrows(Exception.class, () -> circuitBreaker.call(this::fail));
+    assertEquals(circuitBreaker.getState(), "OPEN");
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    var circuitBreaker = new CircuitBreaker.Builder()
+        .withTimeout(50, TimeUnit.MILLISECONDS)
+        .withWindowSize(1)
+        .withMinimumCalls(1)
+        .build();
+    var interrupted = new CountDownLatch(1);
+    assertThrows(TimeoutException.class, () -> circuitBreaker.call(() -> {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return "too late";
+    }));
+    //the thread running the call is interrupted
+    assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    assertEquals(circuitBreaker.getState(), "OPEN");
+    assertEquals(circuitBreaker.getMetrics().getTimedOutCalls(), 1L);
+    assertEquals(circuitBreaker.getMetrics().getFailedCalls(), 1L);
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    var circuitBreaker = openBreaker(1);
+    var interrupted = new AtomicBoolean();
+    var started = new CountDownLatch(1);
+    var done = new CountDownLatch(1);
+    var future = circuitBreaker.callAsync(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+      done.countDown();
+      return "cancelled";
+    });
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+    future.cancel(true);
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    assertTrue(interrupted.get());
+    //the trial call has been given back, so the next call is let through
+    assertEquals(circuitBreaker.call(() -> "ok"), "ok");
+    assertEquals(circuitBreaker.getState(), "CLOSED");
+  }
+
+  @Test
+  public void testOutcomeRecordedBeforeCallReturns() throws Exception {
+    var circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(10)
+        .withMinimumCalls(1)
+        .withFailureRateThreshold(50)
+        .build();
+    var release = new CountDownLatch(1);
+    var future = circuitBreaker.callAsync(() -> {
+      release.await();
+      return fail();
+    });
+    //a stage registered by the caller sees the call recorded and the breaker open
+    var seen = future.handle((value, error) ->
+        circuitBreaker.getMetrics().getFailedCalls() + " " + circuitBreaker.getState());
+    release.countDown();
+    assertEquals(seen.get(1, TimeUnit.SECONDS), "1 OPEN");
+    assertThrows(CallNotPermittedException.class, () -> circuitBreaker.call(() -> "ok"));
+  }
+
+  @Test
+  public void testConcurrentCalls() throws Exception {
+    var circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(100)
+        .withMinimumCalls(100)
+        .withFailureRateThreshold(60)
+        .build();
+    var threads = 8;
+    var calls = 500;
+    var pool = Executors.newFixedThreadPool(threads);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (var t = 0; t < threads; t++) {
+        futures.add(pool.submit(() -> {
+          for (var i = 0; i < calls; i++) {
+            var fails = i % 2 == 0;
+            try {
+              circuitBreaker.call(() -> fails ? fail() : "ok");
+            } catch (Exception e) {
+              assertEquals(e, FAILURE);
+            }
+          }
+          return null;
+        }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    //half of the calls failed, which stays below the threshold
+    assertEquals(circuitBreaker.getState(), "CLOSED");
+    var metrics = circuitBreaker.getMetrics();
+    assertEquals(metrics.getSuccessfulCalls() + metrics.getFailedCalls(), (long) threads * calls);
+    assertEquals(metrics.getBufferedCalls(), 100);
+  }
+
+  private String fail() throws Exception {
+    throw FAILURE;
+  }
+
+  private CircuitBreaker openBreaker(int permittedCallsInHalfOpen) throws InterruptedException {
+    var circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(1)
+        .withMinimumCalls(1)
+        .withOpenDuration(1, TimeUnit.MILLISECONDS)
+        .withPermittedCallsInHalfOpen(permittedCallsInHalfOpen)
+        .build();
+    assertThrows(Exception.class, () -> circuitBreaker.call(this::fail));
+    assertEquals(circuitBreaker.getState(), "OPEN");
+    Thread.sleep(5);
+    return circuitBreaker;
+  }
 }
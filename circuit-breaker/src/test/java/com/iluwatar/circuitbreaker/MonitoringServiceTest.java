@@ -43,7 +43,7 @@ public class MonitoringServiceTest {
   @Test
   public void testRemoteResponse() {
     var monitoringService = new MonitoringService();
-    var circuitBreaker = new CircuitBreaker(1, 1, 100);
+    var circuitBreaker = new CircuitBreaker(1000, 1, 100);
     //Set time in past to make the server work
     var serverStartTime = System.nanoTime() / 10;
     var response = monitoringService.remoteResourceResponse(circuitBreaker, serverStartTime);
@@ -53,10 +53,23 @@ public class MonitoringServiceTest {
   @Test
   public void testRemoteResponse2() {
     var monitoringService = new MonitoringService();
-    var circuitBreaker = new CircuitBreaker(1, 1, 100);
+    var circuitBreaker = new CircuitBreaker(1000, 1, 100);
     //Set time as current time as initially server fails
     var serverStartTime = System.nanoTime();
     var response = monitoringService.remoteResourceResponse(circuitBreaker, serverStartTime);
     assertEquals(response, "Remote service not responding");
   }
+
+  @Test
+  public void testRemoteMetrics() {
+    var monitoringService = new MonitoringService();
+    var circuitBreaker = new CircuitBreaker(1000, 1, 100);
+    monitoringService.remoteResourceResponse(circuitBreaker, System.nanoTime() / 10);
+    monitoringService.remoteResourceResponse(circuitBreaker, System.nanoTime());
+    var metrics = monitoringService.remoteResourceMetrics(circuitBreaker);
+    assertEquals(metrics.getState(), State.CLOSED);
+    assertEquals(metrics.getSuccessfulCalls(), 1L);
+    assertEquals(metrics.getFailedCalls(), 1L);
+    assertEquals(metrics.getFailureRate(), 50f);
+  }
 }
@@ -36,6 +36,9 @@ import org.slf4j.LoggerFactory;
  * money of the account. Account class also have the business logic of events that effects this
  * account.
  *
+ * <p>Accounts are immutable. Every event publishes a new version of the account to the {@link
+ * AccountAggregate}, so the published versions can be read from any thread without a copy.
+ *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class Account {
@@ -44,7 +47,7 @@ public class Account {
 
   private final int accountNo;
   private final String owner;
-  private BigDecimal money;
+  private final BigDecimal money;
 
   private static final String MSG =
       "Some external api for only realtime execution could be called here.";
@@ -56,9 +59,20 @@ public class Account {
    * @param owner     the owner
    */
   public Account(int accountNo, String owner) {
+    this(accountNo, owner, BigDecimal.ZERO);
+  }
+
+  /**
+   * Instantiates a new Account.
+   *
+   * @param accountNo the account no
+   * @param owner     the owner
+   * @param money     the money
+   */
+  public Account(int accountNo, String owner, BigDecimal money) {
     this.accountNo = accountNo;
     this.owner = owner;
-    money = BigDecimal.ZERO;
+    this.money = money;
   }
 
   /**
@@ -89,24 +103,13 @@ public class Account {
   }
 
   /**
-   * Sets money.
-   *
-   * @param money the money
-   */
-  public void setMoney(BigDecimal money) {
-    this.money = money;
-  }
-
-
-  /**
-   * Copy account.
+   * Creates the next version of the account.
    *
+   * @param money the money of the new version
    * @return the account
    */
-  public Account copy() {
-    var account = new Account(accountNo, owner);
-    account.setMoney(money);
-    return account;
+  public Account withMoney(BigDecimal money) {
+    return new Account(accountNo, owner, money);
   }
 
   @Override
@@ -118,17 +121,16 @@ public class Account {
         + '}';
   }
 
-  private void depositMoney(BigDecimal money) {
-    this.money = this.money.add(money);
+  private Account depositMoney(BigDecimal money) {
+    return withMoney(this.money.add(money));
   }
 
-  private void withdrawMoney(BigDecimal money) {
-    this.money = this.money.subtract(money);
+  private Account withdrawMoney(BigDecimal money) {
+    return withMoney(this.money.subtract(money));
   }
 
   private void handleDeposit(BigDecimal money, boolean realTime) {
-    depositMoney(money);
-    AccountAggregate.putAccount(this);
+    AccountAggregate.putAccount(depositMoney(money));
     if (realTime) {
       LOGGER.info(MSG);
     }
@@ -139,8 +141,7 @@ public class Account {
       throw new RuntimeException("Insufficient Account Balance");
     }
 
-    withdrawMoney(money);
-    AccountAggregate.putAccount(this);
+    AccountAggregate.putAccount(withdrawMoney(money));
     if (realTime) {
       LOGGER.info(MSG);
     }
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.util.List;
+
+/**
+ * This is a snapshot of the accounts after all the events up to a journal position were
+ * processed.
+ */
+public class AccountSnapshot {
+
+  private final long position;
+  private final List<Account> accounts;
+
+  /**
+   * Instantiates a new Account snapshot.
+   *
+   * @param position the journal position after the last event the snapshot covers
+   * @param accounts the accounts
+   */
+  public AccountSnapshot(long position, List<Account> accounts) {
+    this.position = position;
+    this.accounts = List.copyOf(accounts);
+  }
+
+  /**
+   * Gets the journal position.
+   *
+   * @return the journal position after the last event the snapshot covers
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * Gets accounts.
+   *
+   * @return the accounts
+   */
+  public List<Account> getAccounts() {
+    return accounts;
+  }
+}
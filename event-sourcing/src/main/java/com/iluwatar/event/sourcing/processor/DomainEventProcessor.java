@@ -24,16 +24,96 @@
 package com.iluwatar.event.sourcing.processor;
 
 import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
 
 /**
  * This is the implementation of event processor. All events are processed by this class. This
- * processor uses processorJournal to persist and recover events.
+ * processor uses processorJournal to persist and recover events. The journal is a {@link
+ * JsonFileJournal} unless another {@link EventJournal}, such as the {@link MappedFileJournal}, is
+ * given.
+ *
+ * <p>With a {@link SnapshotStore} the processor also takes snapshots of the accounts as the
+ * {@link SnapshotPolicy} says, tagged with the journal position they cover. Recovery then loads
+ * the latest snapshot and replays only the events written after it. A snapshot is only saved
+ * once the journal is synced up to its position, and recovery ignores snapshots beyond the end of
+ * the journal.
+ *
+ * <p>Given a lane count, events are processed in parallel on that many single writer lanes,
+ * partitioned by account number. Each lane writes the events it applied to the journal, so an
+ * event that fails is not journaled, just like on the caller thread. {@link #awaitProcessed()}
+ * waits for the events given to {@link #process(DomainEvent)} so far. Events must be given from a
+ * single thread.
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class DomainEventProcessor {
 
-  private final JsonFileJournal processorJournal = new JsonFileJournal();
+  private final EventJournal processorJournal;
+  private final SnapshotStore snapshotStore;
+  private final SnapshotPolicy snapshotPolicy;
+  private final EventLanes lanes;
+  private long eventsSinceSnapshot;
+  private long snapshotPosition;
+  private volatile boolean snapshotQueued;
+
+  /**
+   * Instantiates a new Domain event processor using a {@link JsonFileJournal}.
+   */
+  public DomainEventProcessor() {
+    this(new JsonFileJournal());
+  }
+
+  /**
+   * Instantiates a new Domain event processor.
+   *
+   * @param processorJournal the journal to persist and recover events
+   */
+  public DomainEventProcessor(EventJournal processorJournal) {
+    this(processorJournal, null, null);
+  }
+
+  /**
+   * Instantiates a new Domain event processor processing events on lanes.
+   *
+   * @param processorJournal the journal to persist and recover events
+   * @param laneCount        the number of lanes
+   */
+  public DomainEventProcessor(EventJournal processorJournal, int laneCount) {
+    this(processorJournal, null, null, new EventLanes(laneCount));
+  }
+
+  /**
+   * Instantiates a new Domain event processor taking snapshots.
+   *
+   * @param processorJournal the journal to persist and recover events
+   * @param snapshotStore    the store of the snapshots
+   * @param snapshotPolicy   when to take a snapshot
+   */
+  public DomainEventProcessor(EventJournal processorJournal, SnapshotStore snapshotStore,
+                              SnapshotPolicy snapshotPolicy) {
+    this(processorJournal, snapshotStore, snapshotPolicy, null);
+  }
+
+  /**
+   * Instantiates a new Domain event processor processing events on lanes and taking snapshots.
+   *
+   * @param processorJournal the journal to persist and recover events
+   * @param snapshotStore    the store of the snapshots
+   * @param snapshotPolicy   when to take a snapshot
+   * @param laneCount        the number of lanes
+   */
+  public DomainEventProcessor(EventJournal processorJournal, SnapshotStore snapshotStore,
+                              SnapshotPolicy snapshotPolicy, int laneCount) {
+    this(processorJournal, snapshotStore, snapshotPolicy, new EventLanes(laneCount));
+  }
+
+  private DomainEventProcessor(EventJournal processorJournal, SnapshotStore snapshotStore,
+                               SnapshotPolicy snapshotPolicy, EventLanes lanes) {
+    this.processorJournal = processorJournal;
+    this.snapshotStore = snapshotStore;
+    this.snapshotPolicy = snapshotPolicy;
+    this.lanes = lanes;
+  }
 
   /**
    * Process.
@@ -41,24 +121,138 @@ public class DomainEventProcessor {
    * @param domainEvent the domain event
    */
   public void process(DomainEvent domainEvent) {
-    domainEvent.process();
-    processorJournal.write(domainEvent);
+    if (lanes != null) {
+      lanes.submit(domainEvent, this::write);
+    } else {
+      domainEvent.process();
+      processorJournal.write(domainEvent);
+    }
+    if (snapshotStore != null) {
+      eventsSinceSnapshot++;
+      var bytes = getJournalPosition() - snapshotPosition;
+      if (snapshotPolicy.isDue(eventsSinceSnapshot, bytes)) {
+        takeSnapshot();
+      }
+    }
+  }
+
+  /*
+   * Called by the lanes. The journals are not meant for concurrent writers.
+   */
+  private void write(DomainEvent domainEvent) {
+    synchronized (processorJournal) {
+      processorJournal.write(domainEvent);
+    }
+  }
+
+  private long getJournalPosition() {
+    synchronized (processorJournal) {
+      return processorJournal.getPosition();
+    }
+  }
+
+  /*
+   * The accounts are copied while no event is being applied, so the snapshot matches the position:
+   * on the processing thread, or with lanes on the last lane to reach a barrier, so the processing
+   * thread does not wait for the lanes. Syncing the journal, encoding and writing happen in the
+   * background. While the previous snapshot is still queued or being written the snapshot is
+   * skipped and taken after the next event.
+   */
+  private void takeSnapshot() {
+    if (snapshotQueued || !snapshotStore.isIdle()) {
+      return;
+    }
+    eventsSinceSnapshot = 0;
+    if (lanes == null) {
+      snapshotPosition = saveSnapshot();
+      return;
+    }
+    snapshotQueued = true;
+    snapshotPosition = getJournalPosition();
+    lanes.submitBarrier(() -> {
+      try {
+        saveSnapshot();
+      } finally {
+        snapshotQueued = false;
+      }
+    });
+  }
+
+  private long saveSnapshot() {
+    var position = getJournalPosition();
+    snapshotStore.saveAsync(new AccountSnapshot(position, AccountAggregate.getAccounts()),
+        processorJournal);
+    return position;
+  }
+
+  /**
+   * Waits until the events given to {@link #process(DomainEvent)} were applied. Returns at once
+   * when the events are processed on the caller thread.
+   */
+  public void awaitProcessed() {
+    if (lanes != null) {
+      lanes.awaitApplied();
+    }
+  }
+
+  /**
+   * Gets the number of events that failed on the lanes.
+   *
+   * @return the number of failed events, always 0 when the events are processed on the caller
+   *     thread, where they fail with an exception instead
+   */
+  public long getFailedEvents() {
+    return lanes != null ? lanes.getFailedEvents() : 0;
   }
 
   /**
    * Reset.
    */
   public void reset() {
+    awaitProcessed();
     processorJournal.reset();
+    if (snapshotStore != null) {
+      snapshotStore.clear();
+    }
+    eventsSinceSnapshot = 0;
+    snapshotPosition = 0;
   }
 
   /**
    * Recover.
    */
   public void recover() {
+    if (snapshotStore != null) {
+      var snapshot = snapshotStore.loadLatest(getJournalPosition());
+      if (snapshot != null) {
+        snapshot.getAccounts().forEach(AccountAggregate::putAccount);
+        processorJournal.seek(snapshot.getPosition());
+        snapshotPosition = snapshot.getPosition();
+      }
+    }
+
     DomainEvent domainEvent;
     while ((domainEvent = processorJournal.readNext()) != null) {
-      domainEvent.process();
+      if (lanes != null) {
+        lanes.submit(domainEvent, replayed -> { });
+      } else {
+        domainEvent.process();
+      }
+      eventsSinceSnapshot++;
+    }
+    awaitProcessed();
+  }
+
+  /**
+   * Close.
+   */
+  public void close() {
+    if (lanes != null) {
+      lanes.close();
+    }
+    if (snapshotStore != null) {
+      snapshotStore.close();
     }
+    processorJournal.close();
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary serialization of the domain events used by {@link MappedFileJournal}. Every event starts
+ * with a type byte followed by its sequence id and created time, and then the fields of the event
+ * type. Strings are written as length prefixed UTF-8 and money as scale plus unscaled value.
+ *
+ * <p>An instance reuses its encoding buffer and is not thread safe.
+ */
+class EventCodec {
+
+  private static final byte ACCOUNT_CREATE = 1;
+  private static final byte MONEY_DEPOSIT = 2;
+  private static final byte MONEY_TRANSFER = 3;
+  private static final int HEADER_SIZE = 1 + Long.BYTES + Long.BYTES;
+
+  private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+  /**
+   * Encodes the event.
+   *
+   * @param domainEvent the domain event
+   * @return a buffer holding the encoded event between its position and limit, valid until the
+   *     next call
+   */
+  ByteBuffer encode(DomainEvent domainEvent) {
+    buffer.clear();
+    if (domainEvent instanceof AccountCreateEvent) {
+      var event = (AccountCreateEvent) domainEvent;
+      var owner = event.getOwner() == null
+          ? null : event.getOwner().getBytes(StandardCharsets.UTF_8);
+      var ownerSize = Integer.BYTES + (owner == null ? 0 : owner.length);
+      ensureCapacity(HEADER_SIZE + Integer.BYTES + ownerSize);
+      putHeader(ACCOUNT_CREATE, event);
+      buffer.putInt(event.getAccountNo());
+      putBytes(owner);
+    } else if (domainEvent instanceof MoneyDepositEvent) {
+      var event = (MoneyDepositEvent) domainEvent;
+      var unscaled = event.getMoney().unscaledValue().toByteArray();
+      ensureCapacity(HEADER_SIZE + Integer.BYTES + moneySize(unscaled));
+      putHeader(MONEY_DEPOSIT, event);
+      buffer.putInt(event.getAccountNo());
+      putMoney(event.getMoney(), unscaled);
+    } else if (domainEvent instanceof MoneyTransferEvent) {
+      var event = (MoneyTransferEvent) domainEvent;
+      var unscaled = event.getMoney().unscaledValue().toByteArray();
+      ensureCapacity(HEADER_SIZE + Integer.BYTES + Integer.BYTES + moneySize(unscaled));
+      putHeader(MONEY_TRANSFER, event);
+      buffer.putInt(event.getAccountNoFrom());
+      buffer.putInt(event.getAccountNoTo());
+      putMoney(event.getMoney(), unscaled);
+    } else {
+      throw new RuntimeException("Journal Event not recegnized");
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Decodes an event encoded by {@link #encode(DomainEvent)}.
+   *
+   * @param payload the encoded event between its position and limit
+   * @return the domain event
+   */
+  DomainEvent decode(ByteBuffer payload) {
+    var type = payload.get();
+    var sequenceId = payload.getLong();
+    var createdTime = payload.getLong();
+    switch (type) {
+      case ACCOUNT_CREATE:
+        var accountNo = payload.getInt();
+        var owner = getBytes(payload);
+        return new AccountCreateEvent(sequenceId, createdTime, accountNo,
+            owner == null ? null : new String(owner, StandardCharsets.UTF_8));
+      case MONEY_DEPOSIT:
+        var depositAccountNo = payload.getInt();
+        return new MoneyDepositEvent(sequenceId, createdTime, depositAccountNo, getMoney(payload));
+      case MONEY_TRANSFER:
+        var accountNoFrom = payload.getInt();
+        var accountNoTo = payload.getInt();
+        return new MoneyTransferEvent(sequenceId, createdTime, getMoney(payload), accountNoFrom,
+            accountNoTo);
+      default:
+        throw new RuntimeException("Journal Event not recegnized");
+    }
+  }
+
+  private void ensureCapacity(int size) {
+    if (buffer.capacity() < size) {
+      buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+    }
+  }
+
+  private void putHeader(byte type, DomainEvent event) {
+    buffer.put(type);
+    buffer.putLong(event.getSequenceId());
+    buffer.putLong(event.getCreatedTime());
+  }
+
+  private void putBytes(byte[] bytes) {
+    if (bytes == null) {
+      buffer.putInt(-1);
+      return;
+    }
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static byte[] getBytes(ByteBuffer payload) {
+    var length = payload.getInt();
+    if (length < 0) {
+      return null;
+    }
+    var bytes = new byte[length];
+    payload.get(bytes);
+    return bytes;
+  }
+
+  private static int moneySize(byte[] unscaled) {
+    return Integer.BYTES + Integer.BYTES + unscaled.length;
+  }
+
+  private void putMoney(BigDecimal money, byte[] unscaled) {
+    buffer.putInt(money.scale());
+    putBytes(unscaled);
+  }
+
+  private static BigDecimal getMoney(ByteBuffer payload) {
+    var scale = payload.getInt();
+    return new BigDecimal(new BigInteger(getBytes(payload)), scale);
+  }
+}
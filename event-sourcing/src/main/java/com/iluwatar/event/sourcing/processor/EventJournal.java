@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+
+/**
+ * This is the event journal abstraction used by {@link DomainEventProcessor}. A journal appends
+ * the processed events and reads them back in the same order to recover the state.
+ *
+ * @see JsonFileJournal
+ * @see MappedFileJournal
+ */
+public interface EventJournal extends AutoCloseable {
+
+  /**
+   * Write.
+   *
+   * @param domainEvent the domain event
+   */
+  void write(DomainEvent domainEvent);
+
+  /**
+   * Reset.
+   */
+  void reset();
+
+  /**
+   * Read next domain event.
+   *
+   * @return the domain event or null if there are no more events
+   */
+  DomainEvent readNext();
+
+  /**
+   * Gets the journal position after the last written event. Positions are byte offsets, so the
+   * difference of two positions is the size of the events written in between.
+   *
+   * @return the write position
+   */
+  long getPosition();
+
+  /**
+   * Moves the read position, so that {@link #readNext()} returns the events written after {@code
+   * position}.
+   *
+   * @param position a position returned by {@link #getPosition()}
+   */
+  void seek(long position);
+
+  /**
+   * Waits until the events written up to {@code position} are durable, so a snapshot covering
+   * them never points past the end of the journal after a crash. The default implementation does
+   * nothing.
+   *
+   * @param position a position returned by {@link #getPosition()}
+   */
+  default void sync(long position) {
+  }
+
+  /**
+   * Releases the resources of the journal. The default implementation does nothing.
+   */
+  @Override
+  default void close() {
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies events on single writer lanes. The events of an account always go to the same lane, so
+ * the events of different accounts are applied in parallel and the events of one account in the
+ * order they were submitted.
+ *
+ * <p>An event touching accounts of different lanes, a {@link MoneyTransferEvent} between them or
+ * an event of an unknown type, is queued on every lane it touches. The lanes stop when they reach
+ * it and the last one to arrive applies it. Events are submitted from a single thread, so such
+ * events are queued in the same order on every lane and the lanes cannot wait for each other in a
+ * cycle.
+ */
+class EventLanes implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventLanes.class);
+
+  private static final int LANE_CAPACITY = 8192;
+
+  private final Lane[] lanes;
+  private final AtomicLong failedEvents = new AtomicLong();
+
+  /**
+   * Starts the lanes.
+   *
+   * @param laneCount the number of lanes
+   */
+  EventLanes(int laneCount) {
+    if (laneCount <= 0) {
+      throw new IllegalArgumentException("laneCount must be positive");
+    }
+    lanes = new Lane[laneCount];
+    for (var i = 0; i < laneCount; i++) {
+      lanes[i] = new Lane(i);
+      lanes[i].start();
+    }
+  }
+
+  int getLaneCount() {
+    return lanes.length;
+  }
+
+  long getFailedEvents() {
+    return failedEvents.get();
+  }
+
+  /**
+   * Queues the event on the lanes of its accounts.
+   *
+   * @param domainEvent the event
+   * @param applied     called on the lane after the event was processed successfully
+   */
+  void submit(DomainEvent domainEvent, Consumer<DomainEvent> applied) {
+    if (domainEvent instanceof MoneyTransferEvent) {
+      var transfer = (MoneyTransferEvent) domainEvent;
+      var from = laneOf(transfer.getAccountNoFrom());
+      var to = laneOf(transfer.getAccountNoTo());
+      if (from == to) {
+        put(from, new Task(domainEvent, applied, 1));
+      } else {
+        var task = new Task(domainEvent, applied, 2);
+        put(from, task);
+        put(to, task);
+      }
+    } else if (domainEvent instanceof MoneyDepositEvent) {
+      var lane = laneOf(((MoneyDepositEvent) domainEvent).getAccountNo());
+      put(lane, new Task(domainEvent, applied, 1));
+    } else if (domainEvent instanceof AccountCreateEvent) {
+      var lane = laneOf(((AccountCreateEvent) domainEvent).getAccountNo());
+      put(lane, new Task(domainEvent, applied, 1));
+    } else {
+      putOnAllLanes(new Task(domainEvent, applied, lanes.length));
+    }
+  }
+
+  /**
+   * Waits until all events submitted before were applied.
+   */
+  void awaitApplied() {
+    var barrier = new Task(null, lanes.length);
+    putOnAllLanes(barrier);
+    barrier.awaitDone();
+  }
+
+  /**
+   * Runs the action on a lane once all events submitted before were applied, without waiting for
+   * it. The lanes wait while it runs, so it sees the state of exactly those events.
+   *
+   * @param action the action
+   */
+  void submitBarrier(Runnable action) {
+    putOnAllLanes(new Task(action, lanes.length));
+  }
+
+  /**
+   * Applies the submitted events and stops the lanes.
+   */
+  @Override
+  public void close() {
+    putOnAllLanes(Task.STOP);
+    for (var lane : lanes) {
+      try {
+        lane.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private int laneOf(int accountNo) {
+    return Math.floorMod(accountNo, lanes.length);
+  }
+
+  private void putOnAllLanes(Task task) {
+    for (var i = 0; i < lanes.length; i++) {
+      put(i, task);
+    }
+  }
+
+  private void put(int lane, Task task) {
+    try {
+      lanes[lane].tasks.put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while submitting " + task.domainEvent, e);
+    }
+  }
+
+  private void apply(Task task) {
+    if (task.domainEvent == null) {
+      if (task.barrierAction != null) {
+        try {
+          task.barrierAction.run();
+        } catch (RuntimeException e) {
+          LOGGER.error("Barrier action failed", e);
+        }
+      }
+      return;
+    }
+    try {
+      task.domainEvent.process();
+      task.applied.accept(task.domainEvent);
+    } catch (RuntimeException e) {
+      failedEvents.incrementAndGet();
+      LOGGER.error("Event {} not applied", task.domainEvent.getSequenceId(), e);
+    }
+  }
+
+  /**
+   * An event queued on one or more lanes.
+   */
+  private static class Task {
+
+    static final Task STOP = new Task(null, 0);
+
+    private final DomainEvent domainEvent;
+    private final Consumer<DomainEvent> applied;
+    private final Runnable barrierAction;
+    private final AtomicInteger arrivals;
+    private final CountDownLatch done;
+
+    Task(DomainEvent domainEvent, Consumer<DomainEvent> applied, int laneCount) {
+      this(domainEvent, applied, null, laneCount);
+    }
+
+    Task(Runnable barrierAction, int laneCount) {
+      this(null, null, barrierAction, laneCount);
+    }
+
+    private Task(DomainEvent domainEvent, Consumer<DomainEvent> applied, Runnable barrierAction,
+                 int laneCount) {
+      this.domainEvent = domainEvent;
+      this.applied = applied;
+      this.barrierAction = barrierAction;
+      this.arrivals = laneCount > 1 ? new AtomicInteger(laneCount) : null;
+      this.done = laneCount > 1 || domainEvent == null ? new CountDownLatch(1) : null;
+    }
+
+    /**
+     * Returns true on the last lane to arrive, which applies the task.
+     */
+    boolean arrive() {
+      return arrivals == null || arrivals.decrementAndGet() == 0;
+    }
+
+    void complete() {
+      if (done != null) {
+        done.countDown();
+      }
+    }
+
+    void awaitDone() {
+      try {
+        done.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * A thread applying the events of its accounts in order.
+   */
+  private class Lane extends Thread {
+
+    private final BlockingQueue<Task> tasks = new ArrayBlockingQueue<>(LANE_CAPACITY);
+
+    Lane(int index) {
+      super("event-lane-" + index);
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          var task = tasks.take();
+          if (task == Task.STOP) {
+            return;
+          }
+          if (task.arrive()) {
+            apply(task);
+            task.complete();
+          } else {
+            task.awaitDone();
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -40,31 +40,46 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * This is the implementation of event journal. This implementation serialize/deserialize the events
- * with JSON and writes/reads them on a Journal.json file at the working directory.
+ * with JSON and writes/reads them on a Journal.json file at the working directory, unless another
+ * file is given.
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
-public class JsonFileJournal {
+public class JsonFileJournal implements EventJournal {
 
   private final File file;
   private final List<String> events = new ArrayList<>();
+  private final List<Long> eventPositions = new ArrayList<>();
+  private long position = 0;
   private int index = 0;
 
   /**
    * Instantiates a new Json file journal.
    */
   public JsonFileJournal() {
-    file = new File("Journal.json");
+    this(new File("Journal.json"));
+  }
+
+  /**
+   * Instantiates a new Json file journal writing to the given file.
+   *
+   * @param file the journal file
+   */
+  public JsonFileJournal(File file) {
+    this.file = file;
     if (file.exists()) {
       try (var input = new BufferedReader(
           new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
         String line;
         while ((line = input.readLine()) != null) {
           events.add(line);
+          eventPositions.add(position);
+          position += lineSize(line);
         }
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -80,6 +95,7 @@ public class JsonFileJournal {
    *
    * @param domainEvent the domain event
    */
+  @Override
   public void write(DomainEvent domainEvent) {
     var gson = new Gson();
     JsonElement jsonElement;
@@ -97,6 +113,7 @@ public class JsonFileJournal {
         new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
       var eventString = jsonElement.toString();
       output.write(eventString + "\r\n");
+      position += lineSize(eventString);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -106,8 +123,36 @@ public class JsonFileJournal {
   /**
    * Reset.
    */
+  @Override
   public void reset() {
     file.delete();
+    position = 0;
+  }
+
+  /**
+   * Gets the size of the journal file in bytes.
+   *
+   * @return the write position
+   */
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * Seek to the first event that starts at or after the position. Only the events that were in
+   * the file when the journal was instantiated can be read.
+   *
+   * @param position the position
+   */
+  @Override
+  public void seek(long position) {
+    var found = Collections.binarySearch(eventPositions, position);
+    index = found >= 0 ? found : -found - 1;
+  }
+
+  private static long lineSize(String line) {
+    return line.getBytes(StandardCharsets.UTF_8).length + "\r\n".length();
   }
 
 
@@ -116,6 +161,7 @@ public class JsonFileJournal {
    *
    * @return the domain event
    */
+  @Override
   public DomainEvent readNext() {
     if (index >= events.size()) {
       return null;
@@ -0,0 +1,490 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * This is an event journal that appends binary records to fixed-size, memory-mapped segment
+ * files. Every record is a length prefix, a CRC32C checksum and the event encoded by {@link
+ * EventCodec}. A segment is named after the journal position of its first byte, and a record that
+ * does not fit in the rest of a segment starts the next one, so the unused zero-filled tail of a
+ * segment marks its end.
+ *
+ * <p>Reading maps one segment at a time and decodes one record per {@link #readNext()}, so replay
+ * memory does not grow with the history. A record with a bad length or checksum, as left by a
+ * crash in the middle of a write, ends the journal, and the next write overwrites it.
+ *
+ * <p>When the mapped pages reach the disk is controlled by the {@link SyncPolicy}.
+ */
+public class MappedFileJournal implements EventJournal {
+
+  /**
+   * Controls when written records are forced to the disk.
+   */
+  public enum SyncPolicy {
+    /**
+     * A background thread forces the written records periodically, writes do not wait for it.
+     */
+    ASYNC,
+    /**
+     * A write returns after its record has been forced. Records written while a force is in
+     * progress are forced together by the next one, so concurrent writers share the cost.
+     */
+    GROUP_COMMIT,
+    /**
+     * Every write forces the segment before it returns.
+     */
+    ALWAYS
+  }
+
+  /**
+   * The default segment size, 64 MiB.
+   */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+  private static final String SEGMENT_SUFFIX = ".segment";
+  private static final long ASYNC_SYNC_INTERVAL_MILLIS = 100;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final SyncPolicy syncPolicy;
+  private final EventCodec writeCodec = new EventCodec();
+  private final EventCodec readCodec = new EventCodec();
+  private final CRC32C writeCrc = new CRC32C();
+  private final CRC32C readCrc = new CRC32C();
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Condition recordsWritten = writeLock.newCondition();
+  private final Condition recordsSynced = writeLock.newCondition();
+  private MappedByteBuffer writeSegment;
+  private long writeSegmentStart;
+  private long writePosition;
+  private long syncedPosition;
+  private Thread syncThread;
+  private boolean closed;
+
+  private MappedByteBuffer readSegment;
+  private long readSegmentStart;
+  private long readPosition;
+
+  /**
+   * Instantiates a journal in the Journal directory of the working directory with the default
+   * segment size, forcing records asynchronously.
+   */
+  public MappedFileJournal() {
+    this(Paths.get("Journal"), DEFAULT_SEGMENT_SIZE, SyncPolicy.ASYNC);
+  }
+
+  /**
+   * Instantiates a journal, continuing after the last valid record of an existing one.
+   *
+   * @param directory   the directory of the segment files
+   * @param segmentSize the size of every segment file, it limits the size of a record
+   * @param syncPolicy  when records are forced to the disk
+   */
+  public MappedFileJournal(Path directory, int segmentSize, SyncPolicy syncPolicy) {
+    if (segmentSize <= RECORD_HEADER_SIZE) {
+      throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.syncPolicy = syncPolicy;
+    try {
+      Files.createDirectories(directory);
+      openLastSegment();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (syncPolicy != SyncPolicy.ALWAYS) {
+      syncThread = new Thread(this::syncLoop, "journal-sync");
+      syncThread.setDaemon(true);
+      syncThread.start();
+    }
+  }
+
+  /**
+   * Write.
+   *
+   * @param domainEvent the domain event
+   */
+  @Override
+  public void write(DomainEvent domainEvent) {
+    long recordEnd;
+    writeLock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Journal closed");
+      }
+      var payload = writeCodec.encode(domainEvent);
+      var recordSize = RECORD_HEADER_SIZE + payload.remaining();
+      if (recordSize > segmentSize) {
+        throw new IllegalArgumentException("Event does not fit in a segment: " + recordSize);
+      }
+      if (writePosition - writeSegmentStart + recordSize > segmentSize) {
+        rollSegment();
+      }
+
+      writeCrc.reset();
+      writeCrc.update(payload.duplicate());
+      writeSegment.position((int) (writePosition - writeSegmentStart));
+      writeSegment.putInt(payload.remaining());
+      writeSegment.putInt((int) writeCrc.getValue());
+      writeSegment.put(payload);
+      writePosition += recordSize;
+      recordEnd = writePosition;
+
+      if (syncPolicy == SyncPolicy.ALWAYS) {
+        writeSegment.force();
+        syncedPosition = recordEnd;
+        return;
+      }
+      if (syncPolicy == SyncPolicy.GROUP_COMMIT) {
+        recordsWritten.signal();
+        while (syncedPosition < recordEnd && !closed) {
+          recordsSynced.awaitUninterruptibly();
+        }
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Reset.
+   */
+  @Override
+  public void reset() {
+    writeLock.lock();
+    try {
+      writeSegment = null;
+      readSegment = null;
+      try (var files = Files.list(directory)) {
+        for (var file : (Iterable<Path>) files::iterator) {
+          if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX)) {
+            Files.delete(file);
+          }
+        }
+        openLastSegment();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      readSegmentStart = 0;
+      readPosition = 0;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Read next domain event.
+   *
+   * @return the domain event or null if there are no more valid records
+   */
+  @Override
+  public DomainEvent readNext() {
+    var payload = nextRecord();
+    if (payload == null) {
+      return null;
+    }
+    var domainEvent = readCodec.decode(payload);
+    domainEvent.setRealTime(false);
+    return domainEvent;
+  }
+
+  /**
+   * Gets the position after the last written record.
+   *
+   * @return the write position
+   */
+  @Override
+  public long getPosition() {
+    return getWritePosition();
+  }
+
+  /**
+   * Moves the read position to a record boundary returned by {@link #getPosition()}.
+   *
+   * @param position the position
+   * @throws IllegalArgumentException if the position is beyond the end of the journal
+   */
+  @Override
+  public void seek(long position) {
+    var end = getWritePosition();
+    if (position < 0 || position > end) {
+      throw new IllegalArgumentException(
+          "Position " + position + " is outside of the journal, which ends at " + end);
+    }
+    readSegment = null;
+    readSegmentStart = position - position % segmentSize;
+    readPosition = position;
+  }
+
+  /**
+   * Waits until the records up to the position have been forced to the disk. With {@link
+   * SyncPolicy#ASYNC} the sync thread is woken up instead of waiting for its interval.
+   *
+   * @param position a position returned by {@link #getPosition()}
+   */
+  @Override
+  public void sync(long position) {
+    writeLock.lock();
+    try {
+      var target = Math.min(position, writePosition);
+      if (syncedPosition < target) {
+        recordsWritten.signal();
+      }
+      while (syncedPosition < target && !closed) {
+        recordsSynced.awaitUninterruptibly();
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Gets the position after the last written record.
+   *
+   * @return the write position
+   */
+  public long getWritePosition() {
+    writeLock.lock();
+    try {
+      return writePosition;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Gets the position of the next record {@link #readNext()} reads.
+   *
+   * @return the read position
+   */
+  public long getReadPosition() {
+    return readPosition;
+  }
+
+  /**
+   * Forces the written records to the disk and stops the background sync thread.
+   */
+  @Override
+  public void close() {
+    writeLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      writeSegment.force();
+      syncedPosition = writePosition;
+      recordsWritten.signalAll();
+      recordsSynced.signalAll();
+    } finally {
+      writeLock.unlock();
+    }
+    if (syncThread != null) {
+      try {
+        syncThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void syncLoop() {
+    while (true) {
+      MappedByteBuffer segment;
+      long target;
+      writeLock.lock();
+      try {
+        while (!closed && syncedPosition == writePosition) {
+          if (syncPolicy == SyncPolicy.ASYNC) {
+            // asynchronous writes do not signal, the records of the interval are forced together
+            recordsWritten.await(ASYNC_SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+          } else {
+            recordsWritten.awaitUninterruptibly();
+          }
+        }
+        if (closed) {
+          return;
+        }
+        segment = writeSegment;
+        target = writePosition;
+      } catch (InterruptedException e) {
+        return;
+      } finally {
+        writeLock.unlock();
+      }
+
+      // writers keep appending while the pages are forced, they are picked up by the next force
+      segment.force();
+
+      writeLock.lock();
+      try {
+        syncedPosition = Math.max(syncedPosition, target);
+        recordsSynced.signalAll();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  /*
+   * Called with the write lock held. The previous segment is forced here, so the sync thread only
+   * ever has to force the current one.
+   */
+  private void rollSegment() {
+    writeSegment.force();
+    syncedPosition = Math.max(syncedPosition, writePosition);
+    writeSegmentStart += segmentSize;
+    writePosition = writeSegmentStart;
+    try {
+      writeSegment = map(segmentPath(writeSegmentStart), FileChannel.MapMode.READ_WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /*
+   * Maps the last segment and finds the end of its valid records. Bytes of a torn record after it
+   * are cleared, so they cannot be mistaken for records once new ones are written before them.
+   */
+  private void openLastSegment() throws IOException {
+    long lastStart = 0;
+    try (var files = Files.list(directory)) {
+      for (var file : (Iterable<Path>) files::iterator) {
+        var name = file.getFileName().toString();
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+          var start = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+          lastStart = Math.max(lastStart, start);
+        }
+      }
+    }
+    writeSegmentStart = lastStart;
+    writeSegment = map(segmentPath(lastStart), FileChannel.MapMode.READ_WRITE);
+
+    var crc = new CRC32C();
+    var offset = 0;
+    int length;
+    while ((length = validRecordLength(writeSegment, offset, crc)) > 0) {
+      offset += RECORD_HEADER_SIZE + length;
+    }
+    if (length < 0) {
+      for (var i = offset; i < segmentSize; i++) {
+        writeSegment.put(i, (byte) 0);
+      }
+      writeSegment.force();
+    }
+    writePosition = writeSegmentStart + offset;
+    syncedPosition = writePosition;
+  }
+
+  /*
+   * Returns the payload length of the record at offset, 0 at the end of the segment and -1 if the
+   * record is corrupt.
+   */
+  private int validRecordLength(ByteBuffer segment, int offset, CRC32C crc) {
+    if (offset + RECORD_HEADER_SIZE > segment.limit()) {
+      return 0;
+    }
+    var length = segment.getInt(offset);
+    if (length == 0) {
+      return 0;
+    }
+    if (length < 0 || length > segment.limit() - offset - RECORD_HEADER_SIZE) {
+      return -1;
+    }
+    var payload = segment.duplicate();
+    payload.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+    crc.reset();
+    crc.update(payload);
+    return (int) crc.getValue() == segment.getInt(offset + Integer.BYTES) ? length : -1;
+  }
+
+  private ByteBuffer nextRecord() {
+    try {
+      while (true) {
+        if (readSegment == null) {
+          var path = segmentPath(readSegmentStart);
+          if (!Files.exists(path)) {
+            return null;
+          }
+          readSegment = map(path, FileChannel.MapMode.READ_ONLY);
+        }
+        var offset = (int) (readPosition - readSegmentStart);
+        var length = validRecordLength(readSegment, offset, readCrc);
+        if (length > 0) {
+          var payload = readSegment.duplicate();
+          payload.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+          readPosition += RECORD_HEADER_SIZE + length;
+          return payload;
+        }
+        if (length < 0 || !Files.exists(segmentPath(readSegmentStart + segmentSize))) {
+          return null;
+        }
+        readSegment = null;
+        readSegmentStart += segmentSize;
+        readPosition = readSegmentStart;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Path segmentPath(long segmentStart) {
+    return directory.resolve(String.format("%020d%s", segmentStart, SEGMENT_SUFFIX));
+  }
+
+  private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+    var options = mode == FileChannel.MapMode.READ_ONLY
+        ? new StandardOpenOption[]{StandardOpenOption.READ}
+        : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE};
+    try (var channel = FileChannel.open(path, options)) {
+      if (mode != FileChannel.MapMode.READ_ONLY && channel.size() == 0) {
+        // grow the new segment to its full size, the file system fills it with zeros
+        channel.write(ByteBuffer.allocate(1), segmentSize - 1);
+      }
+      if (channel.size() != segmentSize) {
+        throw new IllegalStateException("Segment " + path + " is not " + segmentSize + " bytes");
+      }
+      return channel.map(mode, 0, segmentSize);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+/**
+ * This decides when {@link DomainEventProcessor} takes a snapshot, after a number of events or
+ * after a number of journal bytes since the last one, whichever comes first.
+ */
+public class SnapshotPolicy {
+
+  private final long eventInterval;
+  private final long byteInterval;
+
+  private SnapshotPolicy(long eventInterval, long byteInterval) {
+    if (eventInterval <= 0 || byteInterval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval must be positive");
+    }
+    this.eventInterval = eventInterval;
+    this.byteInterval = byteInterval;
+  }
+
+  /**
+   * Takes a snapshot every {@code events} events.
+   *
+   * @param events the number of events between snapshots
+   * @return the policy
+   */
+  public static SnapshotPolicy everyEvents(long events) {
+    return new SnapshotPolicy(events, Long.MAX_VALUE);
+  }
+
+  /**
+   * Takes a snapshot whenever {@code bytes} bytes have been written to the journal.
+   *
+   * @param bytes the number of journal bytes between snapshots
+   * @return the policy
+   */
+  public static SnapshotPolicy everyBytes(long bytes) {
+    return new SnapshotPolicy(Long.MAX_VALUE, bytes);
+  }
+
+  /**
+   * Takes a snapshot every {@code events} events or {@code bytes} journal bytes, whichever comes
+   * first.
+   *
+   * @param events the number of events between snapshots
+   * @param bytes  the number of journal bytes between snapshots
+   * @return the policy
+   */
+  public static SnapshotPolicy every(long events, long bytes) {
+    return new SnapshotPolicy(events, bytes);
+  }
+
+  /**
+   * Is a snapshot due.
+   *
+   * @param events the number of events since the last snapshot
+   * @param bytes  the number of journal bytes since the last snapshot
+   * @return true if a snapshot should be taken
+   */
+  public boolean isDue(long events, long bytes) {
+    return events >= eventInterval || bytes >= byteInterval;
+  }
+}
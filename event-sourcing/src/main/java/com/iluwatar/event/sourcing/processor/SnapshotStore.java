@@ -0,0 +1,298 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This stores {@link AccountSnapshot}s as files named after their journal position in a
+ * directory. A snapshot is written to a temporary file, forced to the disk and then renamed, and
+ * it ends with a CRC32C checksum, so a snapshot interrupted by a crash is never mistaken for a
+ * valid one. The latest two snapshots are kept.
+ *
+ * <p>{@link #saveAsync(AccountSnapshot, EventJournal)} syncs the journal and writes on a
+ * background thread, so taking a snapshot does not stop the event processing.
+ */
+public class SnapshotStore implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotStore.class);
+
+  private static final int MAGIC = 0x534e4150;
+  private static final String PREFIX = "snapshot-";
+  private static final String SUFFIX = ".bin";
+  private static final int RETAINED_SNAPSHOTS = 2;
+
+  private final Path directory;
+  private final AtomicBoolean writing = new AtomicBoolean();
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    var thread = new Thread(runnable, "snapshot-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Instantiates a new Snapshot store.
+   *
+   * @param directory the directory of the snapshot files
+   */
+  public SnapshotStore(Path directory) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Is the store idle.
+   *
+   * @return false while a snapshot is being written in the background
+   */
+  public boolean isIdle() {
+    return !writing.get();
+  }
+
+  /**
+   * Writes the snapshot in the background, unless another snapshot is still being written. The
+   * journal is synced up to the position of the snapshot first, so the snapshot never becomes
+   * durable before the events it covers.
+   *
+   * @param snapshot the snapshot
+   * @param journal  the journal the snapshot covers
+   * @return true if the snapshot will be written, false if it was skipped
+   */
+  public boolean saveAsync(AccountSnapshot snapshot, EventJournal journal) {
+    if (!writing.compareAndSet(false, true)) {
+      return false;
+    }
+    writer.execute(() -> {
+      try {
+        journal.sync(snapshot.getPosition());
+        save(snapshot);
+      } catch (UncheckedIOException e) {
+        LOGGER.error("Snapshot at position {} not saved", snapshot.getPosition(), e);
+      } finally {
+        writing.set(false);
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Writes the snapshot and removes the older snapshots beyond the latest two.
+   *
+   * @param snapshot the snapshot
+   */
+  public void save(AccountSnapshot snapshot) {
+    var file = snapshotPath(snapshot.getPosition());
+    var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (var fileOutput = new FileOutputStream(temporaryFile.toFile())) {
+        var checkedOutput = new CheckedOutputStream(new BufferedOutputStream(fileOutput),
+            new CRC32C());
+        var output = new DataOutputStream(checkedOutput);
+        output.writeInt(MAGIC);
+        output.writeLong(snapshot.getPosition());
+        output.writeInt(snapshot.getAccounts().size());
+        for (var account : snapshot.getAccounts()) {
+          writeAccount(output, account);
+        }
+        output.flush();
+        var checksum = checkedOutput.getChecksum().getValue();
+        output.writeLong(checksum);
+        output.flush();
+        fileOutput.getFD().sync();
+      }
+      Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+      var snapshots = listSnapshots();
+      for (var i = RETAINED_SNAPSHOTS; i < snapshots.size(); i++) {
+        Files.deleteIfExists(snapshots.get(i));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads the latest valid snapshot, skipping the ones that cannot be read.
+   *
+   * @return the snapshot or null if there is no valid snapshot
+   */
+  public AccountSnapshot loadLatest() {
+    return loadLatest(Long.MAX_VALUE);
+  }
+
+  /**
+   * Loads the latest valid snapshot that does not go beyond the end of the journal. The snapshots
+   * beyond it cover events the journal lost in a crash and are deleted, so events written after
+   * the recovery are not skipped by a later one.
+   *
+   * @param endPosition the position after the last event of the recovered journal
+   * @return the snapshot or null if there is no valid snapshot
+   */
+  public AccountSnapshot loadLatest(long endPosition) {
+    awaitPendingWrite();
+    try {
+      for (var file : listSnapshots()) {
+        try {
+          var snapshot = load(file);
+          if (snapshot.getPosition() > endPosition) {
+            LOGGER.warn("Deleting snapshot {} beyond the end of the journal at {}", file,
+                endPosition);
+            Files.delete(file);
+            continue;
+          }
+          return snapshot;
+        } catch (IOException e) {
+          LOGGER.warn("Skipping invalid snapshot {}: {}", file, e.getMessage());
+        }
+      }
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Deletes all snapshots.
+   */
+  public void clear() {
+    awaitPendingWrite();
+    try {
+      for (var file : listSnapshots()) {
+        Files.delete(file);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Waits for the snapshot being written and stops the background thread.
+   */
+  @Override
+  public void close() {
+    awaitPendingWrite();
+    writer.shutdown();
+  }
+
+  private void awaitPendingWrite() {
+    Future<?> barrier = writer.submit(() -> { });
+    try {
+      barrier.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private AccountSnapshot load(Path file) throws IOException {
+    try (var checkedInput = new CheckedInputStream(
+        new BufferedInputStream(Files.newInputStream(file)), new CRC32C())) {
+      var input = new DataInputStream(checkedInput);
+      if (input.readInt() != MAGIC) {
+        throw new IOException("Not a snapshot");
+      }
+      var position = input.readLong();
+      var count = input.readInt();
+      var accounts = new ArrayList<Account>(count);
+      for (var i = 0; i < count; i++) {
+        accounts.add(readAccount(input));
+      }
+      var checksum = checkedInput.getChecksum().getValue();
+      if (input.readLong() != checksum) {
+        throw new IOException("Checksum mismatch");
+      }
+      return new AccountSnapshot(position, accounts);
+    }
+  }
+
+  private static void writeAccount(DataOutputStream output, Account account) throws IOException {
+    output.writeInt(account.getAccountNo());
+    output.writeBoolean(account.getOwner() != null);
+    if (account.getOwner() != null) {
+      output.writeUTF(account.getOwner());
+    }
+    var unscaled = account.getMoney().unscaledValue().toByteArray();
+    output.writeInt(account.getMoney().scale());
+    output.writeInt(unscaled.length);
+    output.write(unscaled);
+  }
+
+  private static Account readAccount(DataInputStream input) throws IOException {
+    var accountNo = input.readInt();
+    var owner = input.readBoolean() ? input.readUTF() : null;
+    var scale = input.readInt();
+    var unscaled = new byte[input.readInt()];
+    input.readFully(unscaled);
+    return new Account(accountNo, owner, new BigDecimal(new BigInteger(unscaled), scale));
+  }
+
+  /*
+   * Returns the snapshot files, latest first.
+   */
+  private List<Path> listSnapshots() throws IOException {
+    try (var files = Files.list(directory)) {
+      return files
+          .filter(file -> {
+            var name = file.getFileName().toString();
+            return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+          })
+          .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+          .collect(Collectors.toList());
+    }
+  }
+
+  private Path snapshotPath(long position) {
+    return directory.resolve(String.format("%s%020d%s", PREFIX, position, SUFFIX));
+  }
+}
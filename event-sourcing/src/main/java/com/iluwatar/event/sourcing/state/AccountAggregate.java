@@ -24,18 +24,21 @@
 package com.iluwatar.event.sourcing.state;
 
 import com.iluwatar.event.sourcing.domain.Account;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This is the static accounts map holder class. This class holds the state of the accounts.
  *
+ * <p>The accounts are immutable and kept in a concurrent map, so events of different accounts can
+ * be applied from different threads and readers get the latest published version without a copy.
+ *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class AccountAggregate {
 
-  private static Map<Integer, Account> accounts = new HashMap<>();
+  private static volatile Map<Integer, Account> accounts = new ConcurrentHashMap<>();
 
   private AccountAggregate() {
   }
@@ -53,19 +56,25 @@ public class AccountAggregate {
    * Gets account.
    *
    * @param accountNo the account no
-   * @return the copy of the account or null if not found
+   * @return the account or null if not found
    */
   public static Account getAccount(int accountNo) {
-    return Optional.of(accountNo)
-        .map(accounts::get)
-        .map(Account::copy)
-        .orElse(null);
+    return accounts.get(accountNo);
+  }
+
+  /**
+   * Gets all accounts.
+   *
+   * @return the accounts
+   */
+  public static List<Account> getAccounts() {
+    return List.copyOf(accounts.values());
   }
 
   /**
    * Reset state.
    */
   public static void resetState() {
-    accounts = new HashMap<>();
+    accounts = new ConcurrentHashMap<>();
   }
 }
@@ -29,9 +29,16 @@ import com.iluwatar.event.sourcing.event.AccountCreateEvent;
 import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
 import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
 import com.iluwatar.event.sourcing.processor.DomainEventProcessor;
+import com.iluwatar.event.sourcing.processor.JsonFileJournal;
+import com.iluwatar.event.sourcing.processor.MappedFileJournal;
+import com.iluwatar.event.sourcing.processor.MappedFileJournal.SyncPolicy;
 import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Date;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -47,12 +54,27 @@ public class IntegrationTest {
    */
   private DomainEventProcessor eventProcessor;
 
+  /**
+   * The JSON journal file, in a temporary directory.
+   */
+  private Path journalFile;
+
   /**
    * Initialize.
    */
   @BeforeEach
-  public void initialize() {
-    eventProcessor = new DomainEventProcessor();
+  public void initialize() throws IOException {
+    journalFile = Files.createTempDirectory("journal").resolve("Journal.json");
+    eventProcessor = new DomainEventProcessor(new JsonFileJournal(journalFile.toFile()));
+  }
+
+  /**
+   * Removes the JSON journal file.
+   */
+  @AfterEach
+  public void deleteJournal() throws IOException {
+    Files.deleteIfExists(journalFile);
+    Files.delete(journalFile.getParent());
   }
 
   /**
@@ -83,7 +105,7 @@ public class IntegrationTest {
 
     AccountAggregate.resetState();
 
-    eventProcessor = new DomainEventProcessor();
+    eventProcessor = new DomainEventProcessor(new JsonFileJournal(journalFile.toFile()));
     eventProcessor.recover();
 
     var accountOfDaenerysAfterShotDown = AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS);
@@ -94,4 +116,51 @@ public class IntegrationTest {
     assertEquals(accountOfJonBeforeShotDown.getMoney(), accountOfJonAfterShotDown.getMoney());
   }
 
-}
\ No newline at end of file
+  /**
+   * Test state recovery from a memory-mapped journal.
+   */
+  @Test
+  public void testStateRecoveryWithMappedFileJournal() throws IOException {
+    AccountAggregate.resetState();
+    var directory = Files.createTempDirectory("journal");
+    eventProcessor = new DomainEventProcessor(
+        new MappedFileJournal(directory, 1024 * 1024, SyncPolicy.GROUP_COMMIT));
+    eventProcessor.reset();
+
+    eventProcessor.process(new AccountCreateEvent(
+        0, new Date().getTime(), ACCOUNT_OF_DAENERYS, "Daenerys Targaryen"));
+
+    eventProcessor.process(new AccountCreateEvent(
+        1, new Date().getTime(), ACCOUNT_OF_JON, "Jon Snow"));
+
+    eventProcessor.process(new MoneyDepositEvent(
+        2, new Date().getTime(), ACCOUNT_OF_DAENERYS, new BigDecimal("100000")));
+
+    eventProcessor.process(new MoneyTransferEvent(
+        3, new Date().getTime(), new BigDecimal("10000"), ACCOUNT_OF_DAENERYS,
+        ACCOUNT_OF_JON));
+
+    var accountOfDaenerysBeforeShotDown = AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS);
+    var accountOfJonBeforeShotDown = AccountAggregate.getAccount(ACCOUNT_OF_JON);
+
+    eventProcessor.close();
+    AccountAggregate.resetState();
+
+    eventProcessor = new DomainEventProcessor(
+        new MappedFileJournal(directory, 1024 * 1024, SyncPolicy.GROUP_COMMIT));
+    eventProcessor.recover();
+
+    assertEquals(accountOfDaenerysBeforeShotDown.getMoney(),
+        AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS).getMoney());
+    assertEquals(accountOfJonBeforeShotDown.getMoney(),
+        AccountAggregate.getAccount(ACCOUNT_OF_JON).getMoney());
+
+    eventProcessor.close();
+    try (var files = Files.list(directory)) {
+      for (var file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+}
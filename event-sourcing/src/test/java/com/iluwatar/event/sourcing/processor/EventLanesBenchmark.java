@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Events per second applied by {@link DomainEventProcessor} with 1 to 16 lanes. Lane count 0 is
+ * the processing on the caller thread. Every 16th event is a transfer between two random accounts,
+ * the others are deposits. The journal discards the events, so only applying them is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventLanesBenchmark {
+
+  private static final int ACCOUNTS = 4096;
+  private static final int EVENTS = 100_000;
+
+  @Param({"0", "1", "2", "4", "8", "16"})
+  public int lanes;
+
+  private DomainEventProcessor processor;
+  private DomainEvent[] events;
+
+  /**
+   * Creates the funded accounts and the events.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    AccountAggregate.resetState();
+    var journal = new DiscardingJournal();
+    processor = lanes == 0 ? new DomainEventProcessor(journal)
+        : new DomainEventProcessor(journal, lanes);
+    var funds = BigDecimal.valueOf(1_000_000);
+    for (var i = 0; i < ACCOUNTS; i++) {
+      processor.process(quiet(new AccountCreateEvent(i, 0, i, "Owner " + i)));
+      processor.process(quiet(new MoneyDepositEvent(i, 0, i, funds)));
+    }
+    processor.awaitProcessed();
+
+    var random = new Random(42);
+    events = new DomainEvent[EVENTS];
+    for (var i = 0; i < EVENTS; i++) {
+      var from = random.nextInt(ACCOUNTS);
+      if (i % 16 == 0) {
+        var to = random.nextInt(ACCOUNTS);
+        events[i] = quiet(new MoneyTransferEvent(i, 0, BigDecimal.ONE, from, to));
+      } else {
+        events[i] = quiet(new MoneyDepositEvent(i, 0, from, BigDecimal.ONE));
+      }
+    }
+  }
+
+  private static DomainEvent quiet(DomainEvent domainEvent) {
+    domainEvent.setRealTime(false);
+    return domainEvent;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    processor.close();
+    AccountAggregate.resetState();
+  }
+
+  /**
+   * Processes the events and waits until they are applied.
+   */
+  @Benchmark
+  @OperationsPerInvocation(EVENTS)
+  public void process() {
+    for (var domainEvent : events) {
+      processor.process(domainEvent);
+    }
+    processor.awaitProcessed();
+  }
+
+  /**
+   * Journal discarding the events.
+   */
+  private static class DiscardingJournal implements EventJournal {
+
+    private long position;
+
+    @Override
+    public void write(DomainEvent domainEvent) {
+      position++;
+    }
+
+    @Override
+    public void reset() {
+      position = 0;
+    }
+
+    @Override
+    public DomainEvent readNext() {
+      return null;
+    }
+
+    @Override
+    public long getPosition() {
+      return position;
+    }
+
+    @Override
+    public void seek(long position) {
+      this.position = position;
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(EventLanesBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
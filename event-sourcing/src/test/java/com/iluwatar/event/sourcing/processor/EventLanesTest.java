@@ -0,0 +1,200 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for processing events on the lanes of {@link DomainEventProcessor}.
+ */
+public class EventLanesTest {
+
+  private static final int ACCOUNTS = 64;
+
+  @BeforeEach
+  public void setUp() {
+    AccountAggregate.resetState();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    AccountAggregate.resetState();
+  }
+
+  private static List<DomainEvent> createEvents(int count) {
+    var random = new Random(42);
+    var events = new ArrayList<DomainEvent>();
+    for (var i = 0; i < ACCOUNTS; i++) {
+      events.add(new AccountCreateEvent(events.size(), 0, i, "Owner " + i));
+    }
+    while (events.size() < count) {
+      var sequenceId = events.size();
+      if (random.nextInt(4) == 0) {
+        var money = BigDecimal.valueOf(random.nextInt(50));
+        var from = random.nextInt(ACCOUNTS);
+        var to = random.nextInt(ACCOUNTS);
+        events.add(new MoneyTransferEvent(sequenceId, 0, money, from, to));
+      } else {
+        var money = BigDecimal.valueOf(random.nextInt(20));
+        events.add(new MoneyDepositEvent(sequenceId, 0, random.nextInt(ACCOUNTS), money));
+      }
+    }
+    events.forEach(domainEvent -> domainEvent.setRealTime(false));
+    return events;
+  }
+
+  private static Map<Integer, BigDecimal> balances() {
+    return AccountAggregate.getAccounts().stream()
+        .collect(Collectors.toMap(Account::getAccountNo, Account::getMoney));
+  }
+
+  private static Map<Integer, BigDecimal> processSequentially(List<DomainEvent> events) {
+    var processor = new DomainEventProcessor(new MemoryJournal());
+    for (var domainEvent : events) {
+      try {
+        processor.process(domainEvent);
+      } catch (RuntimeException e) {
+        // insufficient balance, the event is dropped like on a lane
+      }
+    }
+    var balances = balances();
+    AccountAggregate.resetState();
+    return balances;
+  }
+
+  @Test
+  public void testLanesMatchSequentialProcessing() {
+    var events = createEvents(20000);
+    var expected = processSequentially(events);
+
+    for (var laneCount : new int[] {1, 3, 8}) {
+      var journal = new MemoryJournal();
+      var processor = new DomainEventProcessor(journal, laneCount);
+      events.forEach(processor::process);
+      processor.awaitProcessed();
+
+      assertEquals(expected, balances(), "lanes: " + laneCount);
+      assertEquals(events.size(), journal.events.size() + processor.getFailedEvents());
+      processor.close();
+
+      AccountAggregate.resetState();
+      var recovering = new DomainEventProcessor(journal.reopen(), laneCount);
+      recovering.recover();
+      recovering.close();
+      assertEquals(expected, balances(), "recovered with lanes: " + laneCount);
+      AccountAggregate.resetState();
+    }
+  }
+
+  @Test
+  public void testFailedEventIsNotJournaled() {
+    var journal = new MemoryJournal();
+    var processor = new DomainEventProcessor(journal, 2);
+    processor.process(new AccountCreateEvent(0, 0, 1, "Arya"));
+    processor.process(new AccountCreateEvent(1, 0, 2, "Sansa"));
+    processor.process(new MoneyTransferEvent(2, 0, BigDecimal.TEN, 1, 2));
+    processor.process(new MoneyDepositEvent(3, 0, 1, BigDecimal.TEN));
+    processor.process(new MoneyTransferEvent(4, 0, BigDecimal.TEN, 1, 2));
+    processor.close();
+
+    assertEquals(1, processor.getFailedEvents());
+    assertEquals(List.of(0L, 1L, 3L, 4L), journal.events.stream()
+        .map(DomainEvent::getSequenceId).sorted().collect(Collectors.toList()));
+    assertEquals(BigDecimal.ZERO, AccountAggregate.getAccount(1).getMoney());
+    assertEquals(BigDecimal.TEN, AccountAggregate.getAccount(2).getMoney());
+  }
+
+  @Test
+  public void testReadersSeePublishedVersions() {
+    var processor = new DomainEventProcessor(new MemoryJournal(), 2);
+    processor.process(new AccountCreateEvent(0, 0, 1, "Arya"));
+    processor.awaitProcessed();
+    var before = AccountAggregate.getAccount(1);
+
+    processor.process(new MoneyDepositEvent(1, 0, 1, BigDecimal.ONE));
+    processor.close();
+
+    assertEquals(BigDecimal.ZERO, before.getMoney());
+    assertEquals(BigDecimal.ONE, AccountAggregate.getAccount(1).getMoney());
+    assertNull(AccountAggregate.getAccount(2));
+  }
+
+  /**
+   * Journal keeping the events in memory.
+   */
+  static class MemoryJournal implements EventJournal {
+
+    private final List<DomainEvent> events = new ArrayList<>();
+    private int index;
+
+    MemoryJournal reopen() {
+      var journal = new MemoryJournal();
+      journal.events.addAll(events);
+      return journal;
+    }
+
+    @Override
+    public void write(DomainEvent domainEvent) {
+      events.add(domainEvent);
+    }
+
+    @Override
+    public void reset() {
+      events.clear();
+      index = 0;
+    }
+
+    @Override
+    public DomainEvent readNext() {
+      return index < events.size() ? events.get(index++) : null;
+    }
+
+    @Override
+    public long getPosition() {
+      return events.size();
+    }
+
+    @Override
+    public void seek(long position) {
+      index = (int) position;
+    }
+  }
+}
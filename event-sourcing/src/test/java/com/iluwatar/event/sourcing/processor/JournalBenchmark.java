@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.processor.MappedFileJournal.SyncPolicy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Append throughput and replay time of the journals for {@code events} events. Replay includes
+ * opening the journal, since that is where {@link JsonFileJournal} loads the whole file.
+ *
+ * <p>The JSON journal reopens its file for every event, run it with a smaller {@code events}
+ * parameter, for example {@code -p events=100000}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class JournalBenchmark {
+
+  private static final Path MAPPED_DIRECTORY = Paths.get("target", "benchmark-journal");
+  private static final Path JSON_FILE = Paths.get("target", "benchmark-journal.json");
+  private static final int DISTINCT_EVENTS = 1024;
+  private static final DomainEvent[] SAMPLE_EVENTS = createEvents();
+
+  /**
+   * The journal and the number of events, shared by both benchmarks.
+   */
+  @State(Scope.Benchmark)
+  public static class JournalState {
+
+    @Param({"MAPPED", "JSON"})
+    public String journalType;
+
+    @Param({"10000000"})
+    public int events;
+
+    EventJournal openJournal() {
+      if ("JSON".equals(journalType)) {
+        return new JsonFileJournal(JSON_FILE.toFile());
+      }
+      return new MappedFileJournal(MAPPED_DIRECTORY, MappedFileJournal.DEFAULT_SEGMENT_SIZE,
+          SyncPolicy.ASYNC);
+    }
+
+    void append() {
+      try (var journal = openJournal()) {
+        for (var i = 0; i < events; i++) {
+          journal.write(SAMPLE_EVENTS[i % DISTINCT_EVENTS]);
+        }
+      }
+    }
+
+    void reset() {
+      try (var journal = openJournal()) {
+        journal.reset();
+      }
+    }
+
+    /**
+     * Removes the journal files.
+     */
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+      reset();
+      Files.deleteIfExists(JSON_FILE);
+    }
+  }
+
+  /**
+   * Starts every append iteration with an empty journal.
+   */
+  public static class AppendState extends JournalState {
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      reset();
+    }
+  }
+
+  /**
+   * Writes the events replayed by every iteration once.
+   */
+  public static class ReplayState extends JournalState {
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      reset();
+      append();
+    }
+  }
+
+  private static DomainEvent[] createEvents() {
+    var sampleEvents = new DomainEvent[DISTINCT_EVENTS];
+    for (var i = 0; i < DISTINCT_EVENTS; i++) {
+      switch (i % 3) {
+        case 0:
+          sampleEvents[i] = new AccountCreateEvent(i, i, i, "Owner " + i);
+          break;
+        case 1:
+          sampleEvents[i] = new MoneyDepositEvent(i, i, i, new BigDecimal("1000.25"));
+          break;
+        default:
+          sampleEvents[i] = new MoneyTransferEvent(i, i, new BigDecimal("10.5"), i - 1, i);
+          break;
+      }
+    }
+    return sampleEvents;
+  }
+
+  @Benchmark
+  public void append(AppendState state) {
+    state.append();
+  }
+
+  /**
+   * Opens the journal and reads every event.
+   */
+  @Benchmark
+  public void replay(ReplayState state, Blackhole blackhole) {
+    try (var journal = state.openJournal()) {
+      DomainEvent domainEvent;
+      while ((domainEvent = journal.readNext()) != null) {
+        blackhole.consume(domainEvent);
+      }
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(JournalBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
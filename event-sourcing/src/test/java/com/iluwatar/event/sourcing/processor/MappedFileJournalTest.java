@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.processor.MappedFileJournal.SyncPolicy;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MappedFileJournal}.
+ */
+public class MappedFileJournalTest {
+
+  private static final int SEGMENT_SIZE = 4096;
+
+  private Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("journal");
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    try (var files = Files.walk(directory)) {
+      for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  private static DomainEvent event(int i) {
+    switch (i % 3) {
+      case 0:
+        return new AccountCreateEvent(i, 1000L + i, i, "Owner " + i);
+      case 1:
+        var money = new BigDecimal("100.5").add(BigDecimal.valueOf(i));
+        return new MoneyDepositEvent(i, 1000L + i, i, money);
+      default:
+        return new MoneyTransferEvent(i, 1000L + i, new BigDecimal(i), i - 1, i + 1);
+    }
+  }
+
+  private static void assertSameEvent(DomainEvent expected, DomainEvent actual) {
+    assertEquals(expected.getClass(), actual.getClass());
+    assertEquals(expected.getSequenceId(), actual.getSequenceId());
+    assertEquals(expected.getCreatedTime(), actual.getCreatedTime());
+    assertFalse(actual.isRealTime());
+    if (expected instanceof AccountCreateEvent) {
+      assertEquals(((AccountCreateEvent) expected).getOwner(),
+          ((AccountCreateEvent) actual).getOwner());
+      assertEquals(((AccountCreateEvent) expected).getAccountNo(),
+          ((AccountCreateEvent) actual).getAccountNo());
+    } else if (expected instanceof MoneyDepositEvent) {
+      assertEquals(((MoneyDepositEvent) expected).getMoney(),
+          ((MoneyDepositEvent) actual).getMoney());
+    } else {
+      var expectedTransfer = (MoneyTransferEvent) expected;
+      var actualTransfer = (MoneyTransferEvent) actual;
+      assertEquals(expectedTransfer.getMoney(), actualTransfer.getMoney());
+      assertEquals(expectedTransfer.getAccountNoFrom(), actualTransfer.getAccountNoFrom());
+      assertEquals(expectedTransfer.getAccountNoTo(), actualTransfer.getAccountNoTo());
+    }
+  }
+
+  @Test
+  public void testReplayAcrossSegments() {
+    var count = 1000;
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ASYNC)) {
+      for (var i = 0; i < count; i++) {
+        journal.write(event(i));
+      }
+      assertTrue(journal.getWritePosition() > 5 * SEGMENT_SIZE);
+    }
+
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ASYNC)) {
+      for (var i = 0; i < count; i++) {
+        assertSameEvent(event(i), journal.readNext());
+      }
+      assertNull(journal.readNext());
+    }
+  }
+
+  @Test
+  public void testContinueAfterReopen() {
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ALWAYS)) {
+      journal.write(event(0));
+      journal.write(event(1));
+    }
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ALWAYS)) {
+      journal.write(event(2));
+      for (var i = 0; i < 3; i++) {
+        assertSameEvent(event(i), journal.readNext());
+      }
+      assertNull(journal.readNext());
+    }
+  }
+
+  @Test
+  public void testTornRecordEndsJournal() throws IOException {
+    long tornRecordPosition;
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ALWAYS)) {
+      journal.write(event(0));
+      tornRecordPosition = journal.getWritePosition();
+      journal.write(event(1));
+    }
+    try (var file = new RandomAccessFile(directory.resolve(
+        String.format("%020d.segment", 0)).toFile(), "rw")) {
+      // corrupt the last byte of the second record
+      file.seek(tornRecordPosition + 8 + 10);
+      file.write(0xff);
+    }
+
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ALWAYS)) {
+      assertEquals(tornRecordPosition, journal.getWritePosition());
+      journal.write(event(2));
+      assertSameEvent(event(0), journal.readNext());
+      assertSameEvent(event(2), journal.readNext());
+      assertNull(journal.readNext());
+    }
+  }
+
+  @Test
+  public void testGroupCommitWithConcurrentWriters() throws InterruptedException {
+    var writers = 4;
+    var eventsPerWriter = 250;
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.GROUP_COMMIT)) {
+      ExecutorService executor = Executors.newFixedThreadPool(writers);
+      for (var w = 0; w < writers; w++) {
+        var writer = w;
+        executor.execute(() -> {
+          for (var i = 0; i < eventsPerWriter; i++) {
+            journal.write(event(writer * eventsPerWriter + i));
+          }
+        });
+      }
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+      List<Long> sequenceIds = new ArrayList<>();
+      DomainEvent domainEvent;
+      while ((domainEvent = journal.readNext()) != null) {
+        sequenceIds.add(domainEvent.getSequenceId());
+      }
+      assertEquals(writers * eventsPerWriter, sequenceIds.size());
+      assertEquals(writers * eventsPerWriter, sequenceIds.stream().distinct().count());
+    }
+  }
+
+  @Test
+  public void testReset() {
+    try (var journal = new MappedFileJournal(directory, SEGMENT_SIZE, SyncPolicy.ASYNC)) {
+      for (var i = 0; i < 100; i++) {
+        journal.write(event(i));
+      }
+      journal.reset();
+      assertEquals(0, journal.getWritePosition());
+      assertNull(journal.readNext());
+
+      journal.write(event(7));
+      assertSameEvent(event(7), journal.readNext());
+    }
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.processor.MappedFileJournal.SyncPolicy;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SnapshotStore} and the snapshot recovery of {@link DomainEventProcessor}.
+ */
+public class SnapshotStoreTest {
+
+  private Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("snapshot");
+    AccountAggregate.resetState();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    AccountAggregate.resetState();
+    try (var files = Files.walk(directory)) {
+      for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  private static Account account(int accountNo, String owner, String money) {
+    return new Account(accountNo, owner, new BigDecimal(money));
+  }
+
+  @Test
+  public void testSaveAndLoadLatest() {
+    try (var store = new SnapshotStore(directory)) {
+      assertNull(store.loadLatest());
+
+      store.save(new AccountSnapshot(10, List.of(account(1, "Daenerys", "1.5"))));
+      store.save(new AccountSnapshot(20, List.of(account(1, "Daenerys", "2.25"),
+          account(2, null, "-3"))));
+
+      var snapshot = store.loadLatest();
+      assertEquals(20, snapshot.getPosition());
+      assertEquals(2, snapshot.getAccounts().size());
+      assertEquals(new BigDecimal("2.25"), snapshot.getAccounts().get(0).getMoney());
+      assertNull(snapshot.getAccounts().get(1).getOwner());
+      assertEquals(new BigDecimal("-3"), snapshot.getAccounts().get(1).getMoney());
+    }
+  }
+
+  @Test
+  public void testKeepsLatestTwoSnapshots() throws IOException {
+    try (var store = new SnapshotStore(directory)) {
+      for (var position = 1; position <= 5; position++) {
+        store.save(new AccountSnapshot(position, List.of(account(1, "Jon", "1"))));
+      }
+    }
+    try (var files = Files.list(directory)) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  @Test
+  public void testCorruptSnapshotIsSkipped() throws IOException {
+    try (var store = new SnapshotStore(directory)) {
+      store.save(new AccountSnapshot(10, List.of(account(1, "Jon", "1"))));
+      store.save(new AccountSnapshot(20, List.of(account(1, "Jon", "2"))));
+
+      var latest = directory.resolve(String.format("snapshot-%020d.bin", 20));
+      try (var file = new RandomAccessFile(latest.toFile(), "rw")) {
+        file.seek(20);
+        file.write(0x7f);
+      }
+
+      assertEquals(10, store.loadLatest().getPosition());
+    }
+  }
+
+  @Test
+  public void testRecoveryReplaysOnlyEventsAfterSnapshot() {
+    var journalDirectory = directory.resolve("journal");
+    var snapshotDirectory = directory.resolve("snapshots");
+    var processor = new DomainEventProcessor(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC),
+        new SnapshotStore(snapshotDirectory), SnapshotPolicy.everyEvents(100));
+    processor.reset();
+    processor.process(new AccountCreateEvent(0, 0, 1, "Arya"));
+    for (var i = 1; i < 250; i++) {
+      processor.process(new MoneyDepositEvent(i, i, 1, BigDecimal.ONE));
+    }
+    processor.close();
+    AccountAggregate.resetState();
+
+    var journal = new CountingJournal(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC));
+    var recovering = new DomainEventProcessor(journal, new SnapshotStore(snapshotDirectory),
+        SnapshotPolicy.everyEvents(100));
+    recovering.recover();
+    recovering.close();
+
+    assertEquals(new BigDecimal(249), AccountAggregate.getAccount(1).getMoney());
+    // a snapshot is skipped while the previous one is still being written, so at least the one
+    // after the first 100 events exists
+    assertTrue(journal.replayed > 0 && journal.replayed <= 150);
+  }
+
+  @Test
+  public void testSnapshotIsTakenAfterJournalSync() {
+    var journal = new CountingJournal(new MappedFileJournal(directory.resolve("journal"), 4096,
+        SyncPolicy.ASYNC));
+    var store = new SnapshotStore(directory.resolve("snapshots"));
+    var processor = new DomainEventProcessor(journal, store, SnapshotPolicy.everyEvents(10));
+    processor.reset();
+    processor.process(new AccountCreateEvent(0, 0, 1, "Arya"));
+    for (var i = 1; i < 50; i++) {
+      processor.process(new MoneyDepositEvent(i, i, 1, BigDecimal.ONE));
+    }
+    var snapshot = store.loadLatest();
+    processor.close();
+
+    assertTrue(snapshot.getPosition() > 0);
+    assertTrue(snapshot.getPosition() <= journal.synced);
+    // the processing thread does not wait for the sync
+    assertEquals("snapshot-writer", journal.syncThread);
+  }
+
+  @Test
+  public void testSnapshotOnLanesMatchesItsPosition() {
+    var journalDirectory = directory.resolve("journal");
+    var snapshotDirectory = directory.resolve("snapshots");
+    var processor = new DomainEventProcessor(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC),
+        new SnapshotStore(snapshotDirectory), SnapshotPolicy.everyEvents(50), 4);
+    processor.reset();
+    for (var account = 1; account <= 8; account++) {
+      processor.process(new AccountCreateEvent(account - 1, 0, account, "Arya"));
+      processor.process(new MoneyDepositEvent(account + 7, 0, account, new BigDecimal(1000)));
+    }
+    for (var i = 16; i < 1000; i++) {
+      var account = i % 8 + 1;
+      if (i % 5 == 0) {
+        processor.process(new MoneyTransferEvent(i, i, BigDecimal.ONE, account, account % 8 + 1));
+      } else {
+        processor.process(new MoneyDepositEvent(i, i, account, BigDecimal.ONE));
+      }
+    }
+    processor.awaitProcessed();
+    var expected = AccountAggregate.getAccounts();
+    processor.close();
+    AccountAggregate.resetState();
+
+    var journal = new CountingJournal(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC));
+    var recovering = new DomainEventProcessor(journal, new SnapshotStore(snapshotDirectory),
+        SnapshotPolicy.everyEvents(50), 4);
+    recovering.recover();
+    recovering.close();
+
+    assertTrue(journal.replayed < 1000);
+    for (var account : expected) {
+      assertEquals(account.getMoney(),
+          AccountAggregate.getAccount(account.getAccountNo()).getMoney());
+    }
+  }
+
+  @Test
+  public void testSnapshotBeyondCrashedJournalIsDiscarded() throws IOException {
+    var journalDirectory = directory.resolve("journal");
+    var snapshotDirectory = directory.resolve("snapshots");
+    var processor = new DomainEventProcessor(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC),
+        new SnapshotStore(snapshotDirectory), SnapshotPolicy.everyEvents(100));
+    processor.reset();
+    processor.process(new AccountCreateEvent(0, 0, 1, "Arya"));
+    for (var i = 1; i < 250; i++) {
+      processor.process(new MoneyDepositEvent(i, i, 1, BigDecimal.ONE));
+    }
+    processor.close();
+
+    // a crash loses the end of the journal the latest snapshot covers
+    long snapshotPosition;
+    try (var store = new SnapshotStore(snapshotDirectory)) {
+      snapshotPosition = store.loadLatest().getPosition();
+    }
+    truncateJournal(journalDirectory, snapshotPosition / 2);
+    var survivingDeposits = -1;
+    try (var journal = new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC)) {
+      while (journal.readNext() != null) {
+        survivingDeposits++;
+      }
+    }
+
+    AccountAggregate.resetState();
+    var recovering = new DomainEventProcessor(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC),
+        new SnapshotStore(snapshotDirectory), SnapshotPolicy.everyEvents(100));
+    recovering.recover();
+    assertEquals(new BigDecimal(survivingDeposits), AccountAggregate.getAccount(1).getMoney());
+    for (var i = 0; i < 10; i++) {
+      recovering.process(new MoneyDepositEvent(1000 + i, i, 1, BigDecimal.ONE));
+    }
+    recovering.close();
+
+    // the events written after the crash are not skipped by the next recovery
+    AccountAggregate.resetState();
+    var recoveringAgain = new DomainEventProcessor(
+        new MappedFileJournal(journalDirectory, 4096, SyncPolicy.ASYNC),
+        new SnapshotStore(snapshotDirectory), SnapshotPolicy.everyEvents(100));
+    recoveringAgain.recover();
+    recoveringAgain.close();
+    assertEquals(new BigDecimal(survivingDeposits + 10),
+        AccountAggregate.getAccount(1).getMoney());
+  }
+
+  /*
+   * Cuts the journal off at the position, as if the pages from there on never reached the disk.
+   * The segments after it are deleted, the tail of the one holding it is zeroed.
+   */
+  private static void truncateJournal(Path journalDirectory, long position) throws IOException {
+    try (var files = Files.list(journalDirectory)) {
+      for (var file : (Iterable<Path>) files::iterator) {
+        var name = file.getFileName().toString();
+        var start = Long.parseLong(name.substring(0, name.indexOf('.')));
+        if (start > 0 && start >= position) {
+          Files.delete(file);
+          continue;
+        }
+        try (var segment = new RandomAccessFile(file.toFile(), "rw")) {
+          var from = Math.max(position - start, 0);
+          if (from < segment.length()) {
+            segment.seek(from);
+            segment.write(new byte[(int) (segment.length() - from)]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Journal counting the events it replays.
+   */
+  private static class CountingJournal implements EventJournal {
+
+    private final EventJournal journal;
+    private int replayed;
+    private volatile long synced;
+    private volatile String syncThread;
+
+    CountingJournal(EventJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void write(DomainEvent domainEvent) {
+      journal.write(domainEvent);
+    }
+
+    @Override
+    public void reset() {
+      journal.reset();
+    }
+
+    @Override
+    public DomainEvent readNext() {
+      var domainEvent = journal.readNext();
+      if (domainEvent != null) {
+        replayed++;
+      }
+      return domainEvent;
+    }
+
+    @Override
+    public long getPosition() {
+      return journal.getPosition();
+    }
+
+    @Override
+    public void seek(long position) {
+      journal.seek(position);
+    }
+
+    @Override
+    public void sync(long position) {
+      journal.sync(position);
+      synced = Math.max(synced, position);
+      syncThread = Thread.currentThread().getName();
+    }
+
+    @Override
+    public void close() {
+      journal.close();
+    }
+  }
+}
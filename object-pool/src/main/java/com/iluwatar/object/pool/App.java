@@ -42,7 +42,8 @@ import org.slf4j.LoggerFactory;
  *
  * <p>In this example we have created {@link OliphauntPool} inheriting from generic {@link
  * ObjectPool}. {@link Oliphaunt}s can be checked out from the pool and later returned to it. The
- * pool tracks created instances and their status (available, inUse).
+ * pool tracks created instances and their status (available, inUse). {@link
+ * ConcurrentOliphauntPool} does the same for pools shared by many threads, without a global lock.
  */
 public class App {
 
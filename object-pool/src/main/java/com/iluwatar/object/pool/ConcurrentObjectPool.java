@@ -0,0 +1,366 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.object.pool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * High-throughput alternative to {@link ObjectPool} with the same {@link #create()} contract.
+ *
+ * <p>Every pooled object is wrapped in an entry whose state (idle, in use, removed) is changed
+ * with a CAS, so whoever wins the CAS owns the object and no global monitor is needed. Objects
+ * checked in are remembered in a small per-thread list, and a thread that checks out again first
+ * tries to reclaim one of its own recently returned objects. This fast path touches no shared
+ * data structure apart from the entry itself. Idle objects are also published on a shared
+ * lock-free stack, where any thread can take them.
+ *
+ * <p>The pool can be bounded. When all objects are in use, a check out either fails straight away
+ * or blocks for up to the maximum wait time, depending on the configuration. Objects that stay
+ * idle longer than the idle timeout are evicted in the background and handed to {@link
+ * #destroy(Object)}.
+ *
+ * @param <T> Type T of Object in the Pool
+ */
+public abstract class ConcurrentObjectPool<T> implements AutoCloseable {
+
+  private static final int IDLE = 0;
+  private static final int IN_USE = 1;
+  private static final int REMOVED = 2;
+
+  private static final int LOCAL_CACHE_SIZE = 8;
+
+  private static class Entry<T> {
+    final T instance;
+    final AtomicInteger state = new AtomicInteger(IN_USE);
+    // true while a node for this entry is on the shared stack
+    final AtomicBoolean queued = new AtomicBoolean();
+    volatile long lastReturnedNanos;
+
+    Entry(T instance) {
+      this.instance = instance;
+    }
+  }
+
+  private static class StackNode<T> {
+    final Entry<T> entry;
+    StackNode<T> next;
+
+    StackNode(Entry<T> entry) {
+      this.entry = entry;
+    }
+  }
+
+  private final int maxSize;
+  private final boolean blockWhenExhausted;
+  private final long maxWaitNanos;
+  private final long idleTimeoutNanos;
+
+  private final ConcurrentHashMap<T, Entry<T>> entries = new ConcurrentHashMap<>();
+  private final AtomicReference<StackNode<T>> shared = new AtomicReference<>();
+  private final ThreadLocal<ArrayList<Entry<T>>> localCache =
+      ThreadLocal.withInitial(() -> new ArrayList<>(LOCAL_CACHE_SIZE));
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final ReentrantLock waitLock = new ReentrantLock();
+  private final Condition returned = waitLock.newCondition();
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  private final ScheduledExecutorService evictor;
+  private final PoolMetrics metrics;
+
+  /**
+   * Creates an unbounded pool that never evicts idle objects.
+   */
+  protected ConcurrentObjectPool() {
+    this(Integer.MAX_VALUE, false, Duration.ZERO, Duration.ZERO, null);
+  }
+
+  /**
+   * Creates a pool.
+   *
+   * @param maxSize            maximum number of objects the pool creates
+   * @param blockWhenExhausted whether a check out of an exhausted pool waits for a check in
+   *                           rather than failing immediately
+   * @param maxWait            how long a blocked check out waits before it fails
+   * @param idleTimeout        how long an object may stay idle before it is evicted, zero to
+   *                           never evict
+   * @param metrics            where the pool records its health, null for none
+   */
+  protected ConcurrentObjectPool(int maxSize, boolean blockWhenExhausted, Duration maxWait,
+      Duration idleTimeout, PoolMetrics metrics) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.maxSize = maxSize;
+    this.blockWhenExhausted = blockWhenExhausted;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.metrics = metrics;
+    if (idleTimeoutNanos > 0) {
+      evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "object-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+      });
+      var period = Math.max(idleTimeoutNanos / 2, TimeUnit.MILLISECONDS.toNanos(10));
+      evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+    } else {
+      evictor = null;
+    }
+  }
+
+  protected abstract T create();
+
+  /**
+   * Called with every object evicted from the pool. Does nothing by default.
+   */
+  protected void destroy(T instance) {
+  }
+
+  /**
+   * Checkout object from pool.
+   *
+   * @throws PoolExhaustedException if the pool is bounded and no object became available
+   */
+  public T checkOut() {
+    var entry = borrowIdle();
+    if (entry != null) {
+      if (metrics != null) {
+        metrics.recordCheckOut(entry.instance, 0); // took an idle object, no need for the clock
+      }
+      return entry.instance;
+    }
+    var start = metrics == null ? 0 : System.nanoTime();
+    var instance = createOrWait();
+    if (metrics != null) {
+      metrics.recordCheckOut(instance, System.nanoTime() - start);
+    }
+    return instance;
+  }
+
+  /**
+   * Checkin object to the pool.
+   */
+  public void checkIn(T instance) {
+    var entry = entries.get(instance);
+    if (entry == null || entry.state.get() != IN_USE) {
+      throw new IllegalArgumentException("Object is not checked out of this pool");
+    }
+    entry.lastReturnedNanos = System.nanoTime();
+    entry.state.set(IDLE);
+    var local = localCache.get();
+    if (local.size() == LOCAL_CACHE_SIZE) {
+      local.remove(0);
+    }
+    local.add(entry);
+    if (entry.queued.compareAndSet(false, true)) {
+      push(entry);
+    }
+    signalWaiter();
+    if (metrics != null) {
+      metrics.recordCheckIn(instance);
+    }
+  }
+
+  /**
+   * Evicts the objects that have been idle for longer than the idle timeout.
+   */
+  public void evictIdle() {
+    var now = System.nanoTime();
+    for (var entry : entries.values()) {
+      if (entry.state.get() == IDLE && now - entry.lastReturnedNanos > idleTimeoutNanos
+          && entry.state.compareAndSet(IDLE, REMOVED)) {
+        entries.remove(entry.instance);
+        freeSlot();
+        if (metrics != null) {
+          metrics.recordDestroy();
+        }
+        destroy(entry.instance);
+      }
+    }
+  }
+
+  /**
+   * Returns the metrics of this pool, or null if it is not instrumented.
+   */
+  public PoolMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Stops the background eviction.
+   */
+  @Override
+  public void close() {
+    if (evictor != null) {
+      evictor.shutdownNow();
+    }
+  }
+
+  @Override
+  public String toString() {
+    var available = 0;
+    var inUse = 0;
+    for (var entry : entries.values()) {
+      var state = entry.state.get();
+      if (state == IDLE) {
+        available++;
+      } else if (state == IN_USE) {
+        inUse++;
+      }
+    }
+    return String.format("Pool available=%d inUse=%d", available, inUse);
+  }
+
+  private T createOrWait() {
+    var entry = createEntry();
+    if (entry != null) {
+      return entry.instance;
+    }
+    if (!blockWhenExhausted) {
+      throw new PoolExhaustedException("Pool exhausted, maxSize=" + maxSize);
+    }
+    return awaitCheckIn();
+  }
+
+  private Entry<T> borrow() {
+    var entry = borrowIdle();
+    return entry != null ? entry : createEntry();
+  }
+
+  private Entry<T> borrowIdle() {
+    var local = localCache.get();
+    for (var i = local.size() - 1; i >= 0; i--) {
+      var entry = local.remove(i);
+      if (entry.state.compareAndSet(IDLE, IN_USE)) {
+        return entry;
+      }
+    }
+    for (var node = pop(); node != null; node = pop()) {
+      var entry = node.entry;
+      entry.queued.set(false);
+      if (entry.state.compareAndSet(IDLE, IN_USE)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private Entry<T> createEntry() {
+    if (size.incrementAndGet() > maxSize) {
+      size.decrementAndGet();
+      return null;
+    }
+    T instance;
+    try {
+      instance = create();
+    } catch (RuntimeException | Error e) {
+      // give the slot back, or enough failed creations would exhaust the pool for good
+      freeSlot();
+      throw e;
+    }
+    var entry = new Entry<>(instance);
+    entries.put(entry.instance, entry);
+    if (metrics != null) {
+      metrics.recordCreate();
+    }
+    return entry;
+  }
+
+  /*
+   * Lets a blocked check out create an object in the freed slot.
+   */
+  private void freeSlot() {
+    size.decrementAndGet();
+    signalWaiter();
+  }
+
+  private void signalWaiter() {
+    if (waiters.get() > 0) {
+      waitLock.lock();
+      try {
+        returned.signal();
+      } finally {
+        waitLock.unlock();
+      }
+    }
+  }
+
+  private T awaitCheckIn() {
+    var remaining = maxWaitNanos;
+    waitLock.lock();
+    waiters.incrementAndGet();
+    try {
+      while (true) {
+        var entry = borrow();
+        if (entry != null) {
+          return entry.instance;
+        }
+        if (remaining <= 0) {
+          throw new PoolExhaustedException("Timed out waiting for an object, maxSize=" + maxSize);
+        }
+        remaining = returned.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PoolExhaustedException("Interrupted while waiting for an object");
+    } finally {
+      waiters.decrementAndGet();
+      waitLock.unlock();
+    }
+  }
+
+  private void push(Entry<T> entry) {
+    var node = new StackNode<>(entry);
+    while (true) {
+      var head = shared.get();
+      node.next = head;
+      if (shared.compareAndSet(head, node)) {
+        return;
+      }
+    }
+  }
+
+  private StackNode<T> pop() {
+    while (true) {
+      var head = shared.get();
+      if (head == null) {
+        return null;
+      }
+      if (shared.compareAndSet(head, head.next)) {
+        return head;
+      }
+    }
+  }
+}
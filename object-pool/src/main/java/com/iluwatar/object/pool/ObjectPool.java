@@ -25,6 +25,7 @@ package com.iluwatar.object.pool;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Generic object pool.
@@ -33,31 +34,88 @@ import java.util.Set;
  */
 public abstract class ObjectPool<T> {
 
+  private final ReentrantLock lock = new ReentrantLock();
   private Set<T> available = new HashSet<>();
   private Set<T> inUse = new HashSet<>();
+  private final PoolMetrics metrics;
+
+  protected ObjectPool() {
+    this(null);
+  }
+
+  /**
+   * Creates a pool that records its health in the given metrics, null for none.
+   */
+  protected ObjectPool(PoolMetrics metrics) {
+    this.metrics = metrics;
+  }
 
   protected abstract T create();
 
   /**
-   * Checkout object from pool.
+   * Checkout object from pool. With metrics, the clock is only read when the check out has to
+   * wait for the lock or for a new object, an uncontended check out is recorded as no wait.
+   */
+  public T checkOut() {
+    var waitNanos = 0L;
+    if (metrics == null) {
+      lock.lock();
+    } else if (!lock.tryLock()) {
+      var start = System.nanoTime();
+      lock.lock();
+      waitNanos = System.nanoTime() - start;
+    }
+    try {
+      if (available.isEmpty()) {
+        var start = metrics == null ? 0 : System.nanoTime();
+        available.add(create());
+        if (metrics != null) {
+          waitNanos += System.nanoTime() - start;
+          metrics.recordCreate();
+        }
+      }
+      var instance = available.iterator().next();
+      available.remove(instance);
+      inUse.add(instance);
+      if (metrics != null) {
+        metrics.recordCheckOut(instance, waitNanos);
+      }
+      return instance;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Checkin object to the pool.
    */
-  public synchronized T checkOut() {
-    if (available.isEmpty()) {
-      available.add(create());
+  public void checkIn(T instance) {
+    lock.lock();
+    try {
+      inUse.remove(instance);
+      available.add(instance);
+    } finally {
+      lock.unlock();
+    }
+    if (metrics != null) {
+      metrics.recordCheckIn(instance);
     }
-    var instance = available.iterator().next();
-    available.remove(instance);
-    inUse.add(instance);
-    return instance;
   }
 
-  public synchronized void checkIn(T instance) {
-    inUse.remove(instance);
-    available.add(instance);
+  /**
+   * Returns the metrics of this pool, or null if it is not instrumented.
+   */
+  public PoolMetrics getMetrics() {
+    return metrics;
   }
 
   @Override
-  public synchronized String toString() {
-    return String.format("Pool available=%d inUse=%d", available.size(), inUse.size());
+  public String toString() {
+    lock.lock();
+    try {
+      return String.format("Pool available=%d inUse=%d", available.size(), inUse.size());
+    } finally {
+      lock.unlock();
+    }
   }
 }
@@ -28,6 +28,13 @@ package com.iluwatar.object.pool;
  */
 public class OliphauntPool extends ObjectPool<Oliphaunt> {
 
+  public OliphauntPool() {
+  }
+
+  public OliphauntPool(PoolMetrics metrics) {
+    super(metrics);
+  }
+
   @Override
   protected Oliphaunt create() {
     return new Oliphaunt();
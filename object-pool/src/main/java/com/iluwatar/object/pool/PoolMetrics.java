@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.object.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Health metrics of an object pool: a histogram of how long check outs took, the number of active
+ * (checked out) and idle objects, and how many objects have been created. All counters are
+ * {@link LongAdder}s, so recording costs a couple of uncontended increments. The pools only read
+ * the clock when a check out actually has to wait, which keeps the metrics cheap enough to leave
+ * on in production.
+ *
+ * <p>Leak detection is optional because it has to remember every check out. When it is enabled
+ * the pool records the stack trace of each check out, and {@link #findLeaks()} reports the objects
+ * that have been checked out for longer than the leak threshold together with the place where they
+ * were checked out.
+ */
+public class PoolMetrics {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PoolMetrics.class);
+
+  /**
+   * Bucket i of the wait time histogram counts the check outs that waited less than 2^i
+   * nanoseconds (and at least 2^(i-1)).
+   */
+  public static final int HISTOGRAM_BUCKETS = 40;
+
+  /**
+   * An object that was checked out for longer than the leak threshold.
+   */
+  public static final class Leak {
+    private final Object instance;
+    private final long heldNanos;
+    private final Throwable checkOutTrace;
+
+    Leak(Object instance, long heldNanos, Throwable checkOutTrace) {
+      this.instance = instance;
+      this.heldNanos = heldNanos;
+      this.checkOutTrace = checkOutTrace;
+    }
+
+    public Object getInstance() {
+      return instance;
+    }
+
+    public long getHeld(TimeUnit unit) {
+      return unit.convert(heldNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a throwable whose stack trace is the one of the check out.
+     */
+    public Throwable getCheckOutTrace() {
+      return checkOutTrace;
+    }
+  }
+
+  private static final class CheckOut {
+    final long nanos = System.nanoTime();
+    final Throwable trace = new Throwable("Checked out here");
+  }
+
+  private final LongAdder[] waitHistogram = new LongAdder[HISTOGRAM_BUCKETS];
+  private final LongAdder checkedIn = new LongAdder();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder destroyed = new LongAdder();
+  private final long startNanos = System.nanoTime();
+  private final long leakThresholdNanos;
+  private final ConcurrentHashMap<Object, CheckOut> outstanding;
+
+  /**
+   * Creates metrics without leak detection.
+   */
+  public PoolMetrics() {
+    this(0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Creates metrics with leak detection if the threshold is positive.
+   *
+   * @param leakThreshold how long an object may be checked out before it is reported as a leak
+   * @param unit          unit of the leak threshold
+   */
+  public PoolMetrics(long leakThreshold, TimeUnit unit) {
+    for (var i = 0; i < HISTOGRAM_BUCKETS; i++) {
+      waitHistogram[i] = new LongAdder();
+    }
+    this.leakThresholdNanos = unit.toNanos(leakThreshold);
+    this.outstanding = leakThresholdNanos > 0 ? new ConcurrentHashMap<>() : null;
+  }
+
+  void recordCreate() {
+    created.increment();
+  }
+
+  void recordDestroy() {
+    destroyed.increment();
+  }
+
+  void recordCheckOut(Object instance, long waitNanos) {
+    var bucket = Math.min(64 - Long.numberOfLeadingZeros(waitNanos), HISTOGRAM_BUCKETS - 1);
+    waitHistogram[bucket].increment();
+    if (outstanding != null) {
+      outstanding.put(instance, new CheckOut());
+    }
+  }
+
+  void recordCheckIn(Object instance) {
+    checkedIn.increment();
+    if (outstanding != null) {
+      outstanding.remove(instance);
+    }
+  }
+
+  public long getActiveCount() {
+    return getCheckOutCount() - checkedIn.sum();
+  }
+
+  public long getIdleCount() {
+    return created.sum() - destroyed.sum() - getActiveCount();
+  }
+
+  public long getCreatedCount() {
+    return created.sum();
+  }
+
+  /**
+   * Returns the number of check outs, the sum of the wait time histogram.
+   */
+  public long getCheckOutCount() {
+    var count = 0L;
+    for (var bucket : waitHistogram) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of objects created per second since the metrics were created.
+   */
+  public double getCreationRate() {
+    var elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+    return created.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  /**
+   * Returns a copy of the check out wait time histogram, see {@link #HISTOGRAM_BUCKETS}.
+   */
+  public long[] getWaitHistogram() {
+    var counts = new long[HISTOGRAM_BUCKETS];
+    for (var i = 0; i < HISTOGRAM_BUCKETS; i++) {
+      counts[i] = waitHistogram[i].sum();
+    }
+    return counts;
+  }
+
+  /**
+   * Returns an upper bound of the given percentile (0-100) of check out wait times in nanoseconds,
+   * precise to a factor of two.
+   */
+  public long getWaitPercentile(double percentile) {
+    var counts = getWaitHistogram();
+    var total = 0L;
+    for (var count : counts) {
+      total += count;
+    }
+    var rank = (long) Math.ceil(total * percentile / 100);
+    var seen = 0L;
+    for (var i = 0; i < HISTOGRAM_BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return 1L << i;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the objects checked out for longer than the leak threshold and logs a warning for
+   * each of them. Always empty if leak detection is disabled.
+   */
+  public List<Leak> findLeaks() {
+    var leaks = new ArrayList<Leak>();
+    if (outstanding == null) {
+      return leaks;
+    }
+    var now = System.nanoTime();
+    outstanding.forEach((instance, checkOut) -> {
+      var held = now - checkOut.nanos;
+      if (held > leakThresholdNanos) {
+        LOGGER.warn("Possible leak: {} checked out for {} ms", instance,
+            TimeUnit.NANOSECONDS.toMillis(held), checkOut.trace);
+        leaks.add(new Leak(instance, held, checkOut.trace));
+      }
+    });
+    return leaks;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("PoolMetrics active=%d idle=%d created=%d p99Wait=%dns",
+        getActiveCount(), getIdleCount(), getCreatedCount(), getWaitPercentile(99));
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.object.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ConcurrentObjectPool}.
+ */
+public class ConcurrentObjectPoolTest {
+
+  private static class CountingPool extends ConcurrentObjectPool<Object> {
+    final AtomicInteger created = new AtomicInteger();
+    final AtomicInteger destroyed = new AtomicInteger();
+
+    CountingPool() {
+    }
+
+    CountingPool(int maxSize, boolean block, Duration maxWait, Duration idleTimeout) {
+      super(maxSize, block, maxWait, idleTimeout, null);
+    }
+
+    @Override
+    protected Object create() {
+      created.incrementAndGet();
+      return new Object();
+    }
+
+    @Override
+    protected void destroy(Object instance) {
+      destroyed.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testReusesReturnedObject() {
+    var pool = new CountingPool();
+    assertEquals("Pool available=0 inUse=0", pool.toString());
+    var first = pool.checkOut();
+    var second = pool.checkOut();
+    assertNotSame(first, second);
+    assertEquals("Pool available=0 inUse=2", pool.toString());
+
+    pool.checkIn(second);
+    assertEquals("Pool available=1 inUse=1", pool.toString());
+    assertSame(second, pool.checkOut());
+    assertEquals(2, pool.created.get());
+
+    assertThrows(IllegalArgumentException.class, () -> pool.checkIn(new Object()));
+  }
+
+  @Test
+  public void testFailsWhenExhausted() {
+    var pool = new CountingPool(1, false, Duration.ZERO, Duration.ZERO);
+    var only = pool.checkOut();
+    assertThrows(PoolExhaustedException.class, pool::checkOut);
+    pool.checkIn(only);
+    assertSame(only, pool.checkOut());
+  }
+
+  @Test
+  public void testBlocksUntilCheckIn() throws Exception {
+    var pool = new CountingPool(1, true, Duration.ofSeconds(5), Duration.ZERO);
+    var only = pool.checkOut();
+    var executor = Executors.newSingleThreadExecutor();
+    var borrowed = executor.submit(pool::checkOut);
+    Thread.sleep(50);
+    pool.checkIn(only);
+    assertSame(only, borrowed.get(5, TimeUnit.SECONDS));
+    executor.shutdown();
+
+    var timingOut = new CountingPool(1, true, Duration.ofMillis(20), Duration.ZERO);
+    timingOut.checkOut();
+    assertThrows(PoolExhaustedException.class, timingOut::checkOut);
+  }
+
+  @Test
+  public void testFailedCreationFreesSlot() throws Exception {
+    var attempts = new AtomicInteger();
+    var creating = new CountDownLatch(1);
+    var fail = new CountDownLatch(1);
+    var pool = new ConcurrentObjectPool<Object>(1, true, Duration.ofSeconds(5), Duration.ZERO,
+        null) {
+      @Override
+      protected Object create() {
+        var attempt = attempts.incrementAndGet();
+        if (attempt == 3) {
+          creating.countDown();
+          try {
+            fail.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        if (attempt <= 3) {
+          throw new IllegalStateException("Factory failed");
+        }
+        return new Object();
+      }
+    };
+    assertThrows(IllegalStateException.class, pool::checkOut);
+    assertThrows(IllegalStateException.class, pool::checkOut);
+
+    // a check out waiting for the only slot gets it when the creation holding it fails
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var failing = executor.submit(pool::checkOut);
+      creating.await();
+      var waiting = executor.submit(pool::checkOut);
+      Thread.sleep(50);
+      fail.countDown();
+      var thrown = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+      assertTrue(thrown.getCause() instanceof IllegalStateException);
+      assertNotNull(waiting.get(2, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testEvictsIdleObjects() throws Exception {
+    try (var pool = new CountingPool(10, false, Duration.ZERO, Duration.ofMillis(20))) {
+      var instance = pool.checkOut();
+      pool.checkIn(instance);
+      for (var i = 0; i < 100 && pool.destroyed.get() == 0; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, pool.destroyed.get());
+      assertEquals("Pool available=0 inUse=0", pool.toString());
+      assertNotSame(instance, pool.checkOut());
+    }
+  }
+
+  @Test
+  public void testNeverHandsOutAnObjectTwice() throws Exception {
+    var pool = new CountingPool(4, true, Duration.ofSeconds(5), Duration.ZERO);
+    var inUse = ConcurrentHashMap.newKeySet();
+    var failures = new AtomicInteger();
+    var threads = 16;
+    var done = new CountDownLatch(threads);
+    var executor = Executors.newFixedThreadPool(threads);
+    for (var t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        for (var i = 0; i < 10_000; i++) {
+          var instance = pool.checkOut();
+          if (!inUse.add(instance)) {
+            failures.incrementAndGet();
+          }
+          inUse.remove(instance);
+          pool.checkIn(instance);
+        }
+        done.countDown();
+      });
+    }
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertEquals(0, failures.get());
+    assertTrue(pool.created.get() <= 4);
+    assertEquals("Pool available=" + pool.created.get() + " inUse=0", pool.toString());
+  }
+}
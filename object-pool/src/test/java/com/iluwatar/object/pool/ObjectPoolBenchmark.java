@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.object.pool;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Borrow/return throughput of {@link OliphauntPool} and {@link ConcurrentOliphauntPool}. Both
+ * pools are filled with one oliphaunt per benchmark thread up front, so the one second it takes
+ * to create an oliphaunt is not part of the measurement.
+ *
+ * <p>Run {@link #main(String[])} to execute the benchmark with 1 to 32 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectPoolBenchmark {
+
+  private static final int MAX_THREADS = 32;
+
+  private OliphauntPool pool;
+  private ConcurrentOliphauntPool concurrentPool;
+
+  /**
+   * Creates the oliphaunts for both pools.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    pool = new OliphauntPool();
+    concurrentPool = new ConcurrentOliphauntPool();
+    var oliphaunts = new Oliphaunt[MAX_THREADS];
+    var concurrentOliphaunts = new Oliphaunt[MAX_THREADS];
+    for (var i = 0; i < MAX_THREADS; i++) {
+      oliphaunts[i] = pool.checkOut();
+      concurrentOliphaunts[i] = concurrentPool.checkOut();
+    }
+    for (var i = 0; i < MAX_THREADS; i++) {
+      pool.checkIn(oliphaunts[i]);
+      concurrentPool.checkIn(concurrentOliphaunts[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    concurrentPool.close();
+  }
+
+  @Benchmark
+  public Oliphaunt objectPool() {
+    var oliphaunt = pool.checkOut();
+    pool.checkIn(oliphaunt);
+    return oliphaunt;
+  }
+
+  @Benchmark
+  public Oliphaunt concurrentObjectPool() {
+    var oliphaunt = concurrentPool.checkOut();
+    concurrentPool.checkIn(oliphaunt);
+    return oliphaunt;
+  }
+
+  /**
+   * Runs the benchmark once for every thread count.
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (var threads = 1; threads <= MAX_THREADS; threads *= 2) {
+      var options = new OptionsBuilder()
+          .include(ObjectPoolBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.object.pool;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of the {@link PoolMetrics} instrumentation per check out and check in of an {@link
+ * OliphauntPool}: the difference between the plain and the instrumented benchmark is the overhead
+ * of metrics that are meant to stay on in production. Leak detection is measured separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoolMetricsBenchmark {
+
+  private OliphauntPool plainPool;
+  private OliphauntPool instrumentedPool;
+  private OliphauntPool leakDetectingPool;
+
+  /**
+   * Creates the pools and their single oliphaunt.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    plainPool = new OliphauntPool();
+    instrumentedPool = new OliphauntPool(new PoolMetrics());
+    leakDetectingPool = new OliphauntPool(new PoolMetrics(1, TimeUnit.MINUTES));
+    for (var pool : new OliphauntPool[]{plainPool, instrumentedPool, leakDetectingPool}) {
+      pool.checkIn(pool.checkOut());
+    }
+  }
+
+  @Benchmark
+  public Oliphaunt plain() {
+    return borrowAndReturn(plainPool);
+  }
+
+  @Benchmark
+  public Oliphaunt instrumented() {
+    return borrowAndReturn(instrumentedPool);
+  }
+
+  @Benchmark
+  public Oliphaunt leakDetection() {
+    return borrowAndReturn(leakDetectingPool);
+  }
+
+  private static Oliphaunt borrowAndReturn(OliphauntPool pool) {
+    var oliphaunt = pool.checkOut();
+    pool.checkIn(oliphaunt);
+    return oliphaunt;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PoolMetricsBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.object.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PoolMetrics}.
+ */
+public class PoolMetricsTest {
+
+  private static class StringPool extends ObjectPool<Object> {
+    private int counter;
+
+    StringPool(PoolMetrics metrics) {
+      super(metrics);
+    }
+
+    @Override
+    protected Object create() {
+      return "object" + counter++;
+    }
+  }
+
+  @Test
+  public void testGaugesAndCounters() {
+    var metrics = new PoolMetrics();
+    var pool = new StringPool(metrics);
+    assertSame(metrics, pool.getMetrics());
+
+    var first = pool.checkOut();
+    var second = pool.checkOut();
+    assertEquals(2, metrics.getActiveCount());
+    assertEquals(0, metrics.getIdleCount());
+    assertEquals(2, metrics.getCreatedCount());
+
+    pool.checkIn(first);
+    assertEquals(1, metrics.getActiveCount());
+    assertEquals(1, metrics.getIdleCount());
+
+    pool.checkIn(pool.checkOut());
+    pool.checkIn(second);
+    assertEquals(0, metrics.getActiveCount());
+    assertEquals(2, metrics.getIdleCount());
+    assertEquals(2, metrics.getCreatedCount());
+    assertEquals(3, metrics.getCheckOutCount());
+    assertEquals(3, Arrays.stream(metrics.getWaitHistogram()).sum());
+    assertTrue(metrics.getWaitPercentile(99) > 0);
+    assertTrue(metrics.getCreationRate() > 0);
+    assertTrue(metrics.findLeaks().isEmpty());
+  }
+
+  @Test
+  public void testFindsLeaks() throws Exception {
+    var metrics = new PoolMetrics(10, TimeUnit.MILLISECONDS);
+    var pool = new StringPool(metrics);
+    var leaked = pool.checkOut();
+    pool.checkIn(pool.checkOut());
+    assertTrue(metrics.findLeaks().isEmpty());
+
+    Thread.sleep(20);
+    var leaks = metrics.findLeaks();
+    assertEquals(1, leaks.size());
+    assertSame(leaked, leaks.get(0).getInstance());
+    assertTrue(leaks.get(0).getHeld(TimeUnit.MILLISECONDS) >= 10);
+    var trace = leaks.get(0).getCheckOutTrace().getStackTrace();
+    assertTrue(Arrays.stream(trace).anyMatch(e -> e.getMethodName().equals("testFindsLeaks")));
+
+    pool.checkIn(leaked);
+    assertTrue(metrics.findLeaks().isEmpty());
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe priority queue for many producers and consumers, where consumers wait for messages
+ * instead of polling.
+ *
+ * <p>With a single stripe it is one heap behind one lock, and messages always come out highest
+ * priority first. With more stripes it is a relaxed multi-queue: a message goes into a random
+ * stripe, and a consumer looks at the top of two random stripes and takes the better one. The
+ * message taken is then not always the highest of the queue, but close to it, and producers and
+ * consumers mostly lock different stripes instead of all waiting for the same lock.
+ *
+ * @param <T> :  DataType to push in Queue
+ */
+public class BlockingPriorityMessageQueue<T extends Comparable<? super T>>
+    implements MessageQueue<T> {
+
+  private static final int TRY_LOCK_ATTEMPTS = 4;
+
+  private final Stripe<T>[] stripes;
+  private final AtomicInteger size = new AtomicInteger();
+  private final ReentrantLock waitLock = new ReentrantLock();
+  private final Condition notEmpty = waitLock.newCondition();
+  private volatile int waitingConsumers;
+
+  /**
+   * Queue keeping messages in strict priority order.
+   */
+  public BlockingPriorityMessageQueue(int initialCapacity) {
+    this(initialCapacity, 1);
+  }
+
+  /**
+   * Queue spreading messages over stripes.
+   *
+   * @param initialCapacity messages the queue holds before its heaps grow
+   * @param stripes         1 for strict priority order, more for relaxed order
+   */
+  @SuppressWarnings("unchecked")
+  public BlockingPriorityMessageQueue(int initialCapacity, int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("stripes must be positive");
+    }
+    this.stripes = new Stripe[stripes];
+    var stripeCapacity = Math.max(2, initialCapacity / stripes);
+    for (var i = 0; i < stripes; i++) {
+      this.stripes[i] = new Stripe<>(stripeCapacity);
+    }
+  }
+
+  @Override
+  public void put(T message) {
+    if (message == null) {
+      throw new NullPointerException("message cannot be null");
+    }
+    var stripe = lockStripe(ThreadLocalRandom.current().nextInt(stripes.length));
+    try {
+      stripe.add(message);
+    } finally {
+      stripe.lock.unlock();
+    }
+    // consumers check the size after announcing they wait, so one of the two sees the other
+    size.incrementAndGet();
+    if (waitingConsumers > 0) {
+      waitLock.lock();
+      try {
+        notEmpty.signal();
+      } finally {
+        waitLock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public T poll() {
+    // the message is counted off before it is taken, so the size never goes below zero. Messages
+    // are counted once published, so there is one left for every consumer that counted one off,
+    // even if another consumer takes a message published but not counted yet.
+    int current;
+    do {
+      current = size.get();
+      if (current == 0) {
+        return null;
+      }
+    } while (!size.compareAndSet(current, current - 1));
+    while (true) {
+      var message = tryRemove();
+      if (message != null) {
+        return message;
+      }
+    }
+  }
+
+  @Override
+  public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+    var message = poll();
+    if (message != null) {
+      return message;
+    }
+    var nanos = unit.toNanos(timeout);
+    while (true) {
+      waitLock.lockInterruptibly();
+      try {
+        waitingConsumers++;
+        try {
+          while (size.get() == 0) {
+            if (nanos <= 0) {
+              return null;
+            }
+            nanos = notEmpty.awaitNanos(nanos);
+          }
+        } finally {
+          waitingConsumers--;
+        }
+      } finally {
+        waitLock.unlock();
+      }
+      // another consumer may take the message first, then wait again for what time is left
+      message = poll();
+      if (message != null) {
+        return message;
+      }
+    }
+  }
+
+  /**
+   * Remove top message from queue, waiting for one if needed.
+   */
+  public T take() throws InterruptedException {
+    while (true) {
+      var message = poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      if (message != null) {
+        return message;
+      }
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size.get() == 0;
+  }
+
+  @Override
+  public int size() {
+    return size.get();
+  }
+
+  private T tryRemove() {
+    if (stripes.length == 1) {
+      return stripes[0].removeLocked();
+    }
+    // the better of two random stripes, judged by their tops read without locking
+    var random = ThreadLocalRandom.current();
+    var first = stripes[random.nextInt(stripes.length)];
+    var second = stripes[random.nextInt(stripes.length)];
+    var firstTop = first.top;
+    var secondTop = second.top;
+    Stripe<T> chosen;
+    if (firstTop == null) {
+      chosen = secondTop == null ? null : second;
+    } else {
+      chosen = secondTop != null && secondTop.compareTo(firstTop) > 0 ? second : first;
+    }
+    if (chosen != null && chosen.lock.tryLock()) {
+      try {
+        return chosen.remove();
+      } finally {
+        chosen.lock.unlock();
+      }
+    }
+    // both looked empty or the better one was busy, a scan finds the few messages left
+    var start = random.nextInt(stripes.length);
+    for (var i = 0; i < stripes.length; i++) {
+      var stripe = stripes[(start + i) % stripes.length];
+      if (stripe.top != null && stripe.lock.tryLock()) {
+        try {
+          var message = stripe.remove();
+          if (message != null) {
+            return message;
+          }
+        } finally {
+          stripe.lock.unlock();
+        }
+      }
+    }
+    return null;
+  }
+
+  private Stripe<T> lockStripe(int first) {
+    for (var attempt = 0; attempt < TRY_LOCK_ATTEMPTS && stripes.length > 1; attempt++) {
+      var stripe = stripes[(first + attempt) % stripes.length];
+      if (stripe.lock.tryLock()) {
+        return stripe;
+      }
+    }
+    var stripe = stripes[first];
+    stripe.lock.lock();
+    return stripe;
+  }
+
+  /**
+   * Heap of a stripe with its lock. The top is published so consumers can pick a stripe without
+   * locking it.
+   */
+  private static final class Stripe<T extends Comparable<? super T>> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityMessageQueue<T> heap;
+    private volatile T top;
+
+    @SuppressWarnings("unchecked")
+    Stripe(int capacity) {
+      heap = new PriorityMessageQueue<>((T[]) new Comparable[capacity]);
+    }
+
+    void add(T message) {
+      heap.add(message);
+      top = heap.peek();
+    }
+
+    T remove() {
+      var message = heap.remove();
+      top = heap.peek();
+      return message;
+    }
+
+    T removeLocked() {
+      lock.lock();
+      try {
+        return remove();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -36,9 +36,13 @@ public class Message implements Comparable<Message> {
     this.priority = priority;
   }
 
+  public int getPriority() {
+    return priority;
+  }
+
   @Override
   public int compareTo(Message o) {
-    return priority - o.priority;
+    return Integer.compare(priority, o.priority);
   }
 
   @Override
@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread safe queue deciding which message is received next.
+ *
+ * @param <T> :  DataType to push in Queue
+ */
+public interface MessageQueue<T> {
+
+  /**
+   * Add message to queue, waking up a waiting consumer.
+   */
+  void put(T message);
+
+  /**
+   * Remove next message from queue without waiting.
+   *
+   * @return the message or null if the queue is empty
+   */
+  T poll();
+
+  /**
+   * Remove next message from queue, waiting up to the timeout for one.
+   *
+   * @return the message or null if none came within the timeout
+   */
+  T poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+  /**
+   * Number of messages in queue.
+   */
+  int size();
+
+  /**
+   * Check queue size.
+   */
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Queue with a first in, first out lane per priority class, served by weighted round-robin: going
+ * from the highest class down, each lane hands out up to its weight of messages before the next
+ * one gets its turn. A low class gets fewer turns than a high one, but always gets them, so its
+ * messages do not starve however many high priority messages keep coming. Adding and removing
+ * take constant time.
+ *
+ * @param <T> :  DataType to push in Queue
+ */
+public class PriorityLanes<T> implements MessageQueue<T> {
+
+  private final ToIntFunction<T> priorityClass;
+  private final int[] weights;
+  private final ArrayDeque<T>[] lanes;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private int size;
+  private int currentLane;
+  private int credit;
+
+  /**
+   * Lanes for priority classes 0 to weights.length - 1, class weights.length - 1 being served
+   * first. Priorities below or above are put in the lowest or highest class.
+   *
+   * @param priorityClass priority class of a message
+   * @param weights       messages a lane may hand out in a row, one per class
+   */
+  @SuppressWarnings("unchecked")
+  public PriorityLanes(ToIntFunction<T> priorityClass, int... weights) {
+    if (weights.length == 0) {
+      throw new IllegalArgumentException("At least one priority class is needed");
+    }
+    for (var weight : weights) {
+      if (weight < 1) {
+        throw new IllegalArgumentException("weights must be positive");
+      }
+    }
+    this.priorityClass = priorityClass;
+    this.weights = weights.clone();
+    this.lanes = new ArrayDeque[weights.length];
+    for (var i = 0; i < lanes.length; i++) {
+      lanes[i] = new ArrayDeque<>();
+    }
+    this.currentLane = lanes.length - 1;
+    this.credit = this.weights[currentLane];
+  }
+
+  @Override
+  public void put(T message) {
+    if (message == null) {
+      throw new NullPointerException("message cannot be null");
+    }
+    var lane = Math.max(0, Math.min(lanes.length - 1, priorityClass.applyAsInt(message)));
+    lock.lock();
+    try {
+      lanes[lane].addLast(message);
+      size++;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public T poll() {
+    lock.lock();
+    try {
+      return next();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+    var nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (size == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return next();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of messages in the lane of a priority class.
+   */
+  public int size(int priorityClass) {
+    lock.lock();
+    try {
+      return lanes[priorityClass].size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private T next() {
+    if (size == 0) {
+      return null;
+    }
+    // at most one turn of every lane and back to the current one is needed to find a message
+    while (credit == 0 || lanes[currentLane].isEmpty()) {
+      currentLane = currentLane == 0 ? lanes.length - 1 : currentLane - 1;
+      credit = weights[currentLane];
+    }
+    credit--;
+    size--;
+    return lanes[currentLane].pollFirst();
+  }
+}
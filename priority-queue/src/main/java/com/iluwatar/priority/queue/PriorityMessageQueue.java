@@ -59,6 +59,7 @@ public class PriorityMessageQueue<T extends Comparable> {
 
     final var root = queue[0];
     queue[0] = queue[size - 1];
+    queue[size - 1] = null;
     size--;
     maxHeapifyDown();
     return root;
@@ -74,6 +75,13 @@ public class PriorityMessageQueue<T extends Comparable> {
     maxHeapifyUp();
   }
 
+  /**
+   * Top message of the queue, without removing it.
+   */
+  public T peek() {
+    return isEmpty() ? null : queue[0];
+  }
+
   /**
    * Check queue size.
    */
@@ -81,6 +89,13 @@ public class PriorityMessageQueue<T extends Comparable> {
     return size == 0;
   }
 
+  /**
+   * Number of messages in queue.
+   */
+  public int size() {
+    return size;
+  }
+
 
   private void maxHeapifyDown() {
     var index = 0;
@@ -23,36 +23,147 @@
 
 package com.iluwatar.priority.queue;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Manage priority queue.
+ *
+ * <p>By default messages are received highest priority first, which lets low priority messages
+ * wait forever while higher ones keep coming. Two other orders avoid that: with aging, the
+ * priority of a message rises by one for every aging interval it waits, and with priority lanes,
+ * every priority class gets a share of the turns. How long messages of each priority waited is
+ * kept in a {@link QueueTimeHistogram}.
  */
 public class QueueManager {
   /*
      Priority message
    */
-  private final PriorityMessageQueue<Message> messagePriorityMessageQueue;
+  private final MessageQueue<QueuedMessage> messagePriorityMessageQueue;
+
+  private final Map<Integer, QueueTimeHistogram> queueTimes = new ConcurrentHashMap<>();
+
+  private final long agingNanos;
+
+  private final long startNanos = System.nanoTime();
 
   public QueueManager(int initialCapacity) {
-    messagePriorityMessageQueue = new PriorityMessageQueue<>(new Message[initialCapacity]);
+    this(initialCapacity, 1);
+  }
+
+  /**
+   * Queue manager spreading messages over stripes, see {@link BlockingPriorityMessageQueue}.
+   */
+  public QueueManager(int initialCapacity, int stripes) {
+    this(new BlockingPriorityMessageQueue<>(initialCapacity, stripes), 0);
+  }
+
+  private QueueManager(MessageQueue<QueuedMessage> queue, long agingNanos) {
+    this.messagePriorityMessageQueue = queue;
+    this.agingNanos = agingNanos;
+  }
+
+  /**
+   * Queue manager whose messages gain one priority for every agingInterval they wait.
+   *
+   * <p>A message published at time p with priority x has priority x + (t - p) / agingInterval at
+   * time t. Between two messages, the one with the higher x - p / agingInterval is higher at any
+   * time, so that rank is fixed when the message is published and the heap never needs to be
+   * reordered as time passes.
+   */
+  public static QueueManager withAging(int initialCapacity, int stripes, long agingInterval,
+      TimeUnit unit) {
+    var agingNanos = unit.toNanos(agingInterval);
+    if (agingNanos <= 0) {
+      throw new IllegalArgumentException("agingInterval must be positive");
+    }
+    return new QueueManager(new BlockingPriorityMessageQueue<>(initialCapacity, stripes),
+        agingNanos);
+  }
+
+  /**
+   * Queue manager with a lane for each priority from 0 to weights.length - 1, see
+   * {@link PriorityLanes}. Lower and higher priorities go to the lowest and highest lane.
+   *
+   * @param weights messages a lane may hand out in a row, from priority 0 up
+   */
+  public static QueueManager withPriorityLanes(int... weights) {
+    return new QueueManager(
+        new PriorityLanes<QueuedMessage>(queued -> queued.message.getPriority(), weights), 0);
   }
 
   /**
    * Publish message to queue.
    */
   public void publishMessage(Message message) {
-    messagePriorityMessageQueue.add(message);
+    var now = System.nanoTime();
+    messagePriorityMessageQueue.put(new QueuedMessage(message, now, rank(message, now)));
+  }
+
+  private long rank(Message message, long now) {
+    if (agingNanos == 0) {
+      return message.getPriority();
+    }
+    long weight;
+    try {
+      weight = Math.multiplyExact((long) message.getPriority(), agingNanos);
+    } catch (ArithmeticException e) {
+      // priorities this far apart would take centuries of waiting to meet
+      weight = message.getPriority() > 0 ? Long.MAX_VALUE / 2 : Long.MIN_VALUE / 2;
+    }
+    return weight - (now - startNanos);
   }
 
 
   /**
    * recive message from queue.
+   *
+   * @return the message or null if the queue is empty
    */
   public Message receiveMessage() {
-    if (messagePriorityMessageQueue.isEmpty()) {
+    return received(messagePriorityMessageQueue.poll());
+  }
+
+  /**
+   * recive message from queue, waiting up to the timeout for one.
+   *
+   * @return the message or null if none came within the timeout
+   */
+  public Message receiveMessage(long timeout, TimeUnit unit) throws InterruptedException {
+    return received(messagePriorityMessageQueue.poll(timeout, unit));
+  }
+
+  private Message received(QueuedMessage queued) {
+    if (queued == null) {
       return null;
     }
-    return messagePriorityMessageQueue.remove();
+    queueTimes.computeIfAbsent(queued.message.getPriority(), priority -> new QueueTimeHistogram())
+        .record(System.nanoTime() - queued.publishedNanos);
+    return queued.message;
   }
 
+  /**
+   * Number of messages in queue.
+   */
+  public int size() {
+    return messagePriorityMessageQueue.size();
+  }
+
+  /**
+   * Time received messages of a priority spent in queue.
+   *
+   * @return the histogram, empty if no message of that priority was received
+   */
+  public QueueTimeHistogram getQueueTimeHistogram(int priority) {
+    return queueTimes.getOrDefault(priority, new QueueTimeHistogram());
+  }
 
+  /**
+   * Time received messages spent in queue, by priority.
+   */
+  public Map<Integer, QueueTimeHistogram> getQueueTimeHistograms() {
+    return new TreeMap<>(queueTimes);
+  }
 }
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times messages spent in queue, counted in buckets doubling in size: bucket i counts the times
+ * below 2^i nanoseconds that are not in a lower bucket. Recording is lock free, so it is cheap
+ * enough to do for every message, and percentiles are only as precise as the buckets.
+ */
+public class QueueTimeHistogram {
+
+  private static final int BUCKETS = 64;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Record time a message spent in queue.
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(bucket(Math.max(0, nanos)));
+  }
+
+  private static int bucket(long nanos) {
+    return BUCKETS - Long.numberOfLeadingZeros(nanos);
+  }
+
+  /**
+   * Number of times recorded.
+   */
+  public long getCount() {
+    var count = 0L;
+    for (var i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Time below which the given share of the recorded times are.
+   *
+   * @param percentile between 0 and 100
+   * @return upper bound of the bucket holding the percentile, 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile, TimeUnit unit) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+    var snapshot = new long[BUCKETS];
+    var count = 0L;
+    for (var i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+    var rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    var seen = 0L;
+    var bucket = 0;
+    while (bucket < BUCKETS - 1) {
+      seen += snapshot[bucket];
+      if (seen >= rank) {
+        break;
+      }
+      bucket++;
+    }
+    var upperBound = bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    return unit.convert(upperBound, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return "QueueTimeHistogram{"
+        + "count=" + getCount()
+        + ", p50<" + getPercentile(50, TimeUnit.MICROSECONDS) + "us"
+        + ", p99<" + getPercentile(99, TimeUnit.MICROSECONDS) + "us"
+        + ", p99.9<" + getPercentile(99.9, TimeUnit.MICROSECONDS) + "us"
+        + '}';
+  }
+}
@@ -23,6 +23,7 @@
 
 package com.iluwatar.priority.queue;
 
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +34,8 @@ public class Worker {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Worker.class);
 
+  private static final long WAIT_SECONDS = 1;
+
   private final QueueManager queueManager;
 
   public Worker(QueueManager queueManager) {
@@ -40,15 +43,13 @@ public class Worker {
   }
 
   /**
-   * Keep checking queue for message.
+   * Keep waiting on queue for message, until interrupted.
    */
-  @SuppressWarnings("squid:S2189")
   public void run() throws Exception {
-    while (true) {
-      var message = queueManager.receiveMessage();
+    while (!Thread.currentThread().isInterrupted()) {
+      var message = queueManager.receiveMessage(WAIT_SECONDS, TimeUnit.SECONDS);
       if (message == null) {
         LOGGER.info("No Message ... waiting");
-        Thread.sleep(200);
       } else {
         processMessage(message);
       }
@@ -0,0 +1,227 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for the blocking priority queue
+ */
+public class BlockingPriorityMessageQueueTest {
+
+  @Test
+  public void strictOrder() {
+    var queue = new BlockingPriorityMessageQueue<Integer>(2);
+    var random = new Random(1);
+    var expected = new ArrayList<Integer>();
+    for (var i = 0; i < 1000; i++) {
+      var value = random.nextInt(100);
+      queue.put(value);
+      expected.add(value);
+    }
+    expected.sort(Collections.reverseOrder());
+    var received = new ArrayList<Integer>();
+    Integer value;
+    while ((value = queue.poll()) != null) {
+      received.add(value);
+    }
+    assertEquals(expected, received);
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void relaxedOrderKeepsEveryMessage() {
+    var queue = new BlockingPriorityMessageQueue<Integer>(16, 8);
+    for (var i = 0; i < 1000; i++) {
+      queue.put(i);
+    }
+    assertEquals(1000, queue.size());
+    var received = new ArrayList<Integer>();
+    Integer value;
+    while ((value = queue.poll()) != null) {
+      received.add(value);
+    }
+    assertEquals(1000, received.size());
+    // taken from the better of two stripes, the first messages come from the top of the queue
+    assertTrue(received.subList(0, 10).stream().allMatch(v -> v >= 900));
+    Collections.sort(received);
+    for (var i = 0; i < 1000; i++) {
+      assertEquals(i, (int) received.get(i));
+    }
+  }
+
+  @Test
+  public void pollTimesOut() throws InterruptedException {
+    var queue = new BlockingPriorityMessageQueue<Integer>(2, 4);
+    var start = System.nanoTime();
+    assertNull(queue.poll(50, TimeUnit.MILLISECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void takeWaitsForMessage() throws Exception {
+    var queue = new BlockingPriorityMessageQueue<Integer>(2);
+    var received = new AtomicReference<Integer>();
+    var consumer = new Thread(() -> {
+      try {
+        received.set(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    consumer.start();
+    Thread.sleep(50);
+    queue.put(7);
+    consumer.join(5000);
+    assertEquals(7, (int) received.get());
+  }
+
+  @Test
+  public void takeIsInterruptible() throws Exception {
+    var queue = new BlockingPriorityMessageQueue<Integer>(2);
+    var failure = new AtomicReference<Throwable>();
+    var consumer = new Thread(() -> {
+      try {
+        queue.take();
+      } catch (Throwable e) {
+        failure.set(e);
+      }
+    });
+    consumer.start();
+    Thread.sleep(50);
+    consumer.interrupt();
+    consumer.join(5000);
+    assertTrue(failure.get() instanceof InterruptedException);
+  }
+
+  @Test
+  public void nullMessage() {
+    var queue = new BlockingPriorityMessageQueue<Integer>(2);
+    assertThrows(NullPointerException.class, () -> queue.put(null));
+  }
+
+  @Test
+  public void manyProducersAndConsumers() throws Exception {
+    for (var stripes : new int[] {1, 8}) {
+      var queue = new BlockingPriorityMessageQueue<Integer>(16, stripes);
+      var producers = 4;
+      var consumers = 4;
+      var perProducer = 20000;
+      var total = producers * perProducer;
+      var seen = new AtomicIntegerArray(total);
+      var received = new AtomicInteger();
+      var done = new CountDownLatch(consumers);
+      var executor = Executors.newFixedThreadPool(producers + consumers);
+      try {
+        for (var p = 0; p < producers; p++) {
+          var first = p * perProducer;
+          executor.execute(() -> {
+            for (var i = first; i < first + perProducer; i++) {
+              queue.put(i);
+            }
+          });
+        }
+        for (var c = 0; c < consumers; c++) {
+          executor.execute(() -> {
+            try {
+              while (received.get() < total) {
+                var value = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (value != null) {
+                  seen.incrementAndGet(value);
+                  received.incrementAndGet();
+                }
+              }
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } finally {
+              done.countDown();
+            }
+          });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+      } finally {
+        executor.shutdownNow();
+      }
+      for (var i = 0; i < total; i++) {
+        assertEquals(1, seen.get(i));
+      }
+      assertTrue(queue.isEmpty());
+    }
+  }
+
+  @Test
+  public void sizeNeverNegative() throws Exception {
+    for (var stripes : new int[] {1, 8}) {
+      var queue = new BlockingPriorityMessageQueue<Integer>(16, stripes);
+      var total = 400000;
+      var received = new AtomicInteger();
+      var smallestSize = new AtomicInteger();
+      var done = new CountDownLatch(4);
+      var executor = Executors.newFixedThreadPool(8);
+      try {
+        for (var p = 0; p < 4; p++) {
+          executor.execute(() -> {
+            for (var i = 0; i < total / 4; i++) {
+              queue.put(i);
+            }
+          });
+        }
+        for (var c = 0; c < 4; c++) {
+          executor.execute(() -> {
+            try {
+              while (received.get() < total) {
+                if (queue.poll() != null) {
+                  received.incrementAndGet();
+                }
+                smallestSize.accumulateAndGet(queue.size(), Math::min);
+              }
+            } finally {
+              done.countDown();
+            }
+          });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+      } finally {
+        executor.shutdownNow();
+      }
+      assertEquals(0, smallestSize.get());
+      assertEquals(0, queue.size());
+      assertTrue(queue.isEmpty());
+    }
+  }
+}
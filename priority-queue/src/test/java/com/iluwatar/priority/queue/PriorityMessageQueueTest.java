@@ -24,6 +24,7 @@
 package com.iluwatar.priority.queue;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -71,4 +72,18 @@ public class PriorityMessageQueueTest {
     stringPriorityMessageQueue.add(3);
     assertEquals(3, (int) stringPriorityMessageQueue.remove());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void peekAndSize() {
+    var stringPriorityMessageQueue = new PriorityMessageQueue<>(new Integer[2]);
+    assertNull(stringPriorityMessageQueue.peek());
+    stringPriorityMessageQueue.add(4);
+    stringPriorityMessageQueue.add(7);
+    stringPriorityMessageQueue.add(1);
+    assertEquals(7, (int) stringPriorityMessageQueue.peek());
+    assertEquals(3, stringPriorityMessageQueue.size());
+    stringPriorityMessageQueue.remove();
+    assertEquals(4, (int) stringPriorityMessageQueue.peek());
+    assertEquals(2, stringPriorityMessageQueue.size());
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Messages per second through a queue with 8 producers and 8 consumers, for the blocking priority
+ * queue with strict and relaxed order and for {@link PriorityBlockingQueue}. Consumers wait at most
+ * a millisecond, so an iteration can end while the queue is empty.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Group)
+public class PriorityQueueBenchmark {
+
+  @Param({"PRIORITY_BLOCKING_QUEUE", "STRICT", "RELAXED"})
+  public String queue;
+
+  private PriorityBlockingQueue<Message> priorityBlockingQueue;
+
+  private BlockingPriorityMessageQueue<Message> blockingPriorityMessageQueue;
+
+  private Message[] messages;
+
+  /**
+   * Creates an empty queue for every iteration, so messages left by faster producers do not pile
+   * up across iterations.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    priorityBlockingQueue = new PriorityBlockingQueue<>(1024);
+    switch (queue) {
+      case "STRICT":
+        blockingPriorityMessageQueue = new BlockingPriorityMessageQueue<>(1024);
+        break;
+      case "RELAXED":
+        blockingPriorityMessageQueue = new BlockingPriorityMessageQueue<>(1024,
+            4 * Runtime.getRuntime().availableProcessors());
+        break;
+      default:
+        blockingPriorityMessageQueue = null;
+    }
+    messages = new Message[1024];
+    for (var i = 0; i < messages.length; i++) {
+      messages[i] = new Message("message " + i, i % 10);
+    }
+  }
+
+  @Benchmark
+  @Group("queue")
+  @GroupThreads(8)
+  public void produce() {
+    var message = messages[ThreadLocalRandom.current().nextInt(messages.length)];
+    if (blockingPriorityMessageQueue == null) {
+      priorityBlockingQueue.put(message);
+    } else {
+      blockingPriorityMessageQueue.put(message);
+    }
+  }
+
+  @Benchmark
+  @Group("queue")
+  @GroupThreads(8)
+  public Message consume() throws InterruptedException {
+    if (blockingPriorityMessageQueue == null) {
+      return priorityBlockingQueue.poll(1, TimeUnit.MILLISECONDS);
+    }
+    return blockingPriorityMessageQueue.poll(1, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(PriorityQueueBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
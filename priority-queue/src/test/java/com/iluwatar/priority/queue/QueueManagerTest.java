@@ -24,7 +24,12 @@
 package com.iluwatar.priority.queue;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -51,4 +56,75 @@ public class QueueManagerTest {
     var recivedMessage = queueManager.receiveMessage();
     assertEquals(testMessage2, recivedMessage);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void agingLetsWaitingMessageThrough() throws InterruptedException {
+    var queueManager = QueueManager.withAging(2, 1, 10, TimeUnit.MILLISECONDS);
+    var low = new Message("Low", 0);
+    queueManager.publishMessage(low);
+    Thread.sleep(50);
+    var high = new Message("High", 2);
+    queueManager.publishMessage(high);
+    //low waited more than two aging intervals
+    assertEquals(low, queueManager.receiveMessage());
+    assertEquals(high, queueManager.receiveMessage());
+  }
+
+  @Test
+  public void agingKeepsPriorityOfFreshMessages() {
+    var queueManager = QueueManager.withAging(2, 1, 1, TimeUnit.HOURS);
+    var low = new Message("Low", 0);
+    var high = new Message("High", 1);
+    var highest = new Message("Highest", Integer.MAX_VALUE);
+    queueManager.publishMessage(low);
+    queueManager.publishMessage(high);
+    queueManager.publishMessage(highest);
+    assertEquals(highest, queueManager.receiveMessage());
+    assertEquals(high, queueManager.receiveMessage());
+    assertEquals(low, queueManager.receiveMessage());
+    assertNull(queueManager.receiveMessage());
+  }
+
+  @Test
+  public void priorityLanesServeEveryPriority() {
+    var queueManager = QueueManager.withPriorityLanes(1, 3);
+    for (var i = 0; i < 8; i++) {
+      queueManager.publishMessage(new Message("High " + i, 1));
+      queueManager.publishMessage(new Message("Low " + i, 0));
+    }
+    //priorities beyond the lanes go to the nearest one
+    queueManager.publishMessage(new Message("Higher", 5));
+    queueManager.publishMessage(new Message("Lower", -5));
+    var priorities = new ArrayList<Integer>();
+    for (var i = 0; i < 10; i++) {
+      priorities.add(queueManager.receiveMessage().getPriority());
+    }
+    assertEquals(List.of(1, 1, 1, 0, 1, 1, 1, 0, 1, 1), priorities);
+    assertEquals(8, queueManager.size());
+  }
+
+  @Test
+  public void priorityLanesWaitForMessage() throws InterruptedException {
+    var queueManager = QueueManager.withPriorityLanes(1, 1);
+    assertNull(queueManager.receiveMessage(10, TimeUnit.MILLISECONDS));
+    var message = new Message("Test Message", 1);
+    new Thread(() -> queueManager.publishMessage(message)).start();
+    assertEquals(message, queueManager.receiveMessage(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void queueTimeHistograms() {
+    var queueManager = new QueueManager(2);
+    for (var i = 0; i < 5; i++) {
+      queueManager.publishMessage(new Message("Test Message", i % 2));
+    }
+    while (queueManager.receiveMessage() != null) {
+      //receive every message
+    }
+    assertEquals(3, queueManager.getQueueTimeHistogram(0).getCount());
+    assertEquals(2, queueManager.getQueueTimeHistogram(1).getCount());
+    assertEquals(0, queueManager.getQueueTimeHistogram(7).getCount());
+    assertEquals(List.of(0, 1), new ArrayList<>(queueManager.getQueueTimeHistograms().keySet()));
+    assertTrue(queueManager.getQueueTimeHistogram(1).getPercentile(100, TimeUnit.NANOSECONDS) > 0);
+  }
+}
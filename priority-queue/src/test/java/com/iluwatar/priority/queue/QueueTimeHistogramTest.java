@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.priority.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check queue time histogram
+ */
+public class QueueTimeHistogramTest {
+
+  @Test
+  public void percentiles() {
+    var histogram = new QueueTimeHistogram();
+    assertEquals(0, histogram.getPercentile(50, TimeUnit.NANOSECONDS));
+    for (var i = 0; i < 99; i++) {
+      histogram.record(1000);
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+    assertEquals(100, histogram.getCount());
+    //1000 is below 1024, 3ms below 2^22 nanoseconds
+    assertEquals(1024, histogram.getPercentile(50, TimeUnit.NANOSECONDS));
+    assertEquals(1024, histogram.getPercentile(99, TimeUnit.NANOSECONDS));
+    assertEquals(1L << 22, histogram.getPercentile(100, TimeUnit.NANOSECONDS));
+    assertEquals(1, histogram.getPercentile(0, TimeUnit.MICROSECONDS));
+  }
+
+  @Test
+  public void extremes() {
+    var histogram = new QueueTimeHistogram();
+    histogram.record(-5);
+    histogram.record(0);
+    assertEquals(1, histogram.getPercentile(100, TimeUnit.NANOSECONDS));
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.getPercentile(100, TimeUnit.NANOSECONDS));
+    assertThrows(IllegalArgumentException.class,
+        () -> histogram.getPercentile(101, TimeUnit.NANOSECONDS));
+  }
+}
@@ -43,6 +43,8 @@ public class App {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(App.class);
 
+  private static final int BATCH_SIZE = 4;
+
   /**
    * Program entry point.
    *
@@ -67,7 +69,7 @@ public class App {
       final var consumer = new Consumer("Consumer_" + i, queue);
       executorService.submit(() -> {
         while (true) {
-          consumer.consume();
+          consumer.consumeBatch(BATCH_SIZE);
         }
       });
     }
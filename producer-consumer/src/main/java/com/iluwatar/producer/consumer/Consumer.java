@@ -23,6 +23,7 @@
 
 package com.iluwatar.producer.consumer;
 
+import java.util.ArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,4 +52,21 @@ public class Consumer {
         item.getId(), item.getProducer());
 
   }
+
+  /**
+   * Waits for an item, then consumes it together with the items queued behind it, up to max items
+   * per wake-up.
+   *
+   * @return number of consumed items
+   */
+  public int consumeBatch(int max) throws InterruptedException {
+    var batch = new ArrayList<Item>(max);
+    batch.add(queue.take());
+    queue.drainTo(batch, max - 1);
+    for (var item : batch) {
+      LOGGER.info("Consumer [{}] consume item [{}] produced by [{}]", name,
+          item.getId(), item.getProducer());
+    }
+    return batch.size();
+  }
 }
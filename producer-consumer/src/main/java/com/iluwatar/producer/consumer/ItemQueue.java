@@ -23,29 +23,104 @@
 
 package com.iluwatar.producer.consumer;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Class as a channel for {@link Producer}-{@link Consumer} exchange.
+ * Class as a channel for {@link Producer}-{@link Consumer} exchange. The items are kept in a
+ * lock-free {@link RingBuffer}, threads that find it full or empty wait as the {@link
+ * WaitStrategy} says.
  */
 public class ItemQueue {
 
-  private BlockingQueue<Item> queue;
+  private static final int DEFAULT_CAPACITY = 5;
+
+  private final RingBuffer<Item> queue;
+
+  private final WaitStrategy waitStrategy;
 
   public ItemQueue() {
+    this(DEFAULT_CAPACITY, WaitStrategy.parking(1, TimeUnit.MILLISECONDS));
+  }
 
-    queue = new LinkedBlockingQueue<>(5);
+  /**
+   * Creates a queue holding at least capacity items, rounded up to a power of two.
+   */
+  public ItemQueue(int capacity, WaitStrategy waitStrategy) {
+    this.queue = new RingBuffer<>(capacity);
+    this.waitStrategy = waitStrategy;
   }
 
+  /**
+   * Adds the item, waiting while the queue is full.
+   */
   public void put(Item item) throws InterruptedException {
+    for (var attempt = 0; !queue.offer(item); attempt++) {
+      idle(attempt);
+    }
+  }
 
-    queue.put(item);
+  /**
+   * Adds the item, waiting at most the given time while the queue is full.
+   *
+   * @return false if the queue was still full after the timeout
+   */
+  public boolean offer(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+    var deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (var attempt = 0; !queue.offer(item); attempt++) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      idle(attempt);
+    }
+    return true;
   }
 
+  /**
+   * Removes the oldest item, waiting while the queue is empty.
+   */
   public Item take() throws InterruptedException {
+    Item item;
+    for (var attempt = 0; (item = queue.poll()) == null; attempt++) {
+      idle(attempt);
+    }
+    return item;
+  }
 
-    return queue.take();
+  /**
+   * Removes the oldest item, waiting at most the given time while the queue is empty.
+   *
+   * @return null if the queue was still empty after the timeout
+   */
+  public Item poll(long timeout, TimeUnit unit) throws InterruptedException {
+    var deadline = System.nanoTime() + unit.toNanos(timeout);
+    Item item;
+    for (var attempt = 0; (item = queue.poll()) == null; attempt++) {
+      if (System.nanoTime() - deadline >= 0) {
+        return null;
+      }
+      idle(attempt);
+    }
+    return item;
   }
 
+  /**
+   * Moves up to max of the oldest items to the batch without waiting.
+   *
+   * @return number of items added to the batch
+   */
+  public int drainTo(Collection<? super Item> batch, int max) {
+    return queue.drainTo(batch, max);
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  private void idle(int attempt) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    waitStrategy.idle(attempt);
+  }
 }
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+
+/**
+ * Bounded multi-producer/multi-consumer queue in the style of the Disruptor: all slots are
+ * allocated up front in a power of two sized array and every slot has a sequence number telling
+ * whether it can be written or read in the current lap. Producers and consumers claim slots with a
+ * single CAS on their cursor and never take a lock or allocate a node. The cursors sit on cache
+ * lines of their own, see {@link RingCursors}.
+ *
+ * @param <E> type of the elements
+ */
+public class RingBuffer<E> {
+
+  private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+  private final RingCursors.HeadAndTail cursors = new RingCursors.HeadAndTail();
+  private final long[] sequences;
+  private final Object[] slots;
+  private final int mask;
+
+  /**
+   * Creates a ring buffer holding at least capacity elements, rounded up to a power of two. A
+   * single slot could not tell a written slot from one read in the previous lap, so there are at
+   * least two.
+   */
+  public RingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+    }
+    var size = Math.max(2, Integer.highestOneBit(capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+    sequences = new long[size];
+    slots = new Object[size];
+    mask = size - 1;
+    for (var i = 0; i < size; i++) {
+      sequences[i] = i;
+    }
+    VarHandle.releaseFence();
+  }
+
+  public int capacity() {
+    return slots.length;
+  }
+
+  /**
+   * Approximate number of elements, exact only while no other thread uses the buffer.
+   */
+  public int size() {
+    while (true) {
+      var head = cursors.getHead();
+      var tail = cursors.getTail();
+      if (head == cursors.getHead()) {
+        return (int) Math.max(0, Math.min(tail - head, slots.length));
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Adds the element if there is a free slot.
+   *
+   * @return false if the buffer is full
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException("element cannot be null!");
+    }
+    var position = cursors.getTail();
+    while (true) {
+      var index = (int) position & mask;
+      var difference = (long) SEQUENCES.getAcquire(sequences, index) - position;
+      if (difference == 0) {
+        if (cursors.casTail(position, position + 1)) {
+          SLOTS.set(slots, index, element);
+          SEQUENCES.setRelease(sequences, index, position + 1);
+          return true;
+        }
+        position = cursors.getTail();
+      } else if (difference < 0) {
+        // the slot still holds the element of the previous lap
+        return false;
+      } else {
+        position = cursors.getTail();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element.
+   *
+   * @return null if the buffer is empty
+   */
+  public E poll() {
+    var position = cursors.getHead();
+    while (true) {
+      var index = (int) position & mask;
+      var difference = (long) SEQUENCES.getAcquire(sequences, index) - (position + 1);
+      if (difference == 0) {
+        if (cursors.casHead(position, position + 1)) {
+          return release(index, position);
+        }
+        position = cursors.getHead();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = cursors.getHead();
+      }
+    }
+  }
+
+  /**
+   * Removes up to max of the oldest elements and adds them to the batch, claiming all of them with
+   * a single CAS.
+   *
+   * @return number of elements moved to the batch, 0 if the buffer is empty
+   */
+  public int drainTo(Collection<? super E> batch, int max) {
+    var position = cursors.getHead();
+    while (true) {
+      var limit = (int) Math.min(max, slots.length);
+      var ready = 0;
+      while (ready < limit && (long) SEQUENCES.getAcquire(sequences,
+          (int) (position + ready) & mask) == position + ready + 1) {
+        ready++;
+      }
+      if (ready == 0) {
+        return 0;
+      }
+      if (cursors.casHead(position, position + ready)) {
+        for (var i = 0; i < ready; i++) {
+          batch.add(release((int) (position + i) & mask, position + i));
+        }
+        return ready;
+      }
+      position = cursors.getHead();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private E release(int index, long position) {
+    var element = (E) SLOTS.get(slots, index);
+    SLOTS.set(slots, index, null);
+    SEQUENCES.setRelease(sequences, index, position + slots.length);
+    return element;
+  }
+}
+
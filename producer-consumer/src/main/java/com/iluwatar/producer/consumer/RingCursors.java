@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Head and tail cursors of a {@link RingBuffer}, each on cache lines of its own so producers and
+ * consumers do not invalidate each other's caches. The JVM may reorder the fields of a class but
+ * lays out the fields of a superclass before those of its subclasses, so the padding is spread
+ * over a small class hierarchy.
+ */
+final class RingCursors {
+
+  private RingCursors() {
+  }
+
+  /**
+   * Padding in front of the producer cursor.
+   */
+  abstract static class LeftPadding {
+    long p01;
+    long p02;
+    long p03;
+    long p04;
+    long p05;
+    long p06;
+    long p07;
+    long p08;
+    long p09;
+    long p10;
+    long p11;
+    long p12;
+    long p13;
+    long p14;
+    long p15;
+    long p16;
+  }
+
+  /**
+   * Next position producers write to.
+   */
+  abstract static class ProducerCursor extends LeftPadding {
+
+    private static final VarHandle TAIL;
+
+    static {
+      try {
+        TAIL = MethodHandles.lookup().findVarHandle(ProducerCursor.class, "tail", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private volatile long tail;
+
+    long getTail() {
+      return tail;
+    }
+
+    boolean casTail(long expected, long value) {
+      return TAIL.compareAndSet(this, expected, value);
+    }
+  }
+
+  /**
+   * Padding between the producer and the consumer cursor.
+   */
+  abstract static class MiddlePadding extends ProducerCursor {
+    long p21;
+    long p22;
+    long p23;
+    long p24;
+    long p25;
+    long p26;
+    long p27;
+    long p28;
+    long p29;
+    long p30;
+    long p31;
+    long p32;
+    long p33;
+    long p34;
+    long p35;
+    long p36;
+  }
+
+  /**
+   * Next position consumers read from, followed by padding to keep whatever the JVM allocates next
+   * off its cache line.
+   */
+  static final class HeadAndTail extends MiddlePadding {
+
+    private static final VarHandle HEAD;
+
+    static {
+      try {
+        HEAD = MethodHandles.lookup().findVarHandle(HeadAndTail.class, "head", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private volatile long head;
+    long p41;
+    long p42;
+    long p43;
+    long p44;
+    long p45;
+    long p46;
+    long p47;
+    long p48;
+    long p49;
+    long p50;
+    long p51;
+    long p52;
+    long p53;
+    long p54;
+    long p55;
+    long p56;
+
+    long getHead() {
+      return head;
+    }
+
+    boolean casHead(long expected, long value) {
+      return HEAD.compareAndSet(this, expected, value);
+    }
+  }
+}
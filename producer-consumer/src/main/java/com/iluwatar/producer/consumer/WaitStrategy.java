@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a thread does while the {@link RingBuffer} of an {@link ItemQueue} is full or empty. The
+ * faster a strategy notices that it can go on, the more CPU it burns while waiting.
+ */
+public interface WaitStrategy {
+
+  /**
+   * Waits a little before trying again.
+   *
+   * @param attempt how many times the thread waited already, starting at 0
+   */
+  void idle(int attempt);
+
+  /**
+   * Keeps the CPU busy, for the lowest latency when every waiting thread has a core of its own.
+   */
+  static WaitStrategy busySpin() {
+    return attempt -> Thread.onSpinWait();
+  }
+
+  /**
+   * Spins for a while, then lets other threads run before trying again.
+   */
+  static WaitStrategy yielding() {
+    return attempt -> {
+      if (attempt < Spins.SPINS) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    };
+  }
+
+  /**
+   * Spins and yields for a while, then sleeps for the given time between attempts. Producers do
+   * not have to wake consumers up, so nothing is signalled, at the cost of up to parkTime of delay
+   * once a thread sleeps.
+   */
+  static WaitStrategy parking(long parkTime, TimeUnit unit) {
+    var parkNanos = unit.toNanos(parkTime);
+    return attempt -> {
+      if (attempt < Spins.SPINS) {
+        Thread.onSpinWait();
+      } else if (attempt < Spins.SPINS + Spins.YIELDS) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(parkNanos);
+      }
+    };
+  }
+
+  /**
+   * Attempts before a waiting thread steps down to the next way of waiting.
+   */
+  final class Spins {
+    static final int SPINS = 100;
+    static final int YIELDS = 100;
+
+    private Spins() {
+    }
+  }
+}
@@ -23,6 +23,9 @@
 
 package com.iluwatar.producer.consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -56,4 +59,21 @@ public class ConsumerTest {
     verify(queue, times(ITEM_COUNT)).take();
   }
 
+  @Test
+  public void testConsumeBatch() throws Exception {
+    final var queue = spy(new ItemQueue());
+    for (var id = 0; id < ITEM_COUNT; id++) {
+      queue.put(new Item("producer", id));
+    }
+
+    reset(queue);
+    final var consumer = new Consumer("consumer", queue);
+
+    assertEquals(3, consumer.consumeBatch(3));
+    assertEquals(2, consumer.consumeBatch(3));
+
+    verify(queue, times(2)).take();
+    verify(queue, times(2)).drainTo(any(), anyInt());
+  }
+
 }
@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Items per microsecond and the percentiles of the time a put or take needs, for the {@link
+ * LinkedBlockingQueue} the {@link ItemQueue} used to wrap and for the ring buffer with each wait
+ * strategy. In the "single" group consumers take one item per call, in the "batch" group they
+ * drain up to {@value #BATCH_SIZE} items per call, counted in the items column. Both sides give up
+ * after 10 milliseconds, so an iteration can end while the queue is full or empty.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Group)
+public class ItemQueueBenchmark {
+
+  private static final int BATCH_SIZE = 64;
+
+  private static final long TIMEOUT_MILLIS = 10;
+
+  @Param({"LINKED_BLOCKING_QUEUE", "BUSY_SPIN", "YIELD", "PARK"})
+  public String queue;
+
+  @Param({"1024"})
+  public int capacity;
+
+  private BlockingQueue<Item> linkedBlockingQueue;
+
+  private ItemQueue itemQueue;
+
+  private Item[] items;
+
+  /**
+   * Creates an empty queue for every iteration, so items left by faster producers do not pile up
+   * across iterations.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    linkedBlockingQueue = null;
+    itemQueue = null;
+    switch (queue) {
+      case "LINKED_BLOCKING_QUEUE":
+        linkedBlockingQueue = new LinkedBlockingQueue<>(capacity);
+        break;
+      case "BUSY_SPIN":
+        itemQueue = new ItemQueue(capacity, WaitStrategy.busySpin());
+        break;
+      case "YIELD":
+        itemQueue = new ItemQueue(capacity, WaitStrategy.yielding());
+        break;
+      default:
+        itemQueue = new ItemQueue(capacity, WaitStrategy.parking(50, TimeUnit.MICROSECONDS));
+    }
+    items = new Item[1024];
+    for (var i = 0; i < items.length; i++) {
+      items[i] = new Item("producer", i);
+    }
+  }
+
+  /**
+   * Items consumed by a batch consumer, reported next to the number of calls.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ConsumedItems {
+
+    public long consumed;
+
+    private final List<Item> batch = new ArrayList<>(BATCH_SIZE);
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      consumed = 0;
+    }
+  }
+
+  @Benchmark
+  @Group("single")
+  @GroupThreads(1)
+  public boolean put() throws InterruptedException {
+    return offer();
+  }
+
+  @Benchmark
+  @Group("single")
+  @GroupThreads(1)
+  public Item take() throws InterruptedException {
+    if (itemQueue == null) {
+      return linkedBlockingQueue.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    return itemQueue.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Benchmark
+  @Group("batch")
+  @GroupThreads(1)
+  public boolean batchPut() throws InterruptedException {
+    return offer();
+  }
+
+  /**
+   * Waits for the first item like a {@link Consumer} does, then drains the ones behind it.
+   */
+  @Benchmark
+  @Group("batch")
+  @GroupThreads(1)
+  public int batchTake(ConsumedItems consumedItems) throws InterruptedException {
+    var batch = consumedItems.batch;
+    batch.clear();
+    var first = take();
+    if (first == null) {
+      return 0;
+    }
+    batch.add(first);
+    if (itemQueue == null) {
+      linkedBlockingQueue.drainTo(batch, BATCH_SIZE - 1);
+    } else {
+      itemQueue.drainTo(batch, BATCH_SIZE - 1);
+    }
+    consumedItems.consumed += batch.size();
+    return batch.size();
+  }
+
+  private boolean offer() throws InterruptedException {
+    var item = items[(int) (Thread.currentThread().getId() & (items.length - 1))];
+    if (itemQueue == null) {
+      return linkedBlockingQueue.offer(item, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    return itemQueue.offer(item, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs the benchmark once per producer:consumer ratio. JMH hands out the threads of a group to
+   * its methods in alphabetical order, so the first number is the count of producers.
+   */
+  public static void main(String[] args) throws RunnerException {
+    int[][] ratios = {{1, 1}, {4, 1}, {1, 4}, {4, 4}};
+    for (var ratio : ratios) {
+      var options = new OptionsBuilder()
+          .include(ItemQueueBenchmark.class.getSimpleName())
+          .threadGroups(ratio)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
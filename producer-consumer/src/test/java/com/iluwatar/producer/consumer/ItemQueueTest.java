@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ItemQueue} with each {@link WaitStrategy}.
+ */
+public class ItemQueueTest {
+
+  private static final List<WaitStrategy> WAIT_STRATEGIES = List.of(WaitStrategy.busySpin(),
+      WaitStrategy.yielding(), WaitStrategy.parking(100, TimeUnit.MICROSECONDS));
+
+  @Test
+  public void testDefaultQueueHoldsFiveItems() throws Exception {
+    var queue = new ItemQueue();
+    for (var id = 0; id < 5; id++) {
+      queue.put(new Item("producer", id));
+    }
+    assertEquals(5, queue.size());
+    assertEquals(0, queue.take().getId());
+  }
+
+  @Test
+  public void testPutWaitsForConsumer() throws Exception {
+    for (var waitStrategy : WAIT_STRATEGIES) {
+      var queue = new ItemQueue(2, waitStrategy);
+      var executor = Executors.newSingleThreadExecutor();
+      try {
+        var put = new CountDownLatch(1);
+        executor.submit(() -> {
+          for (var id = 0; id < 3; id++) {
+            queue.put(new Item("producer", id));
+          }
+          put.countDown();
+          return null;
+        });
+        assertFalse(put.await(50, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.take().getId());
+        assertTrue(put.await(5, TimeUnit.SECONDS));
+        assertEquals(1, queue.take().getId());
+        assertEquals(2, queue.take().getId());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  public void testTimeouts() throws Exception {
+    for (var waitStrategy : WAIT_STRATEGIES) {
+      var queue = new ItemQueue(2, waitStrategy);
+      assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+      assertTrue(queue.offer(new Item("producer", 0), 1, TimeUnit.MILLISECONDS));
+      assertTrue(queue.offer(new Item("producer", 1), 1, TimeUnit.MILLISECONDS));
+      assertFalse(queue.offer(new Item("producer", 2), 1, TimeUnit.MILLISECONDS));
+      assertEquals(0, queue.poll(1, TimeUnit.MILLISECONDS).getId());
+    }
+  }
+
+  @Test
+  public void testTakeIsInterruptible() throws Exception {
+    for (var waitStrategy : WAIT_STRATEGIES) {
+      var queue = new ItemQueue(1, waitStrategy);
+      Thread.currentThread().interrupt();
+      assertThrows(InterruptedException.class, queue::take);
+      assertFalse(Thread.interrupted());
+    }
+  }
+
+  @Test
+  public void testDrainTo() throws Exception {
+    var queue = new ItemQueue(8, WaitStrategy.yielding());
+    for (var id = 0; id < 5; id++) {
+      queue.put(new Item("producer", id));
+    }
+    var batch = new ArrayList<Item>();
+    assertEquals(3, queue.drainTo(batch, 3));
+    assertEquals(2, queue.drainTo(batch, 3));
+    assertEquals(0, queue.drainTo(batch, 3));
+    for (var id = 0; id < 5; id++) {
+      assertEquals(id, batch.get(id).getId());
+    }
+  }
+}
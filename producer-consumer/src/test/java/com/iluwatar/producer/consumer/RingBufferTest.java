@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.producer.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RingBuffer}.
+ */
+public class RingBufferTest {
+
+  @Test
+  public void testCapacityIsRoundedUpToPowerOfTwo() {
+    assertEquals(2, new RingBuffer<Integer>(1).capacity());
+    assertEquals(8, new RingBuffer<Integer>(5).capacity());
+    assertEquals(8, new RingBuffer<Integer>(8).capacity());
+    assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>(0));
+  }
+
+  @Test
+  public void testFifoAcrossLaps() {
+    var buffer = new RingBuffer<Integer>(4);
+    var next = 0;
+    for (var lap = 0; lap < 10; lap++) {
+      for (var i = 0; i < 3; i++) {
+        assertTrue(buffer.offer(lap * 3 + i));
+      }
+      assertEquals(3, buffer.size());
+      for (var i = 0; i < 3; i++) {
+        assertEquals(next++, (int) buffer.poll());
+      }
+    }
+    assertNull(buffer.poll());
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void testOfferFailsWhenFull() {
+    var buffer = new RingBuffer<Integer>(2);
+    assertTrue(buffer.offer(1));
+    assertTrue(buffer.offer(2));
+    assertFalse(buffer.offer(3));
+    assertEquals(1, (int) buffer.poll());
+    assertTrue(buffer.offer(3));
+    assertThrows(NullPointerException.class, () -> buffer.offer(null));
+  }
+
+  @Test
+  public void testDrainTo() {
+    var buffer = new RingBuffer<Integer>(8);
+    for (var i = 0; i < 6; i++) {
+      buffer.offer(i);
+    }
+    var batch = new ArrayList<Integer>();
+    assertEquals(4, buffer.drainTo(batch, 4));
+    assertEquals(4, batch.size());
+    assertEquals(2, buffer.drainTo(batch, 4));
+    assertEquals(0, buffer.drainTo(batch, 4));
+    for (var i = 0; i < 6; i++) {
+      assertEquals(i, (int) batch.get(i));
+    }
+    assertTrue(buffer.offer(6));
+    assertEquals(0, buffer.drainTo(batch, 0));
+    assertEquals(1, buffer.size());
+  }
+
+  @Test
+  public void testEveryElementIsConsumedOnce() throws Exception {
+    final var producers = 4;
+    final var consumers = 4;
+    final var perProducer = 100_000;
+    var buffer = new RingBuffer<Integer>(64);
+    var seen = new AtomicLongArray(producers * perProducer);
+    var start = new CountDownLatch(1);
+    var consumed = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (var p = 0; p < producers; p++) {
+        final var first = p * perProducer;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (var i = first; i < first + perProducer; i++) {
+            while (!buffer.offer(i)) {
+              Thread.yield();
+            }
+          }
+          return null;
+        }));
+      }
+      for (var c = 0; c < consumers; c++) {
+        final var batching = c % 2 == 0;
+        futures.add(executor.submit(() -> {
+          start.await();
+          var batch = new ArrayList<Integer>();
+          var last = new int[producers];
+          Arrays.fill(last, -1);
+          while (consumed.get() < seen.length()) {
+            batch.clear();
+            if (batching) {
+              buffer.drainTo(batch, 16);
+            } else {
+              var element = buffer.poll();
+              if (element != null) {
+                batch.add(element);
+              }
+            }
+            if (batch.isEmpty()) {
+              Thread.yield();
+            }
+            consumed.addAndGet(batch.size());
+            for (var element : batch) {
+              seen.incrementAndGet(element);
+              // a consumer sees the elements of a producer in the order they were offered
+              var producer = element / perProducer;
+              assertTrue(element > last[producer]);
+              last[producer] = element;
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (var future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    for (var i = 0; i < seen.length(); i++) {
+      assertEquals(1, seen.get(i));
+    }
+    assertTrue(buffer.isEmpty());
+  }
+}
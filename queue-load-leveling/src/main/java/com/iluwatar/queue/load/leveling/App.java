@@ -23,6 +23,7 @@
 
 package com.iluwatar.queue.load.leveling;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -56,7 +57,7 @@ import org.slf4j.LoggerFactory;
  * <p>In this example we have a class {@link MessageQueue} to hold the message {@link Message}
  * objects. All the worker threads {@link TaskGenerator} will submit the messages to the
  * MessageQueue. The service executor class {@link ServiceExecutor} will pick up one task at a time
- * from the Queue and execute them.
+ * from the Queue and execute them, with more consumers while the queue is long.
  */
 public class App {
 
@@ -87,19 +88,25 @@ public class App {
       final var taskRunnable2 = new TaskGenerator(msgQueue, 1);
       final var taskRunnable3 = new TaskGenerator(msgQueue, 2);
 
-      // Create e service which should process the submitted jobs.
-      final var srvRunnable = new ServiceExecutor(msgQueue);
+      // Create e service which should process the submitted jobs with 1 to 3 consumers.
+      final var srvRunnable = new ServiceExecutor(msgQueue, 1, 3);
 
-      // Create a ThreadPool of 2 threads and
+      // Create a ThreadPool of 4 threads and
       // submit all Runnable task for execution to executor..
-      executor = Executors.newFixedThreadPool(2);
-      executor.submit(taskRunnable1);
-      executor.submit(taskRunnable2);
-      executor.submit(taskRunnable3);
+      executor = Executors.newFixedThreadPool(4);
+      var tasks = List.of(executor.submit(taskRunnable1), executor.submit(taskRunnable2),
+          executor.submit(taskRunnable3));
 
       // submitting serviceExecutor thread to the Executor service.
       executor.submit(srvRunnable);
 
+      // Once all the TaskGenerators are done, the service serves the messages still queued and
+      // stops.
+      for (var task : tasks) {
+        task.get();
+      }
+      srvRunnable.shutdown();
+
       // Initiates an orderly shutdown.
       LOGGER.info("Initiating shutdown."
           + " Executor will shutdown only after all the Threads are completed.");
@@ -25,36 +25,75 @@ package com.iluwatar.queue.load.leveling;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * MessageQueue class. In this class we will create a Blocking Queue and submit/retrieve all the
- * messages from it.
+ * messages from it. Every message remembers when it was queued, so the {@link QueueMetrics} know
+ * how long messages wait before they are served.
  */
 public class MessageQueue {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(App.class);
 
-  private final BlockingQueue<Message> blkQueue;
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private final BlockingQueue<QueuedMessage> blkQueue;
+
+  private final QueueMetrics metrics = new QueueMetrics();
 
   // Default constructor when called creates Blocking Queue object. 
   public MessageQueue() {
-    this.blkQueue = new ArrayBlockingQueue<>(1024);
+    this(DEFAULT_CAPACITY);
+  }
+
+  public MessageQueue(int capacity) {
+    this.blkQueue = new ArrayBlockingQueue<>(capacity);
   }
 
   /**
-   * All the TaskGenerator threads will call this method to insert the Messages in to the Blocking
-   * Queue.
+   * Inserts the message if there is room and drops it otherwise, the dropped messages are counted
+   * by the {@link QueueMetrics}. Use {@link #putMsg(Message)} to wait for room instead.
    */
   public void submitMsg(Message msg) {
-    try {
-      if (null != msg) {
-        blkQueue.add(msg);
+    if (null == msg) {
+      return;
+    }
+    if (blkQueue.offer(new QueuedMessage(msg))) {
+      metrics.recordSubmit(blkQueue.size());
+    } else {
+      metrics.recordDrop();
+      LOGGER.warn("Message queue is full, dropping {}", msg);
+    }
+  }
+
+  /**
+   * All the TaskGenerator threads will call this method to insert the Messages in to the Blocking
+   * Queue. While the queue is full the caller waits for room, which slows the task generators down
+   * to the pace of the service instead of losing their messages.
+   *
+   * @throws InterruptedException if interrupted while waiting, the message is then dropped
+   */
+  public void putMsg(Message msg) throws InterruptedException {
+    if (null == msg) {
+      return;
+    }
+    // the wait time of the message includes the time its submitter was held back
+    var queued = new QueuedMessage(msg);
+    if (!blkQueue.offer(queued)) {
+      var start = System.nanoTime();
+      try {
+        blkQueue.put(queued);
+      } catch (InterruptedException e) {
+        metrics.recordDrop();
+        throw e;
+      } finally {
+        metrics.recordBlockedSubmit(System.nanoTime() - start);
       }
-    } catch (Exception e) {
-      LOGGER.error(e.getMessage());
     }
+    metrics.recordSubmit(blkQueue.size());
   }
 
   /**
@@ -62,11 +101,43 @@ public class MessageQueue {
    * them. Retrieves and removes the head of this queue, or returns null if this queue is empty.
    */
   public Message retrieveMsg() {
-    try {
-      return blkQueue.poll();
-    } catch (Exception e) {
-      LOGGER.error(e.getMessage());
+    return served(blkQueue.poll());
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, waiting for a message to arrive if necessary.
+   *
+   * @return the message, or null if none arrived within the timeout
+   */
+  public Message retrieveMsg(long timeout, TimeUnit unit) throws InterruptedException {
+    return served(blkQueue.poll(timeout, unit));
+  }
+
+  private Message served(QueuedMessage queued) {
+    if (null == queued) {
+      return null;
+    }
+    metrics.recordRetrieve(System.nanoTime() - queued.queuedNanos);
+    return queued.msg;
+  }
+
+  /**
+   * Returns the queue depth, the number of messages waiting to be served.
+   */
+  public int size() {
+    return blkQueue.size();
+  }
+
+  public QueueMetrics getMetrics() {
+    return metrics;
+  }
+
+  private static final class QueuedMessage {
+    private final Message msg;
+    private final long queuedNanos = System.nanoTime();
+
+    private QueuedMessage(Message msg) {
+      this.msg = msg;
     }
-    return null;
   }
 }
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.queue.load.leveling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link MessageQueue}: how many messages went in and out, how many were dropped
+ * because the queue was full, how often and how long task generators were held back until there
+ * was room, how long messages waited in the queue before they were served, and how many were
+ * left in the queue when the {@link ServiceExecutor} stopped.
+ */
+public class QueueMetrics {
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder blockedSubmits = new LongAdder();
+  private final LongAdder blockedNanos = new LongAdder();
+  private final LongAdder retrieved = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAdder unserved = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final AtomicLong largestDepth = new AtomicLong();
+
+  void recordSubmit(int depth) {
+    submitted.increment();
+    if (depth > largestDepth.get()) {
+      largestDepth.accumulateAndGet(depth, Math::max);
+    }
+  }
+
+  void recordDrop() {
+    dropped.increment();
+  }
+
+  void recordBlockedSubmit(long nanos) {
+    blockedSubmits.increment();
+    blockedNanos.add(nanos);
+  }
+
+  void recordRetrieve(long queuedNanos) {
+    retrieved.increment();
+    waitNanos.add(queuedNanos);
+    if (queuedNanos > maxWaitNanos.get()) {
+      maxWaitNanos.accumulateAndGet(queuedNanos, Math::max);
+    }
+  }
+
+  void recordUnserved(int count) {
+    unserved.add(count);
+  }
+
+  public long getSubmittedCount() {
+    return submitted.sum();
+  }
+
+  /**
+   * Returns the number of messages that did not fit into the queue and were thrown away.
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns the number of submits that found the queue full and had to wait for room.
+   */
+  public long getBlockedSubmitCount() {
+    return blockedSubmits.sum();
+  }
+
+  /**
+   * Returns the total time submitters were held back by a full queue.
+   */
+  public long getBlockedTime(TimeUnit unit) {
+    return unit.convert(blockedNanos.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the number of messages still queued when the service executor stopped serving.
+   */
+  public long getUnservedCount() {
+    return unserved.sum();
+  }
+
+  public long getRetrievedCount() {
+    return retrieved.sum();
+  }
+
+  public long getLargestDepth() {
+    return largestDepth.get();
+  }
+
+  /**
+   * Returns the average time retrieved messages spent in the queue.
+   */
+  public long getAverageWaitTime(TimeUnit unit) {
+    var count = retrieved.sum();
+    return count == 0 ? 0 : unit.convert(waitNanos.sum() / count, TimeUnit.NANOSECONDS);
+  }
+
+  public long getMaxWaitTime(TimeUnit unit) {
+    return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("QueueMetrics submitted=%d retrieved=%d dropped=%d unserved=%d "
+            + "blockedSubmits=%d largestDepth=%d averageWait=%dus maxWait=%dus",
+        getSubmittedCount(), getRetrievedCount(), getDroppedCount(), getUnservedCount(),
+        getBlockedSubmitCount(), getLargestDepth(),
+        getAverageWaitTime(TimeUnit.MICROSECONDS), getMaxWaitTime(TimeUnit.MICROSECONDS));
+  }
+}
@@ -23,41 +23,258 @@
 
 package com.iluwatar.queue.load.leveling;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * ServiceExecuotr class. This class will pick up Messages one by one from the Blocking Queue and
+ * ServiceExecutor class. This class will pick up Messages one by one from the Blocking Queue and
  * process them.
+ *
+ * <p>Its consumer threads block until a message arrives, so a message is served as soon as a
+ * consumer is free. The number of consumers follows the load between a minimum and a maximum:
+ * after serving a message a consumer starts another one when the queue depth times the average
+ * service time is more than {@link #TARGET_DRAIN_TIME_MILLIS} of work per consumer, and a consumer
+ * that has been idle for {@link #KEEP_ALIVE_MILLIS} retires while there are more than the minimum.
+ *
+ * <p>{@link #shutdown()} lets the consumers serve the messages queued so far before they stop.
+ * Only interrupting {@link #run()} stops them at once. Messages still queued when the consumers
+ * stopped are counted as unserved in the {@link QueueMetrics}.
  */
 public class ServiceExecutor implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(App.class);
 
+  /**
+   * How long the queued messages may take to serve with the current consumers.
+   */
+  static final long TARGET_DRAIN_TIME_MILLIS = 100;
+
+  /**
+   * How long a consumer above the minimum waits for a message before it retires.
+   */
+  static final long KEEP_ALIVE_MILLIS = 500;
+
+  private static final long TARGET_DRAIN_NANOS =
+      TimeUnit.MILLISECONDS.toNanos(TARGET_DRAIN_TIME_MILLIS);
+
   private final MessageQueue msgQueue;
 
+  private final int minConsumers;
+
+  private final int maxConsumers;
+
+  private final Consumer<Message> service;
+
+  private final AtomicInteger consumerCount = new AtomicInteger();
+
+  private final AtomicInteger largestConsumerCount = new AtomicInteger();
+
+  private final AtomicInteger consumerNumber = new AtomicInteger();
+
+  private final Set<Thread> consumers = ConcurrentHashMap.newKeySet();
+
+  private final LongAdder served = new LongAdder();
+
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  // moving average of the service time, updated without synchronization by the consumers
+  private volatile long serviceNanos;
+
+  private volatile boolean running = true;
+
+  // set when run() is interrupted, the consumers stop without serving the queued messages
+  private volatile boolean aborted;
+
   public ServiceExecutor(MessageQueue msgQueue) {
+    this(msgQueue, 1, 1);
+  }
+
+  public ServiceExecutor(MessageQueue msgQueue, int minConsumers, int maxConsumers) {
+    this(msgQueue, minConsumers, maxConsumers,
+        msg -> LOGGER.info(msg.toString() + " is served."));
+  }
+
+  /**
+   * Creates an executor serving the messages with the given service.
+   *
+   * @param minConsumers consumers kept even while the queue is empty, at least 1
+   * @param maxConsumers upper limit of consumers under load
+   */
+  public ServiceExecutor(MessageQueue msgQueue, int minConsumers, int maxConsumers,
+                         Consumer<Message> service) {
+    if (minConsumers < 1 || maxConsumers < minConsumers) {
+      throw new IllegalArgumentException("Invalid consumer range " + minConsumers + ".."
+          + maxConsumers);
+    }
     this.msgQueue = msgQueue;
+    this.minConsumers = minConsumers;
+    this.maxConsumers = maxConsumers;
+    this.service = service;
   }
 
   /**
-   * The ServiceExecutor thread will retrieve each message and process it.
+   * Starts the minimum number of consumers and waits until the executor is shut down, then lets
+   * the consumers serve the queued messages and reports the metrics. If the calling thread is
+   * interrupted instead, the consumers are interrupted and stop at once.
    */
   public void run() {
+    for (var i = 0; i < minConsumers; i++) {
+      consumerCount.incrementAndGet();
+      startConsumer();
+    }
+    largestConsumerCount.accumulateAndGet(minConsumers, Math::max);
+    var interrupted = false;
     try {
-      while (!Thread.currentThread().isInterrupted()) {
-        var msg = msgQueue.retrieveMsg();
+      stopped.await();
+    } catch (InterruptedException e) {
+      interrupted = true;
+    }
+    if (interrupted) {
+      aborted = true;
+    }
+    running = false;
+    if (interrupted) {
+      consumers.forEach(Thread::interrupt);
+    }
+    for (var consumer : consumers) {
+      try {
+        consumer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+        aborted = true;
+        consumers.forEach(Thread::interrupt);
+      }
+    }
+    var unserved = msgQueue.size();
+    msgQueue.getMetrics().recordUnserved(unserved);
+    if (unserved > 0) {
+      LOGGER.warn("Service Executor: stopped with {} messages left unserved", unserved);
+    }
+    LOGGER.info("Service Executor: served {} messages with up to {} consumers, {}", served.sum(),
+        largestConsumerCount.get(), msgQueue.getMetrics());
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
 
-        if (null != msg) {
-          LOGGER.info(msg.toString() + " is served.");
-        } else {
+  /**
+   * Lets {@link #run()} return once the consumers have served the messages queued so far.
+   */
+  public void shutdown() {
+    stopped.countDown();
+  }
+
+  private void startConsumer() {
+    var name = "service-executor-" + consumerNumber.incrementAndGet();
+    var consumer = new Thread(this::consume, name);
+    consumers.add(consumer);
+    if (!running) {
+      // run() is stopping and may not find this consumer in the set any more
+      consumers.remove(consumer);
+      consumerCount.decrementAndGet();
+      return;
+    }
+    consumer.start();
+  }
+
+  private void consume() {
+    try {
+      while (!aborted) {
+        // once shut down, the consumers serve what is queued and stop when the queue is empty
+        var msg = running ? msgQueue.retrieveMsg(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS)
+            : msgQueue.retrieveMsg();
+        if (null == msg) {
+          if (!running || retire()) {
+            return;
+          }
           LOGGER.info("Service Executor: Waiting for Messages to serve .. ");
+          continue;
         }
+        serve(msg);
+        scaleUp();
+      }
+    } catch (InterruptedException e) {
+      // run() was interrupted and stops at once
+    } finally {
+      consumers.remove(Thread.currentThread());
+    }
+  }
+
+  private void serve(Message msg) {
+    var start = System.nanoTime();
+    try {
+      service.accept(msg);
+    } catch (RuntimeException e) {
+      LOGGER.error("Service Executor: failed to serve {}", msg, e);
+    }
+    var nanos = System.nanoTime() - start;
+    var average = serviceNanos;
+    serviceNanos = average == 0 ? nanos : average + (nanos - average) / 8;
+    served.increment();
+  }
 
-        Thread.sleep(1000);
+  private void scaleUp() {
+    var needed = neededConsumers();
+    while (true) {
+      var count = consumerCount.get();
+      if (count >= needed) {
+        return;
+      }
+      if (consumerCount.compareAndSet(count, count + 1)) {
+        largestConsumerCount.accumulateAndGet(count + 1, Math::max);
+        startConsumer();
+        return;
       }
-    } catch (Exception e) {
-      LOGGER.error(e.getMessage());
     }
   }
-}
\ No newline at end of file
+
+  private boolean retire() {
+    while (true) {
+      var count = consumerCount.get();
+      if (count <= minConsumers) {
+        return false;
+      }
+      if (consumerCount.compareAndSet(count, count - 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns the consumers needed to serve the queued messages within the target drain time.
+   */
+  int neededConsumers() {
+    var work = (double) msgQueue.size() * serviceNanos;
+    var needed = (long) Math.ceil(work / TARGET_DRAIN_NANOS);
+    return (int) Math.max(minConsumers, Math.min(maxConsumers, needed));
+  }
+
+  /**
+   * Returns the number of consumers currently running.
+   */
+  public int getConsumerCount() {
+    return consumerCount.get();
+  }
+
+  public int getLargestConsumerCount() {
+    return largestConsumerCount.get();
+  }
+
+  public long getServedCount() {
+    return served.sum();
+  }
+
+  /**
+   * Returns the moving average of the time the service needs per message.
+   */
+  public long getAverageServiceTime(TimeUnit unit) {
+    return unit.convert(serviceNanos, TimeUnit.NANOSECONDS);
+  }
+}
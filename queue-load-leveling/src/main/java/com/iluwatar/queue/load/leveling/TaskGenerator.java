@@ -48,13 +48,15 @@ public class TaskGenerator implements Task, Runnable {
   }
 
   /**
-   * Submit messages to the Blocking Queue.
+   * Submit messages to the Blocking Queue. While the queue is full this waits for the service to
+   * make room, so a fast generator is slowed down instead of losing messages.
    */
   public void submit(Message msg) {
     try {
-      this.msgQueue.submitMsg(msg);
-    } catch (Exception e) {
-      LOGGER.error(e.getMessage());
+      this.msgQueue.putMsg(msg);
+    } catch (InterruptedException e) {
+      LOGGER.error("Interrupted while waiting for room in the queue, dropped {}", msg);
+      Thread.currentThread().interrupt();
     }
   }
 
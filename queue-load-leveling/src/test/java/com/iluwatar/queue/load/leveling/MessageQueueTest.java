@@ -24,7 +24,12 @@
 package com.iluwatar.queue.load.leveling;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -44,4 +49,67 @@ public class MessageQueueTest {
     assertEquals("MessageQueue Test", msgQueue.retrieveMsg().getMsg());
   }
 
+  @Test
+  public void submitDropsWhenFullTest() {
+    var msgQueue = new MessageQueue(2);
+    for (var i = 0; i < 5; i++) {
+      msgQueue.submitMsg(new Message("Message " + i));
+    }
+
+    var metrics = msgQueue.getMetrics();
+    assertEquals(2, msgQueue.size());
+    assertEquals(2, metrics.getSubmittedCount());
+    assertEquals(3, metrics.getDroppedCount());
+    assertEquals(2, metrics.getLargestDepth());
+  }
+
+  @Test
+  public void putWaitsForRoomTest() throws Exception {
+    var msgQueue = new MessageQueue(1);
+    msgQueue.putMsg(new Message("first"));
+
+    var put = new CountDownLatch(1);
+    var generator = new Thread(() -> {
+      try {
+        msgQueue.putMsg(new Message("second"));
+        put.countDown();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    generator.start();
+
+    // the generator is held back until the service retrieves a message
+    assertFalse(put.await(100, TimeUnit.MILLISECONDS));
+    assertEquals("first", msgQueue.retrieveMsg().getMsg());
+    assertTrue(put.await(5, TimeUnit.SECONDS));
+    assertEquals("second", msgQueue.retrieveMsg().getMsg());
+    generator.join();
+
+    var metrics = msgQueue.getMetrics();
+    assertEquals(0, metrics.getDroppedCount());
+    assertEquals(1, metrics.getBlockedSubmitCount());
+    assertTrue(metrics.getBlockedTime(TimeUnit.MILLISECONDS) >= 50);
+    assertEquals(2, metrics.getRetrievedCount());
+    assertTrue(metrics.getMaxWaitTime(TimeUnit.MILLISECONDS) >= 50);
+  }
+
+  @Test
+  public void retrieveWaitsForArrivalTest() throws Exception {
+    var msgQueue = new MessageQueue();
+    assertNull(msgQueue.retrieveMsg(10, TimeUnit.MILLISECONDS));
+
+    var generator = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      msgQueue.submitMsg(new Message("late"));
+    });
+    generator.start();
+    assertEquals("late", msgQueue.retrieveMsg(5, TimeUnit.SECONDS).getMsg());
+    generator.join();
+  }
+
 }
@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.queue.load.leveling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for serving messages with an adaptive number of consumers.
+ */
+public class ServiceExecutorTest {
+
+  @Test
+  public void servesMessagesOnArrivalTest() throws Exception {
+    var msgQueue = new MessageQueue();
+    var srvRunnable = new ServiceExecutor(msgQueue);
+    var srvExeThr = new Thread(srvRunnable);
+    srvExeThr.start();
+
+    var start = System.nanoTime();
+    for (var i = 0; i < 10; i++) {
+      msgQueue.putMsg(new Message("Message " + i));
+    }
+    awaitServed(srvRunnable, 10);
+    // the old executor slept a second after every message
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+    srvRunnable.shutdown();
+    srvExeThr.join();
+    assertEquals(1, srvRunnable.getLargestConsumerCount());
+  }
+
+  @Test
+  public void scalesWithQueueDepthTest() throws Exception {
+    var msgQueue = new MessageQueue(16);
+    var srvRunnable = new ServiceExecutor(msgQueue, 1, 4, msg -> sleep(20));
+    var srvExeThr = new Thread(srvRunnable);
+    srvExeThr.start();
+
+    // 100 messages of 20ms are more work than a consumer can do in the target drain time
+    for (var i = 0; i < 100; i++) {
+      msgQueue.putMsg(new Message("Message " + i));
+    }
+    awaitServed(srvRunnable, 100);
+    assertTrue(srvRunnable.getLargestConsumerCount() > 1);
+    assertTrue(srvRunnable.getAverageServiceTime(TimeUnit.MILLISECONDS) >= 10);
+    assertTrue(msgQueue.getMetrics().getBlockedSubmitCount() > 0);
+    assertEquals(0, msgQueue.getMetrics().getDroppedCount());
+
+    // idle consumers above the minimum retire after the keep alive time
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (srvRunnable.getConsumerCount() > 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, srvRunnable.getConsumerCount());
+
+    srvExeThr.interrupt();
+    srvExeThr.join();
+  }
+
+  @Test
+  public void shutdownServesQueuedMessagesTest() throws Exception {
+    var msgQueue = new MessageQueue(16);
+    var srvRunnable = new ServiceExecutor(msgQueue, 1, 1, msg -> sleep(5));
+    var srvExeThr = new Thread(srvRunnable);
+    srvExeThr.start();
+
+    // the last puts wait for room, the queue is full when the executor is shut down
+    for (var i = 0; i < 30; i++) {
+      msgQueue.putMsg(new Message("Message " + i));
+    }
+    srvRunnable.shutdown();
+    srvExeThr.join();
+    assertEquals(30, srvRunnable.getServedCount());
+    assertEquals(0, msgQueue.size());
+    assertEquals(0, msgQueue.getMetrics().getUnservedCount());
+  }
+
+  @Test
+  public void interruptReportsUnservedMessagesTest() throws Exception {
+    var msgQueue = new MessageQueue(16);
+    var srvRunnable = new ServiceExecutor(msgQueue, 1, 1, msg -> sleep(50));
+    var srvExeThr = new Thread(srvRunnable);
+    srvExeThr.start();
+
+    for (var i = 0; i < 10; i++) {
+      msgQueue.putMsg(new Message("Message " + i));
+    }
+    srvExeThr.interrupt();
+    srvExeThr.join();
+    var unserved = msgQueue.getMetrics().getUnservedCount();
+    assertTrue(unserved > 0);
+    assertEquals(10, srvRunnable.getServedCount() + unserved);
+  }
+
+  @Test
+  public void invalidConsumerRangeTest() {
+    var msgQueue = new MessageQueue();
+    assertThrows(IllegalArgumentException.class, () -> new ServiceExecutor(msgQueue, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ServiceExecutor(msgQueue, 2, 1));
+  }
+
+  private static void awaitServed(ServiceExecutor srvRunnable, long count) throws Exception {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (srvRunnable.getServedCount() < count && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(count, srvRunnable.getServedCount());
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -84,13 +84,16 @@ import java.util.List;
  * The application utilizes single thread to listen for requests on all ports. It does not create a
  * separate thread for each client, which provides better scalability under load (number of clients
  * increase).
- * The example uses Java NIO framework to implement the Reactor.
+ * The example uses Java NIO framework to implement the Reactor. When one thread is not enough the
+ * reactor can also run as a selector group, where one acceptor thread hands the accepted
+ * connections to several worker reactors, see {@link NioReactor#NioReactor(Dispatcher, int)}.
  */
 public class App {
 
   private NioReactor reactor;
   private List<AbstractNioChannel> channels = new ArrayList<>();
   private Dispatcher dispatcher;
+  private final int workerReactorCount;
 
   /**
    * Creates an instance of App which will use provided dispatcher for dispatching events on
@@ -99,7 +102,19 @@ public class App {
    * @param dispatcher the dispatcher that will be used to dispatch events.
    */
   public App(Dispatcher dispatcher) {
+    this(dispatcher, 0);
+  }
+
+  /**
+   * Creates an instance of App whose reactor accepts connections and hands them to {@code
+   * workerReactorCount} worker reactors.
+   *
+   * @param dispatcher         the dispatcher that will be used to dispatch events.
+   * @param workerReactorCount the number of worker reactors, zero for a single reactor.
+   */
+  public App(Dispatcher dispatcher, int workerReactorCount) {
     this.dispatcher = dispatcher;
+    this.workerReactorCount = workerReactorCount;
   }
 
   /**
@@ -118,7 +133,7 @@ public class App {
     /*
      * The application can customize its event dispatching mechanism.
      */
-    reactor = new NioReactor(dispatcher);
+    reactor = new NioReactor(dispatcher, workerReactorCount);
 
     /*
      * This represents application specific business logic that dispatcher will call on appropriate
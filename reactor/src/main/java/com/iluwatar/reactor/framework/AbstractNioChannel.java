@@ -114,17 +114,48 @@ public abstract class AbstractNioChannel {
 
   /*
    * Called from the context of reactor thread when the key becomes writable. The channel writes the
-   * whole pending block of data at once.
+   * whole pending block of data at once. If the socket does not take all of it the key stays
+   * interested in writing and the rest is written on the next writable event.
    */
   void flush(SelectionKey key) throws IOException {
     var pendingWrites = channelToPendingWrites.get(key.channel());
+    if (pendingWrites != null && !doFlush(pendingWrites, key)) {
+      return;
+    }
+    // We don't have anything more to write so channel is interested in reading more data. This
+    // runs on the reactor thread, so the ops are changed right away and data queued meanwhile is
+    // not left behind waiting for a read event.
+    key.interestOps(SelectionKey.OP_READ);
+    if (pendingWrites != null && !pendingWrites.isEmpty()) {
+      key.interestOps(SelectionKey.OP_WRITE);
+    }
+  }
+
+  /*
+   * Called from the context of reactor thread when the channel of the key has been closed.
+   */
+  void discardPendingWrites(SelectionKey key) {
+    channelToPendingWrites.remove(key.channel());
+  }
+
+  /**
+   * Writes the pending data to the channel, removing from {@code pendingWrites} what has been
+   * completely written. The default implementation writes the queued objects one by one with
+   * {@link #doWrite(Object, SelectionKey)}.
+   *
+   * @param pendingWrites the data waiting to be written, in order. Only the reactor thread removes
+   *                      data from it.
+   * @param key           the key which is writable.
+   * @return true if everything was written, false if the channel could not take all of it.
+   * @throws IOException if any I/O error occurs.
+   */
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
     Object pendingWrite;
     while ((pendingWrite = pendingWrites.poll()) != null) {
       // ask the concrete channel to make sense of data and write it to java channel
       doWrite(pendingWrite, key);
     }
-    // We don't have anything more to write so channel is interested in reading more data
-    reactor.changeOps(key, SelectionKey.OP_READ);
+    return true;
   }
 
   /**
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct {@link ByteBuffer}s in power of two size classes. Allocating a direct buffer is
+ * expensive and heap buffers are copied into a temporary direct buffer by every socket call, so
+ * the channels read into buffers borrowed from this pool and give them back right after.
+ *
+ * <p>Requests larger than the biggest size class get a new buffer that is not pooled.
+ */
+public class DirectBufferPool {
+
+  private static final DirectBufferPool DEFAULT = new DirectBufferPool(64, 64 * 1024, 256);
+
+  private final int minSize;
+  private final int maxSize;
+  private final int maxPooledPerClass;
+  private final Queue<ByteBuffer>[] pools;
+  private final AtomicInteger[] pooledCounts;
+
+  /**
+   * Creates a pool.
+   *
+   * @param minSize           the smallest size class, rounded up to a power of two.
+   * @param maxSize           the biggest size class, rounded up to a power of two.
+   * @param maxPooledPerClass the number of idle buffers kept per size class.
+   */
+  @SuppressWarnings("unchecked")
+  public DirectBufferPool(int minSize, int maxSize, int maxPooledPerClass) {
+    if (minSize <= 0 || maxSize < minSize || maxPooledPerClass < 0) {
+      throw new IllegalArgumentException("invalid pool sizes");
+    }
+    this.minSize = roundUpToPowerOfTwo(minSize);
+    this.maxSize = roundUpToPowerOfTwo(maxSize);
+    this.maxPooledPerClass = maxPooledPerClass;
+    var classes = Integer.numberOfTrailingZeros(this.maxSize)
+        - Integer.numberOfTrailingZeros(this.minSize) + 1;
+    this.pools = new Queue[classes];
+    this.pooledCounts = new AtomicInteger[classes];
+    for (var i = 0; i < classes; i++) {
+      pools[i] = new ConcurrentLinkedQueue<>();
+      pooledCounts[i] = new AtomicInteger();
+    }
+  }
+
+  /**
+   * Get the pool shared by the channels of the framework.
+   *
+   * @return the shared pool.
+   */
+  public static DirectBufferPool getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Borrows a cleared buffer with a capacity of at least {@code size} bytes.
+   *
+   * @param size the minimum capacity.
+   * @return a buffer that should be given back with {@link #release(ByteBuffer)}.
+   */
+  public ByteBuffer acquire(int size) {
+    var sizeClass = sizeClassOf(size);
+    if (sizeClass < 0) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    var buffer = pools[sizeClass].poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(minSize << sizeClass);
+    }
+    pooledCounts[sizeClass].decrementAndGet();
+    return buffer;
+  }
+
+  /**
+   * Gives a buffer back to the pool. The buffer must not be used afterwards.
+   *
+   * @param buffer a buffer obtained from {@link #acquire(int)}.
+   */
+  public void release(ByteBuffer buffer) {
+    var capacity = buffer.capacity();
+    var sizeClass = sizeClassOf(capacity);
+    if (!buffer.isDirect() || sizeClass < 0 || (minSize << sizeClass) != capacity) {
+      return;
+    }
+    if (pooledCounts[sizeClass].incrementAndGet() > maxPooledPerClass) {
+      pooledCounts[sizeClass].decrementAndGet();
+      return;
+    }
+    buffer.clear();
+    pools[sizeClass].offer(buffer);
+  }
+
+  /**
+   * Get the number of idle buffers in the size class of {@code size}.
+   *
+   * @param size a buffer size.
+   * @return the number of idle buffers.
+   */
+  public int getPooledCount(int size) {
+    var sizeClass = sizeClassOf(size);
+    return sizeClass < 0 ? 0 : pooledCounts[sizeClass].get();
+  }
+
+  private int sizeClassOf(int size) {
+    if (size > maxSize) {
+      return -1;
+    }
+    if (size <= minSize) {
+      return 0;
+    }
+    return Integer.numberOfTrailingZeros(roundUpToPowerOfTwo(size))
+        - Integer.numberOfTrailingZeros(minSize);
+  }
+
+  private static int roundUpToPowerOfTwo(int size) {
+    return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+  }
+}
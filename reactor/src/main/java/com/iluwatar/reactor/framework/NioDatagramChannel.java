@@ -30,6 +30,7 @@ import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
+import java.util.Queue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,7 +41,10 @@ public class NioDatagramChannel extends AbstractNioChannel {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NioDatagramChannel.class);
 
+  private static final int MAX_DATAGRAM_SIZE = 1024;
+
   private final int port;
+  private final DirectBufferPool bufferPool = DirectBufferPool.getDefault();
 
   /**
    * Creates a {@link DatagramChannel} which will bind at provided port and use <code>handler</code>
@@ -69,22 +73,31 @@ public class NioDatagramChannel extends AbstractNioChannel {
   /**
    * Reads and returns a {@link DatagramPacket} from the underlying channel.
    *
+   * <p>The datagram is received into a pooled direct buffer and only its bytes are copied into the
+   * buffer of the returned packet.
+   *
    * @return the datagram packet read having the sender address.
    */
   @Override
   public DatagramPacket read(SelectionKey key) throws IOException {
-    var buffer = ByteBuffer.allocate(1024);
-    var sender = ((DatagramChannel) key.channel()).receive(buffer);
-
-    /*
-     * It is required to create a DatagramPacket because we need to preserve which socket address
-     * acts as destination for sending reply packets.
-     */
-    buffer.flip();
-    var packet = new DatagramPacket(buffer);
-    packet.setSender(sender);
-
-    return packet;
+    var buffer = bufferPool.acquire(MAX_DATAGRAM_SIZE);
+    try {
+      var sender = ((DatagramChannel) key.channel()).receive(buffer);
+      buffer.flip();
+      var data = ByteBuffer.allocate(buffer.remaining());
+      data.put(buffer).flip();
+
+      /*
+       * It is required to create a DatagramPacket because we need to preserve which socket address
+       * acts as destination for sending reply packets.
+       */
+      var packet = new DatagramPacket(data);
+      packet.setSender(sender);
+
+      return packet;
+    } finally {
+      bufferPool.release(buffer);
+    }
   }
 
   /**
@@ -109,6 +122,26 @@ public class NioDatagramChannel extends AbstractNioChannel {
     LOGGER.info("Bound UDP socket at port: {}", port);
   }
 
+  /**
+   * Sends the pending {@link DatagramPacket}s. Datagrams to different receivers cannot be gathered
+   * into one call, but a packet the socket has no room for stays at the head of the queue and is
+   * sent on the next writable event instead of being lost.
+   */
+  @Override
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
+    Object pendingWrite;
+    while ((pendingWrite = pendingWrites.peek()) != null) {
+      var pendingPacket = (DatagramPacket) pendingWrite;
+      var data = pendingPacket.getData();
+      if (data.hasRemaining()
+          && getJavaChannel().send(data, pendingPacket.getReceiver()) == 0) {
+        return false;
+      }
+      pendingWrites.poll();
+    }
+    return true;
+  }
+
   /**
    * Writes the pending {@link DatagramPacket} to the underlying channel sending data to the
    * intended receiver of the packet.
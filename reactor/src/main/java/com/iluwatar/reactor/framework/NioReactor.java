@@ -24,14 +24,18 @@
 package com.iluwatar.reactor.framework;
 
 import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +50,13 @@ import org.slf4j.LoggerFactory;
  * #start()} method. {@link NioReactor} uses {@link Selector} for realizing Synchronous Event
  * De-multiplexing.
  *
+ * <p>A single reactor handles accept, read and write events of every channel on one thread, so one
+ * core caps the whole server. Created with {@link #NioReactor(Dispatcher, int)} the reactor
+ * becomes the acceptor of a selector group: it only accepts connections and hands every accepted
+ * {@link SocketChannel} round-robin to one of its worker reactors. Each worker reactor runs its
+ * own event loop with its own {@link Selector} and pending command queue, and all of them dispatch
+ * read events through the same {@link Dispatcher}.
+ *
  * <p>NOTE: This is one of the ways to implement NIO reactor and it does not take care of all
  * possible edge cases which are required in a real application. This implementation is meant to
  * demonstrate the fundamental concepts that lie behind Reactor pattern.
@@ -64,6 +75,9 @@ public class NioReactor {
    */
   private final Queue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
   private final ExecutorService reactorMain = Executors.newSingleThreadExecutor();
+  private final NioReactor[] workerReactors;
+  private final AtomicInteger nextWorkerReactor = new AtomicInteger();
+  private volatile boolean started;
 
   /**
    * Creates a reactor which will use provided {@code dispatcher} to dispatch events. The
@@ -73,14 +87,50 @@ public class NioReactor {
    * @throws IOException if any I/O error occurs.
    */
   public NioReactor(Dispatcher dispatcher) throws IOException {
+    this(dispatcher, 0);
+  }
+
+  /**
+   * Creates an acceptor reactor with {@code workerReactorCount} worker reactors. Accepted
+   * connections and channels that do not accept connections, such as {@link NioDatagramChannel},
+   * are spread round-robin over the worker reactors. With zero worker reactors this reactor
+   * handles every event itself.
+   *
+   * @param dispatcher         a non-null dispatcher used to dispatch events on registered
+   *                           channels.
+   * @param workerReactorCount the number of worker reactors.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioReactor(Dispatcher dispatcher, int workerReactorCount) throws IOException {
+    if (workerReactorCount < 0) {
+      throw new IllegalArgumentException("workerReactorCount must not be negative");
+    }
     this.dispatcher = dispatcher;
     this.selector = Selector.open();
+    this.workerReactors = new NioReactor[workerReactorCount];
+    for (var i = 0; i < workerReactorCount; i++) {
+      workerReactors[i] = new NioReactor(dispatcher);
+    }
+  }
+
+  /**
+   * Get the number of worker reactors.
+   *
+   * @return the number of worker reactors, zero if this reactor handles every event itself.
+   */
+  public int getWorkerReactorCount() {
+    return workerReactors.length;
   }
 
   /**
-   * Starts the reactor event loop in a new thread.
+   * Starts the reactor event loop in a new thread, after starting the event loops of the worker
+   * reactors.
    */
   public void start() {
+    for (var workerReactor : workerReactors) {
+      workerReactor.start();
+    }
+    started = true;
     reactorMain.execute(() -> {
       try {
         LOGGER.info("Reactor started, waiting for events...");
@@ -102,6 +152,9 @@ public class NioReactor {
     selector.wakeup();
     reactorMain.awaitTermination(4, TimeUnit.SECONDS);
     selector.close();
+    for (var workerReactor : workerReactors) {
+      workerReactor.stop();
+    }
     LOGGER.info("Reactor stopped");
   }
 
@@ -110,18 +163,43 @@ public class NioReactor {
    * this channel and notify of any events. While registering the channel the reactor uses {@link
    * AbstractNioChannel#getInterestedOps()} to know about the interested operation of this channel.
    *
+   * <p>In a selector group only channels accepting connections are registered with this reactor,
+   * any other channel is registered with the next worker reactor.
+   *
    * @param channel a new channel on which reactor will wait for events. The channel must be bound
    *                prior to being registered.
    * @return this
    * @throws IOException if any I/O error occurs.
    */
   public NioReactor registerChannel(AbstractNioChannel channel) throws IOException {
-    var key = channel.getJavaChannel().register(selector, channel.getInterestedOps());
-    key.attach(channel);
+    if (workerReactors.length > 0 && channel.getInterestedOps() != SelectionKey.OP_ACCEPT) {
+      nextWorkerReactor().register(channel.getJavaChannel(), channel.getInterestedOps(), channel);
+    } else {
+      register(channel.getJavaChannel(), channel.getInterestedOps(), channel);
+    }
     channel.setReactor(this);
     return this;
   }
 
+  private NioReactor nextWorkerReactor() {
+    var index = Math.floorMod(nextWorkerReactor.getAndIncrement(), workerReactors.length);
+    return workerReactors[index];
+  }
+
+  /*
+   * Registering blocks while the selector is selecting, so once the event loop runs the
+   * registration is handed to it as a pending command.
+   */
+  private void register(SelectableChannel javaChannel, int ops, AbstractNioChannel channel)
+      throws ClosedChannelException {
+    if (!started) {
+      javaChannel.register(selector, ops, channel);
+      return;
+    }
+    pendingCommands.add(new RegisterChannelCommand(javaChannel, ops, channel));
+    selector.wakeup();
+  }
+
   private void eventLoop() throws IOException {
     // honor interrupt request
     while (!Thread.interrupted()) {
@@ -175,9 +253,19 @@ public class NioReactor {
     }
   }
 
-  private static void onChannelWritable(SelectionKey key) throws IOException {
+  private static void onChannelWritable(SelectionKey key) {
     var channel = (AbstractNioChannel) key.attachment();
-    channel.flush(key);
+    try {
+      channel.flush(key);
+    } catch (IOException e) {
+      // the peer went away while data was pending, so there is nobody left to write to
+      channel.discardPendingWrites(key);
+      try {
+        key.channel().close();
+      } catch (IOException e1) {
+        LOGGER.error("error closing channel", e1);
+      }
+    }
   }
 
   private void onChannelReadable(SelectionKey key) {
@@ -186,6 +274,7 @@ public class NioReactor {
       var readObject = ((AbstractNioChannel) key.attachment()).read(key);
       dispatchReadEvent(key, readObject);
     } catch (IOException e) {
+      ((AbstractNioChannel) key.attachment()).discardPendingWrites(key);
       try {
         key.channel().close();
       } catch (IOException e1) {
@@ -204,9 +293,16 @@ public class NioReactor {
   private void onChannelAcceptable(SelectionKey key) throws IOException {
     var serverSocketChannel = (ServerSocketChannel) key.channel();
     var socketChannel = serverSocketChannel.accept();
+    if (socketChannel == null) {
+      return;
+    }
     socketChannel.configureBlocking(false);
-    var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
-    readKey.attach(key.attachment());
+    var channel = (AbstractNioChannel) key.attachment();
+    if (workerReactors.length > 0) {
+      nextWorkerReactor().register(socketChannel, SelectionKey.OP_READ, channel);
+    } else {
+      socketChannel.register(selector, SelectionKey.OP_READ, channel);
+    }
   }
 
   /**
@@ -220,8 +316,22 @@ public class NioReactor {
    * @param interestedOps the new interest operations.
    */
   public void changeOps(SelectionKey key, int interestedOps) {
-    pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
-    selector.wakeup();
+    var owner = ownerOf(key);
+    owner.pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
+    owner.selector.wakeup();
+  }
+
+  /*
+   * Channels keep a reference to the reactor they were registered with, in a selector group that is
+   * the acceptor, while the key of a connection belongs to the selector of a worker reactor.
+   */
+  private NioReactor ownerOf(SelectionKey key) {
+    for (var workerReactor : workerReactors) {
+      if (key.selector() == workerReactor.selector) {
+        return workerReactor;
+      }
+    }
+    return this;
   }
 
   /**
@@ -245,4 +355,34 @@ public class NioReactor {
       return "Change of ops to: " + interestedOps;
     }
   }
+
+  /**
+   * A command that registers a channel with the selector of this reactor.
+   */
+  class RegisterChannelCommand implements Runnable {
+    private final SelectableChannel javaChannel;
+    private final int interestedOps;
+    private final AbstractNioChannel channel;
+
+    RegisterChannelCommand(SelectableChannel javaChannel, int interestedOps,
+        AbstractNioChannel channel) {
+      this.javaChannel = javaChannel;
+      this.interestedOps = interestedOps;
+      this.channel = channel;
+    }
+
+    @Override
+    public void run() {
+      try {
+        javaChannel.register(selector, interestedOps, channel);
+      } catch (ClosedChannelException e) {
+        LOGGER.error("channel closed before registration", e);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "Registration with ops: " + interestedOps;
+    }
+  }
 }
@@ -30,6 +30,8 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Queue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,7 +43,18 @@ public class NioServerSocketChannel extends AbstractNioChannel {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NioServerSocketChannel.class);
 
+  private static final int DEFAULT_READ_BUFFER_SIZE = 1024;
+  private static final int MAX_GATHERED_BUFFERS = 64;
+  /*
+   * The channel is shared by all the connections it accepted, which may be flushed concurrently by
+   * several worker reactors, so every reactor thread gathers into its own array.
+   */
+  private static final ThreadLocal<ByteBuffer[]> GATHERED_BUFFERS =
+      ThreadLocal.withInitial(() -> new ByteBuffer[MAX_GATHERED_BUFFERS]);
+
   private final int port;
+  private final int readBufferSize;
+  private final DirectBufferPool bufferPool = DirectBufferPool.getDefault();
 
   /**
    * Creates a {@link ServerSocketChannel} which will bind at provided port and use
@@ -55,8 +68,24 @@ public class NioServerSocketChannel extends AbstractNioChannel {
    * @throws IOException if any I/O error occurs.
    */
   public NioServerSocketChannel(int port, ChannelHandler handler) throws IOException {
+    this(port, handler, DEFAULT_READ_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a {@link ServerSocketChannel} which reads at most {@code readBufferSize} bytes per
+   * readable event.
+   *
+   * @param port           the port on which channel will be bound to accept incoming connection
+   *                       requests.
+   * @param handler        the handler that will handle incoming requests on this channel.
+   * @param readBufferSize the size of the pooled buffer used for every read.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioServerSocketChannel(int port, ChannelHandler handler, int readBufferSize)
+      throws IOException {
     super(handler, ServerSocketChannel.open());
     this.port = port;
+    this.readBufferSize = readBufferSize;
   }
 
 
@@ -80,17 +109,26 @@ public class NioServerSocketChannel extends AbstractNioChannel {
    * Reads and returns {@link ByteBuffer} from the underlying {@link SocketChannel} represented by
    * the <code>key</code>. Due to the fact that there is a dedicated channel for each client
    * connection we don't need to store the sender.
+   *
+   * <p>The socket is read into a pooled direct buffer and only the bytes actually read are copied
+   * into the returned buffer, which the handler owns.
    */
   @Override
   public ByteBuffer read(SelectionKey key) throws IOException {
     var socketChannel = (SocketChannel) key.channel();
-    var buffer = ByteBuffer.allocate(1024);
-    var read = socketChannel.read(buffer);
-    buffer.flip();
-    if (read == -1) {
-      throw new IOException("Socket closed");
+    var buffer = bufferPool.acquire(readBufferSize);
+    try {
+      var read = socketChannel.read(buffer);
+      if (read == -1) {
+        throw new IOException("Socket closed");
+      }
+      buffer.flip();
+      var data = ByteBuffer.allocate(buffer.remaining());
+      data.put(buffer).flip();
+      return data;
+    } finally {
+      bufferPool.release(buffer);
     }
-    return buffer;
   }
 
   /**
@@ -106,6 +144,36 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     LOGGER.info("Bound TCP socket at port: {}", port);
   }
 
+  /**
+   * Writes as many pending {@link ByteBuffer}s as possible with a single gathering write. Buffers
+   * are removed from the queue only once completely written, so a partial write resumes on the
+   * next writable event where it stopped.
+   */
+  @Override
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
+    var socketChannel = (SocketChannel) key.channel();
+    var buffers = GATHERED_BUFFERS.get();
+    try {
+      while (!pendingWrites.isEmpty()) {
+        var count = 0;
+        var iterator = pendingWrites.iterator();
+        while (iterator.hasNext() && count < buffers.length) {
+          buffers[count++] = (ByteBuffer) iterator.next();
+        }
+        socketChannel.write(buffers, 0, count);
+        for (var i = 0; i < count; i++) {
+          if (buffers[i].hasRemaining()) {
+            return false;
+          }
+          pendingWrites.poll();
+        }
+      }
+      return true;
+    } finally {
+      Arrays.fill(buffers, null);
+    }
+  }
+
   /**
    * Writes the pending {@link ByteBuffer} to the underlying channel sending data to the intended
    * receiver of the packet.
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.app;
+
+import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.ChannelHandler;
+import com.iluwatar.reactor.framework.NioReactor;
+import com.iluwatar.reactor.framework.NioServerSocketChannel;
+import com.iluwatar.reactor.framework.SameThreadDispatcher;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A loopback load generator for the reactor, a generalised {@link AppClient}. Every client opens
+ * one TCP connection and sends fixed size messages back to back, waiting for the echo of each one
+ * before sending the next, and records the round-trip time of every message.
+ *
+ * <p>{@link #main(String[])} runs the same load against a single reactor and against an acceptor
+ * reactor with one worker reactor per core, and reports messages per second and latency
+ * percentiles for both.
+ */
+public class BenchmarkClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkClient.class);
+
+  private static final int PORT = 6670;
+
+  private final int serverPort;
+  private final int clients;
+  private final int messagesPerClient;
+  private final int messageSize;
+
+  /**
+   * Creates a benchmark client.
+   *
+   * @param serverPort        the port of the reactor on the local host.
+   * @param clients           the number of concurrent connections.
+   * @param messagesPerClient the number of messages every connection sends.
+   * @param messageSize       the size of every message in bytes.
+   */
+  public BenchmarkClient(int serverPort, int clients, int messagesPerClient, int messageSize) {
+    this.serverPort = serverPort;
+    this.clients = clients;
+    this.messagesPerClient = messagesPerClient;
+    this.messageSize = messageSize;
+  }
+
+  /**
+   * Benchmark entry. Optional arguments are the number of clients, messages per client and message
+   * size.
+   */
+  public static void main(String[] args) throws Exception {
+    var cores = Runtime.getRuntime().availableProcessors();
+    var clients = args.length > 0 ? Integer.parseInt(args[0]) : 4 * cores;
+    var messages = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+    var size = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+    for (var workerReactors : new int[]{0, cores}) {
+      var reactor = new NioReactor(new SameThreadDispatcher(), workerReactors);
+      var channel = new NioServerSocketChannel(PORT, new EchoHandler());
+      channel.bind();
+      reactor.registerChannel(channel).start();
+      try {
+        var client = new BenchmarkClient(PORT, clients, messages, size);
+        // warm up the JIT of both sides before measuring
+        client.run(Math.max(1, messages / 10));
+        var result = client.run(messages);
+        LOGGER.info("{} worker reactors: {}", workerReactors, result);
+      } finally {
+        reactor.stop();
+        channel.getJavaChannel().close();
+      }
+    }
+  }
+
+  /**
+   * Runs the configured load and blocks until every client is done.
+   *
+   * @return messages per second and latency percentiles.
+   * @throws IOException          if any client fails.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   */
+  public Result run() throws IOException, InterruptedException {
+    return run(messagesPerClient);
+  }
+
+  private Result run(int messages) throws IOException, InterruptedException {
+    var service = Executors.newFixedThreadPool(clients);
+    try {
+      var tasks = new ArrayList<Callable<long[]>>();
+      for (var i = 0; i < clients; i++) {
+        tasks.add(() -> sendMessages(messages));
+      }
+
+      var start = System.nanoTime();
+      var futures = service.invokeAll(tasks);
+      var elapsedNanos = System.nanoTime() - start;
+
+      var latencies = new long[clients * messages];
+      var offset = 0;
+      for (var future : futures) {
+        var clientLatencies = future.get();
+        System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+        offset += clientLatencies.length;
+      }
+      return new Result(latencies, elapsedNanos);
+    } catch (ExecutionException e) {
+      throw new IOException("client failed", e.getCause());
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  private long[] sendMessages(int messages) throws IOException {
+    var latencies = new long[messages];
+    var request = new byte[messageSize];
+    Arrays.fill(request, (byte) 'x');
+    var reply = new byte[messageSize];
+    try (var socket = new Socket(InetAddress.getLocalHost(), serverPort)) {
+      socket.setTcpNoDelay(true);
+      var outputStream = socket.getOutputStream();
+      var inputStream = socket.getInputStream();
+      for (var i = 0; i < messages; i++) {
+        final var start = System.nanoTime();
+        outputStream.write(request);
+        outputStream.flush();
+        // the echo may arrive in more than one segment
+        var received = 0;
+        while (received < messageSize) {
+          var read = inputStream.read(reply, received, messageSize - received);
+          if (read == -1) {
+            throw new IOException("Socket closed");
+          }
+          received += read;
+        }
+        latencies[i] = System.nanoTime() - start;
+      }
+    }
+    return latencies;
+  }
+
+  /**
+   * Throughput and latency percentiles of one run.
+   */
+  public static class Result {
+
+    private final long[] sortedLatencies;
+    private final long elapsedNanos;
+
+    Result(long[] latencies, long elapsedNanos) {
+      this.sortedLatencies = latencies.clone();
+      Arrays.sort(sortedLatencies);
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getMessagesPerSecond() {
+      return sortedLatencies.length * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Get a latency percentile.
+     *
+     * @param percentile between 0 and 100.
+     * @return the round-trip latency in microseconds.
+     */
+    public double getLatencyPercentile(double percentile) {
+      if (sortedLatencies.length == 0) {
+        return 0;
+      }
+      var index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+      return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e3;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%.0f msgs/s, latency us p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f",
+          getMessagesPerSecond(), getLatencyPercentile(50), getLatencyPercentile(90),
+          getLatencyPercentile(99), getLatencyPercentile(99.9));
+    }
+  }
+
+  /**
+   * Writes every buffer it reads back to the sender.
+   */
+  private static class EchoHandler implements ChannelHandler {
+
+    @Override
+    public void handleChannelRead(AbstractNioChannel channel, Object readObject,
+        SelectionKey key) {
+      channel.write(readObject, key);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DirectBufferPool}.
+ */
+public class DirectBufferPoolTest {
+
+  @Test
+  void shouldRoundUpToSizeClass() {
+    var pool = new DirectBufferPool(64, 1024, 4);
+
+    assertEquals(64, pool.acquire(1).capacity());
+    assertEquals(128, pool.acquire(65).capacity());
+    assertEquals(1024, pool.acquire(1024).capacity());
+    assertTrue(pool.acquire(1024).isDirect());
+  }
+
+  @Test
+  void shouldReuseReleasedBuffer() {
+    var pool = new DirectBufferPool(64, 1024, 4);
+    var buffer = pool.acquire(512);
+    buffer.put((byte) 1);
+
+    pool.release(buffer);
+    assertEquals(1, pool.getPooledCount(512));
+
+    var reused = pool.acquire(300);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(0, pool.getPooledCount(512));
+  }
+
+  @Test
+  void shouldNotPoolOversizedBuffers() {
+    var pool = new DirectBufferPool(64, 1024, 4);
+    var buffer = pool.acquire(4096);
+    assertEquals(4096, buffer.capacity());
+
+    pool.release(buffer);
+    assertNotSame(buffer, pool.acquire(4096));
+  }
+
+  @Test
+  void shouldKeepAtMostMaxPooledBuffersPerClass() {
+    var pool = new DirectBufferPool(64, 1024, 2);
+    var first = pool.acquire(64);
+    var second = pool.acquire(64);
+    var third = pool.acquire(64);
+
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+
+    assertEquals(2, pool.getPooledCount(64));
+    assertFalse(pool.getPooledCount(128) > 0);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that replies larger than the socket send buffer are written completely.
+ */
+public class NioServerSocketChannelTest {
+
+  private static final int PORT = 6680;
+  private static final int REPLY_BUFFERS = 100;
+  private static final int REPLY_BUFFER_SIZE = 64 * 1024;
+
+  @Test
+  void shouldWriteRepliesLargerThanSocketBuffer() throws IOException, InterruptedException {
+    var reactor = new NioReactor(new ThreadPoolDispatcher(1), 1);
+    var channel = new NioServerSocketChannel(PORT, (nioChannel, readObject, key) -> {
+      for (var i = 0; i < REPLY_BUFFERS; i++) {
+        var reply = ByteBuffer.allocate(REPLY_BUFFER_SIZE);
+        while (reply.hasRemaining()) {
+          reply.put((byte) i);
+        }
+        nioChannel.write(reply.flip(), key);
+      }
+    });
+    channel.bind();
+    reactor.registerChannel(channel).start();
+
+    try (var socket = new Socket(InetAddress.getLocalHost(), PORT)) {
+      socket.getOutputStream().write(1);
+      socket.getOutputStream().flush();
+
+      var inputStream = socket.getInputStream();
+      var data = new byte[REPLY_BUFFER_SIZE];
+      for (var i = 0; i < REPLY_BUFFERS; i++) {
+        var received = 0;
+        while (received < data.length) {
+          var read = inputStream.read(data, received, data.length - received);
+          assertTrue(read > 0, "connection closed early");
+          received += read;
+        }
+        assertEquals((byte) i, data[0]);
+        assertEquals((byte) i, data[data.length - 1]);
+      }
+    } finally {
+      reactor.stop();
+      channel.getJavaChannel().close();
+    }
+  }
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ShardManager with consistent hash strategy. Each shard owns a number of virtual nodes on a hash
+ * ring, so adding or removing a shard only changes the owner of the keys next to its virtual
+ * nodes, instead of nearly all keys as with {@code key % shardCount}.
+ *
+ * <p>After a shard is added or removed, a background rebalancer moves only the data whose owner
+ * changed. Data can be stored and read while it runs: reads fall back to the previous owner of
+ * a key until the key has been moved. Topology changes wait for the running rebalance.
+ */
+public class ConsistentHashShardManager extends ShardManager implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConsistentHashShardManager.class);
+
+  public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private final int virtualNodes;
+
+  private final int batchSize;
+
+  private final Object topologyLock = new Object();
+
+  private final ExecutorService rebalancer = Executors.newSingleThreadExecutor(runnable -> {
+    var thread = new Thread(runnable, "shard-rebalancer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile HashRing ring;
+
+  private volatile Migration migration;
+
+  private volatile RebalanceStatistics lastRebalance;
+
+  public ConsistentHashShardManager() {
+    this(DEFAULT_VIRTUAL_NODES, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Constructor of ConsistentHashShardManager class.
+   * @param virtualNodes number of virtual nodes of each shard on the ring, more nodes balance the
+   *                     shards better
+   * @param batchSize number of keys the rebalancer moves before yielding to other threads
+   */
+  public ConsistentHashShardManager(final int virtualNodes, final int batchSize) {
+    this(virtualNodes, batchSize, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor of ConsistentHashShardManager class.
+   * @param virtualNodes number of virtual nodes of each shard on the ring, more nodes balance the
+   *                     shards better
+   * @param batchSize number of keys the rebalancer moves before yielding to other threads
+   * @param executor executor running the work of each shard for batches and queries
+   */
+  public ConsistentHashShardManager(final int virtualNodes, final int batchSize,
+                                    final Executor executor) {
+    super(executor);
+    if (virtualNodes <= 0 || batchSize <= 0) {
+      throw new IllegalArgumentException("virtualNodes and batchSize must be positive");
+    }
+    this.virtualNodes = virtualNodes;
+    this.batchSize = batchSize;
+    this.ring = HashRing.of(List.of(), virtualNodes);
+  }
+
+  /**
+   * Add a shard and move the keys it now owns to it in the background.
+   *
+   * @param shard new shard instance.
+   * @return {@code true} if succeed to add the new instance.
+   *         {@code false} if the shardId is already existed.
+   */
+  @Override
+  public boolean addNewShard(final Shard shard) {
+    synchronized (topologyLock) {
+      awaitRebalance();
+      var previousShards = Map.copyOf(shardMap);
+      var previousRing = ring;
+      if (!super.addNewShard(shard)) {
+        return false;
+      }
+      changeRing(previousRing, previousShards);
+      if (!previousRing.isEmpty()) {
+        var sources = List.copyOf(previousShards.values());
+        rebalancer.execute(() -> rebalance(shard.getId(), true, sources));
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Remove a shard and move its data to the remaining shards in the background. The data of the
+   * last shard is removed with it.
+   *
+   * @param shardId Id of shard instance to remove.
+   * @return {@code true} if removed. {@code false} if the shardId is not existed.
+   */
+  @Override
+  public boolean removeShardById(final int shardId) {
+    synchronized (topologyLock) {
+      awaitRebalance();
+      var previousShards = Map.copyOf(shardMap);
+      var previousRing = ring;
+      var shard = shardMap.get(shardId);
+      if (!super.removeShardById(shardId)) {
+        return false;
+      }
+      changeRing(previousRing, previousShards);
+      if (!ring.isEmpty()) {
+        rebalancer.execute(() -> rebalance(shardId, false, List.of(shard)));
+      }
+      return true;
+    }
+  }
+
+  /*
+   * The migration is published before the new ring, so a reader seeing the new ring also finds
+   * the previous owners of the keys that were not moved yet.
+   */
+  private void changeRing(HashRing previousRing, Map<Integer, Shard> previousShards) {
+    var newRing = HashRing.of(shardMap.keySet(), virtualNodes);
+    if (!previousRing.isEmpty() && !newRing.isEmpty()) {
+      migration = new Migration(previousRing, previousShards);
+    }
+    ring = newRing;
+  }
+
+  private void rebalance(int shardId, boolean shardAdded, List<Shard> sources) {
+    var start = System.nanoTime();
+    var counter = new long[2];
+    for (var source : sources) {
+      source.forEachData(data -> {
+        counter[0]++;
+        var owner = ring.shardFor(data.getKey());
+        if (owner != source.getId()) {
+          // copy first, so readers always find the data in one of the shards
+          shardMap.get(owner).storeDataIfAbsent(data);
+          source.removeData(data);
+          if (++counter[1] % batchSize == 0) {
+            Thread.yield();
+          }
+        }
+      });
+    }
+    lastRebalance = new RebalanceStatistics(shardId, shardAdded, counter[0], counter[1],
+        System.nanoTime() - start);
+    migration = null;
+    LOGGER.info("Rebalanced after {} Shard {}: moved {} of {} keys", shardAdded ? "adding"
+        : "removing", shardId, counter[1], counter[0]);
+  }
+
+  /**
+   * Store data in the shard owning its key. If the ring changes meanwhile, the data is stored
+   * again in the new owner, so it is not left behind in a shard the rebalancer already visited.
+   *
+   * @param data new data
+   * @return id of shard that the data is stored in
+   */
+  @Override
+  public int storeData(final Data data) {
+    Shard previous = null;
+    while (true) {
+      var current = ring;
+      var shardId = current.shardFor(data.getKey());
+      var shard = getShard(shardId);
+      if (shard != null) {
+        shard.storeData(data);
+        if (previous != null && previous != shard) {
+          previous.removeData(data);
+        }
+        previous = shard;
+        if (current == ring) {
+          LOGGER.debug("{} is stored in Shard {}", data, shardId);
+          return shardId;
+        }
+      }
+    }
+  }
+
+  /**
+   * Store the group through {@link #storeData(Data)}, which follows ring changes.
+   */
+  @Override
+  protected void storeGroup(final int shardId, final List<Data> group) {
+    group.forEach(this::storeData);
+  }
+
+  @Override
+  protected int allocateShard(final Data data) {
+    return ring.shardFor(data.getKey());
+  }
+
+  /**
+   * Get data by key, also while the shards are being rebalanced.
+   *
+   * @param key data key
+   * @return the data or null if not found
+   */
+  public Data getData(final int key) {
+    while (true) {
+      var current = ring;
+      if (current.isEmpty()) {
+        return null;
+      }
+      var pending = migration;
+      var shard = getShard(current.shardFor(key));
+      var data = getData(shard, key);
+      if (data == null && pending != null) {
+        data = getData(pending.shards.get(pending.ring.shardFor(key)), key);
+        if (data == null) {
+          // moved to the new owner after it was checked
+          data = getData(shard, key);
+        }
+      }
+      if (data != null || current == ring) {
+        return data;
+      }
+    }
+  }
+
+  private static Data getData(Shard shard, int key) {
+    return shard == null ? null : shard.getDataById(key);
+  }
+
+  private Shard getShard(int shardId) {
+    var shard = shardMap.get(shardId);
+    var pending = migration;
+    if (shard == null && pending != null) {
+      shard = pending.shards.get(shardId);
+    }
+    return shard;
+  }
+
+  public boolean isRebalancing() {
+    return migration != null;
+  }
+
+  /**
+   * Wait until the running rebalance finished.
+   *
+   * @param timeout maximum time to wait
+   * @param unit unit of the timeout
+   * @return {@code true} if no rebalance is running anymore
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitRebalance(final long timeout, final TimeUnit unit)
+      throws InterruptedException {
+    try {
+      rebalancer.submit(() -> { }).get(timeout, unit);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void awaitRebalance() {
+    try {
+      rebalancer.submit(() -> { }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the rebalance", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Get the statistics of the last finished rebalance.
+   *
+   * @return the statistics or null if there was no rebalance yet
+   */
+  public RebalanceStatistics getLastRebalance() {
+    return lastRebalance;
+  }
+
+  /**
+   * Get the number of keys stored in each shard.
+   *
+   * @return the balance of the shards
+   */
+  public ShardBalance getBalance() {
+    return new ShardBalance(shardMap.values().stream()
+        .collect(Collectors.toMap(Shard::getId, Shard::size)));
+  }
+
+  /**
+   * Get the share of the hash space each shard owns, which is the expected share of the keys.
+   *
+   * @return map from shard id to the owned fraction of the ring
+   */
+  public Map<Integer, Double> getOwnership() {
+    return ring.getOwnership();
+  }
+
+  /**
+   * Wait for the running rebalance and stop the rebalancer thread.
+   */
+  @Override
+  public void close() {
+    rebalancer.shutdown();
+    try {
+      rebalancer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Ring and shards before the last topology change.
+   */
+  private static final class Migration {
+
+    private final HashRing ring;
+
+    private final Map<Integer, Shard> shards;
+
+    private Migration(HashRing ring, Map<Integer, Shard> shards) {
+      this.ring = ring;
+      this.shards = shards;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable consistent hash ring. Every shard is placed on the ring at a number of virtual nodes
+ * and a key belongs to the first virtual node at or after the hash of the key. Adding or removing
+ * a shard only changes the owner of the keys between its virtual nodes and their predecessors.
+ */
+final class HashRing {
+
+  private final int[] hashes;
+  private final int[] shardIds;
+
+  private HashRing(int[] hashes, int[] shardIds) {
+    this.hashes = hashes;
+    this.shardIds = shardIds;
+  }
+
+  /**
+   * Build the ring of the given shards.
+   *
+   * @param shardIds ids of the shards
+   * @param virtualNodes number of virtual nodes per shard
+   * @return the ring
+   */
+  static HashRing of(Collection<Integer> shardIds, int virtualNodes) {
+    var nodes = new long[shardIds.size() * virtualNodes];
+    var i = 0;
+    for (var shardId : shardIds) {
+      for (var replica = 0; replica < virtualNodes; replica++) {
+        var hash = hash(hash(shardId) + replica);
+        // hash in the high half, shard id in the low half, so sorting orders by hash
+        nodes[i++] = ((long) hash << 32) | (shardId & 0xFFFFFFFFL);
+      }
+    }
+    Arrays.sort(nodes);
+    var hashes = new int[nodes.length];
+    var ids = new int[nodes.length];
+    for (i = 0; i < nodes.length; i++) {
+      hashes[i] = (int) (nodes[i] >> 32);
+      ids[i] = (int) nodes[i];
+    }
+    return new HashRing(hashes, ids);
+  }
+
+  /**
+   * Murmur3 finalizer, spreads consecutive keys over the whole ring.
+   */
+  static int hash(int key) {
+    var h = key;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  boolean isEmpty() {
+    return hashes.length == 0;
+  }
+
+  /**
+   * Find the shard of a key.
+   *
+   * @param key data key
+   * @return id of the shard owning the key
+   * @throws IllegalStateException if the ring has no shards
+   */
+  int shardFor(int key) {
+    if (hashes.length == 0) {
+      throw new IllegalStateException("No shard in the ring");
+    }
+    var index = Arrays.binarySearch(hashes, hash(key));
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return shardIds[index == hashes.length ? 0 : index];
+  }
+
+  /**
+   * Share of the hash space each shard owns.
+   *
+   * @return map from shard id to the owned fraction of the ring
+   */
+  Map<Integer, Double> getOwnership() {
+    var ownership = new HashMap<Integer, Double>();
+    for (var i = 0; i < hashes.length; i++) {
+      // the arc from the previous virtual node, wrapping around from the last one
+      var previous = i == 0 ? hashes[hashes.length - 1] : hashes[i - 1];
+      var arc = Integer.toUnsignedLong(hashes[i] - previous);
+      if (hashes.length == 1) {
+        arc = 1L << 32;
+      }
+      ownership.merge(shardIds[i], arc / (double) (1L << 32), Double::sum);
+    }
+    return ownership;
+  }
+}
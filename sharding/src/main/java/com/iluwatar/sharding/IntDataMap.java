@@ -0,0 +1,276 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing map from int keys to data. Keys are stored in an {@code int[]} next to the
+ * {@code Data[]} of the values, so neither storing nor getting boxes the key, and there is no
+ * entry object per data as in a {@link java.util.HashMap}. Collisions are resolved by linear
+ * probing and removal shifts the following entries back, so there are no tombstones.
+ *
+ * <p>Gets are optimistic reads that do not block and fall back to a read lock only when a write
+ * happened meanwhile. Writes take the write lock.
+ */
+public class IntDataMap implements ShardStorage {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final StampedLock lock = new StampedLock();
+
+  private Table table;
+
+  private int size;
+
+  public IntDataMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor of IntDataMap class.
+   * @param expectedSize number of data to store without resizing
+   */
+  public IntDataMap(final int expectedSize) {
+    table = new Table(tableLength(expectedSize));
+  }
+
+  private static int tableLength(int expectedSize) {
+    // at most two thirds full
+    var length = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 3 / 2) - 1) << 1;
+    if (length <= 0) {
+      throw new IllegalArgumentException("Too many data: " + expectedSize);
+    }
+    return length;
+  }
+
+  @Override
+  public void put(final Data data) {
+    var stamp = lock.writeLock();
+    try {
+      insert(data, true);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public boolean putIfAbsent(final Data data) {
+    var stamp = lock.writeLock();
+    try {
+      return insert(data, false);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private boolean insert(Data data, boolean replace) {
+    if (size + 1 > table.threshold) {
+      resize();
+    }
+    var current = table;
+    var key = data.getKey();
+    var index = current.indexOf(key);
+    if (current.values[index] != null) {
+      if (replace) {
+        current.values[index] = data;
+      }
+      return replace;
+    }
+    current.keys[index] = key;
+    current.values[index] = data;
+    size++;
+    return true;
+  }
+
+  private void resize() {
+    var old = table;
+    var resized = new Table(old.values.length << 1);
+    for (var i = 0; i < old.values.length; i++) {
+      if (old.values[i] != null) {
+        var index = resized.indexOf(old.keys[i]);
+        resized.keys[index] = old.keys[i];
+        resized.values[index] = old.values[i];
+      }
+    }
+    table = resized;
+  }
+
+  @Override
+  public Data get(final int key) {
+    var stamp = lock.tryOptimisticRead();
+    var data = table.get(key);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        data = table.get(key);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return data;
+  }
+
+  @Override
+  public boolean remove(final Data data) {
+    var stamp = lock.writeLock();
+    try {
+      var current = table;
+      var index = current.indexOf(data.getKey());
+      if (current.values[index] != data) {
+        return false;
+      }
+      current.shiftBack(index);
+      size--;
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Visit a copy of the data taken under the read lock, so the action may write to this map.
+   */
+  @Override
+  public void forEach(final Consumer<Data> action) {
+    var copy = new ArrayList<Data>();
+    var stamp = lock.readLock();
+    try {
+      copy.ensureCapacity(size);
+      for (var data : table.values) {
+        if (data != null) {
+          copy.add(data);
+        }
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+    copy.forEach(action);
+  }
+
+  @Override
+  public int size() {
+    var stamp = lock.readLock();
+    try {
+      return size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public void clear() {
+    var stamp = lock.writeLock();
+    try {
+      table = new Table(DEFAULT_CAPACITY);
+      size = 0;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Keys and values replaced together on resize, so an optimistic reader never mixes the arrays
+   * of two sizes.
+   */
+  private static final class Table {
+
+    private final int[] keys;
+
+    private final Data[] values;
+
+    private final int mask;
+
+    private final int shift;
+
+    private final int threshold;
+
+    private Table(int length) {
+      keys = new int[length];
+      values = new Data[length];
+      mask = length - 1;
+      shift = Integer.numberOfLeadingZeros(length) + 1;
+      threshold = length / 3 * 2;
+    }
+
+    /**
+     * Fibonacci hashing, the high bits of the product are the best mixed.
+     */
+    private int slot(int key) {
+      return (key * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Index of the key or of the empty slot where it would go.
+     */
+    private int indexOf(int key) {
+      var index = slot(key);
+      while (values[index] != null && keys[index] != key) {
+        index = (index + 1) & mask;
+      }
+      return index;
+    }
+
+    /**
+     * Get without assuming the table is consistent, the probe ends after one round.
+     */
+    private Data get(int key) {
+      var index = slot(key);
+      for (var probes = 0; probes <= mask; probes++) {
+        var data = values[index];
+        if (data == null) {
+          return null;
+        }
+        if (keys[index] == key) {
+          return data;
+        }
+        index = (index + 1) & mask;
+      }
+      return null;
+    }
+
+    /**
+     * Empty the slot and move back the following entries that probed past it.
+     */
+    private void shiftBack(int hole) {
+      var index = hole;
+      while (true) {
+        index = (index + 1) & mask;
+        if (values[index] == null) {
+          break;
+        }
+        var home = slot(keys[index]);
+        // distance probed from the home slot, versus distance from the hole
+        if (((index - home) & mask) >= ((index - hole) & mask)) {
+          keys[hole] = keys[index];
+          values[hole] = values[index];
+          hole = index;
+        }
+      }
+      values[hole] = null;
+    }
+  }
+}
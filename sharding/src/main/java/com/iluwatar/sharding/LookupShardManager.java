@@ -23,9 +23,10 @@
 
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,27 +40,28 @@ public class LookupShardManager extends ShardManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LookupShardManager.class);
 
-  private Map<Integer, Integer> lookupMap = new HashMap<>();
+  private final Map<Integer, Integer> lookupMap = new ConcurrentHashMap<>();
+
+  public LookupShardManager() {
+  }
+
+  public LookupShardManager(final Executor executor) {
+    super(executor);
+  }
 
   @Override
   public int storeData(Data data) {
     var shardId = allocateShard(data);
-    lookupMap.put(data.getKey(), shardId);
     var shard = shardMap.get(shardId);
     shard.storeData(data);
-    LOGGER.info(data.toString() + " is stored in Shard " + shardId);
+    LOGGER.info("{} is stored in Shard {}", data, shardId);
     return shardId;
   }
 
   @Override
   protected int allocateShard(Data data) {
-    var key = data.getKey();
-    if (lookupMap.containsKey(key)) {
-      return lookupMap.get(key);
-    } else {
-      var shardCount = shardMap.size();
-      return new Random().nextInt(shardCount - 1) + 1;
-    }
+    return lookupMap.computeIfAbsent(data.getKey(),
+        key -> ThreadLocalRandom.current().nextInt(shardMap.size()) + 1);
   }
 
 }
@@ -0,0 +1,334 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Columnar storage of data outside of the heap. The rows are kept in direct buffers, one column
+ * per field: the key, the type ordinal, and the offset and length of the UTF-8 value in a value
+ * buffer. An open addressing {@code int[]} index maps keys to rows. No object is kept per data,
+ * so a row takes 13 bytes plus its value bytes and about 6 bytes of index.
+ *
+ * <p>{@link #get(int)} creates the data it returns, and {@link #remove(Data)} compares the fields
+ * instead of the identity of the data. Removed rows are filled with the last row. Replaced and
+ * removed values are reclaimed when they take more than half of the value buffer.
+ */
+public class OffHeapColumnStorage implements ShardStorage {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private static final int DEFAULT_VALUE_BYTES = 256;
+
+  private static final Data.DataType[] TYPES = Data.DataType.values();
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private ByteBuffer keys;
+
+  private ByteBuffer types;
+
+  private ByteBuffer valueOffsets;
+
+  private ByteBuffer valueLengths;
+
+  private ByteBuffer values;
+
+  private int[] index;
+
+  private int rows;
+
+  private int garbageBytes;
+
+  public OffHeapColumnStorage() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor of OffHeapColumnStorage class.
+   * @param expectedSize number of data to store without growing the columns
+   */
+  public OffHeapColumnStorage(final int expectedSize) {
+    allocate(Math.max(DEFAULT_CAPACITY, expectedSize));
+  }
+
+  private void allocate(int capacity) {
+    keys = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+    types = ByteBuffer.allocateDirect(capacity);
+    valueOffsets = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+    valueLengths = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+    values = ByteBuffer.allocateDirect(DEFAULT_VALUE_BYTES);
+    index = new int[indexLength(capacity)];
+    rows = 0;
+    garbageBytes = 0;
+  }
+
+  private static int indexLength(int capacity) {
+    return Integer.highestOneBit(capacity * 3 / 2 - 1) << 1;
+  }
+
+  @Override
+  public void put(final Data data) {
+    lock.writeLock().lock();
+    try {
+      insert(data, true);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean putIfAbsent(final Data data) {
+    lock.writeLock().lock();
+    try {
+      return insert(data, false);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean insert(Data data, boolean replace) {
+    var slot = slotOf(data.getKey());
+    var row = index[slot] - 1;
+    if (row >= 0) {
+      if (replace) {
+        garbageBytes += Math.max(0, valueLengths.getInt(row * Integer.BYTES));
+        // the old value is garbage now, a compaction must not copy it
+        valueLengths.putInt(row * Integer.BYTES, -1);
+        writeFields(row, data);
+      }
+      return replace;
+    }
+    if (rows == types.capacity()) {
+      grow();
+      slot = slotOf(data.getKey());
+    }
+    row = rows++;
+    keys.putInt(row * Integer.BYTES, data.getKey());
+    writeFields(row, data);
+    index[slot] = row + 1;
+    return true;
+  }
+
+  private void writeFields(int row, Data data) {
+    types.put(row, data.getType() == null ? -1 : (byte) data.getType().ordinal());
+    if (data.getValue() == null) {
+      valueLengths.putInt(row * Integer.BYTES, -1);
+      return;
+    }
+    var bytes = data.getValue().getBytes(StandardCharsets.UTF_8);
+    if (values.remaining() < bytes.length) {
+      makeRoom(bytes.length);
+    }
+    valueOffsets.putInt(row * Integer.BYTES, values.position());
+    valueLengths.putInt(row * Integer.BYTES, bytes.length);
+    values.put(bytes);
+  }
+
+  /*
+   * Reclaims the replaced and removed values if they take half of the buffer, otherwise doubles
+   * the buffer.
+   */
+  private void makeRoom(int needed) {
+    var used = values.position() - garbageBytes;
+    var capacity = values.capacity();
+    if (garbageBytes < capacity / 2 || used + needed > capacity) {
+      capacity = Math.max(capacity << 1, used + needed);
+    }
+    var compacted = ByteBuffer.allocateDirect(capacity);
+    for (var row = 0; row < rows; row++) {
+      var length = valueLengths.getInt(row * Integer.BYTES);
+      if (length > 0) {
+        var offset = valueOffsets.getInt(row * Integer.BYTES);
+        valueOffsets.putInt(row * Integer.BYTES, compacted.position());
+        compacted.put(values.duplicate().position(offset).limit(offset + length));
+      } else if (length == 0) {
+        valueOffsets.putInt(row * Integer.BYTES, compacted.position());
+      }
+    }
+    values = compacted;
+    garbageBytes = 0;
+  }
+
+  private void grow() {
+    var capacity = types.capacity() << 1;
+    keys = copyOf(keys, capacity * Integer.BYTES);
+    types = copyOf(types, capacity);
+    valueOffsets = copyOf(valueOffsets, capacity * Integer.BYTES);
+    valueLengths = copyOf(valueLengths, capacity * Integer.BYTES);
+    index = new int[indexLength(capacity)];
+    for (var row = 0; row < rows; row++) {
+      index[slotOf(keys.getInt(row * Integer.BYTES))] = row + 1;
+    }
+  }
+
+  private static ByteBuffer copyOf(ByteBuffer buffer, int capacity) {
+    var copy = ByteBuffer.allocateDirect(capacity);
+    copy.put(buffer.duplicate().clear());
+    return copy;
+  }
+
+  /**
+   * Index slot of the key or of the empty slot where it would go.
+   */
+  private int slotOf(int key) {
+    var mask = index.length - 1;
+    var slot = home(key);
+    while (index[slot] != 0 && keys.getInt((index[slot] - 1) * Integer.BYTES) != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int home(int key) {
+    return (key * 0x9E3779B9) >>> (Integer.numberOfLeadingZeros(index.length) + 1);
+  }
+
+  @Override
+  public Data get(final int key) {
+    lock.readLock().lock();
+    try {
+      var row = index[slotOf(key)] - 1;
+      return row < 0 ? null : readRow(row);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Data readRow(int row) {
+    var type = types.get(row);
+    var length = valueLengths.getInt(row * Integer.BYTES);
+    String value = null;
+    if (length >= 0) {
+      var bytes = new byte[length];
+      var offset = valueOffsets.getInt(row * Integer.BYTES);
+      for (var i = 0; i < length; i++) {
+        bytes[i] = values.get(offset + i);
+      }
+      value = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return new Data(keys.getInt(row * Integer.BYTES), value, type < 0 ? null : TYPES[type]);
+  }
+
+  @Override
+  public boolean remove(final Data data) {
+    lock.writeLock().lock();
+    try {
+      var slot = slotOf(data.getKey());
+      var row = index[slot] - 1;
+      if (row < 0 || !sameFields(readRow(row), data)) {
+        return false;
+      }
+      garbageBytes += Math.max(0, valueLengths.getInt(row * Integer.BYTES));
+      shiftBack(slot);
+      var last = --rows;
+      if (row != last) {
+        moveRow(last, row);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static boolean sameFields(Data stored, Data data) {
+    return stored.getType() == data.getType() && Objects.equals(stored.getValue(), data.getValue());
+  }
+
+  private void moveRow(int from, int to) {
+    var key = keys.getInt(from * Integer.BYTES);
+    index[slotOf(key)] = to + 1;
+    keys.putInt(to * Integer.BYTES, key);
+    types.put(to, types.get(from));
+    valueOffsets.putInt(to * Integer.BYTES, valueOffsets.getInt(from * Integer.BYTES));
+    valueLengths.putInt(to * Integer.BYTES, valueLengths.getInt(from * Integer.BYTES));
+  }
+
+  /**
+   * Empty the index slot and move back the following slots that probed past it.
+   */
+  private void shiftBack(int hole) {
+    var mask = index.length - 1;
+    var slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (index[slot] == 0) {
+        break;
+      }
+      var home = home(keys.getInt((index[slot] - 1) * Integer.BYTES));
+      if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+        index[hole] = index[slot];
+        hole = slot;
+      }
+    }
+    index[hole] = 0;
+  }
+
+  /**
+   * Visit copies of the rows taken under the read lock, so the action may write to this storage.
+   */
+  @Override
+  public void forEach(final Consumer<Data> action) {
+    var copy = new ArrayList<Data>();
+    lock.readLock().lock();
+    try {
+      copy.ensureCapacity(rows);
+      for (var row = 0; row < rows; row++) {
+        copy.add(readRow(row));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    copy.forEach(action);
+  }
+
+  @Override
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return rows;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      Arrays.fill(index, 0);
+      rows = 0;
+      values.clear();
+      garbageBytes = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
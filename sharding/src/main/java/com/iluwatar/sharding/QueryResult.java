@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Merged result of a query sent to all shards. Shards that did not answer in time or failed are
+ * listed, so the caller can tell a partial result from a complete one.
+ */
+public class QueryResult {
+
+  private final List<Data> data;
+
+  private final Set<Integer> timedOutShards;
+
+  private final Set<Integer> failedShards;
+
+  /**
+   * Constructor of QueryResult class.
+   * @param data data found by the shards that answered
+   * @param timedOutShards ids of the shards that did not answer in time
+   * @param failedShards ids of the shards that failed
+   */
+  public QueryResult(final List<Data> data, final Set<Integer> timedOutShards,
+                     final Set<Integer> failedShards) {
+    this.data = List.copyOf(data);
+    this.timedOutShards = Set.copyOf(timedOutShards);
+    this.failedShards = Set.copyOf(failedShards);
+  }
+
+  public List<Data> getData() {
+    return data;
+  }
+
+  public Set<Integer> getTimedOutShards() {
+    return timedOutShards;
+  }
+
+  public Set<Integer> getFailedShards() {
+    return failedShards;
+  }
+
+  /**
+   * Whether every shard answered.
+   *
+   * @return {@code true} if no shard timed out or failed
+   */
+  public boolean isComplete() {
+    return timedOutShards.isEmpty() && failedShards.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "QueryResult {" + "data=" + data
+      + ", timedOutShards=" + timedOutShards + ", failedShards=" + failedShards + '}';
+  }
+}
@@ -23,6 +23,8 @@
 
 package com.iluwatar.sharding;
 
+import java.util.concurrent.Executor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,12 +36,19 @@ public class RangeShardManager extends ShardManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(RangeShardManager.class);
 
+  public RangeShardManager() {
+  }
+
+  public RangeShardManager(final Executor executor) {
+    super(executor);
+  }
+
   @Override
   public int storeData(Data data) {
     var shardId = allocateShard(data);
     var shard = shardMap.get(shardId);
     shard.storeData(data);
-    LOGGER.info(data.toString() + " is stored in Shard " + shardId);
+    LOGGER.info("{} is stored in Shard {}", data, shardId);
     return shardId;
   }
 
@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+/**
+ * Key movement of one rebalance after a shard was added or removed.
+ */
+public class RebalanceStatistics {
+
+  private final int shardId;
+
+  private final boolean shardAdded;
+
+  private final long keysScanned;
+
+  private final long keysMoved;
+
+  private final long durationNanos;
+
+  /**
+   * Constructor of RebalanceStatistics class.
+   * @param shardId id of the added or removed shard
+   * @param shardAdded {@code true} if the shard was added, {@code false} if removed
+   * @param keysScanned number of keys checked for a new owner
+   * @param keysMoved number of keys moved to another shard
+   * @param durationNanos duration of the rebalance
+   */
+  public RebalanceStatistics(final int shardId, final boolean shardAdded, final long keysScanned,
+                             final long keysMoved, final long durationNanos) {
+    this.shardId = shardId;
+    this.shardAdded = shardAdded;
+    this.keysScanned = keysScanned;
+    this.keysMoved = keysMoved;
+    this.durationNanos = durationNanos;
+  }
+
+  public int getShardId() {
+    return shardId;
+  }
+
+  public boolean isShardAdded() {
+    return shardAdded;
+  }
+
+  public long getKeysScanned() {
+    return keysScanned;
+  }
+
+  public long getKeysMoved() {
+    return keysMoved;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * Fraction of the scanned keys that moved. Adding the n-th shard should move about 1/n.
+   *
+   * @return moved keys divided by scanned keys, 0 if no key was scanned
+   */
+  public double getMovedFraction() {
+    return keysScanned == 0 ? 0 : keysMoved / (double) keysScanned;
+  }
+
+  @Override
+  public String toString() {
+    return "RebalanceStatistics {" + "shardId=" + shardId
+      + ", shardAdded=" + shardAdded + ", keysScanned=" + keysScanned
+      + ", keysMoved=" + keysMoved + ", durationNanos=" + durationNanos + '}';
+  }
+}
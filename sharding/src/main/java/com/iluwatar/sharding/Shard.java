@@ -23,25 +23,68 @@
 
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
- * The Shard class stored data in a HashMap.
+ * The Shard class stored data in a {@link ShardStorage}, by default an {@link IntDataMap} that
+ * keys the data by int without boxing. The storage is safe for concurrent access, so data can be
+ * read and written while a rebalancer moves it to another shard.
  */
 public class Shard {
 
   private final int id;
 
-  private Map<Integer, Data> dataStore;
+  private ShardStorage dataStore;
 
   public Shard(final int id) {
+    this(id, new IntDataMap());
+  }
+
+  /**
+   * Constructor of Shard class.
+   * @param id shard id
+   * @param dataStore storage of the data, for example an {@link OffHeapColumnStorage}
+   */
+  public Shard(final int id, final ShardStorage dataStore) {
     this.id = id;
-    this.dataStore = new HashMap<>();
+    this.dataStore = dataStore;
   }
 
   public void storeData(Data data) {
-    dataStore.put(data.getKey(), data);
+    dataStore.put(data);
+  }
+
+  /**
+   * Store the data unless there is already data with the same key.
+   *
+   * @param data new data
+   * @return {@code true} if the data was stored
+   */
+  public boolean storeDataIfAbsent(Data data) {
+    return dataStore.putIfAbsent(data);
+  }
+
+  /**
+   * Remove the data if it is still stored under its key.
+   *
+   * @param data data to remove
+   * @return {@code true} if the data was removed
+   */
+  public boolean removeData(Data data) {
+    return dataStore.remove(data);
+  }
+
+  /**
+   * Visit the stored data. Data stored or removed during the visit may or may not be visited.
+   *
+   * @param action action for each data
+   */
+  public void forEachData(Consumer<Data> action) {
+    dataStore.forEach(action);
+  }
+
+  public int size() {
+    return dataStore.size();
   }
 
   public void clearData() {
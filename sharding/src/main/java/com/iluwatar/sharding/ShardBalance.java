@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.Map;
+
+/**
+ * Balance of the number of keys stored in each shard.
+ */
+public class ShardBalance {
+
+  private final Map<Integer, Integer> shardSizes;
+
+  private final int min;
+
+  private final int max;
+
+  private final double mean;
+
+  private final double standardDeviation;
+
+  /**
+   * Constructor of ShardBalance class.
+   * @param shardSizes number of keys of each shard id
+   */
+  public ShardBalance(final Map<Integer, Integer> shardSizes) {
+    this.shardSizes = Map.copyOf(shardSizes);
+    var stats = shardSizes.values().stream().mapToInt(Integer::intValue).summaryStatistics();
+    this.min = stats.getCount() == 0 ? 0 : stats.getMin();
+    this.max = stats.getCount() == 0 ? 0 : stats.getMax();
+    this.mean = stats.getAverage();
+    var variance = shardSizes.values().stream()
+        .mapToDouble(size -> (size - mean) * (size - mean))
+        .average()
+        .orElse(0);
+    this.standardDeviation = Math.sqrt(variance);
+  }
+
+  public Map<Integer, Integer> getShardSizes() {
+    return shardSizes;
+  }
+
+  public int getMin() {
+    return min;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  public double getMean() {
+    return mean;
+  }
+
+  public double getStandardDeviation() {
+    return standardDeviation;
+  }
+
+  /**
+   * Size of the largest shard relative to the mean, 1 is perfectly balanced.
+   *
+   * @return max divided by mean, 0 if there is no data
+   */
+  public double getMaxToMean() {
+    return mean == 0 ? 0 : max / mean;
+  }
+
+  @Override
+  public String toString() {
+    return "ShardBalance {" + "shardSizes=" + shardSizes
+      + ", min=" + min + ", max=" + max + ", mean=" + mean
+      + ", standardDeviation=" + standardDeviation + '}';
+  }
+}
@@ -23,14 +23,28 @@
 
 package com.iluwatar.sharding;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Abstract class for ShardManager.
+ * Abstract class for ShardManager. Besides storing single data, it stores batches grouped by
+ * shard and queries all shards at once, running the work of each shard on the executor.
  */
 public abstract class ShardManager {
 
@@ -38,8 +52,19 @@ public abstract class ShardManager {
 
   protected Map<Integer, Shard> shardMap;
 
+  protected final Executor executor;
+
   public ShardManager() {
-    shardMap = new HashMap<>();
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor of ShardManager class.
+   * @param executor executor running the work of each shard for batches and queries
+   */
+  public ShardManager(final Executor executor) {
+    shardMap = new ConcurrentHashMap<>();
+    this.executor = executor;
   }
 
   /**
@@ -92,6 +117,157 @@ public abstract class ShardManager {
    */
   public abstract int storeData(final Data data);
 
+  /**
+   * Store a batch of data. The data is grouped by shard and the groups are stored in parallel.
+   *
+   * @param batch new data
+   * @return number of data stored in each shard id
+   */
+  public Map<Integer, Integer> storeData(final Collection<Data> batch) {
+    try {
+      return storeDataAsync(batch).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Store a batch of data without waiting. The data is grouped by shard and the groups are stored
+   * in parallel.
+   *
+   * @param batch new data
+   * @return future of the number of data stored in each shard id
+   */
+  public CompletableFuture<Map<Integer, Integer>> storeDataAsync(final Collection<Data> batch) {
+    var groups = new HashMap<Integer, List<Data>>();
+    for (var data : batch) {
+      groups.computeIfAbsent(allocateShard(data), shardId -> new ArrayList<>()).add(data);
+    }
+    var futures = new ArrayList<CompletableFuture<Void>>(groups.size());
+    groups.forEach((shardId, group) ->
+        futures.add(CompletableFuture.runAsync(() -> storeGroup(shardId, group), executor)));
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(done -> {
+          LOGGER.debug("{} data is stored in {} shards", batch.size(), groups.size());
+          var counts = new HashMap<Integer, Integer>();
+          groups.forEach((shardId, group) -> counts.put(shardId, group.size()));
+          return counts;
+        });
+  }
+
+  /**
+   * Store data allocated to the same shard. Runs on the executor, in parallel with the groups of
+   * the other shards.
+   *
+   * @param shardId id of the shard allocated to the data
+   * @param group data allocated to the shard
+   */
+  protected void storeGroup(final int shardId, final List<Data> group) {
+    var shard = shardMap.get(shardId);
+    if (shard == null) {
+      throw new IllegalStateException("Shard " + shardId + " does not exist");
+    }
+    group.forEach(shard::storeData);
+  }
+
+  /**
+   * Get data by keys from all shards in parallel.
+   *
+   * @param keys data keys
+   * @param timeout time each shard has to answer
+   * @param unit unit of the timeout
+   * @return data found by the shards that answered in time
+   */
+  public QueryResult getDataByIds(final Collection<Integer> keys, final long timeout,
+                                  final TimeUnit unit) {
+    return scatterGather((shard, cancelled) -> {
+      var found = new ArrayList<Data>();
+      for (var key : keys) {
+        if (cancelled.isDone()) {
+          throw new CancellationException();
+        }
+        var data = shard.getDataById(key);
+        if (data != null) {
+          found.add(data);
+        }
+      }
+      return found;
+    }, timeout, unit);
+  }
+
+  /**
+   * Find the data matching a predicate in all shards in parallel.
+   *
+   * @param predicate condition of the data to find
+   * @param timeout time each shard has to answer
+   * @param unit unit of the timeout
+   * @return data found by the shards that answered in time
+   */
+  public QueryResult findData(final Predicate<Data> predicate, final long timeout,
+                              final TimeUnit unit) {
+    return scatterGather((shard, cancelled) -> {
+      var found = new ArrayList<Data>();
+      shard.forEachData(data -> {
+        if (cancelled.isDone()) {
+          throw new CancellationException();
+        }
+        if (predicate.test(data)) {
+          found.add(data);
+        }
+      });
+      return found;
+    }, timeout, unit);
+  }
+
+  /*
+   * Every shard gets its own future with its own timeout. A shard that times out sees its future
+   * done and stops, instead of scanning on for a result nobody waits for.
+   */
+  private QueryResult scatterGather(final ShardQuery query, final long timeout,
+                                    final TimeUnit unit) {
+    var futures = new HashMap<Integer, CompletableFuture<List<Data>>>();
+    for (var shard : shardMap.values()) {
+      var future = new CompletableFuture<List<Data>>();
+      futures.put(shard.getId(), future);
+      executor.execute(() -> {
+        try {
+          future.complete(query.run(shard, future));
+        } catch (Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+      future.orTimeout(timeout, unit);
+    }
+
+    var data = new ArrayList<Data>();
+    var timedOutShards = new HashSet<Integer>();
+    var failedShards = new HashSet<Integer>();
+    futures.forEach((shardId, future) -> {
+      try {
+        data.addAll(future.join());
+      } catch (CompletionException | CancellationException e) {
+        if (e.getCause() instanceof TimeoutException) {
+          timedOutShards.add(shardId);
+        } else {
+          LOGGER.warn("Query failed in Shard {}", shardId, e);
+          failedShards.add(shardId);
+        }
+      }
+    });
+    return new QueryResult(data, timedOutShards, failedShards);
+  }
+
+  /**
+   * Query run on one shard.
+   */
+  private interface ShardQuery {
+
+    List<Data> run(Shard shard, CompletableFuture<List<Data>> cancelled);
+  }
+
   /**
    * Allocate proper shard to provided data.
    *
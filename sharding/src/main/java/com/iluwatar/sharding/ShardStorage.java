@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.function.Consumer;
+
+/**
+ * Storage of the data of a shard, keyed by the data key. Implementations are safe for concurrent
+ * access.
+ */
+public interface ShardStorage {
+
+  /**
+   * Store the data, replacing the data with the same key.
+   *
+   * @param data new data
+   */
+  void put(Data data);
+
+  /**
+   * Store the data unless there is already data with the same key.
+   *
+   * @param data new data
+   * @return {@code true} if the data was stored
+   */
+  boolean putIfAbsent(Data data);
+
+  /**
+   * Get data by key.
+   *
+   * @param key data key
+   * @return the data or null if not found
+   */
+  Data get(int key);
+
+  /**
+   * Remove the data if it is still the data stored under its key.
+   *
+   * @param data data to remove
+   * @return {@code true} if the data was removed
+   */
+  boolean remove(Data data);
+
+  /**
+   * Visit the stored data. Data stored or removed during the visit may or may not be visited, and
+   * the action may store and remove data itself.
+   *
+   * @param action action for each data
+   */
+  void forEach(Consumer<Data> action);
+
+  int size();
+
+  void clear();
+}
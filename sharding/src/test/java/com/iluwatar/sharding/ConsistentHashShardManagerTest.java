@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for ConsistentHashShardManager class.
+ */
+public class ConsistentHashShardManagerTest {
+
+  private static final int KEYS = 20000;
+
+  private ConsistentHashShardManager manager;
+
+  /**
+   * Initialize manager instance with four shards and data.
+   */
+  @Before
+  public void setup() {
+    manager = new ConsistentHashShardManager(ConsistentHashShardManager.DEFAULT_VIRTUAL_NODES, 64);
+    for (var i = 1; i <= 4; i++) {
+      manager.addNewShard(new Shard(i));
+    }
+    for (var key = 0; key < KEYS; key++) {
+      manager.storeData(new Data(key, "data" + key, Data.DataType.type1));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    manager.close();
+  }
+
+  private void assertAllKeysReadable() {
+    for (var key = 0; key < KEYS; key++) {
+      var data = manager.getData(key);
+      Assert.assertNotNull("key " + key, data);
+      Assert.assertEquals(key, data.getKey());
+    }
+  }
+
+  private void assertKeysInOwners() {
+    for (var key = 0; key < KEYS; key++) {
+      var owner = manager.allocateShard(new Data(key, null, null));
+      Assert.assertNotNull(manager.getShardById(owner).getDataById(key));
+    }
+  }
+
+  @Test
+  public void testBalance() {
+    var balance = manager.getBalance();
+    Assert.assertEquals(KEYS, balance.getShardSizes().values().stream().mapToInt(i -> i).sum());
+    Assert.assertTrue(balance.toString(), balance.getMaxToMean() < 1.25);
+    var ownership = manager.getOwnership();
+    Assert.assertEquals(1.0, ownership.values().stream().mapToDouble(d -> d).sum(), 1e-9);
+  }
+
+  @Test
+  public void testAddShardMovesOnlyItsKeys() throws InterruptedException {
+    var ownersBefore = new HashMap<Integer, Integer>();
+    for (var key = 0; key < KEYS; key++) {
+      ownersBefore.put(key, manager.allocateShard(new Data(key, null, null)));
+    }
+
+    Assert.assertTrue(manager.addNewShard(new Shard(5)));
+    Assert.assertTrue(manager.awaitRebalance(10, TimeUnit.SECONDS));
+
+    var statistics = manager.getLastRebalance();
+    Assert.assertEquals(5, statistics.getShardId());
+    Assert.assertTrue(statistics.isShardAdded());
+    Assert.assertEquals(KEYS, statistics.getKeysScanned());
+    Assert.assertEquals(manager.getShardById(5).size(), statistics.getKeysMoved());
+    Assert.assertTrue(statistics.toString(), statistics.getMovedFraction() > 0.1);
+    Assert.assertTrue(statistics.toString(), statistics.getMovedFraction() < 0.3);
+    for (var key = 0; key < KEYS; key++) {
+      var owner = manager.allocateShard(new Data(key, null, null));
+      Assert.assertTrue(owner == 5 || owner == ownersBefore.get(key));
+    }
+    assertKeysInOwners();
+    assertAllKeysReadable();
+    Assert.assertFalse(manager.isRebalancing());
+  }
+
+  @Test
+  public void testRemoveShardMovesItsData() throws InterruptedException {
+    var removed = manager.getShardById(2);
+    var removedKeys = removed.size();
+
+    Assert.assertTrue(manager.removeShardById(2));
+    Assert.assertFalse(manager.removeShardById(2));
+    Assert.assertTrue(manager.awaitRebalance(10, TimeUnit.SECONDS));
+
+    Assert.assertEquals(0, removed.size());
+    Assert.assertEquals(removedKeys, manager.getLastRebalance().getKeysMoved());
+    Assert.assertEquals(KEYS, manager.getBalance().getShardSizes().values().stream()
+        .mapToInt(i -> i).sum());
+    assertKeysInOwners();
+    assertAllKeysReadable();
+  }
+
+  @Test
+  public void testReadAndWriteWhileRebalancing() throws InterruptedException {
+    manager.addNewShard(new Shard(5));
+    var round = 0;
+    do {
+      assertAllKeysReadable();
+      for (var key = round; key < KEYS; key += 97) {
+        manager.storeData(new Data(key, "updated" + key, Data.DataType.type2));
+      }
+      round++;
+    } while (manager.isRebalancing());
+    manager.removeShardById(1);
+    assertAllKeysReadable();
+
+    Assert.assertTrue(manager.awaitRebalance(10, TimeUnit.SECONDS));
+    Assert.assertEquals(KEYS, manager.getBalance().getShardSizes().values().stream()
+        .mapToInt(i -> i).sum());
+    assertKeysInOwners();
+    for (var key = 0; key < round; key++) {
+      Assert.assertEquals("updated" + key, manager.getData(key).getValue());
+    }
+  }
+}
@@ -23,6 +23,8 @@
 
 package com.iluwatar.sharding;
 
+import java.util.ArrayList;
+import java.util.Map;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -61,4 +63,18 @@ public class HashShardManagerTest {
     Assert.assertEquals(data, hashShardManager.getShardById(1).getDataById(1));
   }
 
+  @Test
+  public void testStoreBatch() {
+    var batch = new ArrayList<Data>();
+    for (var key = 1; key <= 10; key++) {
+      batch.add(new Data(key, "test" + key, Data.DataType.type1));
+    }
+    var counts = hashShardManager.storeData(batch);
+    Assert.assertEquals(Map.of(1, 4, 2, 3, 3, 3), counts);
+    for (var data : batch) {
+      var shardId = hashShardManager.allocateShard(data);
+      Assert.assertEquals(data, hashShardManager.getShardById(shardId).getDataById(data.getKey()));
+    }
+  }
+
 }
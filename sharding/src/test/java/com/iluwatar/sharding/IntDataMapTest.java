@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for IntDataMap class.
+ */
+public class IntDataMapTest {
+
+  @Test
+  public void testPutGetRemove() {
+    var map = new IntDataMap();
+    var data = new Data(-7, "test", Data.DataType.type1);
+    Assert.assertTrue(map.putIfAbsent(data));
+    Assert.assertFalse(map.putIfAbsent(new Data(-7, "other", Data.DataType.type2)));
+    Assert.assertSame(data, map.get(-7));
+    Assert.assertNull(map.get(7));
+
+    Assert.assertFalse(map.remove(new Data(-7, "test", Data.DataType.type1)));
+    Assert.assertTrue(map.remove(data));
+    Assert.assertNull(map.get(-7));
+    Assert.assertEquals(0, map.size());
+  }
+
+  @Test
+  public void testMatchesHashMap() {
+    var random = new Random(7);
+    var map = new IntDataMap();
+    var expected = new HashMap<Integer, Data>();
+    for (var i = 0; i < 200000; i++) {
+      // keys in a narrow range, so entries collide, are replaced and removed often
+      var key = random.nextInt(5000) * (random.nextBoolean() ? 1 : -1024);
+      if (random.nextInt(3) == 0) {
+        var stored = expected.get(key);
+        if (stored != null) {
+          Assert.assertTrue(map.remove(stored));
+          expected.remove(key);
+        } else {
+          Assert.assertFalse(map.remove(new Data(key, null, null)));
+        }
+      } else {
+        var data = new Data(key, "data" + i, Data.DataType.type3);
+        map.put(data);
+        expected.put(key, data);
+      }
+    }
+    Assert.assertEquals(expected.size(), map.size());
+    for (var key = -5000 * 1024; key < 5000; key++) {
+      Assert.assertSame(expected.get(key), map.get(key));
+    }
+    var visited = new HashSet<Data>();
+    map.forEach(visited::add);
+    Assert.assertEquals(new HashSet<>(expected.values()), visited);
+
+    map.clear();
+    Assert.assertEquals(0, map.size());
+    Assert.assertNull(map.get(expected.keySet().iterator().next()));
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for OffHeapColumnStorage class.
+ */
+public class OffHeapColumnStorageTest {
+
+  private static void assertSameFields(Data expected, Data actual) {
+    if (expected == null) {
+      Assert.assertNull(actual);
+      return;
+    }
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(expected.getKey(), actual.getKey());
+    Assert.assertEquals(expected.getValue(), actual.getValue());
+    Assert.assertEquals(expected.getType(), actual.getType());
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    var storage = new OffHeapColumnStorage();
+    Assert.assertTrue(storage.putIfAbsent(new Data(3, "ünïcode", Data.DataType.type2)));
+    Assert.assertFalse(storage.putIfAbsent(new Data(3, "other", Data.DataType.type1)));
+    Assert.assertTrue(storage.putIfAbsent(new Data(4, null, null)));
+    assertSameFields(new Data(3, "ünïcode", Data.DataType.type2), storage.get(3));
+    assertSameFields(new Data(4, null, null), storage.get(4));
+
+    Assert.assertFalse(storage.remove(new Data(3, "other", Data.DataType.type2)));
+    Assert.assertTrue(storage.remove(new Data(3, "ünïcode", Data.DataType.type2)));
+    Assert.assertNull(storage.get(3));
+    Assert.assertEquals(1, storage.size());
+  }
+
+  @Test
+  public void testReplaceLargeValues() {
+    var storage = new OffHeapColumnStorage();
+    storage.put(new Data(1, "a".repeat(120), Data.DataType.type1));
+    storage.put(new Data(1, "b".repeat(120), Data.DataType.type1));
+    storage.put(new Data(1, "c".repeat(200), Data.DataType.type1));
+    assertSameFields(new Data(1, "c".repeat(200), Data.DataType.type1), storage.get(1));
+    for (var length = 100; length < 5000; length += 97) {
+      var value = String.valueOf((char) ('a' + length % 26)).repeat(length);
+      storage.put(new Data(1, value, Data.DataType.type2));
+      assertSameFields(new Data(1, value, Data.DataType.type2), storage.get(1));
+    }
+    Assert.assertEquals(1, storage.size());
+  }
+
+  @Test
+  public void testMatchesHashMap() {
+    var random = new Random(11);
+    var storage = new OffHeapColumnStorage();
+    var expected = new HashMap<Integer, Data>();
+    var types = Data.DataType.values();
+    for (var i = 0; i < 200000; i++) {
+      var key = random.nextInt(5000) * (random.nextBoolean() ? 1 : -1024);
+      if (random.nextInt(3) == 0) {
+        var stored = expected.remove(key);
+        Assert.assertEquals(stored != null,
+            storage.remove(stored != null ? stored : new Data(key, null, null)));
+      } else {
+        var value = random.nextInt(10) == 0 ? null : "data" + "x".repeat(random.nextInt(20)) + i;
+        var data = new Data(key, value, types[random.nextInt(types.length)]);
+        storage.put(data);
+        expected.put(key, data);
+      }
+    }
+    Assert.assertEquals(expected.size(), storage.size());
+    for (var key = -5000 * 1024; key < 5000; key++) {
+      assertSameFields(expected.get(key), storage.get(key));
+    }
+    var visited = new HashMap<Integer, Data>();
+    storage.forEach(data -> visited.put(data.getKey(), data));
+    Assert.assertEquals(expected.keySet(), visited.keySet());
+    expected.forEach((key, data) -> assertSameFields(data, visited.get(key)));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Memory taken by a shard of each storage, heap and direct memory, reported as the bytesPerRecord
+ * counter next to the time it takes to fill the shard. The storages are sized for the records up
+ * front, so no resized arrays or buffers are counted.
+ *
+ * <p>The used memory is read after a full collection, before and after the shard is filled, so
+ * the records the storage does not keep are not counted. Every fork fills a single shard with a
+ * fixed heap, since the direct buffers of an earlier shard are only freed some time after it was
+ * collected.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 3, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ShardFootprintBenchmark {
+
+  @Param({"MAP", "INT_DATA_MAP", "OFF_HEAP"})
+  public String storage;
+
+  @Param({"1000000"})
+  public int size;
+
+  /**
+   * Memory of the filled shard.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Footprint {
+
+    public double bytesPerRecord;
+  }
+
+  @Benchmark
+  public Shard fillShard(Footprint footprint) {
+    var before = usedMemory();
+    var shard = new Shard(1, ShardStorageBenchmark.createStorage(storage, size));
+    for (var key = 0; key < size; key++) {
+      shard.storeData(ShardStorageBenchmark.createData(key));
+    }
+    footprint.bytesPerRecord = (usedMemory() - before) / (double) size;
+    return shard;
+  }
+
+  private static long usedMemory() {
+    ManagementFactory.getMemoryMXBean().gc();
+    var heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    var direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+        .filter(pool -> "direct".equals(pool.getName()))
+        .mapToLong(BufferPoolMXBean::getMemoryUsed)
+        .sum();
+    return heap + direct;
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(ShardFootprintBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -23,7 +23,14 @@
 
 package com.iluwatar.sharding;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -88,8 +95,78 @@ public class ShardManagerTest {
     Assert.assertEquals(shard, tmpShard);
   }
 
+  private void addShardsWithData() {
+    for (var shardId = 1; shardId <= 3; shardId++) {
+      var shard = new Shard(shardId);
+      for (var key = shardId * 100; key < shardId * 100 + 10; key++) {
+        shard.storeData(new Data(key, "data" + key, Data.DataType.type1));
+      }
+      shardManager.addNewShard(shard);
+    }
+  }
+
+  private static Set<Integer> keys(QueryResult result) {
+    return result.getData().stream().map(Data::getKey).collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testGetDataByIds() {
+    addShardsWithData();
+    var result = shardManager.getDataByIds(List.of(100, 205, 309, 400), 1, TimeUnit.SECONDS);
+    Assert.assertTrue(result.isComplete());
+    Assert.assertEquals(Set.of(100, 205, 309), keys(result));
+  }
+
+  @Test
+  public void testFindData() {
+    addShardsWithData();
+    var result = shardManager.findData(data -> data.getKey() % 10 == 3, 1, TimeUnit.SECONDS);
+    Assert.assertTrue(result.isComplete());
+    Assert.assertEquals(Set.of(103, 203, 303), keys(result));
+  }
+
+  @Test
+  public void testSlowShardTimesOut() {
+    var executor = Executors.newCachedThreadPool();
+    shardManager = new TestShardManager(executor);
+    addShardsWithData();
+    shardManager.addNewShard(new SlowShard(4));
+    var result = shardManager.findData(data -> true, 100, TimeUnit.MILLISECONDS);
+    executor.shutdownNow();
+    Assert.assertFalse(result.isComplete());
+    Assert.assertEquals(Set.of(4), result.getTimedOutShards());
+    Assert.assertEquals(30, result.getData().size());
+  }
+
+  /**
+   * Shard answering after two seconds.
+   */
+  static class SlowShard extends Shard {
+
+    SlowShard(final int id) {
+      super(id);
+    }
+
+    @Override
+    public void forEachData(Consumer<Data> action) {
+      try {
+        Thread.sleep(2000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      super.forEachData(action);
+    }
+  }
+
   class TestShardManager extends ShardManager {
 
+    TestShardManager() {
+    }
+
+    TestShardManager(Executor executor) {
+      super(executor);
+    }
+
     @Override
     public int storeData(Data data) {
       return 0;
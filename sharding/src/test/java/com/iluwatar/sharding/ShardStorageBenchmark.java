@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Get and store latency of the shard storages, against {@link MapStorage}, the map of boxed keys
+ * the shards used before. {@link ShardFootprintBenchmark} measures the memory they take.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class ShardStorageBenchmark {
+
+  private static final int KEY_MASK = (1 << 16) - 1;
+
+  @Param({"MAP", "INT_DATA_MAP", "OFF_HEAP"})
+  public String storage;
+
+  @Param({"1000000"})
+  public int size;
+
+  private Shard shard;
+
+  private int[] keys;
+
+  private Data[] updates;
+
+  private int next;
+
+  static ShardStorage createStorage(String storage, int size) {
+    switch (storage) {
+      case "MAP":
+        return new MapStorage();
+      case "INT_DATA_MAP":
+        return new IntDataMap(size);
+      case "OFF_HEAP":
+        return new OffHeapColumnStorage(size);
+      default:
+        throw new IllegalArgumentException(storage);
+    }
+  }
+
+  static Data createData(int key) {
+    return new Data(key, "data" + key, Data.DataType.values()[key % 3]);
+  }
+
+  /**
+   * Fills the shard and picks the random keys to get and store.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    shard = new Shard(1, createStorage(storage, size));
+    for (var key = 0; key < size; key++) {
+      shard.storeData(createData(key));
+    }
+    var random = new Random(42);
+    keys = new int[KEY_MASK + 1];
+    updates = new Data[KEY_MASK + 1];
+    for (var i = 0; i < keys.length; i++) {
+      keys[i] = random.nextInt(size);
+      updates[i] = createData(keys[i]);
+    }
+  }
+
+  @Benchmark
+  public Data getDataById() {
+    return shard.getDataById(keys[next++ & KEY_MASK]);
+  }
+
+  @Benchmark
+  public void storeData() {
+    shard.storeData(updates[next++ & KEY_MASK]);
+  }
+
+  /**
+   * The storage of the shards before {@link IntDataMap}.
+   */
+  static class MapStorage implements ShardStorage {
+
+    private final Map<Integer, Data> dataStore = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(Data data) {
+      dataStore.put(data.getKey(), data);
+    }
+
+    @Override
+    public boolean putIfAbsent(Data data) {
+      return dataStore.putIfAbsent(data.getKey(), data) == null;
+    }
+
+    @Override
+    public Data get(int key) {
+      return dataStore.get(key);
+    }
+
+    @Override
+    public boolean remove(Data data) {
+      return dataStore.remove(data.getKey(), data);
+    }
+
+    @Override
+    public void forEach(Consumer<Data> action) {
+      dataStore.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+      return dataStore.size();
+    }
+
+    @Override
+    public void clear() {
+      dataStore.clear();
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(ShardStorageBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -23,8 +23,6 @@
 
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
-import java.util.Map;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -56,7 +54,7 @@ public class ShardTest {
       shard.storeData(data);
       var field = Shard.class.getDeclaredField("dataStore");
       field.setAccessible(true);
-      var dataMap = (Map<Integer, Data>) field.get(shard);
+      var dataMap = (ShardStorage) field.get(shard);
       Assert.assertEquals(1, dataMap.size());
       Assert.assertEquals(data, dataMap.get(1));
     } catch (NoSuchFieldException | IllegalAccessException e) {
@@ -68,13 +66,13 @@ public class ShardTest {
   @Test
   public void testClearData() {
     try {
-      var dataMap = new HashMap<Integer, Data>();
-      dataMap.put(1, data);
+      var dataMap = new IntDataMap();
+      dataMap.put(data);
       var field = Shard.class.getDeclaredField("dataStore");
       field.setAccessible(true);
       field.set(shard, dataMap);
       shard.clearData();
-      dataMap = (HashMap<Integer, Data>) field.get(shard);
+      dataMap = (IntDataMap) field.get(shard);
       Assert.assertEquals(0, dataMap.size());
     } catch (NoSuchFieldException | IllegalAccessException e) {
       Assert.fail("Fail to modify field access.");
@@ -0,0 +1,750 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Quadtree keeping its nodes and points in primitive arrays, one array per field, instead of a
+ * node object with four child objects and a hashtable of points. Points are identified by a non
+ * negative id that is also their index in the point arrays, so ids should be dense, like the ids
+ * of the bubbles.
+ *
+ * <p>The four children of a node are allocated next to each other, so a node only stores the index
+ * of its first child. The points of a leaf form a doubly linked list through the point arrays,
+ * which makes moving a point to another leaf O(1). All traversals use an explicit stack.
+ *
+ * <p>Moving objects are updated in place with {@link #update(int, double, double)}: a point that
+ * stays in its leaf only changes its coordinates, otherwise it goes up to the first node
+ * containing the new position and down again from there. Leaves split above the capacity and
+ * merge back when their parent holds at most half of it, so points moving back and forth across a
+ * border do not split and merge the same node every frame.
+ *
+ * <p>Queries do not change the tree, so any number of threads may query it concurrently as long
+ * as no thread changes it.
+ */
+public class ArrayQuadTree extends SpatialIndex {
+
+  private static final int NONE = -1;
+  private static final int ROOT = 0;
+  private static final int MAX_DEPTH = 24;
+  private static final int STACK_SIZE = 3 * MAX_DEPTH + 4;
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private final int capacity;
+  private final double rootMaxX;
+  private final double rootMaxY;
+
+  // nodes
+  private double[] nodeMinX;
+  private double[] nodeMinY;
+  private double[] nodeMaxX;
+  private double[] nodeMaxY;
+  private int[] nodeDepth;
+  private int[] parent;
+  private int[] firstChild;
+  private int[] head;
+  private int[] count;
+  private int nodeCount;
+  private int[] freeBlocks = new int[16];
+  private int freeBlockCount;
+
+  // points, indexed by id
+  private double[] pointX;
+  private double[] pointY;
+  private int[] leafOf;
+  private int[] next;
+  private int[] prev;
+  private int size;
+
+  ArrayQuadTree(Rect boundary, int capacity) {
+    this(boundary, capacity, 16);
+  }
+
+  ArrayQuadTree(Rect boundary, int capacity, int expectedPoints) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    var nodes = Math.max(16, 2 * expectedPoints / capacity);
+    nodeMinX = new double[nodes];
+    nodeMinY = new double[nodes];
+    nodeMaxX = new double[nodes];
+    nodeMaxY = new double[nodes];
+    nodeDepth = new int[nodes];
+    parent = new int[nodes];
+    firstChild = new int[nodes];
+    head = new int[nodes];
+    count = new int[nodes];
+    var points = Math.max(16, expectedPoints);
+    pointX = new double[points];
+    pointY = new double[points];
+    leafOf = new int[points];
+    next = new int[points];
+    prev = new int[points];
+    Arrays.fill(leafOf, NONE);
+    rootMaxX = boundary.coordinateX + boundary.width / 2;
+    rootMaxY = boundary.coordinateY + boundary.height / 2;
+    initNode(ROOT, boundary.coordinateX - boundary.width / 2,
+        boundary.coordinateY - boundary.height / 2, rootMaxX, rootMaxY, NONE, 0);
+    nodeCount = 1;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  boolean contains(int id) {
+    return id >= 0 && id < leafOf.length && leafOf[id] != NONE;
+  }
+
+  double getX(int id) {
+    return pointX[id];
+  }
+
+  double getY(int id) {
+    return pointY[id];
+  }
+
+  @Override
+  boolean insert(int id, double x, double y) {
+    if (id < 0) {
+      throw new IllegalArgumentException("id must not be negative: " + id);
+    }
+    ensurePointCapacity(id + 1);
+    if (leafOf[id] != NONE) {
+      return update(id, x, y);
+    }
+    if (!insideRoot(x, y)) {
+      return false;
+    }
+    pointX[id] = x;
+    pointY[id] = y;
+    insertFrom(ROOT, id);
+    size++;
+    return true;
+  }
+
+  @Override
+  boolean update(int id, double x, double y) {
+    if (!contains(id)) {
+      return false;
+    }
+    if (!insideRoot(x, y)) {
+      remove(id);
+      return false;
+    }
+    pointX[id] = x;
+    pointY[id] = y;
+    var leaf = leafOf[id];
+    if (inside(leaf, x, y)) {
+      return true;
+    }
+    unlink(leaf, id);
+    var node = leaf;
+    while (!inside(node, x, y)) {
+      count[node]--;
+      node = parent[node];
+    }
+    count[node]--;
+    insertFrom(node, id);
+    mergeUp(parent[leaf]);
+    return true;
+  }
+
+  @Override
+  boolean remove(int id) {
+    if (!contains(id)) {
+      return false;
+    }
+    var leaf = leafOf[id];
+    unlink(leaf, id);
+    for (var node = leaf; node != NONE; node = parent[node]) {
+      count[node]--;
+    }
+    size--;
+    mergeUp(parent[leaf]);
+    return true;
+  }
+
+  /**
+   * removes all points.
+   */
+  @Override
+  void clear() {
+    Arrays.fill(leafOf, NONE);
+    initNode(ROOT, nodeMinX[ROOT], nodeMinY[ROOT], rootMaxX, rootMaxY, NONE, 0);
+    nodeCount = 1;
+    freeBlockCount = 0;
+    size = 0;
+  }
+
+  /**
+   * replaces the points of the tree, building it top down instead of inserting the points one at
+   * a time. Points outside of the boundary are left out.
+   */
+  void bulkLoad(int[] ids, double[] xs, double[] ys) {
+    clear();
+    var order = new int[ids.length];
+    var orderX = new double[ids.length];
+    var orderY = new double[ids.length];
+    var inside = 0;
+    var maxId = -1;
+    for (var id : ids) {
+      maxId = Math.max(maxId, id);
+    }
+    ensurePointCapacity(maxId + 1);
+    for (var i = 0; i < ids.length; i++) {
+      if (insideRoot(xs[i], ys[i]) && leafOf[ids[i]] == NONE) {
+        pointX[ids[i]] = xs[i];
+        pointY[ids[i]] = ys[i];
+        leafOf[ids[i]] = ROOT;
+        order[inside] = ids[i];
+        orderX[inside] = xs[i];
+        orderY[inside] = ys[i];
+        inside++;
+      }
+    }
+    size = inside;
+    count[ROOT] = inside;
+
+    // the coordinates move along with the ids, so partitioning reads them in sequence instead of
+    // jumping around the point arrays
+    var buffer = new int[inside];
+    var bufferX = new double[inside];
+    var bufferY = new double[inside];
+    var quadrants = new byte[inside];
+    // tasks of node, start and end of its points in order
+    var tasks = new int[3 * 64];
+    var taskCount = 0;
+    tasks[taskCount++] = ROOT;
+    tasks[taskCount++] = 0;
+    tasks[taskCount++] = inside;
+    var offsets = new int[4];
+    while (taskCount > 0) {
+      var end = tasks[--taskCount];
+      var start = tasks[--taskCount];
+      var node = tasks[--taskCount];
+      if (end - start <= capacity || nodeDepth[node] >= MAX_DEPTH) {
+        for (var i = start; i < end; i++) {
+          link(node, order[i]);
+        }
+        continue;
+      }
+      var child = allocateChildren(node);
+      // counting sort of the points by quadrant
+      var quadrantSizes = new int[4];
+      for (var i = start; i < end; i++) {
+        var q = quadrant(node, orderX[i], orderY[i]);
+        quadrants[i] = (byte) q;
+        quadrantSizes[q]++;
+      }
+      offsets[0] = start;
+      for (var q = 1; q < 4; q++) {
+        offsets[q] = offsets[q - 1] + quadrantSizes[q - 1];
+      }
+      for (var i = start; i < end; i++) {
+        var target = offsets[quadrants[i]]++;
+        buffer[target] = order[i];
+        bufferX[target] = orderX[i];
+        bufferY[target] = orderY[i];
+      }
+      System.arraycopy(buffer, start, order, start, end - start);
+      System.arraycopy(bufferX, start, orderX, start, end - start);
+      System.arraycopy(bufferY, start, orderY, start, end - start);
+      if (taskCount + 12 > tasks.length) {
+        tasks = Arrays.copyOf(tasks, tasks.length * 2);
+      }
+      var childStart = start;
+      for (var q = 0; q < 4; q++) {
+        count[child + q] = quadrantSizes[q];
+        tasks[taskCount++] = child + q;
+        tasks[taskCount++] = childStart;
+        tasks[taskCount++] = childStart + quadrantSizes[q];
+        childStart += quadrantSizes[q];
+      }
+    }
+  }
+
+  /**
+   * lists the points leaf by leaf, so points close to each other are mostly close in the list.
+   * Going through points in this order makes queries around them touch the same nodes one after
+   * another.
+   *
+   * @return ids of all points
+   */
+  int[] pointsInLeafOrder() {
+    var ids = new int[size];
+    var found = 0;
+    var scratch = SCRATCH.get();
+    var stack = scratch.acquire();
+    try {
+      var top = 0;
+      stack[top++] = ROOT;
+      while (top > 0) {
+        var node = stack[--top];
+        var child = firstChild[node];
+        if (child != NONE) {
+          stack[top++] = child + 3;
+          stack[top++] = child + 2;
+          stack[top++] = child + 1;
+          stack[top++] = child;
+          continue;
+        }
+        for (var id = head[node]; id != NONE; id = next[id]) {
+          ids[found++] = id;
+        }
+      }
+    } finally {
+      scratch.release();
+    }
+    return ids;
+  }
+
+  @Override
+  void query(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+    var scratch = SCRATCH.get();
+    var stack = scratch.acquire();
+    try {
+      var top = 0;
+      stack[top++] = ROOT;
+      while (top > 0) {
+        var node = stack[--top];
+        if (count[node] == 0 || nodeMinX[node] > maxX || nodeMaxX[node] < minX
+            || nodeMinY[node] > maxY || nodeMaxY[node] < minY) {
+          continue;
+        }
+        var child = firstChild[node];
+        if (child != NONE) {
+          stack[top++] = child;
+          stack[top++] = child + 1;
+          stack[top++] = child + 2;
+          stack[top++] = child + 3;
+          continue;
+        }
+        for (var id = head[node]; id != NONE; id = next[id]) {
+          var x = pointX[id];
+          var y = pointY[id];
+          if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+            action.accept(id);
+          }
+        }
+      }
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * finds the points at most radius away from (x, y).
+   */
+  void queryRadius(double x, double y, double radius, IntConsumer action) {
+    var radiusSquared = radius * radius;
+    var scratch = SCRATCH.get();
+    var stack = scratch.acquire();
+    try {
+      var top = 0;
+      stack[top++] = ROOT;
+      while (top > 0) {
+        var node = stack[--top];
+        if (count[node] == 0 || distanceSquared(node, x, y) > radiusSquared) {
+          continue;
+        }
+        var child = firstChild[node];
+        if (child != NONE) {
+          stack[top++] = child;
+          stack[top++] = child + 1;
+          stack[top++] = child + 2;
+          stack[top++] = child + 3;
+          continue;
+        }
+        for (var id = head[node]; id != NONE; id = next[id]) {
+          var dx = pointX[id] - x;
+          var dy = pointY[id] - y;
+          if (dx * dx + dy * dy <= radiusSquared) {
+            action.accept(id);
+          }
+        }
+      }
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * finds the k points nearest to (x, y).
+   *
+   * @param result receives the ids, nearest first, its length is k
+   * @return number of ids found, less than k if the tree has fewer points
+   */
+  int nearest(double x, double y, int[] result) {
+    var k = result.length;
+    if (k == 0) {
+      return 0;
+    }
+    // max heap of the best k so far, the farthest at the top
+    var heapDistance = new double[k];
+    var heapId = new int[k];
+    var found = 0;
+    var childDistance = new double[4];
+    var childOrder = new int[4];
+    var scratch = SCRATCH.get();
+    var stack = scratch.acquire();
+    try {
+      var top = 0;
+      stack[top++] = ROOT;
+      while (top > 0) {
+        var node = stack[--top];
+        if (count[node] == 0
+            || found == k && distanceSquared(node, x, y) >= heapDistance[0]) {
+          continue;
+        }
+        var child = firstChild[node];
+        if (child != NONE) {
+          // push the nearest child last, so it is visited first and tightens the bound early
+          for (var q = 0; q < 4; q++) {
+            var distance = distanceSquared(child + q, x, y);
+            var i = q;
+            while (i > 0 && childDistance[i - 1] < distance) {
+              childDistance[i] = childDistance[i - 1];
+              childOrder[i] = childOrder[i - 1];
+              i--;
+            }
+            childDistance[i] = distance;
+            childOrder[i] = child + q;
+          }
+          for (var q = 0; q < 4; q++) {
+            stack[top++] = childOrder[q];
+          }
+          continue;
+        }
+        for (var id = head[node]; id != NONE; id = next[id]) {
+          var dx = pointX[id] - x;
+          var dy = pointY[id] - y;
+          var distance = dx * dx + dy * dy;
+          if (found < k) {
+            siftUp(heapDistance, heapId, found++, distance, id);
+          } else if (distance < heapDistance[0]) {
+            siftDown(heapDistance, heapId, k, distance, id);
+          }
+        }
+      }
+    } finally {
+      scratch.release();
+    }
+    // pop the heap from the back, farthest first
+    for (var last = found - 1; last >= 0; last--) {
+      result[last] = heapId[0];
+      siftDown(heapDistance, heapId, last, heapDistance[last], heapId[last]);
+    }
+    return found;
+  }
+
+  private static void siftUp(double[] distances, int[] ids, int index, double distance, int id) {
+    var i = index;
+    while (i > 0) {
+      var parentIndex = (i - 1) / 2;
+      if (distances[parentIndex] >= distance) {
+        break;
+      }
+      distances[i] = distances[parentIndex];
+      ids[i] = ids[parentIndex];
+      i = parentIndex;
+    }
+    distances[i] = distance;
+    ids[i] = id;
+  }
+
+  /**
+   * replaces the top of the heap of the given size and restores the heap order.
+   */
+  private static void siftDown(double[] distances, int[] ids, int size, double distance, int id) {
+    var i = 0;
+    while (true) {
+      var child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && distances[child + 1] > distances[child]) {
+        child++;
+      }
+      if (distances[child] <= distance) {
+        break;
+      }
+      distances[i] = distances[child];
+      ids[i] = ids[child];
+      i = child;
+    }
+    if (size > 0) {
+      distances[i] = distance;
+      ids[i] = id;
+    }
+  }
+
+  private double distanceSquared(int node, double x, double y) {
+    var dx = Math.max(0, Math.max(nodeMinX[node] - x, x - nodeMaxX[node]));
+    var dy = Math.max(0, Math.max(nodeMinY[node] - y, y - nodeMaxY[node]));
+    return dx * dx + dy * dy;
+  }
+
+  private boolean insideRoot(double x, double y) {
+    return x >= nodeMinX[ROOT] && x <= rootMaxX && y >= nodeMinY[ROOT] && y <= rootMaxY;
+  }
+
+  /*
+   * A point on the border between two children belongs to the upper one, except on the border of
+   * the root, so the check matches quadrant().
+   */
+  private boolean inside(int node, double x, double y) {
+    var maxX = nodeMaxX[node];
+    var maxY = nodeMaxY[node];
+    return x >= nodeMinX[node] && y >= nodeMinY[node]
+        && (x < maxX || x == maxX && maxX == rootMaxX)
+        && (y < maxY || y == maxY && maxY == rootMaxY);
+  }
+
+  private int quadrant(int node, double x, double y) {
+    var child = firstChild[node];
+    return (x >= nodeMaxX[child] ? 1 : 0) | (y >= nodeMaxY[child] ? 2 : 0);
+  }
+
+  private void insertFrom(int node, int id) {
+    var x = pointX[id];
+    var y = pointY[id];
+    var current = node;
+    while (true) {
+      count[current]++;
+      var child = firstChild[current];
+      if (child == NONE) {
+        break;
+      }
+      current = child + quadrant(current, x, y);
+    }
+    link(current, id);
+    if (count[current] > capacity && nodeDepth[current] < MAX_DEPTH) {
+      split(current);
+    }
+  }
+
+  /*
+   * All points of a leaf can fall into one quadrant, so the children are split again until
+   * every leaf is within the capacity or at the maximum depth.
+   */
+  private void split(int leaf) {
+    var scratch = SCRATCH.get();
+    var stack = scratch.acquire();
+    try {
+      var top = 0;
+      stack[top++] = leaf;
+      while (top > 0) {
+        var node = stack[--top];
+        var child = allocateChildren(node);
+        var id = head[node];
+        head[node] = NONE;
+        while (id != NONE) {
+          var nextId = next[id];
+          var target = child + quadrant(node, pointX[id], pointY[id]);
+          link(target, id);
+          count[target]++;
+          id = nextId;
+        }
+        for (var q = 0; q < 4; q++) {
+          if (count[child + q] > capacity && nodeDepth[child + q] < MAX_DEPTH) {
+            stack[top++] = child + q;
+          }
+        }
+      }
+    } finally {
+      scratch.release();
+    }
+  }
+
+  private void mergeUp(int node) {
+    var current = node;
+    var merge = NONE;
+    while (current != NONE && count[current] <= capacity / 2) {
+      merge = current;
+      current = parent[current];
+    }
+    if (merge != NONE) {
+      collapse(merge);
+    }
+  }
+
+  /**
+   * moves the points of all descendants into the node and frees the descendants.
+   */
+  private void collapse(int node) {
+    var scratch = SCRATCH.get();
+    var stack = scratch.acquire();
+    try {
+      var top = 0;
+      var child = firstChild[node];
+      firstChild[node] = NONE;
+      head[node] = NONE;
+      stack[top++] = child;
+      while (top > 0) {
+        var block = stack[--top];
+        for (var q = 0; q < 4; q++) {
+          var descendant = block + q;
+          if (firstChild[descendant] != NONE) {
+            stack[top++] = firstChild[descendant];
+          }
+          var id = head[descendant];
+          while (id != NONE) {
+            var nextId = next[id];
+            link(node, id);
+            id = nextId;
+          }
+        }
+        freeBlock(block);
+      }
+    } finally {
+      scratch.release();
+    }
+  }
+
+  private void link(int leaf, int id) {
+    var first = head[leaf];
+    next[id] = first;
+    prev[id] = NONE;
+    if (first != NONE) {
+      prev[first] = id;
+    }
+    head[leaf] = id;
+    leafOf[id] = leaf;
+  }
+
+  private void unlink(int leaf, int id) {
+    if (prev[id] != NONE) {
+      next[prev[id]] = next[id];
+    } else {
+      head[leaf] = next[id];
+    }
+    if (next[id] != NONE) {
+      prev[next[id]] = prev[id];
+    }
+    leafOf[id] = NONE;
+  }
+
+  private int allocateChildren(int node) {
+    int child;
+    if (freeBlockCount > 0) {
+      child = freeBlocks[--freeBlockCount];
+    } else {
+      ensureNodeCapacity(nodeCount + 4);
+      child = nodeCount;
+      nodeCount += 4;
+    }
+    var minX = nodeMinX[node];
+    var minY = nodeMinY[node];
+    var maxX = nodeMaxX[node];
+    var maxY = nodeMaxY[node];
+    var midX = (minX + maxX) / 2;
+    var midY = (minY + maxY) / 2;
+    var depth = nodeDepth[node] + 1;
+    initNode(child, minX, minY, midX, midY, node, depth);
+    initNode(child + 1, midX, minY, maxX, midY, node, depth);
+    initNode(child + 2, minX, midY, midX, maxY, node, depth);
+    initNode(child + 3, midX, midY, maxX, maxY, node, depth);
+    firstChild[node] = child;
+    return child;
+  }
+
+  private void freeBlock(int block) {
+    if (freeBlockCount == freeBlocks.length) {
+      freeBlocks = Arrays.copyOf(freeBlocks, freeBlocks.length * 2);
+    }
+    freeBlocks[freeBlockCount++] = block;
+  }
+
+  private void initNode(int node, double minX, double minY, double maxX, double maxY,
+      int parentNode, int depth) {
+    nodeMinX[node] = minX;
+    nodeMinY[node] = minY;
+    nodeMaxX[node] = maxX;
+    nodeMaxY[node] = maxY;
+    parent[node] = parentNode;
+    nodeDepth[node] = depth;
+    firstChild[node] = NONE;
+    head[node] = NONE;
+    count[node] = 0;
+  }
+
+  private void ensureNodeCapacity(int nodes) {
+    if (nodes <= firstChild.length) {
+      return;
+    }
+    var length = Math.max(nodes, firstChild.length * 2);
+    nodeMinX = Arrays.copyOf(nodeMinX, length);
+    nodeMinY = Arrays.copyOf(nodeMinY, length);
+    nodeMaxX = Arrays.copyOf(nodeMaxX, length);
+    nodeMaxY = Arrays.copyOf(nodeMaxY, length);
+    nodeDepth = Arrays.copyOf(nodeDepth, length);
+    parent = Arrays.copyOf(parent, length);
+    firstChild = Arrays.copyOf(firstChild, length);
+    head = Arrays.copyOf(head, length);
+    count = Arrays.copyOf(count, length);
+  }
+
+  private void ensurePointCapacity(int points) {
+    if (points <= leafOf.length) {
+      return;
+    }
+    var oldLength = leafOf.length;
+    var length = Math.max(points, oldLength * 2);
+    pointX = Arrays.copyOf(pointX, length);
+    pointY = Arrays.copyOf(pointY, length);
+    leafOf = Arrays.copyOf(leafOf, length);
+    next = Arrays.copyOf(next, length);
+    prev = Arrays.copyOf(prev, length);
+    Arrays.fill(leafOf, oldLength, length, NONE);
+  }
+
+  /**
+   * Traversal stacks of a thread. A query callback may query the tree again, so every nested
+   * traversal gets its own stack.
+   */
+  private static final class Scratch {
+    private int[][] stacks = new int[2][];
+    private int depth;
+
+    int[] acquire() {
+      if (depth == stacks.length) {
+        stacks = Arrays.copyOf(stacks, depth * 2);
+      }
+      if (stacks[depth] == null) {
+        stacks[depth] = new int[STACK_SIZE];
+      }
+      return stacks[depth++];
+    }
+
+    void release() {
+      depth--;
+    }
+  }
+}
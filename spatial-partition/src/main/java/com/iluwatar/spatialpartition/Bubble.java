@@ -59,8 +59,7 @@ public class Bubble extends Point<Bubble> {
   }
 
   void pop(Hashtable<Integer, Bubble> allBubbles) {
-    LOGGER.info("Bubble " + this.id
-        + " popped at (" + this.coordinateX + "," + this.coordinateY + ")!");
+    LOGGER.info("Bubble {} popped at ({},{})!", this.id, this.coordinateX, this.coordinateY);
     allBubbles.remove(this.id);
   }
 
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.Arrays;
+
+/**
+ * Index putting every object into one of a fixed number of buckets chosen from its position. The
+ * objects of a bucket form a doubly linked list through arrays indexed by id, so moving an object
+ * to another bucket or removing it takes constant time, and moving it within its bucket only
+ * changes its coordinates.
+ */
+
+abstract class CellIndex extends SpatialIndex {
+
+  static final int NONE = -1;
+
+  final double cellSize;
+  final int[] head;
+  double[] pointX;
+  double[] pointY;
+  int[] bucketOf;
+  int[] next;
+  int[] prev;
+  private int size;
+
+  CellIndex(double cellSize, int buckets, int expectedPoints) {
+    if (!(cellSize > 0)) {
+      throw new IllegalArgumentException("cellSize must be positive");
+    }
+    this.cellSize = cellSize;
+    this.head = new int[buckets];
+    Arrays.fill(head, NONE);
+    var points = Math.max(16, expectedPoints);
+    pointX = new double[points];
+    pointY = new double[points];
+    bucketOf = new int[points];
+    next = new int[points];
+    prev = new int[points];
+    Arrays.fill(bucketOf, NONE);
+  }
+
+  /**
+   * bucket of a position.
+   *
+   * @return the bucket or {@link #NONE} if the position is outside of the index
+   */
+  abstract int bucket(double x, double y);
+
+  /**
+   * cell of a coordinate, cells start at 0 and are cellSize wide.
+   */
+  int cell(double coordinate) {
+    return (int) Math.floor(coordinate / cellSize);
+  }
+
+  double getX(int id) {
+    return pointX[id];
+  }
+
+  double getY(int id) {
+    return pointY[id];
+  }
+
+  @Override
+  boolean insert(int id, double x, double y) {
+    if (id < 0) {
+      throw new IllegalArgumentException("id must not be negative: " + id);
+    }
+    ensurePointCapacity(id + 1);
+    if (bucketOf[id] != NONE) {
+      return update(id, x, y);
+    }
+    var bucket = bucket(x, y);
+    if (bucket == NONE) {
+      return false;
+    }
+    pointX[id] = x;
+    pointY[id] = y;
+    link(bucket, id);
+    size++;
+    return true;
+  }
+
+  @Override
+  boolean update(int id, double x, double y) {
+    if (!contains(id)) {
+      return false;
+    }
+    var bucket = bucket(x, y);
+    if (bucket == NONE) {
+      remove(id);
+      return false;
+    }
+    pointX[id] = x;
+    pointY[id] = y;
+    if (bucket != bucketOf[id]) {
+      unlink(id);
+      link(bucket, id);
+    }
+    return true;
+  }
+
+  @Override
+  boolean remove(int id) {
+    if (!contains(id)) {
+      return false;
+    }
+    unlink(id);
+    size--;
+    return true;
+  }
+
+  @Override
+  boolean contains(int id) {
+    return id >= 0 && id < bucketOf.length && bucketOf[id] != NONE;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  void clear() {
+    Arrays.fill(head, NONE);
+    Arrays.fill(bucketOf, NONE);
+    size = 0;
+  }
+
+  private void link(int bucket, int id) {
+    var first = head[bucket];
+    next[id] = first;
+    prev[id] = NONE;
+    if (first != NONE) {
+      prev[first] = id;
+    }
+    head[bucket] = id;
+    bucketOf[id] = bucket;
+  }
+
+  private void unlink(int id) {
+    if (prev[id] != NONE) {
+      next[prev[id]] = next[id];
+    } else {
+      head[bucketOf[id]] = next[id];
+    }
+    if (next[id] != NONE) {
+      prev[next[id]] = prev[id];
+    }
+    bucketOf[id] = NONE;
+  }
+
+  private void ensurePointCapacity(int points) {
+    if (points <= bucketOf.length) {
+      return;
+    }
+    var oldLength = bucketOf.length;
+    var length = Math.max(points, oldLength * 2);
+    pointX = Arrays.copyOf(pointX, length);
+    pointY = Arrays.copyOf(pointY, length);
+    bucketOf = Arrays.copyOf(bucketOf, length);
+    next = Arrays.copyOf(next, length);
+    prev = Arrays.copyOf(prev, length);
+    Arrays.fill(bucketOf, oldLength, length, NONE);
+  }
+}
@@ -51,10 +51,11 @@ public class Rect {
   }
 
   boolean intersects(Rect other) {
-    return !(this.coordinateX + this.width / 2 <= other.coordinateX - other.width / 2
-        || this.coordinateX - this.width / 2 >= other.coordinateX + other.width / 2
-        || this.coordinateY + this.height / 2 <= other.coordinateY - other.height / 2
-        || this.coordinateY - this.height / 2 >= other.coordinateY + other.height / 2);
+    //borders are part of a rectangle like in contains, so touching rectangles intersect
+    return !(this.coordinateX + this.width / 2 < other.coordinateX - other.width / 2
+        || this.coordinateX - this.width / 2 > other.coordinateX + other.width / 2
+        || this.coordinateY + this.height / 2 < other.coordinateY - other.height / 2
+        || this.coordinateY - this.height / 2 > other.coordinateY + other.height / 2);
   }
 }
 
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Grid without bounds: the objects of a cell are kept in a bucket chosen by hashing the cell, so
+ * only as many buckets as objects are needed however large the field is. Cells sharing a bucket
+ * are told apart by the positions of their objects.
+ */
+
+public class SpatialHash extends CellIndex {
+
+  private final int mask;
+
+  SpatialHash(double cellSize, int expectedPoints) {
+    super(cellSize, bucketCount(expectedPoints), expectedPoints);
+    this.mask = head.length - 1;
+  }
+
+  private static int bucketCount(int expectedPoints) {
+    var buckets = 16;
+    while (buckets < expectedPoints && buckets < 1 << 30) {
+      buckets <<= 1;
+    }
+    return buckets;
+  }
+
+  @Override
+  int bucket(double x, double y) {
+    return bucketOfCell(cell(x), cell(y));
+  }
+
+  private int bucketOfCell(int column, int row) {
+    var hash = column * 0x9E3779B1 + row * 0x85EBCA77;
+    hash ^= hash >>> 16;
+    hash *= 0x7FEB352D;
+    hash ^= hash >>> 15;
+    return hash & mask;
+  }
+
+  @Override
+  void query(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+    if (minX > maxX || minY > maxY) {
+      return;
+    }
+    var firstColumn = cell(minX);
+    var lastColumn = cell(maxX);
+    var firstRow = cell(minY);
+    var lastRow = cell(maxY);
+    var cells = ((double) lastColumn - firstColumn + 1) * ((double) lastRow - firstRow + 1);
+    if (cells >= head.length) {
+      // a range covering more cells than there are buckets is found faster by going through all
+      for (var bucket = 0; bucket < head.length; bucket++) {
+        queryBucket(bucket, minX, minY, maxX, maxY, action);
+      }
+      return;
+    }
+    for (var row = firstRow; row <= lastRow; row++) {
+      for (var column = firstColumn; column <= lastColumn; column++) {
+        for (var id = head[bucketOfCell(column, row)]; id != NONE; id = next[id]) {
+          var x = pointX[id];
+          var y = pointY[id];
+          // other cells of the bucket are visited on their own turn
+          if (x >= minX && x <= maxX && y >= minY && y <= maxY
+              && cell(x) == column && cell(y) == row) {
+            action.accept(id);
+          }
+        }
+      }
+    }
+  }
+
+  private void queryBucket(int bucket, double minX, double minY, double maxX, double maxY,
+      IntConsumer action) {
+    for (var id = head[bucket]; id != NONE; id = next[id]) {
+      var x = pointX[id];
+      var y = pointY[id];
+      if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+        action.accept(id);
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Positions of objects, kept by their ids so they can be moved and removed one at a time instead
+ * of building the whole structure again each frame. Ids must not be negative, they index arrays.
+ *
+ * <p>Which structure is fastest depends on how the objects are spread: {@link ArrayQuadTree}
+ * adapts to clusters, {@link UniformGrid} is simplest for a bounded field with objects spread
+ * evenly over it, and {@link SpatialHash} does the same for a field without bounds. The
+ * PartitionBenchmark times bubble simulations to compare them.
+ */
+
+public abstract class SpatialIndex {
+
+  /**
+   * adds an object, or moves it if the id is already in the index.
+   *
+   * @return false if the position is outside of the index and the object is not in it
+   */
+  abstract boolean insert(int id, double x, double y);
+
+  /**
+   * moves an object.
+   *
+   * @return false if the object is not in the index or left it, then it is removed
+   */
+  abstract boolean update(int id, double x, double y);
+
+  /**
+   * removes an object.
+   *
+   * @return false if the object was not in the index
+   */
+  abstract boolean remove(int id);
+
+  abstract boolean contains(int id);
+
+  abstract int size();
+
+  abstract void clear();
+
+  /**
+   * finds the objects inside of the range given by its corners, borders included.
+   */
+  abstract void query(double minX, double minY, double maxX, double maxY, IntConsumer action);
+
+  /**
+   * finds the objects inside of the range, borders included like {@link Rect#contains(Point)}.
+   */
+  void query(Rect range, IntConsumer action) {
+    query(range.coordinateX - range.width / 2, range.coordinateY - range.height / 2,
+        range.coordinateX + range.width / 2, range.coordinateY + range.height / 2, action);
+  }
+}
@@ -24,22 +24,60 @@
 package com.iluwatar.spatialpartition;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Hashtable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
  * This class extends the generic SpatialPartition abstract class and is used in our example to keep
  * track of all the bubbles that collide, pop and stay un-popped.
+ *
+ * <p>Handling the collisions of all bubbles one after another, in the order of their ids, is the
+ * same as first finding every pair a bubble would pop and then popping them in that order. The
+ * first step only reads the positions, so {@link #handleCollisionsInParallel(ForkJoinPool)} runs
+ * it on several threads, and only the second step, which changes the hashtable, runs on a single
+ * one. Both give the same result for the same bubbles.
  */
 
 public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
 
+  // bubbles whose collisions are found by one task of the parallel step
+  private static final int CHUNK_SIZE = 4096;
+
   final Hashtable<Integer, Bubble> bubbles;
   final QuadTree quadTree;
+  final SpatialIndex spatialIndex;
+  final Rect field;
 
   SpatialPartitionBubbles(Hashtable<Integer, Bubble> bubbles, QuadTree quadTree) {
     this.bubbles = bubbles;
     this.quadTree = quadTree;
+    this.spatialIndex = null;
+    this.field = quadTree.boundary;
+  }
+
+  /**
+   * bubbles kept in a spatial index, which holds them at their current positions and is updated
+   * as they move and pop.
+   */
+  SpatialPartitionBubbles(Hashtable<Integer, Bubble> bubbles, SpatialIndex spatialIndex) {
+    this.bubbles = bubbles;
+    this.quadTree = null;
+    this.spatialIndex = spatialIndex;
+    this.field = null;
+  }
+
+  /**
+   * bubbles of the given field, for the parallel step that builds its own tree.
+   */
+  SpatialPartitionBubbles(Hashtable<Integer, Bubble> bubbles, Rect field) {
+    this.bubbles = bubbles;
+    this.quadTree = null;
+    this.spatialIndex = null;
+    this.field = field;
   }
 
   void handleCollisionsUsingQt(Bubble b) {
@@ -51,4 +89,217 @@ public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
     //handling these collisions
     b.handleCollision(quadTreeQueryResult, this.bubbles);
   }
+
+  void handleCollisionsUsingIndex(Bubble b) {
+    // same square as handleCollisionsUsingQt
+    var rect = new Rect(b.coordinateX, b.coordinateY, 2 * b.radius, 2 * b.radius);
+    var indexQueryResult = new ArrayList<Bubble>();
+    this.spatialIndex.query(rect, id -> {
+      var bubble = this.bubbles.get(id);
+      if (bubble != null) {
+        indexQueryResult.add(bubble);
+      }
+    });
+    b.handleCollision(indexQueryResult, this.bubbles);
+    //popped bubbles leave the index, b is among the results if it is in the index
+    for (var bubble : indexQueryResult) {
+      if (!this.bubbles.containsKey(bubble.id)) {
+        this.spatialIndex.remove(bubble.id);
+      }
+    }
+  }
+
+  /**
+   * brings the position of a bubble that moved up to date in the spatial index. A bubble leaving
+   * the index is not found by the others anymore, like one outside of the quadtree.
+   */
+  void updatePosition(Bubble b) {
+    this.spatialIndex.update(b.id, b.coordinateX, b.coordinateY);
+  }
+
+  /**
+   * handles the collisions of all bubbles that are not popped yet, in the order of their ids,
+   * using the quadtree if there is one and the spatial index otherwise. The quadtree has to hold
+   * the bubbles at their current positions.
+   */
+  void handleCollisions() {
+    var ids = new ArrayList<>(this.bubbles.keySet());
+    Collections.sort(ids);
+    for (var id : ids) {
+      var bubble = this.bubbles.get(id);
+      if (bubble == null) {
+        continue;
+      }
+      if (this.quadTree != null) {
+        handleCollisionsUsingQt(bubble);
+      } else {
+        handleCollisionsUsingIndex(bubble);
+      }
+    }
+  }
+
+  /**
+   * handles the collisions of all bubbles like {@link #handleCollisions()}, finding them on the
+   * threads of the pool. The bubbles are indexed by id in an {@link ArrayQuadTree} built for this
+   * step, so their ids must not be negative.
+   *
+   * @param pool runs the search for collisions
+   */
+  void handleCollisionsInParallel(ForkJoinPool pool) {
+    if (this.field == null) {
+      throw new IllegalStateException("The parallel step needs the field of the bubbles");
+    }
+    var byId = indexById();
+    var ids = new int[this.bubbles.size()];
+    var xs = new double[ids.length];
+    var ys = new double[ids.length];
+    var count = 0;
+    for (var bubble : byId) {
+      if (bubble != null) {
+        ids[count] = bubble.id;
+        xs[count] = bubble.coordinateX;
+        ys[count] = bubble.coordinateY;
+        count++;
+      }
+    }
+    var tree = new ArrayQuadTree(this.field, 4, byId.length);
+    tree.bulkLoad(ids, xs, ys);
+
+    // neighbours come one after another, so the queries of a task stay in the same part of the
+    // tree. Bubbles outside of the field are not in it, but still look for the ones inside.
+    var order = Arrays.copyOf(tree.pointsInLeafOrder(), ids.length);
+    var ordered = tree.size();
+    for (var id : ids) {
+      if (!tree.contains(id)) {
+        order[ordered++] = id;
+      }
+    }
+    var collisions = new Collisions(byId.length, (ids.length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    pool.invoke(new FindCollisions(tree, byId, order, collisions, 0, collisions.touched.length));
+    popCollidingBubbles(byId, collisions);
+  }
+
+  private Bubble[] indexById() {
+    var maxId = -1;
+    for (var id : this.bubbles.keySet()) {
+      if (id < 0) {
+        throw new IllegalArgumentException("Bubble id must not be negative: " + id);
+      }
+      maxId = Math.max(maxId, id);
+    }
+    var byId = new Bubble[maxId + 1];
+    this.bubbles.forEach((id, bubble) -> byId[id] = bubble);
+    return byId;
+  }
+
+  /*
+   * Going through the bubbles in the order of their ids, a bubble pops the others exactly when
+   * Bubble.handleCollision would have.
+   */
+  private void popCollidingBubbles(Bubble[] byId, Collisions collisions) {
+    var popped = new boolean[byId.length];
+    for (var id = 0; id < byId.length; id++) {
+      var length = collisions.length[id];
+      if (length == 0 || popped[id]) {
+        continue;
+      }
+      var touched = collisions.touched[collisions.chunk[id]];
+      var start = collisions.start[id];
+      var toBePopped = false;
+      for (var i = start; i < start + length; i++) {
+        var otherId = touched[i];
+        if (!popped[otherId]) {
+          byId[otherId].pop(this.bubbles);
+          popped[otherId] = true;
+          toBePopped = true;
+        }
+      }
+      if (toBePopped) {
+        byId[id].pop(this.bubbles);
+        popped[id] = true;
+      }
+    }
+  }
+
+  /**
+   * Bubbles touched by each bubble. The ids a bubble touches are stored one after another in the
+   * array of the chunk that looked for them, every task writes its own chunk and its own bubbles.
+   */
+  private static final class Collisions {
+    private final int[][] touched;
+    private final int[] chunk;
+    private final int[] start;
+    private final int[] length;
+
+    Collisions(int ids, int chunks) {
+      this.touched = new int[chunks][];
+      this.chunk = new int[ids];
+      this.start = new int[ids];
+      this.length = new int[ids];
+    }
+  }
+
+  /**
+   * Finds, for the bubbles of a range of chunks, the bubbles they touch within the square their
+   * handleCollisionsUsingQt query would cover. It only reads the tree and the bubbles.
+   */
+  private static final class FindCollisions extends RecursiveAction implements IntConsumer {
+
+    private final ArrayQuadTree tree;
+    private final Bubble[] byId;
+    private final int[] order;
+    private final Collisions collisions;
+    private final int fromChunk;
+    private final int toChunk;
+    private Bubble current;
+    private int[] found;
+    private int foundCount;
+
+    FindCollisions(ArrayQuadTree tree, Bubble[] byId, int[] order, Collisions collisions,
+        int fromChunk, int toChunk) {
+      this.tree = tree;
+      this.byId = byId;
+      this.order = order;
+      this.collisions = collisions;
+      this.fromChunk = fromChunk;
+      this.toChunk = toChunk;
+    }
+
+    @Override
+    protected void compute() {
+      if (toChunk - fromChunk > 1) {
+        var middle = (fromChunk + toChunk) >>> 1;
+        invokeAll(new FindCollisions(tree, byId, order, collisions, fromChunk, middle),
+            new FindCollisions(tree, byId, order, collisions, middle, toChunk));
+        return;
+      }
+      found = new int[64];
+      foundCount = 0;
+      var end = Math.min(order.length, (fromChunk + 1) * CHUNK_SIZE);
+      for (var i = fromChunk * CHUNK_SIZE; i < end; i++) {
+        current = byId[order[i]];
+        var start = foundCount;
+        var x = current.coordinateX;
+        var y = current.coordinateY;
+        var radius = current.radius;
+        tree.query(x - radius, y - radius, x + radius, y + radius, this);
+        if (foundCount > start) {
+          collisions.chunk[current.id] = fromChunk;
+          collisions.start[current.id] = start;
+          collisions.length[current.id] = foundCount - start;
+        }
+      }
+      collisions.touched[fromChunk] = Arrays.copyOf(found, foundCount);
+    }
+
+    @Override
+    public void accept(int otherId) {
+      if (otherId != current.id && current.touches(byId[otherId])) {
+        if (foundCount == found.length) {
+          found = Arrays.copyOf(found, found.length * 2);
+        }
+        found[foundCount++] = otherId;
+      }
+    }
+  }
 }
@@ -26,8 +26,9 @@ package com.iluwatar.spatialpartition;
 import java.util.Hashtable;
 
 /**
- * This abstract class has 2 fields, one of which is a hashtable containing all objects that
- * currently exist on the field and a quadtree which keeps track of locations.
+ * This abstract class has 3 fields, one of which is a hashtable containing all objects that
+ * currently exist on the field, a quadtree which keeps track of locations and a spatial index
+ * which does the same but is updated as objects move instead of being built again.
  *
  * @param <T> T will be type of object (that extends Point)
  */
@@ -36,6 +37,7 @@ public abstract class SpatialPartitionGeneric<T> {
 
   Hashtable<Integer, T> playerPositions;
   QuadTree quadTree;
+  SpatialIndex spatialIndex;
 
   /**
    * handles collisions for object obj using quadtree.
@@ -43,4 +45,12 @@ public abstract class SpatialPartitionGeneric<T> {
    * @param obj is the object for which collisions need to be checked
    */
   abstract void handleCollisionsUsingQt(T obj);
+
+  /**
+   * handles collisions for object obj using the spatial index, which stays up to date: objects
+   * removed by the collision are removed from it too.
+   *
+   * @param obj is the object for which collisions need to be checked
+   */
+  abstract void handleCollisionsUsingIndex(T obj);
 }
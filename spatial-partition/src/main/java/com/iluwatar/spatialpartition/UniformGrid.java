@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Field cut into square cells of the same size, each holding the objects inside of it. Finding
+ * the cell of a position is a division, so moving objects is cheaper than in a tree, but every
+ * cell costs memory even when empty and crowded cells are not split. It suits objects spread
+ * evenly over a bounded field, with cells about as large as the ranges queried.
+ */
+
+public class UniformGrid extends CellIndex {
+
+  private final double minX;
+  private final double minY;
+  private final double maxX;
+  private final double maxY;
+  private final int columns;
+  private final int rows;
+
+  UniformGrid(Rect field, double cellSize, int expectedPoints) {
+    super(cellSize, cellCount(field, cellSize), expectedPoints);
+    this.minX = field.coordinateX - field.width / 2;
+    this.minY = field.coordinateY - field.height / 2;
+    this.maxX = field.coordinateX + field.width / 2;
+    this.maxY = field.coordinateY + field.height / 2;
+    this.columns = Math.max(1, (int) Math.ceil(field.width / cellSize));
+    this.rows = Math.max(1, (int) Math.ceil(field.height / cellSize));
+  }
+
+  private static int cellCount(Rect field, double cellSize) {
+    var cells = Math.max(1, Math.ceil(field.width / cellSize))
+        * Math.max(1, Math.ceil(field.height / cellSize));
+    if (cells > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many cells: " + cells);
+    }
+    return (int) cells;
+  }
+
+  @Override
+  int bucket(double x, double y) {
+    if (x < minX || x > maxX || y < minY || y > maxY) {
+      return NONE;
+    }
+    // the far borders belong to the last cells
+    var column = Math.min(columns - 1, cell(x - minX));
+    var row = Math.min(rows - 1, cell(y - minY));
+    return row * columns + column;
+  }
+
+  @Override
+  void query(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY,
+      IntConsumer action) {
+    if (queryMinX > maxX || queryMaxX < minX || queryMinY > maxY || queryMaxY < minY) {
+      return;
+    }
+    var firstColumn = Math.max(0, cell(queryMinX - minX));
+    var lastColumn = Math.min(columns - 1, cell(queryMaxX - minX));
+    var firstRow = Math.max(0, cell(queryMinY - minY));
+    var lastRow = Math.min(rows - 1, cell(queryMaxY - minY));
+    for (var row = firstRow; row <= lastRow; row++) {
+      for (var column = firstColumn; column <= lastColumn; column++) {
+        for (var id = head[row * columns + column]; id != NONE; id = next[id]) {
+          var x = pointX[id];
+          var y = pointY[id];
+          if (x >= queryMinX && x <= queryMaxX && y >= queryMinY && y <= queryMaxY) {
+            action.accept(id);
+          }
+        }
+      }
+    }
+  }
+}
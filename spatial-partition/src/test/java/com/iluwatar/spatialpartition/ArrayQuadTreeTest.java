@@ -0,0 +1,284 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing ArrayQuadTree class against a linear scan of the points.
+ */
+
+class ArrayQuadTreeTest {
+
+  private static final Rect FIELD = new Rect(500, 500, 1000, 1000);
+  private static final int POINTS = 2000;
+
+  private final Random random = new Random(42);
+  private final double[] xs = new double[POINTS];
+  private final double[] ys = new double[POINTS];
+  private final boolean[] present = new boolean[POINTS];
+
+  @Test
+  void queryTest() {
+    var tree = insertRandomPoints();
+    for (var i = 0; i < 50; i++) {
+      var range = new Rect(random.nextInt(1000), random.nextInt(1000),
+          random.nextInt(300), random.nextInt(300));
+      assertEquals(scanRange(range), query(tree, range));
+    }
+  }
+
+  @Test
+  void queryIncludesBordersTest() {
+    var tree = new ArrayQuadTree(FIELD, 2);
+    tree.insert(0, 0, 0);
+    tree.insert(1, 1000, 1000);
+    tree.insert(2, 500, 500);
+    tree.insert(3, 250, 500);
+    assertFalse(tree.insert(4, 1000.5, 10));
+    assertEquals(new TreeSet<>(List.of(0, 1, 2, 3)), query(tree, FIELD));
+    assertEquals(new TreeSet<>(List.of(2, 3)), query(tree, new Rect(375, 500, 250, 0)));
+  }
+
+  @Test
+  void queryRadiusTest() {
+    var tree = insertRandomPoints();
+    for (var i = 0; i < 50; i++) {
+      var x = random.nextInt(1000);
+      var y = random.nextInt(1000);
+      var radius = random.nextInt(150);
+      var found = new TreeSet<Integer>();
+      tree.queryRadius(x, y, radius, found::add);
+      assertEquals(scanRadius(x, y, radius), found);
+    }
+  }
+
+  @Test
+  void nearestTest() {
+    var tree = insertRandomPoints();
+    for (var k : new int[] {1, 5, 32}) {
+      for (var i = 0; i < 20; i++) {
+        var x = random.nextInt(1200) - 100;
+        var y = random.nextInt(1200) - 100;
+        var result = new int[k];
+        assertEquals(k, tree.nearest(x, y, result));
+        var expected = scanNearest(x, y, k);
+        assertArrayEquals(distances(x, y, expected), distances(x, y, result));
+      }
+    }
+  }
+
+  @Test
+  void nearestWithFewerPointsTest() {
+    var tree = new ArrayQuadTree(FIELD, 4);
+    tree.insert(7, 10, 10);
+    tree.insert(3, 20, 20);
+    var result = new int[5];
+    assertEquals(2, tree.nearest(0, 0, result));
+    assertEquals(7, result[0]);
+    assertEquals(3, result[1]);
+  }
+
+  @Test
+  void updateTest() {
+    var tree = insertRandomPoints();
+    for (var frame = 0; frame < 20; frame++) {
+      for (var id = 0; id < POINTS; id++) {
+        // a few points jump across the field, the rest moves a little
+        var jump = random.nextInt(20) == 0;
+        var x = jump ? random.nextInt(1000) : xs[id] + random.nextInt(11) - 5;
+        var y = jump ? random.nextInt(1000) : ys[id] + random.nextInt(11) - 5;
+        var inside = tree.update(id, x, y);
+        assertEquals(present[id] && FIELD.contains(new Bubble((int) x, (int) y, id, 1)), inside);
+        present[id] = inside;
+        xs[id] = x;
+        ys[id] = y;
+      }
+      var range = new Rect(random.nextInt(1000), random.nextInt(1000), 200, 200);
+      assertEquals(scanRange(range), query(tree, range));
+    }
+    assertEquals(count(), tree.size());
+    assertEquals(scanRange(FIELD), query(tree, FIELD));
+  }
+
+  @Test
+  void removeTest() {
+    var tree = insertRandomPoints();
+    for (var id = 0; id < POINTS; id += 3) {
+      assertTrue(tree.remove(id));
+      assertFalse(tree.remove(id));
+      present[id] = false;
+    }
+    assertEquals(count(), tree.size());
+    assertEquals(scanRange(FIELD), query(tree, FIELD));
+    for (var id = 0; id < POINTS; id++) {
+      tree.remove(id);
+    }
+    assertEquals(0, tree.size());
+    assertTrue(query(tree, FIELD).isEmpty());
+    tree.insert(5, 1, 1);
+    assertEquals(new TreeSet<>(List.of(5)), query(tree, FIELD));
+  }
+
+  @Test
+  void duplicatePositionsTest() {
+    var tree = new ArrayQuadTree(FIELD, 2);
+    for (var id = 0; id < 100; id++) {
+      tree.insert(id, 300, 300);
+    }
+    assertEquals(100, tree.size());
+    assertEquals(100, query(tree, new Rect(300, 300, 0, 0)).size());
+    for (var id = 0; id < 100; id++) {
+      tree.update(id, 700, 700);
+    }
+    assertEquals(100, query(tree, new Rect(700, 700, 0, 0)).size());
+  }
+
+  @Test
+  void bulkLoadTest() {
+    var ids = IntStream.range(0, POINTS).toArray();
+    for (var id : ids) {
+      xs[id] = random.nextInt(1100);
+      ys[id] = random.nextInt(1000);
+      present[id] = xs[id] <= 1000;
+    }
+    var tree = new ArrayQuadTree(FIELD, 4);
+    tree.insert(POINTS + 1, 5, 5);
+    tree.bulkLoad(ids, xs, ys);
+    assertEquals(count(), tree.size());
+    assertFalse(tree.contains(POINTS + 1));
+    for (var i = 0; i < 50; i++) {
+      var range = new Rect(random.nextInt(1000), random.nextInt(1000), 250, 250);
+      assertEquals(scanRange(range), query(tree, range));
+    }
+    // a bulk loaded tree is updated like any other
+    for (var id = 0; id < POINTS; id += 2) {
+      if (present[id]) {
+        xs[id] = 999 - xs[id];
+        tree.update(id, xs[id], ys[id]);
+      }
+    }
+    assertEquals(scanRange(FIELD), query(tree, FIELD));
+  }
+
+  @Test
+  void nestedQueryTest() {
+    var tree = insertRandomPoints();
+    var pairs = new ArrayList<int[]>();
+    tree.query(new Rect(500, 500, 100, 100), a -> tree.queryRadius(xs[a], ys[a], 10, b -> {
+      if (a < b) {
+        pairs.add(new int[] {a, b});
+      }
+    }));
+    var expected = 0;
+    for (var a : scanRange(new Rect(500, 500, 100, 100))) {
+      expected += scanRadius(xs[a], ys[a], 10).tailSet(a, false).size();
+    }
+    assertEquals(expected, pairs.size());
+  }
+
+  private ArrayQuadTree insertRandomPoints() {
+    var tree = new ArrayQuadTree(FIELD, 4);
+    for (var id = 0; id < POINTS; id++) {
+      // clustered points, so some leaves get deep
+      var cluster = id % 4 == 0;
+      xs[id] = cluster ? 200 + random.nextInt(20) : random.nextInt(1001);
+      ys[id] = cluster ? 700 + random.nextInt(20) : random.nextInt(1001);
+      present[id] = tree.insert(id, xs[id], ys[id]);
+      assertTrue(present[id]);
+    }
+    assertEquals(POINTS, tree.size());
+    return tree;
+  }
+
+  private static TreeSet<Integer> query(ArrayQuadTree tree, Rect range) {
+    var found = new TreeSet<Integer>();
+    tree.query(range, found::add);
+    return found;
+  }
+
+  private TreeSet<Integer> scanRange(Rect range) {
+    var found = new TreeSet<Integer>();
+    for (var id = 0; id < POINTS; id++) {
+      if (present[id] && Math.abs(xs[id] - range.coordinateX) <= range.width / 2
+          && Math.abs(ys[id] - range.coordinateY) <= range.height / 2) {
+        found.add(id);
+      }
+    }
+    return found;
+  }
+
+  private TreeSet<Integer> scanRadius(double x, double y, double radius) {
+    var found = new TreeSet<Integer>();
+    for (var id = 0; id < POINTS; id++) {
+      var dx = xs[id] - x;
+      var dy = ys[id] - y;
+      if (present[id] && dx * dx + dy * dy <= radius * radius) {
+        found.add(id);
+      }
+    }
+    return found;
+  }
+
+  private int[] scanNearest(double x, double y, int k) {
+    return IntStream.range(0, POINTS)
+        .filter(id -> present[id])
+        .boxed()
+        .sorted(Comparator.comparingDouble(id -> distance(x, y, id)))
+        .limit(k)
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  // ties may come in any order, so results are compared by their distances
+  private double[] distances(double x, double y, int[] ids) {
+    return Arrays.stream(ids).mapToDouble(id -> distance(x, y, id)).toArray();
+  }
+
+  private double distance(double x, double y, int id) {
+    var dx = xs[id] - x;
+    var dy = ys[id] - y;
+    return dx * dx + dy * dy;
+  }
+
+  private int count() {
+    var count = 0;
+    for (var p : present) {
+      count += p ? 1 : 0;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.Hashtable;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A bubble simulation replayed from a seed, with one of the spatial partitions. The bubbles move
+ * randomly but from the seed, so every partition ends with the same bubbles left. The quadtree is
+ * built again every frame like in {@link App}, the others are updated as the bubbles move and pop.
+ */
+final class BubbleReplay {
+
+  static final int MAX_RADIUS = 3;
+  // cells just larger than the queries, so a query covers at most four of them
+  static final int CELL_SIZE = 2 * MAX_RADIUS + 2;
+
+  enum Structure {
+    QUAD_TREE, ARRAY_QUAD_TREE, UNIFORM_GRID, SPATIAL_HASH
+  }
+
+  private final int side;
+  private final Bubble[] all;
+  private final Hashtable<Integer, Bubble> bubbles;
+  private final Rect field;
+  private final SpatialPartitionBubbles spatialPartition;
+  private final Random moves;
+
+  /**
+   * Places the bubbles on a square field and, unless the structure is the quadtree, indexes them.
+   */
+  BubbleReplay(Structure structure, int count, int side, long seed) {
+    var random = new Random(seed);
+    this.side = side;
+    all = new Bubble[count];
+    bubbles = new Hashtable<>(2 * count);
+    for (var i = 0; i < count; i++) {
+      all[i] = new Bubble(random.nextInt(side), random.nextInt(side), i,
+          random.nextInt(MAX_RADIUS) + 1);
+      bubbles.put(i, all[i]);
+    }
+    field = new Rect(side / 2.0, side / 2.0, side, side);
+    if (structure == Structure.QUAD_TREE) {
+      spatialPartition = null;
+    } else {
+      var index = createIndex(structure, field, count);
+      for (var bubble : all) {
+        index.insert(bubble.id, bubble.coordinateX, bubble.coordinateY);
+      }
+      spatialPartition = new SpatialPartitionBubbles(bubbles, index);
+    }
+    moves = new Random(seed + 1);
+  }
+
+  static SpatialIndex createIndex(Structure structure, Rect field, int count) {
+    switch (structure) {
+      case ARRAY_QUAD_TREE:
+        return new ArrayQuadTree(field, 4, count);
+      case UNIFORM_GRID:
+        return new UniformGrid(field, CELL_SIZE, count);
+      case SPATIAL_HASH:
+        return new SpatialHash(CELL_SIZE, count);
+      default:
+        throw new IllegalArgumentException("Not a spatial index: " + structure);
+    }
+  }
+
+  /**
+   * Moves the bubbles and pops the colliding ones, frame after frame.
+   *
+   * @param frames the number of frames, fewer if all bubbles pop
+   */
+  void run(int frames) {
+    for (var frame = 0; frame < frames && !bubbles.isEmpty(); frame++) {
+      // every bubble draws its move, popped or not, so all replays draw the same numbers
+      for (var bubble : all) {
+        bubble.coordinateX = Math.floorMod(bubble.coordinateX + moves.nextInt(3) - 1, side);
+        bubble.coordinateY = Math.floorMod(bubble.coordinateY + moves.nextInt(3) - 1, side);
+        if (spatialPartition != null) {
+          spatialPartition.updatePosition(bubble);
+        }
+      }
+      if (spatialPartition == null) {
+        var quadTree = new QuadTree(field, 4);
+        bubbles.values().forEach(quadTree::insert);
+        new SpatialPartitionBubbles(bubbles, quadTree).handleCollisions();
+      } else {
+        spatialPartition.handleCollisions();
+      }
+    }
+  }
+
+  Set<Integer> bubblesLeft() {
+    return new TreeSet<>(bubbles.keySet());
+  }
+}
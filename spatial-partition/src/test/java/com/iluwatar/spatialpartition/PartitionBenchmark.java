@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Time of the frames of a {@link BubbleReplay} with each spatial partition, to choose the
+ * partition for a workload. The workloads go from sparse to crowded bubbles; the fastest structure
+ * for one is the one with the lowest score.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class PartitionBenchmark {
+
+  @Param({"QUAD_TREE", "ARRAY_QUAD_TREE", "UNIFORM_GRID", "SPATIAL_HASH"})
+  public String structure;
+
+  @Param({"sparse", "medium", "dense", "crowded"})
+  public String workload;
+
+  private int frames;
+  private BubbleReplay simulation;
+
+  /**
+   * Places the bubbles of the workload, the same ones for every replay.
+   */
+  @Setup(Level.Invocation)
+  public void placeBubbles() {
+    var partition = BubbleReplay.Structure.valueOf(structure);
+    switch (workload) {
+      case "sparse":
+        simulation = new BubbleReplay(partition, 5_000, 4000, 42);
+        frames = 50;
+        break;
+      case "medium":
+        simulation = new BubbleReplay(partition, 50_000, 4000, 42);
+        frames = 20;
+        break;
+      case "dense":
+        simulation = new BubbleReplay(partition, 200_000, 4000, 42);
+        frames = 10;
+        break;
+      case "crowded":
+        simulation = new BubbleReplay(partition, 500_000, 2000, 42);
+        frames = 5;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown workload: " + workload);
+    }
+  }
+
+  @Benchmark
+  public int replay() {
+    simulation.run(frames);
+    return simulation.bubblesLeft().size();
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(PartitionBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ArrayQuadTree} with {@link QuadTree} on bubbles spread over a field that grows
+ * with their number, so the density stays the same. The quadtree has no update, so a frame
+ * rebuilds it like {@link App} does, while the array quadtree updates the points in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class QuadTreeBenchmark {
+
+  private static final int CAPACITY = 4;
+  private static final int MAX_RADIUS = 3;
+  private static final int QUERIES = 1024;
+
+  @Param({"QUAD_TREE", "ARRAY_QUAD_TREE"})
+  public String tree;
+
+  @Param({"100000", "1000000"})
+  public int size;
+
+  private Rect field;
+  private Bubble[] bubbles;
+  private int[] ids;
+  private double[] xs;
+  private double[] ys;
+  private Rect[] queries;
+  private int nextQuery;
+  private QuadTree quadTree;
+  private ArrayQuadTree arrayQuadTree;
+  private Random random;
+
+  /**
+   * Places the bubbles and builds the tree.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    random = new Random(42);
+    var side = (int) Math.sqrt(size) * 10;
+    field = new Rect(side / 2.0, side / 2.0, side, side);
+    bubbles = new Bubble[size];
+    ids = new int[size];
+    xs = new double[size];
+    ys = new double[size];
+    for (var i = 0; i < size; i++) {
+      bubbles[i] = new Bubble(random.nextInt(side), random.nextInt(side), i,
+          random.nextInt(MAX_RADIUS) + 1);
+      ids[i] = i;
+      xs[i] = bubbles[i].coordinateX;
+      ys[i] = bubbles[i].coordinateY;
+    }
+    queries = new Rect[QUERIES];
+    for (var i = 0; i < QUERIES; i++) {
+      var bubble = bubbles[random.nextInt(size)];
+      queries[i] = new Rect(bubble.coordinateX, bubble.coordinateY,
+          2 * MAX_RADIUS, 2 * MAX_RADIUS);
+    }
+    build();
+  }
+
+  /**
+   * Builds the tree from scratch, the array quadtree with a bulk load.
+   */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Object build() {
+    if ("QUAD_TREE".equals(tree)) {
+      quadTree = new QuadTree(field, CAPACITY);
+      for (var bubble : bubbles) {
+        quadTree.insert(bubble);
+      }
+      return quadTree;
+    }
+    arrayQuadTree = new ArrayQuadTree(field, CAPACITY, size);
+    arrayQuadTree.bulkLoad(ids, xs, ys);
+    return arrayQuadTree;
+  }
+
+  /**
+   * Finds the neighbours of a bubble, like a collision check does.
+   */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void query(Blackhole blackhole) {
+    var range = queries[nextQuery++ & (QUERIES - 1)];
+    if ("QUAD_TREE".equals(tree)) {
+      blackhole.consume(quadTree.query(range, new ArrayList<>()));
+    } else {
+      arrayQuadTree.query(range, blackhole::consume);
+    }
+  }
+
+  /**
+   * Finds the neighbours of a bubble by distance instead of by bounding box.
+   */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void queryRadius(Blackhole blackhole) {
+    var range = queries[nextQuery++ & (QUERIES - 1)];
+    if ("QUAD_TREE".equals(tree)) {
+      blackhole.consume(quadTree.query(range, new ArrayList<>()));
+    } else {
+      arrayQuadTree.queryRadius(range.coordinateX, range.coordinateY, MAX_RADIUS,
+          blackhole::consume);
+    }
+  }
+
+  /**
+   * Moves every bubble by at most one step and brings the tree up to date.
+   */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Object frame() {
+    var side = (int) field.width;
+    for (var i = 0; i < size; i++) {
+      var bubble = bubbles[i];
+      bubble.coordinateX = Math.floorMod(bubble.coordinateX + random.nextInt(3) - 1, side);
+      bubble.coordinateY = Math.floorMod(bubble.coordinateY + random.nextInt(3) - 1, side);
+    }
+    if ("QUAD_TREE".equals(tree)) {
+      quadTree = new QuadTree(field, CAPACITY);
+      for (var bubble : bubbles) {
+        quadTree.insert(bubble);
+      }
+      return quadTree;
+    }
+    for (var i = 0; i < size; i++) {
+      arrayQuadTree.update(i, bubbles[i].coordinateX, bubbles[i].coordinateY);
+    }
+    return arrayQuadTree;
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(QuadTreeBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
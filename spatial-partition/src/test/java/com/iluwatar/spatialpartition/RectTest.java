@@ -53,4 +53,15 @@ class RectTest {
     assertTrue(r1.intersects(r2));
     assertFalse(r1.intersects(r3));
   }
+
+  @Test
+  void intersectsOnBorderTest() {
+    var r = new Rect(10, 10, 20, 20);
+    var touching = new Rect(25, 10, 10, 10);
+    //the point (20,10) on the shared border is contained in both
+    assertTrue(r.contains(new Bubble(20, 10, 1, 1)));
+    assertTrue(touching.contains(new Bubble(20, 10, 1, 1)));
+    assertTrue(r.intersects(touching));
+    assertTrue(touching.intersects(r));
+  }
 }
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing the SpatialIndex classes against a linear scan of the points.
+ */
+
+class SpatialIndexTest {
+
+  private static final Rect FIELD = new Rect(500, 500, 1000, 1000);
+  private static final int POINTS = 3000;
+
+  private static final List<Supplier<SpatialIndex>> INDEXES = List.of(
+      () -> new ArrayQuadTree(FIELD, 4),
+      () -> new UniformGrid(FIELD, 16, 16),
+      () -> new UniformGrid(FIELD, 7, POINTS),
+      () -> new SpatialHash(16, 16),
+      () -> new SpatialHash(3, POINTS));
+
+  private final Random random = new Random(7);
+  private final double[] xs = new double[POINTS];
+  private final double[] ys = new double[POINTS];
+  private final boolean[] present = new boolean[POINTS];
+
+  @Test
+  void queryTest() {
+    for (var factory : INDEXES) {
+      var index = insertRandomPoints(factory.get());
+      for (var i = 0; i < 50; i++) {
+        var range = new Rect(random.nextInt(1000), random.nextInt(1000),
+            random.nextInt(200), random.nextInt(200));
+        assertEquals(scan(range), query(index, range), index.getClass().getSimpleName());
+      }
+      assertEquals(scan(FIELD), query(index, new Rect(0, 0, 5000, 5000)));
+    }
+  }
+
+  @Test
+  void moveAndRemoveTest() {
+    for (var factory : INDEXES) {
+      var index = insertRandomPoints(factory.get());
+      for (var frame = 0; frame < 10; frame++) {
+        for (var id = 0; id < POINTS; id++) {
+          var x = xs[id] + random.nextInt(21) - 10;
+          var y = ys[id] + random.nextInt(21) - 10;
+          var moved = index.update(id, x, y);
+          assertEquals(present[id] && inField(x, y) || present[id] && index instanceof SpatialHash,
+              moved);
+          present[id] = moved;
+          xs[id] = x;
+          ys[id] = y;
+        }
+        for (var id = frame; id < POINTS; id += 97) {
+          assertEquals(present[id], index.remove(id));
+          present[id] = false;
+        }
+        var range = new Rect(random.nextInt(1000), random.nextInt(1000), 100, 100);
+        assertEquals(scan(range), query(index, range));
+      }
+      assertEquals(count(), index.size());
+      index.clear();
+      assertEquals(0, index.size());
+      assertTrue(query(index, FIELD).isEmpty());
+    }
+  }
+
+  @Test
+  void bordersTest() {
+    for (var factory : INDEXES) {
+      var index = factory.get();
+      assertTrue(index.insert(0, 0, 0));
+      assertTrue(index.insert(1, 1000, 1000));
+      assertTrue(index.insert(2, 16, 16));
+      assertEquals(index instanceof SpatialHash, index.insert(3, -0.5, 10));
+      assertEquals(new TreeSet<>(List.of(0, 1, 2)), query(index, FIELD));
+      assertEquals(new TreeSet<>(List.of(2)), query(index, new Rect(24, 24, 16, 16)));
+      assertFalse(index.update(4, 1, 1));
+      assertFalse(index.remove(4));
+    }
+  }
+
+  private SpatialIndex insertRandomPoints(SpatialIndex index) {
+    for (var id = 0; id < POINTS; id++) {
+      xs[id] = random.nextInt(1001);
+      ys[id] = random.nextInt(1001);
+      present[id] = index.insert(id, xs[id], ys[id]);
+      assertTrue(present[id]);
+    }
+    return index;
+  }
+
+  private static boolean inField(double x, double y) {
+    return x >= 0 && x <= 1000 && y >= 0 && y <= 1000;
+  }
+
+  private static TreeSet<Integer> query(SpatialIndex index, Rect range) {
+    var found = new TreeSet<Integer>();
+    index.query(range, found::add);
+    return found;
+  }
+
+  private TreeSet<Integer> scan(Rect range) {
+    var found = new TreeSet<Integer>();
+    for (var id = 0; id < POINTS; id++) {
+      if (present[id] && Math.abs(xs[id] - range.coordinateX) <= range.width / 2
+          && Math.abs(ys[id] - range.coordinateY) <= range.height / 2) {
+        found.add(id);
+      }
+    }
+    return found;
+  }
+
+  private int count() {
+    var count = 0;
+    for (var p : present) {
+      count += p ? 1 : 0;
+    }
+    return count;
+  }
+}
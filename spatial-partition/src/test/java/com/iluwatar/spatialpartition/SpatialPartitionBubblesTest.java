@@ -23,10 +23,15 @@
 
 package com.iluwatar.spatialpartition;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Hashtable;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -60,4 +65,96 @@ class SpatialPartitionBubblesTest {
     assertNull(bubbles.get(3));
     assertNull(bubbles.get(4));
   }
+
+  @Test
+  void handleCollisionsInParallelTest() {
+    var bubbles = new Hashtable<Integer, Bubble>();
+    bubbles.put(1, new Bubble(10, 10, 1, 3));
+    bubbles.put(2, new Bubble(5, 5, 2, 1));
+    bubbles.put(3, new Bubble(9, 9, 3, 1));
+    bubbles.put(4, new Bubble(8, 8, 4, 2));
+    var sp = new SpatialPartitionBubbles(bubbles, new Rect(10, 10, 20, 20));
+    var pool = new ForkJoinPool(2);
+    try {
+      sp.handleCollisionsInParallel(pool);
+    } finally {
+      pool.shutdown();
+    }
+    //same as handling b1 first, b2 is left
+    assertEquals(1, bubbles.size());
+    assertNotNull(bubbles.get(2));
+  }
+
+  @Test
+  void parallelMatchesSerialTest() {
+    var pool = new ForkJoinPool(4);
+    try {
+      for (var seed = 0; seed < 3; seed++) {
+        // bubbles also outside of the field, which are never found by the others
+        var serial = randomBubbles(new Random(seed), 20000, 1100);
+        var parallel = randomBubbles(new Random(seed), 20000, 1100);
+        var field = new Rect(500, 500, 1000, 1000);
+        var quadTree = new QuadTree(field, 4);
+        serial.values().forEach(quadTree::insert);
+        new SpatialPartitionBubbles(serial, quadTree).handleCollisions();
+        new SpatialPartitionBubbles(parallel, field).handleCollisionsInParallel(pool);
+        assertTrue(serial.size() < 20000);
+        assertEquals(serial.keySet(), parallel.keySet());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void negativeIdTest() {
+    var bubbles = new Hashtable<Integer, Bubble>();
+    bubbles.put(-1, new Bubble(1, 1, -1, 1));
+    var sp = new SpatialPartitionBubbles(bubbles, new Rect(10, 10, 20, 20));
+    assertThrows(IllegalArgumentException.class,
+        () -> sp.handleCollisionsInParallel(ForkJoinPool.commonPool()));
+  }
+
+  static Hashtable<Integer, Bubble> randomBubbles(Random random, int count, int side) {
+    var bubbles = new Hashtable<Integer, Bubble>();
+    for (var i = 0; i < count; i++) {
+      bubbles.put(i, new Bubble(random.nextInt(side), random.nextInt(side), i,
+          random.nextInt(3) + 1));
+    }
+    return bubbles;
+  }
+
+  @Test
+  void handleCollisionsUsingIndexTest() {
+    var bubbles = new Hashtable<Integer, Bubble>();
+    bubbles.put(1, new Bubble(10, 10, 1, 3));
+    bubbles.put(2, new Bubble(5, 5, 2, 1));
+    bubbles.put(3, new Bubble(9, 9, 3, 1));
+    bubbles.put(4, new Bubble(8, 8, 4, 2));
+    var index = new UniformGrid(new Rect(10, 10, 20, 20), 4, 5);
+    bubbles.values().forEach(b -> index.insert(b.id, b.coordinateX, b.coordinateY));
+    var sp = new SpatialPartitionBubbles(bubbles, index);
+    sp.handleCollisionsUsingIndex(bubbles.get(1));
+    //popped bubbles are removed from the index too
+    assertEquals(1, bubbles.size());
+    assertNotNull(bubbles.get(2));
+    assertEquals(1, index.size());
+    assertTrue(index.contains(2));
+    bubbles.get(2).coordinateX = 15;
+    sp.updatePosition(bubbles.get(2));
+    assertEquals(15.0, ((UniformGrid) index).getX(2));
+  }
+
+  @Test
+  void indexesMatchQuadTreeTest() {
+    var quadTree = new BubbleReplay(BubbleReplay.Structure.QUAD_TREE, 5000, 400, 3);
+    quadTree.run(10);
+    var expected = quadTree.bubblesLeft();
+    assertTrue(expected.size() < 5000);
+    for (var structure : BubbleReplay.Structure.values()) {
+      var replay = new BubbleReplay(structure, 5000, 400, 3);
+      replay.run(10);
+      assertEquals(expected, replay.bubblesLeft(), structure.name());
+    }
+  }
 }
@@ -0,0 +1,67 @@
+package com.iluwatar.mythreadpool;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides what happens with a task submitted while the bounded task queue of a {@link ThreadPool}
+ * is full.
+ */
+@FunctionalInterface
+public interface RejectionPolicy {
+
+    void rejected(Runnable task, ThreadPool threadPool);
+
+    /**
+     * Throws {@link RejectedExecutionException}, the producer decides what to do.
+     */
+    static RejectionPolicy abort() {
+        return (task, threadPool) -> {
+            throw new RejectedExecutionException("Task queue is full!");
+        };
+    }
+
+    /**
+     * Runs the task on the submitting thread, which slows the producer down to the pace of the
+     * pool.
+     */
+    static RejectionPolicy callerRuns() {
+        return (task, threadPool) -> {
+            if (threadPool.isRunning()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Blocks the submitting thread until there is room in the queue, throws
+     * {@link RejectedExecutionException} if there is none after the timeout.
+     */
+    static RejectionPolicy blockWithTimeout(final long timeout, final TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit cannot be null!");
+        return (task, threadPool) -> {
+            try {
+                if (!threadPool.enqueue(task, timeout, unit)) {
+                    throw new RejectedExecutionException(
+                            "Task queue still full after " + timeout + " " + unit);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(
+                        "Interrupted while waiting for the task queue", ex);
+            }
+        };
+    }
+
+    /**
+     * Discards the oldest queued task to make room for the new one.
+     */
+    static RejectionPolicy dropOldest() {
+        return (task, threadPool) -> {
+            do {
+                threadPool.discardOldestTask();
+            } while (threadPool.isRunning() && !threadPool.enqueue(task));
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.iluwatar.mythreadpool;
+
+public enum SchedulingMode {
+
+    /**
+     * Tasks are queued in a single list and handed to idle workers by an event-loop thread.
+     */
+    EVENT_LOOP,
+
+    /**
+     * Every worker owns a deque, submissions go straight to a worker and idle workers steal
+     * from the others.
+     */
+    WORK_STEALING
+}
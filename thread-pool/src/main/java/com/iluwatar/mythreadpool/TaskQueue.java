@@ -0,0 +1,152 @@
+package com.iluwatar.mythreadpool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Task queue of the {@link SchedulingMode#EVENT_LOOP} mode, backed by an array ring buffer.
+ *
+ * A bounded queue allocates its whole capacity up front and never grows, an unbounded one starts
+ * small and doubles the array when it is full.
+ */
+class TaskQueue {
+
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int INITIAL_UNBOUNDED_CAPACITY = 16;
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private Runnable[] items;
+    private int head;
+    private int size;
+    private int largestSize;
+
+    TaskQueue(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than zero!");
+        }
+
+        this.capacity = capacity;
+        this.items = new Runnable[(capacity == UNBOUNDED) ? INITIAL_UNBOUNDED_CAPACITY : capacity];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean offer(final Runnable task) {
+        lock.lock();
+        try {
+            if (size == capacity) {
+                return false;
+            }
+
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean offer(final Runnable task, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == capacity) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the oldest task, or null if none arrived before the timeout elapsed
+     */
+    Runnable poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the oldest task, or null if the queue is empty
+     */
+    Runnable poll() {
+        lock.lock();
+        try {
+            return (size == 0) ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int largestSize() {
+        lock.lock();
+        try {
+            return largestSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(final Runnable task) {
+        if (size == items.length) {
+            grow();
+        }
+
+        items[(head + size) % items.length] = task;
+        largestSize = Math.max(largestSize, ++size);
+        notEmpty.signal();
+    }
+
+    private Runnable dequeue() {
+        final var task = items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        --size;
+        notFull.signal();
+        return task;
+    }
+
+    private void grow() {
+        final int newLength = (int) Math.min((long) items.length << 1, capacity);
+        final var newItems = new Runnable[newLength];
+        for (int i = 0; i < size; ++i) {
+            newItems[i] = items[(head + i) % items.length];
+        }
+
+        items = newItems;
+        head = 0;
+    }
+}
@@ -9,25 +9,38 @@ import java.util.LinkedList;
 import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ThreadPool implements Executor {
 
     private static final int SINGLE_THREADED = 1;
     private static final long DEFAULT_WAIT_MILLIS = 50;
     private static final Logger LOGGER = LoggerFactory.getLogger(ThreadPool.class);
-    private volatile int numberOfTasks;
-    private volatile int terminatedTasks;
+    private final AtomicInteger numberOfTasks = new AtomicInteger();
+    private final AtomicInteger terminatedTasks = new AtomicInteger();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong discardedTasks = new AtomicLong();
+    private final Object terminationLock = new Object();
     private final int maxThreadPoolSize;
     private volatile boolean running;
     private volatile int threadPoolSize;
-    private final LinkedList<Runnable> tasks;
+    private final TaskQueue tasks;
+    private final RejectionPolicy rejectionPolicy;
     private final Deque<WorkerThread> workerThreads;
+    private final SchedulingMode schedulingMode;
     private Thread eventLoopThread;
+    private WorkStealingScheduler scheduler;
 
-    private ThreadPool(final int maxThreadPoolSize) {
+    private ThreadPool(final int maxThreadPoolSize,
+                       final SchedulingMode schedulingMode,
+                       final int queueCapacity,
+                       final RejectionPolicy rejectionPolicy) {
         this.maxThreadPoolSize = maxThreadPoolSize;
+        this.schedulingMode = schedulingMode;
         this.workerThreads = new ArrayDeque<>(maxThreadPoolSize);
-        this.tasks = new LinkedList<>();
+        this.tasks = new TaskQueue(queueCapacity);
+        this.rejectionPolicy = rejectionPolicy;
     }
 
     public static ThreadPool newThreadPool() {
@@ -35,7 +48,32 @@ public class ThreadPool implements Executor {
     }
 
     public static ThreadPool newThreadPool(final int maxThreadPoolSize) {
-        final var threadPool = new ThreadPool(maxThreadPoolSize);
+        return newThreadPool(maxThreadPoolSize, SchedulingMode.EVENT_LOOP);
+    }
+
+    public static ThreadPool newThreadPool(final int maxThreadPoolSize,
+                                           final SchedulingMode schedulingMode) {
+        Objects.requireNonNull(schedulingMode, "schedulingMode cannot be null!");
+        final var threadPool = new ThreadPool(maxThreadPoolSize, schedulingMode,
+                TaskQueue.UNBOUNDED, RejectionPolicy.abort());
+        if (SchedulingMode.WORK_STEALING == schedulingMode) {
+            threadPool.scheduler = new WorkStealingScheduler(maxThreadPoolSize);
+        } else {
+            threadPool.createEventLoopThread();
+        }
+        return threadPool;
+    }
+
+    /**
+     * Creates an event-loop pool whose task queue holds at most queueCapacity tasks, tasks
+     * submitted while it is full are handed to the rejectionPolicy.
+     */
+    public static ThreadPool newThreadPool(final int maxThreadPoolSize,
+                                           final int queueCapacity,
+                                           final RejectionPolicy rejectionPolicy) {
+        Objects.requireNonNull(rejectionPolicy, "rejectionPolicy cannot be null!");
+        final var threadPool = new ThreadPool(maxThreadPoolSize, SchedulingMode.EVENT_LOOP,
+                queueCapacity, rejectionPolicy);
         threadPool.createEventLoopThread();
         return threadPool;
     }
@@ -53,17 +91,15 @@ public class ThreadPool implements Executor {
             while (running) {
 
                 final Runnable command;
-                synchronized (tasks) {
-                    while (tasks.isEmpty()) {
-                        try {
-                            tasks.wait(DEFAULT_WAIT_MILLIS);
-                        } catch (InterruptedException ex) {
-                            configureTermination("ThreadPool interrupted on commands: {}", ex);
-                            break OUTER_LOOP;
-                        }
-                    }
+                try {
+                    command = tasks.poll(DEFAULT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    configureTermination("ThreadPool interrupted on commands: {}", ex);
+                    break;
+                }
 
-                    command = tasks.pollFirst();
+                if (null == command) {
+                    continue;
                 }
 
                 final WorkerThread workerThread;
@@ -98,6 +134,10 @@ public class ThreadPool implements Executor {
 
         start();
 
+        if (null != scheduler) {
+            return;
+        }
+
         synchronized (workerThreads) {
             for (int i = 0; i < maxThreadPoolSize; ++i) {
                 workerThreads.add(createWorkerThread(++threadPoolSize));
@@ -115,6 +155,39 @@ public class ThreadPool implements Executor {
         return maxThreadPoolSize;
     }
 
+    public SchedulingMode getSchedulingMode() {
+        return schedulingMode;
+    }
+
+    public int getQueueCapacity() {
+        return tasks.capacity();
+    }
+
+    /**
+     * @return number of tasks waiting in the queue of the event-loop mode
+     */
+    public int getQueueSize() {
+        return tasks.size();
+    }
+
+    public int getLargestQueueSize() {
+        return tasks.largestSize();
+    }
+
+    /**
+     * @return number of tasks handed to the rejection policy because the queue was full
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * @return number of queued tasks discarded by {@link RejectionPolicy#dropOldest()}
+     */
+    public long getDiscardedTasks() {
+        return discardedTasks.get();
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -149,16 +222,57 @@ public class ThreadPool implements Executor {
     public void execute(final Runnable task) {
         Objects.requireNonNull(task, "commands cannot be null!");
 
+        if (null != scheduler) {
+            if (!running) {
+                throw new IllegalArgumentException("ThreadPool already shutdown!");
+            }
+
+            scheduler.submit(task);
+            return;
+        }
+
         createNewWorkerThread();
 
         if (!running) {
             throw new IllegalArgumentException("ThreadPool already shutdown!");
         }
 
-        synchronized (tasks) {
-            ++numberOfTasks;
-            tasks.add(task);
-            tasks.notify();
+        if (!enqueue(task)) {
+            rejectedTasks.incrementAndGet();
+            rejectionPolicy.rejected(task, this);
+        }
+    }
+
+    boolean enqueue(final Runnable task) {
+        numberOfTasks.incrementAndGet();
+        if (tasks.offer(task)) {
+            return true;
+        }
+
+        numberOfTasks.decrementAndGet();
+        return false;
+    }
+
+    boolean enqueue(final Runnable task, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        numberOfTasks.incrementAndGet();
+        try {
+            if (tasks.offer(task, timeout, unit)) {
+                return true;
+            }
+        } catch (InterruptedException ex) {
+            numberOfTasks.decrementAndGet();
+            throw ex;
+        }
+
+        numberOfTasks.decrementAndGet();
+        return false;
+    }
+
+    void discardOldestTask() {
+        if (null != tasks.poll()) {
+            discardedTasks.incrementAndGet();
+            taskTerminated();
         }
     }
 
@@ -173,13 +287,23 @@ public class ThreadPool implements Executor {
                 return;
             }
 
-            eventLoopThread.start();
             running = true;
+            if (null != scheduler) {
+                scheduler.start();
+                threadPoolSize = scheduler.getNumberOfWorkers();
+            } else {
+                eventLoopThread.start();
+            }
         }
     }
 
     public void shutdownNow() {
         shutdown();
+        if (null != scheduler) {
+            scheduler.terminate();
+            return;
+        }
+
         final var workerThreads = getWorkerThreads();
         workerThreads.forEach(WorkerThread::terminate);
         eventLoopThread.interrupt();
@@ -190,17 +314,40 @@ public class ThreadPool implements Executor {
     }
 
     public int getNumberOfTasks() {
-        return numberOfTasks;
+        if (null != scheduler) {
+            return (int) scheduler.getSubmittedTasks();
+        }
+
+        return numberOfTasks.get();
     }
 
     public void awaitTermination(long timeout, TimeUnit unit) {
-        final long min = System.currentTimeMillis();
-        final long max = min + unit.toMillis(timeout);
-        while (running || getWorkerThreads().stream().anyMatch(Thread::isAlive)) {
-            Thread.onSpinWait();
-            final long now = System.currentTimeMillis();
-            if (now > max || finishedWork()) {
-                break;
+        if (null != scheduler) {
+            try {
+                scheduler.awaitQuiescence(timeout, unit);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+
+            shutdownNow();
+            return;
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (terminationLock) {
+            while (!finishedWork()) {
+                final long remaining = deadline - System.nanoTime();
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remaining);
+                if (remainingMillis <= 0) {
+                    break;
+                }
+
+                try {
+                    terminationLock.wait(remainingMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
             }
         }
 
@@ -217,7 +364,16 @@ public class ThreadPool implements Executor {
     }
 
     private boolean finishedWork() {
-        return numberOfTasks == terminatedTasks;
+        return numberOfTasks.get() == terminatedTasks.get();
+    }
+
+    private void taskTerminated() {
+        terminatedTasks.incrementAndGet();
+        if (finishedWork()) {
+            synchronized (terminationLock) {
+                terminationLock.notifyAll();
+            }
+        }
     }
 
     private class WorkerThread extends Thread {
@@ -260,14 +416,15 @@ public class ThreadPool implements Executor {
 
                 try {
                     task.run();
+                } catch (Throwable th) {
+                    getUncaughtExceptionHandler().uncaughtException(this, th);
+                } finally {
                     task = null;
                     synchronized (workerThreads) {
-                        terminatedTasks++;
                         workerThreads.add(this); //finished it's work so add again to thread-pool list
                         workerThreads.notify();  //notify the ThreadPool that his ready to work again
                     }
-                } catch (Throwable th) {
-                    getUncaughtExceptionHandler().uncaughtException(this, th);
+                    taskTerminated();
                 }
             }
         }
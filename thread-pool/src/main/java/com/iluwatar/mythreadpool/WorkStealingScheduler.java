@@ -0,0 +1,229 @@
+package com.iluwatar.mythreadpool;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scheduler of the {@link SchedulingMode#WORK_STEALING} mode.
+ *
+ * Each worker owns a deque. A task submitted by one of the workers is pushed on the head of its own
+ * deque, any other submission goes round-robin to the tail of a worker deque, so there is no
+ * dispatcher thread in between. A worker takes its own work from the head and, when its deque is
+ * empty, steals from the tail of the others. Workers without work park and are unparked by the
+ * next submission, instead of waking up periodically to poll.
+ */
+class WorkStealingScheduler {
+
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final AtomicLong submittedTasks = new AtomicLong();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final ReentrantLock completionLock = new ReentrantLock();
+    private final Condition allCompleted = completionLock.newCondition();
+    private final AtomicInteger completionWaiters = new AtomicInteger();
+    private volatile boolean terminated;
+
+    WorkStealingScheduler(final int numberOfWorkers) {
+        this.workers = new Worker[numberOfWorkers];
+        for (int i = 0; i < numberOfWorkers; ++i) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    void start() {
+        for (final var worker : workers) {
+            worker.start();
+        }
+    }
+
+    int getNumberOfWorkers() {
+        return workers.length;
+    }
+
+    long getSubmittedTasks() {
+        return submittedTasks.get();
+    }
+
+    long getCompletedTasks() {
+        return completedTasks.get();
+    }
+
+    void submit(final Runnable task) {
+        submittedTasks.incrementAndGet();
+        final var current = Thread.currentThread();
+        final Worker target;
+        if (current instanceof Worker && ((Worker) current).owner() == this) {
+            target = (Worker) current;
+            target.deque.addFirst(task);
+        } else {
+            target = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+            target.deque.addLast(task);
+        }
+
+        signalWork(target);
+    }
+
+    /**
+     * Wakes up the target worker if it is parked, otherwise any parked worker so that it can steal
+     * the task.
+     */
+    private void signalWork(final Worker target) {
+        if (idleWorkers.get() == 0) {
+            return;
+        }
+
+        if (target.claimIdle()) {
+            LockSupport.unpark(target);
+            return;
+        }
+
+        for (final var worker : workers) {
+            if (worker.claimIdle()) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Blocks until every submitted task has been executed or the timeout elapsed.
+     *
+     * @return true if all tasks were executed
+     */
+    boolean awaitQuiescence(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        completionLock.lock();
+        completionWaiters.incrementAndGet();
+        try {
+            while (completedTasks.get() < submittedTasks.get()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = allCompleted.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            completionWaiters.decrementAndGet();
+            completionLock.unlock();
+        }
+    }
+
+    void terminate() {
+        terminated = true;
+        for (final var worker : workers) {
+            worker.interrupt();
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void taskCompleted() {
+        final long completed = completedTasks.incrementAndGet();
+        if (completionWaiters.get() > 0 && completed >= submittedTasks.get()) {
+            completionLock.lock();
+            try {
+                allCompleted.signalAll();
+            } finally {
+                completionLock.unlock();
+            }
+        }
+    }
+
+    private class Worker extends Thread {
+
+        private final int index;
+        private final ConcurrentLinkedDeque<Runnable> deque = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean idle = new AtomicBoolean();
+
+        private Worker(final int index) {
+            super("work-stealing-thread-" + (index + 1));
+            this.index = index;
+        }
+
+        private WorkStealingScheduler owner() {
+            return WorkStealingScheduler.this;
+        }
+
+        private boolean claimIdle() {
+            if (idle.get() && idle.compareAndSet(true, false)) {
+                idleWorkers.decrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public void run() {
+
+            while (!terminated) {
+
+                var task = deque.pollFirst();
+                if (null == task) {
+                    task = steal();
+                }
+
+                if (null == task) {
+                    awaitWork();
+                    continue;
+                }
+
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    getUncaughtExceptionHandler().uncaughtException(this, th);
+                } finally {
+                    taskCompleted();
+                }
+            }
+        }
+
+        private Runnable steal() {
+            final int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; ++i) {
+                final var victim = workers[(start + i) % workers.length];
+                if (victim != this) {
+                    final var task = victim.deque.pollLast();
+                    if (null != task) {
+                        return task;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Publishes this worker as idle, checks for work once more so a submission racing with
+         * the publication is not missed, and parks until a submitter claims and unparks it.
+         */
+        private void awaitWork() {
+            if (idle.compareAndSet(false, true)) {
+                idleWorkers.incrementAndGet();
+            }
+
+            if (!hasWork() && !terminated) {
+                LockSupport.park(this);
+            }
+
+            claimIdle();
+        }
+
+        private boolean hasWork() {
+            for (final var worker : workers) {
+                if (!worker.deque.isEmpty()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.iluwatar.mythreadpool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedThreadPoolTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+    private ThreadPool threadPool;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        threadPool.shutdownNow();
+    }
+
+    /**
+     * Occupies the single worker and the event-loop thread, then fills the queue, so the next
+     * submission has to go through the rejection policy.
+     */
+    private void fillPool(final RejectionPolicy rejectionPolicy) throws InterruptedException {
+        threadPool = ThreadPool.newThreadPool(1, QUEUE_CAPACITY, rejectionPolicy);
+        threadPool.start();
+
+        threadPool.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        threadPool.execute(task("dispatched"));
+        while (threadPool.getQueueSize() > 0) {
+            Thread.sleep(1);
+        }
+
+        threadPool.execute(task("first"));
+        threadPool.execute(task("second"));
+        assertEquals(QUEUE_CAPACITY, threadPool.getQueueSize());
+    }
+
+    private Runnable task(final String name) {
+        return () -> executed.add(name);
+    }
+
+    @Test
+    void shouldAbortWhenQueueIsFull() throws InterruptedException {
+
+        fillPool(RejectionPolicy.abort());
+
+        assertThrows(RejectedExecutionException.class, () -> threadPool.execute(task("rejected")));
+        assertAll(
+                () -> assertEquals(1, threadPool.getRejectedTasks(), "getRejectedTasks"),
+                () -> assertEquals(QUEUE_CAPACITY, threadPool.getQueueCapacity(), "getQueueCapacity"),
+                () -> assertEquals(QUEUE_CAPACITY, threadPool.getLargestQueueSize(), "getLargestQueueSize")
+        );
+
+        release.countDown();
+        threadPool.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(List.of("dispatched", "first", "second"), executed);
+    }
+
+    @Test
+    void shouldRunOnCallerThreadWhenQueueIsFull() throws InterruptedException {
+
+        fillPool(RejectionPolicy.callerRuns());
+
+        final var caller = Thread.currentThread().getName();
+        final var runBy = new CopyOnWriteArrayList<String>();
+        threadPool.execute(() -> runBy.add(Thread.currentThread().getName()));
+
+        assertAll(
+                () -> assertEquals(List.of(caller), runBy, "runBy"),
+                () -> assertEquals(1, threadPool.getRejectedTasks(), "getRejectedTasks")
+        );
+    }
+
+    @Test
+    void shouldDropOldestWhenQueueIsFull() throws InterruptedException {
+
+        fillPool(RejectionPolicy.dropOldest());
+
+        threadPool.execute(task("third"));
+        assertAll(
+                () -> assertEquals(1, threadPool.getRejectedTasks(), "getRejectedTasks"),
+                () -> assertEquals(1, threadPool.getDiscardedTasks(), "getDiscardedTasks"),
+                () -> assertEquals(QUEUE_CAPACITY, threadPool.getQueueSize(), "getQueueSize")
+        );
+
+        release.countDown();
+        threadPool.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(List.of("dispatched", "second", "third"), executed);
+    }
+
+    @Test
+    void shouldBlockUntilTimeoutWhenQueueIsFull() throws InterruptedException {
+
+        fillPool(RejectionPolicy.blockWithTimeout(50, TimeUnit.MILLISECONDS));
+
+        final long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class, () -> threadPool.execute(task("rejected")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    void shouldBlockUntilQueueHasRoom() throws InterruptedException {
+
+        fillPool(RejectionPolicy.blockWithTimeout(10, TimeUnit.SECONDS));
+
+        final var releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        threadPool.execute(task("third"));
+        threadPool.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> assertEquals(1, threadPool.getRejectedTasks(), "getRejectedTasks"),
+                () -> assertEquals(List.of("dispatched", "first", "second", "third"), executed, "executed"),
+                () -> assertEquals(5, threadPool.getNumberOfTasks(), "getNumberOfTasks")
+        );
+    }
+
+    @Test
+    void shouldReturnFromAwaitTerminationWhenTasksAreDone() {
+
+        threadPool = ThreadPool.newThreadPool(2, 16, RejectionPolicy.callerRuns());
+        threadPool.start();
+
+        final var maxCount = 1_000;
+        final var numbers = new CopyOnWriteArrayList<Integer>();
+        for (int i = 0; i < maxCount; i++) {
+            var ii = i;
+            threadPool.execute(() -> numbers.add(ii));
+        }
+
+        final long start = System.nanoTime();
+        threadPool.awaitTermination(60, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> assertEquals(maxCount, numbers.size(), "maxCount == numbers.size"),
+                () -> assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 60, "timeout")
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.iluwatar.mythreadpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the event-loop and the work-stealing modes of {@link ThreadPool} with a
+ * {@link java.util.concurrent.ThreadPoolExecutor} of the same size.
+ *
+ * throughput submits a batch of small tasks and waits for all of them, latency measures the
+ * round trip of a single task from submission until the submitter sees it completed.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreadPoolBenchmark {
+
+    private static final int POOL_SIZE = 4;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"EVENT_LOOP", "WORK_STEALING", "THREAD_POOL_EXECUTOR"})
+    public String mode;
+
+    private Executor executor;
+    private ThreadPool threadPool;
+    private ExecutorService executorService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("THREAD_POOL_EXECUTOR".equals(mode)) {
+            executorService = Executors.newFixedThreadPool(POOL_SIZE);
+            executor = executorService;
+        } else {
+            threadPool = ThreadPool.newThreadPool(POOL_SIZE, SchedulingMode.valueOf(mode));
+            threadPool.preStartAllThreads();
+            executor = threadPool;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (null != executorService) {
+            executorService.shutdownNow();
+        } else {
+            threadPool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput() throws InterruptedException {
+        final var latch = new CountDownLatch(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            executor.execute(latch::countDown);
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() throws InterruptedException {
+        final var latch = new CountDownLatch(1);
+        executor.execute(latch::countDown);
+        latch.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final var options = new OptionsBuilder()
+                .include(ThreadPoolBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
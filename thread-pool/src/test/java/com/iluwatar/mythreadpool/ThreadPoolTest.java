@@ -81,4 +81,71 @@ public class ThreadPoolTest {
                 () -> assertEquals(maxCount, threadPool.getNumberOfTasks(), "getNumberOfTasks")
         );
     }
+
+    @Test
+    void shouldStartAllWorkersInWorkStealingMode() {
+
+        final int threadPoolSize = 4;
+        final var threadPool = ThreadPool.newThreadPool(threadPoolSize, SchedulingMode.WORK_STEALING);
+        assertEquals(0, threadPool.getThreadPoolSize(), "getThreadPoolSize");
+
+        threadPool.start();
+        assertAll(
+                () -> assertEquals(SchedulingMode.WORK_STEALING, threadPool.getSchedulingMode(), "getSchedulingMode"),
+                () -> assertTrue(threadPool.isRunning(), "isRunning"),
+                () -> assertEquals(0, threadPool.getNumberOfTasks(), "getNumberOfTasks"),
+                () -> assertEquals(threadPoolSize, threadPool.getThreadPoolSize(), "getThreadPoolSize")
+        );
+
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    void shouldExecuteAllTasksInWorkStealingMode() {
+
+        final int threadPoolSize = 4;
+        final var threadPool = ThreadPool.newThreadPool(threadPoolSize, SchedulingMode.WORK_STEALING);
+        threadPool.start();
+
+        final var maxCount = 10_000;
+        final var numbers = Collections.synchronizedSet(new HashSet<Integer>());
+        for (int i = 0; i < maxCount; i++) {
+            var ii = i;
+            threadPool.execute(() -> {
+                numbers.add(ii);
+            });
+        }
+
+        threadPool.awaitTermination(60, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> assertFalse(threadPool.isRunning(), "isRunning"),
+                () -> assertEquals(maxCount, numbers.size(), "maxCount == numbers.size"),
+                () -> assertEquals(maxCount, threadPool.getNumberOfTasks(), "getNumberOfTasks")
+        );
+        assertThrows(IllegalArgumentException.class, () -> threadPool.execute(() -> { }));
+    }
+
+    @Test
+    void shouldExecuteTasksSubmittedFromWorkersInWorkStealingMode() {
+
+        final var threadPool = ThreadPool.newThreadPool(4, SchedulingMode.WORK_STEALING);
+        threadPool.start();
+
+        final var maxCount = 1_000;
+        final var numbers = Collections.synchronizedSet(new HashSet<Integer>());
+        threadPool.execute(() -> {
+            for (int i = 0; i < maxCount; i++) {
+                var ii = i;
+                threadPool.execute(() -> numbers.add(ii));
+            }
+        });
+
+        threadPool.awaitTermination(60, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> assertEquals(maxCount, numbers.size(), "maxCount == numbers.size"),
+                () -> assertEquals(maxCount + 1, threadPool.getNumberOfTasks(), "getNumberOfTasks")
+        );
+    }
 }
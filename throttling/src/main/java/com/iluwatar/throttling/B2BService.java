@@ -36,9 +36,11 @@ class B2BService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(B2BService.class);
   private final CallsCount callsCount;
+  private final Throttler throttler;
 
   public B2BService(Throttler timer, CallsCount callsCount) {
     this.callsCount = callsCount;
+    this.throttler = timer;
     timer.start();
   }
 
@@ -49,13 +51,11 @@ class B2BService {
    */
   public int dummyCustomerApi(Tenant tenant) {
     var tenantName = tenant.getName();
-    var count = callsCount.getCount(tenantName);
-    LOGGER.debug("Counter for {} : {} ", tenant.getName(), count);
-    if (count >= tenant.getAllowedCallsPerSecond()) {
+    if (!throttler.tryAcquire(tenant, callsCount)) {
       LOGGER.error("API access per second limit reached for: {}", tenantName);
       return -1;
     }
-    callsCount.incrementCount(tenantName);
+    LOGGER.debug("Call of {} allowed", tenantName);
     return getRandomCustomerId();
   }
 
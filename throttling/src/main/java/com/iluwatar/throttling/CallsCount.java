@@ -58,6 +58,26 @@ public final class CallsCount {
     tenantCallsCount.get(tenantName).incrementAndGet();
   }
 
+  /**
+   * Increment the count of the specified tenant unless it already reached the limit. The check
+   * and the increment are a single atomic step, so concurrent calls cannot exceed the limit.
+   *
+   * @param tenantName name of the tenant.
+   * @param limit      the count the tenant may reach.
+   * @return true if the count was incremented.
+   */
+  public boolean tryIncrementCount(String tenantName, long limit) {
+    var count = tenantCallsCount.get(tenantName);
+    var current = count.get();
+    while (current < limit) {
+      if (count.compareAndSet(current, current + 1)) {
+        return true;
+      }
+      current = count.get();
+    }
+    return false;
+  }
+
   /**
    * Get count of tenant based on tenant name.
    *
@@ -73,6 +93,6 @@ public final class CallsCount {
    */
   public void reset() {
     LOGGER.debug("Resetting the map.");
-    tenantCallsCount.replaceAll((k, v) -> new AtomicLong(0));
+    tenantCallsCount.values().forEach(count -> count.set(0));
   }
 }
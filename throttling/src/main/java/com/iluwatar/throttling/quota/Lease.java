@@ -0,0 +1,53 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+/**
+ * Block of calls the {@link QuotaService} granted a node for a tenant. The node may spend them
+ * locally until the period they were granted in is over.
+ */
+public final class Lease {
+
+  private final long granted;
+  private final long validNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param granted    number of calls granted, 0 if the tenant used up its quota of the period
+   * @param validNanos how long the calls may be spent from the moment the lease was granted
+   */
+  public Lease(long granted, long validNanos) {
+    this.granted = granted;
+    this.validNanos = validNanos;
+  }
+
+  public long getGranted() {
+    return granted;
+  }
+
+  public long getValidNanos() {
+    return validNanos;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import com.iluwatar.throttling.timer.Throttler;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Throttler of one node out of several serving the same tenants. The allowed calls per second of a
+ * tenant are a limit over all nodes, kept by a shared {@link QuotaService}. Instead of asking the
+ * quota service on every call, a node leases a block of calls and spends it locally with a single
+ * atomic decrement, only the call that finds the block used up asks for the next one.
+ *
+ * <p>The quota service never grants more than the limit per period, so the nodes together do not
+ * exceed it. They may allow fewer calls: a block leased by one node cannot be spent by another, so
+ * up to one block per node can be left unused when a period ends. Smaller blocks make that error
+ * smaller and the trips to the quota service more frequent. The other way round, a lease is valid
+ * from the moment its answer arrives, so it can outlast its period by the time of the round trip.
+ * A node that cannot reach the quota service rejects the calls of the tenant and tries again after
+ * 100 milliseconds.
+ */
+public class LeasedQuotaThrottler implements Throttler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LeasedQuotaThrottler.class);
+
+  private static final long RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final QuotaTransport transport;
+  private final int leasesPerPeriod;
+  private final LongSupplier nanoTime;
+  private final Map<String, LocalQuota> quotas = new ConcurrentHashMap<>();
+  private final AtomicLong leaseRequests = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param transport       the way to reach the quota service
+   * @param leasesPerPeriod into how many blocks the limit of a tenant is split, the more nodes the
+   *                        more blocks are needed to spread the calls over them
+   */
+  public LeasedQuotaThrottler(QuotaTransport transport, int leasesPerPeriod) {
+    this(transport, leasesPerPeriod, System::nanoTime);
+  }
+
+  LeasedQuotaThrottler(QuotaTransport transport, int leasesPerPeriod, LongSupplier nanoTime) {
+    if (leasesPerPeriod < 1) {
+      throw new IllegalArgumentException("At least one lease per period needed");
+    }
+    this.transport = transport;
+    this.leasesPerPeriod = leasesPerPeriod;
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Nothing to start, leases are requested when they are needed.
+   */
+  @Override
+  public void start() {
+    // no timer needed
+  }
+
+  /**
+   * Spends a call of the lease of the tenant, leasing the next block if it is used up or expired.
+   * The {@link CallsCount} is not used.
+   */
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    var now = nanoTime.getAsLong();
+    var quota = quotas.get(tenant.getName());
+    if (quota == null) {
+      quota = quotas.computeIfAbsent(tenant.getName(), n -> new LocalQuota(now));
+    }
+    var lease = quota.lease;
+    if (now - lease.deadline < 0 && lease.remaining.decrementAndGet() >= 0) {
+      return true;
+    }
+    synchronized (quota) {
+      // another thread may have leased the next block while this one waited
+      lease = quota.lease;
+      if (now - lease.deadline < 0 && lease.remaining.decrementAndGet() >= 0) {
+        return true;
+      }
+      if (now - lease.deadline < 0 && lease.exhausted) {
+        // the quota service has nothing left for this period
+        return false;
+      }
+      lease = renew(tenant, now);
+      quota.lease = lease;
+      return lease.remaining.decrementAndGet() >= 0;
+    }
+  }
+
+  private LocalLease renew(Tenant tenant, long now) {
+    var limit = tenant.getAllowedCallsPerSecond();
+    var requested = Math.max(1, (limit + leasesPerPeriod - 1) / leasesPerPeriod);
+    leaseRequests.incrementAndGet();
+    try {
+      var lease = transport.requestLease(tenant.getName(), limit, requested);
+      return new LocalLease(lease.getGranted(), now + lease.getValidNanos(),
+          lease.getGranted() < requested);
+    } catch (IOException e) {
+      LOGGER.error("Quota service not reachable, rejecting calls of {}: {}", tenant.getName(),
+          e.getMessage());
+      return new LocalLease(0, now + RETRY_NANOS, true);
+    }
+  }
+
+  /**
+   * Returns how often this node asked the quota service for a lease.
+   */
+  public long getLeaseRequests() {
+    return leaseRequests.get();
+  }
+
+  /**
+   * Lease of a tenant on this node, replaced under its lock when a new block is leased.
+   */
+  private static final class LocalQuota {
+    private volatile LocalLease lease;
+
+    private LocalQuota(long now) {
+      // expired right away, so the first call leases a block
+      this.lease = new LocalLease(0, now, false);
+    }
+  }
+
+  private static final class LocalLease {
+    private final AtomicLong remaining;
+    private final long deadline;
+    // the quota service granted less than requested, asking again in this period is pointless
+    private final boolean exhausted;
+
+    private LocalLease(long granted, long deadline, boolean exhausted) {
+      this.remaining = new AtomicLong(granted);
+      this.deadline = deadline;
+      this.exhausted = exhausted;
+    }
+  }
+}
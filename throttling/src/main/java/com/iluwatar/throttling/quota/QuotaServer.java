@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves a {@link QuotaService} to {@link SocketQuotaTransport}s over a loopback socket, a stand-in
+ * for a quota coordinator running on another machine. Every connection is served by a thread of
+ * its own, a request is the tenant name, its limit and the requested calls, the response is the
+ * granted calls and how long they are valid.
+ */
+public class QuotaServer implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QuotaServer.class);
+
+  private final QuotaService quotaService;
+  private final ServerSocket serverSocket;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Starts serving on the given port of the loopback interface.
+   *
+   * @param port port to listen on, 0 to pick a free one
+   */
+  public QuotaServer(QuotaService quotaService, int port) throws IOException {
+    this.quotaService = quotaService;
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    var acceptor = new Thread(this::accept, "quota-server-" + getPort());
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        var socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        connections.add(socket);
+        var connection = new Thread(() -> serve(socket), "quota-connection-" + socket.getPort());
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          LOGGER.error("Quota server failed to accept a connection: {}", e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+         var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+         var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+      while (true) {
+        var tenantName = in.readUTF();
+        var limit = in.readLong();
+        var requested = in.readLong();
+        var lease = quotaService.lease(tenantName, limit, requested);
+        out.writeLong(lease.getGranted());
+        out.writeLong(lease.getValidNanos());
+        out.flush();
+      }
+    } catch (EOFException | SocketException e) {
+      // the node closed the connection or the server was closed
+    } catch (IOException e) {
+      LOGGER.error("Quota server connection failed: {}", e.getMessage());
+    } finally {
+      connections.remove(socket);
+    }
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (var socket : connections) {
+      socket.close();
+    }
+  }
+}
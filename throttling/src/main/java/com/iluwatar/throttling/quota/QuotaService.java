@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The shared coordinator of all nodes. It splits time into periods and hands out the allowed calls
+ * of every tenant per period in blocks, never more than the tenant's limit in total. It is only
+ * asked when a node used up its lease, not on every call.
+ */
+public class QuotaService {
+
+  private final long periodNanos;
+  private final LongSupplier nanoTime;
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a service handing out the allowed calls per second.
+   */
+  public QuotaService() {
+    this(1, TimeUnit.SECONDS);
+  }
+
+  public QuotaService(long period, TimeUnit unit) {
+    this(period, unit, System::nanoTime);
+  }
+
+  QuotaService(long period, TimeUnit unit, LongSupplier nanoTime) {
+    this.periodNanos = unit.toNanos(period);
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Grants up to requested calls of the tenant, less if the rest of its limit of the current
+   * period is smaller.
+   *
+   * @param tenantName name of the tenant.
+   * @param limit      calls the tenant may make per period over all nodes.
+   * @param requested  calls the node asks for.
+   * @return the lease, valid until the end of the current period
+   */
+  public Lease lease(String tenantName, long limit, long requested) {
+    var now = nanoTime.getAsLong();
+    var period = Math.floorDiv(now, periodNanos);
+    var validNanos = (period + 1) * periodNanos - now;
+    var granted = new long[1];
+    windows.compute(tenantName, (name, window) -> {
+      var current = window == null || window.period != period ? new Window(period) : window;
+      granted[0] = Math.max(0, Math.min(requested, limit - current.granted));
+      current.granted += granted[0];
+      return current;
+    });
+    return new Lease(granted[0], validNanos);
+  }
+
+  /**
+   * Returns the calls of the tenant granted in the current period.
+   */
+  public long getGranted(String tenantName) {
+    var window = windows.get(tenantName);
+    var period = Math.floorDiv(nanoTime.getAsLong(), periodNanos);
+    return window == null || window.period != period ? 0 : window.granted;
+  }
+
+  /**
+   * Calls of a tenant granted in a period, only changed inside {@link Map#compute}.
+   */
+  private static final class Window {
+    private final long period;
+    private long granted;
+
+    private Window(long period) {
+      this.period = period;
+    }
+  }
+}
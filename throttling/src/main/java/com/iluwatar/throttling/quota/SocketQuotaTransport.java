@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport asking a {@link QuotaServer} over a socket. The connection is opened on the first
+ * request and kept, after a failure the next request opens a new one. Requests of several threads
+ * take turns on the connection.
+ *
+ * <p>Connecting and waiting for an answer are bounded by a timeout, so a quota server that hangs
+ * instead of refusing the connection fails the request with an {@link IOException} like one that
+ * is down, rather than blocking the renewals of every tenant on the node.
+ */
+public class SocketQuotaTransport implements QuotaTransport {
+
+  /**
+   * Timeout of connecting and of reading an answer, unless another one is given.
+   */
+  public static final long DEFAULT_TIMEOUT_MILLIS = 200;
+
+  private final InetSocketAddress address;
+  private final int timeoutMillis;
+  private Socket socket;
+  private DataInputStream in;
+  private DataOutputStream out;
+
+  public SocketQuotaTransport(InetSocketAddress address) {
+    this(address, DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a transport that gives up connecting or waiting for an answer after the timeout.
+   */
+  public SocketQuotaTransport(InetSocketAddress address, long timeout, TimeUnit unit) {
+    var millis = unit.toMillis(timeout);
+    if (millis < 1 || millis > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("timeout must be between 1 ms and 24 days");
+    }
+    this.address = address;
+    this.timeoutMillis = (int) millis;
+  }
+
+  @Override
+  public synchronized Lease requestLease(String tenantName, long limit, long requested)
+      throws IOException {
+    try {
+      if (socket == null) {
+        connect();
+      }
+      out.writeUTF(tenantName);
+      out.writeLong(limit);
+      out.writeLong(requested);
+      out.flush();
+      return new Lease(in.readLong(), in.readLong());
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private void connect() throws IOException {
+    socket = new Socket();
+    socket.setTcpNoDelay(true);
+    socket.connect(address, timeoutMillis);
+    socket.setSoTimeout(timeoutMillis);
+    in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (socket != null) {
+      try {
+        socket.close();
+      } finally {
+        socket = null;
+        in = null;
+        out = null;
+      }
+    }
+  }
+}
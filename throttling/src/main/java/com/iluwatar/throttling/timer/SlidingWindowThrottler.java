@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding window throttler. The period is split into buckets and every tenant counts its calls per
+ * bucket, a call is allowed if the calls of the last period, including the current bucket, stay
+ * within the allowed calls per period. Unlike a counter reset at fixed times, this does not let a
+ * tenant make twice its allowed calls around the moment of the reset.
+ *
+ * <p>The window of a tenant is an {@link AtomicLongArray} of one more bucket than the period is
+ * split into, so the counted buckets always cover at least a whole period. Every bucket packs the
+ * number of the time slice it counts and its count into one long, a bucket from an earlier lap
+ * starts over when it is used again. A call is counted first and checked after, and taken back if
+ * it exceeded the limit, so concurrent calls never exceed it without any lock or background
+ * thread. In return, calls racing for the last allowed call may all be rejected.
+ *
+ * @see TokenBucketThrottler
+ */
+public class SlidingWindowThrottler implements Throttler {
+
+  private static final int DEFAULT_BUCKETS = 10;
+  private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+  private final long bucketNanos;
+  private final int buckets;
+  private final LongSupplier nanoTime;
+  private final Map<String, AtomicLongArray> windows = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a throttler allowing tenants their allowed calls per second, in buckets of 100
+   * milliseconds.
+   */
+  public SlidingWindowThrottler() {
+    this(1, TimeUnit.SECONDS, DEFAULT_BUCKETS);
+  }
+
+  /**
+   * Creates a throttler allowing tenants their allowed calls per period.
+   *
+   * @param buckets number of buckets the period is split into, more buckets make the window slide
+   *                more smoothly
+   */
+  public SlidingWindowThrottler(long period, TimeUnit unit, int buckets) {
+    this(period, unit, buckets, System::nanoTime);
+  }
+
+  SlidingWindowThrottler(long period, TimeUnit unit, int buckets, LongSupplier nanoTime) {
+    if (buckets < 1) {
+      throw new IllegalArgumentException("At least one bucket needed");
+    }
+    this.bucketNanos = Math.max(unit.toNanos(period) / buckets, 1);
+    this.buckets = buckets;
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Nothing to start, stale buckets are reset when they are used.
+   */
+  @Override
+  public void start() {
+    // no timer needed
+  }
+
+  /**
+   * Counts the call in the window of the tenant, the {@link CallsCount} is not used.
+   */
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    var allowed = tenant.getAllowedCallsPerSecond();
+    if (allowed == 0) {
+      return false;
+    }
+    var slice = Math.floorDiv(nanoTime.getAsLong(), bucketNanos);
+    var window = window(tenant.getName());
+    var index = (int) Math.floorMod(slice, (long) window.length());
+    while (true) {
+      var bucket = window.get(index);
+      var counted = slice(bucket) == (int) slice ? bucket + 1 : pack(slice, 1);
+      if (window.compareAndSet(index, bucket, counted)) {
+        break;
+      }
+    }
+    if (countCalls(window, slice) <= allowed) {
+      return true;
+    }
+    while (true) {
+      var bucket = window.get(index);
+      if (slice(bucket) != (int) slice || window.compareAndSet(index, bucket, bucket - 1)) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Returns the calls of the tenant counted in the current window.
+   */
+  public long getCallCount(Tenant tenant) {
+    var slice = Math.floorDiv(nanoTime.getAsLong(), bucketNanos);
+    return countCalls(window(tenant.getName()), slice);
+  }
+
+  private long countCalls(AtomicLongArray window, long slice) {
+    var calls = 0L;
+    for (var i = 0; i < window.length(); i++) {
+      var bucket = window.get(i);
+      // slices compared as ints, so the difference is right even when they wrapped around
+      var age = (int) slice - slice(bucket);
+      if (age >= 0 && age <= buckets) {
+        calls += bucket & COUNT_MASK;
+      }
+    }
+    return calls;
+  }
+
+  private AtomicLongArray window(String tenantName) {
+    var window = windows.get(tenantName);
+    if (window != null) {
+      return window;
+    }
+    return windows.computeIfAbsent(tenantName, n -> {
+      // a slice that is not counted any more, so a new tenant starts with an empty window
+      var empty = pack(Math.floorDiv(nanoTime.getAsLong(), bucketNanos) - buckets - 1, 0);
+      var created = new AtomicLongArray(buckets + 1);
+      for (var i = 0; i < created.length(); i++) {
+        created.set(i, empty);
+      }
+      return created;
+    });
+  }
+
+  private static int slice(long bucket) {
+    return (int) (bucket >>> 32);
+  }
+
+  private static long pack(long slice, long count) {
+    return ((long) (int) slice << 32) | count;
+  }
+}
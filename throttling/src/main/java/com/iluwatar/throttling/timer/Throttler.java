@@ -23,6 +23,9 @@
 
 package com.iluwatar.throttling.timer;
 
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+
 /**
  * An interface for defining the structure of different types of throttling ways.
  * @author drastogi
@@ -31,4 +34,14 @@ package com.iluwatar.throttling.timer;
 public interface Throttler {
 
   void start();
+
+  /**
+   * Decides whether the tenant may make another call and counts the call if it may. By default
+   * the calls are counted in the {@link CallsCount} that {@link #start()} resets every period.
+   *
+   * @return true if the call is allowed
+   */
+  default boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    return callsCount.tryIncrementCount(tenant.getName(), tenant.getAllowedCallsPerSecond());
+  }
 }
@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket throttler. Every tenant has a bucket holding up to its allowed calls per period of
+ * tokens, a call takes a token and the bucket refills at a steady rate of allowed calls per period.
+ *
+ * <p>The refill is not done by a timer but computed from {@link System#nanoTime()} when a call
+ * arrives. The bucket of a tenant is a single {@link AtomicLong}, the time at which it would be
+ * full again (the theoretical arrival time of the generic cell rate algorithm). A call moves that
+ * time one token further, the call is allowed as long as that time stays within the time to refill
+ * a whole bucket from now. Deciding therefore takes one CAS, without any lock or background
+ * thread, and never lets a tenant exceed its limit. The allowed calls of a tenant are read once,
+ * when its bucket is created.
+ *
+ * @see SlidingWindowThrottler
+ */
+public class TokenBucketThrottler implements Throttler {
+
+  private final long periodNanos;
+  private final LongSupplier nanoTime;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a throttler allowing tenants their allowed calls per second.
+   */
+  public TokenBucketThrottler() {
+    this(1, TimeUnit.SECONDS);
+  }
+
+  public TokenBucketThrottler(long period, TimeUnit unit) {
+    this(period, unit, System::nanoTime);
+  }
+
+  TokenBucketThrottler(long period, TimeUnit unit, LongSupplier nanoTime) {
+    this.periodNanos = unit.toNanos(period);
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Nothing to start, the buckets refill when they are used.
+   */
+  @Override
+  public void start() {
+    // no timer needed
+  }
+
+  /**
+   * Takes a token from the bucket of the tenant, the {@link CallsCount} is not used.
+   */
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    var now = nanoTime.getAsLong();
+    var bucket = bucket(tenant, now);
+    if (bucket.interval == 0) {
+      return false;
+    }
+    while (true) {
+      var full = bucket.get();
+      // a bucket that has been full for a while holds no more than allowed tokens
+      var next = Math.max(full - now, 0) + bucket.interval;
+      if (next > bucket.capacity) {
+        return false;
+      }
+      if (bucket.compareAndSet(full, now + next)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns the tokens left in the bucket of the tenant.
+   */
+  public long getAvailableTokens(Tenant tenant) {
+    var now = nanoTime.getAsLong();
+    var bucket = bucket(tenant, now);
+    if (bucket.interval == 0) {
+      return 0;
+    }
+    return (bucket.capacity - Math.max(bucket.get() - now, 0)) / bucket.interval;
+  }
+
+  private Bucket bucket(Tenant tenant, long now) {
+    var bucket = buckets.get(tenant.getName());
+    if (bucket != null) {
+      return bucket;
+    }
+    return buckets.computeIfAbsent(tenant.getName(),
+        n -> new Bucket(now, periodNanos, tenant.getAllowedCallsPerSecond()));
+  }
+
+  /**
+   * The time at which the bucket of a tenant is full again, together with the refill rate of the
+   * tenant so deciding does not have to divide.
+   */
+  private static final class Bucket extends AtomicLong {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Time to refill one token, rounded up so the refill rate never exceeds the allowed calls per
+     * period. 0 if the tenant is not allowed any calls.
+     */
+    private final long interval;
+
+    /**
+     * Time to refill the whole bucket.
+     */
+    private final long capacity;
+
+    private Bucket(long full, long periodNanos, int allowed) {
+      super(full);
+      this.interval = allowed == 0 ? 0 : (periodNanos + allowed - 1) / allowed;
+      this.capacity = interval * allowed;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling;
+
+import com.iluwatar.throttling.quota.InProcessQuotaTransport;
+import com.iluwatar.throttling.quota.LeasedQuotaThrottler;
+import com.iluwatar.throttling.quota.QuotaServer;
+import com.iluwatar.throttling.quota.QuotaService;
+import com.iluwatar.throttling.quota.QuotaTransport;
+import com.iluwatar.throttling.quota.SocketQuotaTransport;
+import com.iluwatar.throttling.timer.SlidingWindowThrottler;
+import com.iluwatar.throttling.timer.ThrottleTimerImpl;
+import com.iluwatar.throttling.timer.Throttler;
+import com.iluwatar.throttling.timer.TokenBucketThrottler;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of a throttling decision with 64 threads calling for random tenants out of 10k, for the
+ * {@link CallsCount} reset by a {@link ThrottleTimerImpl}, the {@link TokenBucketThrottler}, the
+ * {@link SlidingWindowThrottler} and the {@link LeasedQuotaThrottler} leasing blocks of a twentieth
+ * of the limit from a {@link QuotaService} in the same process or behind a loopback socket.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(64)
+@State(Scope.Benchmark)
+public class ThrottlerBenchmark {
+
+  @Param({"CALLS_COUNT", "TOKEN_BUCKET", "SLIDING_WINDOW", "LEASED_QUOTA",
+      "LEASED_QUOTA_SOCKET"})
+  public String throttler;
+
+  @Param({"10000"})
+  public int tenants;
+
+  @Param({"1000"})
+  public int allowedCallsPerSecond;
+
+  private Throttler timer;
+
+  private CallsCount callsCount;
+
+  private Tenant[] tenantArray;
+
+  private QuotaServer quotaServer;
+
+  private QuotaTransport quotaTransport;
+
+  /**
+   * Creates the throttler and registers the tenants.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    callsCount = new CallsCount();
+    tenantArray = new Tenant[tenants];
+    for (var i = 0; i < tenants; i++) {
+      tenantArray[i] = new Tenant("tenant-" + i, allowedCallsPerSecond, callsCount);
+    }
+    switch (throttler) {
+      case "CALLS_COUNT":
+        timer = new ThrottleTimerImpl(1000, callsCount);
+        break;
+      case "TOKEN_BUCKET":
+        timer = new TokenBucketThrottler();
+        break;
+      case "LEASED_QUOTA":
+        quotaTransport = new InProcessQuotaTransport(new QuotaService());
+        timer = new LeasedQuotaThrottler(quotaTransport, 20);
+        break;
+      case "LEASED_QUOTA_SOCKET":
+        quotaServer = new QuotaServer(new QuotaService(), 0);
+        quotaTransport = new SocketQuotaTransport(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), quotaServer.getPort()));
+        timer = new LeasedQuotaThrottler(quotaTransport, 20);
+        break;
+      default:
+        timer = new SlidingWindowThrottler();
+    }
+    timer.start();
+  }
+
+  /**
+   * Closes the connection to the quota server and the server.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    if (quotaTransport != null) {
+      quotaTransport.close();
+    }
+    if (quotaServer != null) {
+      quotaServer.close();
+    }
+  }
+
+  @Benchmark
+  public boolean tryAcquire() {
+    var tenant = tenantArray[ThreadLocalRandom.current().nextInt(tenantArray.length)];
+    return timer.tryAcquire(tenant, callsCount);
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    var options = new OptionsBuilder()
+        .include(ThrottlerBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * LeasedQuotaThrottlerTest to test several nodes sharing a quota service in the same process.
+ */
+public class LeasedQuotaThrottlerTest {
+
+  private final CallsCount callsCount = new CallsCount();
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+  private final QuotaService quotaService = new QuotaService(1, TimeUnit.SECONDS, now::get);
+
+  private LeasedQuotaThrottler node(int leasesPerPeriod) {
+    return new LeasedQuotaThrottler(new InProcessQuotaTransport(quotaService), leasesPerPeriod,
+        now::get);
+  }
+
+  @Test
+  public void nodesShareGlobalLimitTest() {
+    var tenant = new Tenant("tenant", 100, callsCount);
+    var nodes = List.of(node(20), node(20), node(20), node(20));
+    var allowed = 0;
+    for (var i = 0; i < 1000; i++) {
+      if (nodes.get(i % nodes.size()).tryAcquire(tenant, callsCount)) {
+        allowed++;
+      }
+    }
+    // blocks of 5 calls, spread evenly nothing is left unused
+    assertEquals(100, allowed);
+    var leaseRequests = nodes.stream().mapToLong(LeasedQuotaThrottler::getLeaseRequests).sum();
+    // 20 blocks and one request per node that found the quota used up
+    assertEquals(24, leaseRequests);
+  }
+
+  @Test
+  public void unusedLeasesBoundTheErrorTest() {
+    var tenant = new Tenant("tenant", 100, callsCount);
+    var busy = node(10);
+    var idle = node(10);
+    // the idle node takes a block of 10 and spends a single call
+    assertTrue(idle.tryAcquire(tenant, callsCount));
+    var allowed = 1;
+    for (var i = 0; i < 1000; i++) {
+      if (busy.tryAcquire(tenant, callsCount)) {
+        allowed++;
+      }
+    }
+    assertEquals(91, allowed);
+    assertEquals(100, quotaService.getGranted(tenant.getName()));
+  }
+
+  @Test
+  public void leasesExpireWithPeriodTest() {
+    var tenant = new Tenant("tenant", 10, callsCount);
+    var node = node(1);
+    for (var i = 0; i < 10; i++) {
+      assertTrue(node.tryAcquire(tenant, callsCount));
+    }
+    assertFalse(node.tryAcquire(tenant, callsCount));
+    assertFalse(node.tryAcquire(tenant, callsCount));
+    assertEquals(2, node.getLeaseRequests());
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertTrue(node.tryAcquire(tenant, callsCount));
+    assertEquals(3, node.getLeaseRequests());
+  }
+
+  @Test
+  public void unreachableQuotaServiceRejectsTest() {
+    var tenant = new Tenant("tenant", 10, callsCount);
+    var failing = new QuotaTransport() {
+      private boolean up;
+
+      @Override
+      public Lease requestLease(String tenantName, long limit, long requested)
+          throws IOException {
+        if (!up) {
+          throw new IOException("quota service down");
+        }
+        return quotaService.lease(tenantName, limit, requested);
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    var node = new LeasedQuotaThrottler(failing, 2, now::get);
+    assertFalse(node.tryAcquire(tenant, callsCount));
+    failing.up = true;
+    // no new attempt before the retry delay
+    assertFalse(node.tryAcquire(tenant, callsCount));
+    assertEquals(1, node.getLeaseRequests());
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(node.tryAcquire(tenant, callsCount));
+    assertEquals(2, node.getLeaseRequests());
+  }
+
+  @Test
+  public void concurrentCallsOnSeveralNodesTest() throws Exception {
+    var tenant = new Tenant("tenant", 1000, callsCount);
+    var nodes = List.of(node(50), node(50), node(50));
+    var executor = Executors.newFixedThreadPool(6);
+    try {
+      var calls = new ArrayList<Callable<Integer>>();
+      for (var t = 0; t < 6; t++) {
+        var node = nodes.get(t % nodes.size());
+        calls.add(() -> {
+          var allowed = 0;
+          for (var i = 0; i < 10_000; i++) {
+            if (node.tryAcquire(tenant, callsCount)) {
+              allowed++;
+            }
+          }
+          return allowed;
+        });
+      }
+      var allowed = 0;
+      for (Future<Integer> future : executor.invokeAll(calls)) {
+        allowed += future.get();
+      }
+      assertEquals(1000, allowed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void invalidLeasesPerPeriodTest() {
+    var transport = new InProcessQuotaTransport(quotaService);
+    assertThrows(IllegalArgumentException.class, () -> new LeasedQuotaThrottler(transport, 0));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * QuotaServiceTest to test the leases handed out per period.
+ */
+public class QuotaServiceTest {
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+  private final QuotaService quotaService = new QuotaService(1, TimeUnit.SECONDS, now::get);
+
+  @Test
+  public void neverGrantsMoreThanLimitTest() {
+    assertEquals(4, quotaService.lease("tenant", 10, 4).getGranted());
+    assertEquals(4, quotaService.lease("tenant", 10, 4).getGranted());
+    assertEquals(2, quotaService.lease("tenant", 10, 4).getGranted());
+    assertEquals(0, quotaService.lease("tenant", 10, 4).getGranted());
+    assertEquals(10, quotaService.getGranted("tenant"));
+    // tenants have quotas of their own
+    assertEquals(4, quotaService.lease("other", 10, 4).getGranted());
+  }
+
+  @Test
+  public void leaseValidUntilEndOfPeriodTest() {
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+    var lease = quotaService.lease("tenant", 10, 10);
+    assertEquals(10, lease.getGranted());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(700), lease.getValidNanos());
+
+    // the next period starts with the whole limit
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(700));
+    assertEquals(0, quotaService.getGranted("tenant"));
+    assertEquals(10, quotaService.lease("tenant", 10, 10).getGranted());
+  }
+}
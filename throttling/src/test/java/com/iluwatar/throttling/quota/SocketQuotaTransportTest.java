@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.quota;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SocketQuotaTransportTest to test nodes leasing quota from a server over a loopback socket.
+ */
+public class SocketQuotaTransportTest {
+
+  @Test
+  public void nodesLeaseOverSocketTest() throws Exception {
+    var callsCount = new CallsCount();
+    var tenant = new Tenant("tenant", 50, callsCount);
+    var quotaService = new QuotaService(1, TimeUnit.HOURS);
+    try (var server = new QuotaServer(quotaService, 0);
+         var first = new SocketQuotaTransport(address(server));
+         var second = new SocketQuotaTransport(address(server))) {
+      var firstNode = new LeasedQuotaThrottler(first, 10);
+      var secondNode = new LeasedQuotaThrottler(second, 10);
+      var allowed = 0;
+      for (var i = 0; i < 200; i++) {
+        if ((i % 2 == 0 ? firstNode : secondNode).tryAcquire(tenant, callsCount)) {
+          allowed++;
+        }
+      }
+      assertEquals(50, allowed);
+      assertEquals(50, quotaService.getGranted(tenant.getName()));
+      assertTrue(firstNode.getLeaseRequests() + secondNode.getLeaseRequests() <= 12);
+    }
+  }
+
+  @Test
+  public void serverDownTest() throws Exception {
+    var quotaService = new QuotaService();
+    var server = new QuotaServer(quotaService, 0);
+    try (var transport = new SocketQuotaTransport(address(server))) {
+      assertEquals(5, transport.requestLease("tenant", 10, 5).getGranted());
+      server.close();
+      assertThrows(IOException.class, () -> transport.requestLease("tenant", 10, 5));
+
+      var callsCount = new CallsCount();
+      var node = new LeasedQuotaThrottler(transport, 2);
+      assertFalse(node.tryAcquire(new Tenant("tenant", 10, callsCount), callsCount));
+    }
+  }
+
+  @Test
+  public void serverHangsTest() throws Exception {
+    // accepts connections through its backlog but never answers
+    try (var server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+         var transport = new SocketQuotaTransport(
+             new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()),
+             50, TimeUnit.MILLISECONDS)) {
+      var start = System.nanoTime();
+      assertThrows(SocketTimeoutException.class, () -> transport.requestLease("tenant", 10, 5));
+
+      var callsCount = new CallsCount();
+      var node = new LeasedQuotaThrottler(transport, 2);
+      assertFalse(node.tryAcquire(new Tenant("tenant", 10, callsCount), callsCount));
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+  }
+
+  private static InetSocketAddress address(QuotaServer server) {
+    return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+}
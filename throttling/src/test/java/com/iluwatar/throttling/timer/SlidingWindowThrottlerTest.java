@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SlidingWindowThrottlerTest to test the sliding window with a fake clock.
+ */
+public class SlidingWindowThrottlerTest {
+
+  private final CallsCount callsCount = new CallsCount();
+  private final AtomicLong now = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+  private final SlidingWindowThrottler throttler =
+      new SlidingWindowThrottler(1, TimeUnit.SECONDS, 10, now::get);
+
+  @Test
+  public void limitWithinWindowTest() {
+    var tenant = new Tenant("window", 3, callsCount);
+    for (var i = 0; i < 3; i++) {
+      assertTrue(throttler.tryAcquire(tenant, callsCount));
+    }
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+    assertEquals(3, throttler.getCallCount(tenant));
+    assertEquals(0, callsCount.getCount(tenant.getName()));
+  }
+
+  @Test
+  public void noBurstAcrossBoundaryTest() {
+    var tenant = new Tenant("boundary", 5, callsCount);
+    // the calls of the last moment of one second still count at the start of the next one
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(950));
+    for (var i = 0; i < 5; i++) {
+      assertTrue(throttler.tryAcquire(tenant, callsCount));
+    }
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+
+    // a period after the calls they have left the window
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+    assertEquals(0, throttler.getCallCount(tenant));
+    for (var i = 0; i < 5; i++) {
+      assertTrue(throttler.tryAcquire(tenant, callsCount));
+    }
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+  }
+
+  @Test
+  public void neverExceedsLimitInAnyPeriodTest() {
+    var tenant = new Tenant("steady", 20, callsCount);
+    var allowedAt = new long[2000];
+    var allowed = 0;
+    for (var i = 0; i < 2000; i++) {
+      if (throttler.tryAcquire(tenant, callsCount)) {
+        allowedAt[allowed++] = now.get();
+      }
+      now.addAndGet(TimeUnit.MILLISECONDS.toNanos(7));
+    }
+    var period = TimeUnit.SECONDS.toNanos(1);
+    for (var i = 20; i < allowed; i++) {
+      assertTrue(allowedAt[i] - allowedAt[i - 20] >= period);
+    }
+    // 14 seconds, at least 20 calls per 1.1 seconds
+    assertTrue(allowed >= 250, "allowed " + allowed);
+  }
+
+  @Test
+  public void concurrentCallsNeverExceedLimitTest() throws Exception {
+    var tenant = new Tenant("concurrent", 1000, callsCount);
+    var allowed = ThrottlerTestSupport.callConcurrently(throttler, tenant, callsCount, 8, 10_000);
+    // racing calls may all be taken back near the limit, but never exceed it
+    assertTrue(allowed > 990 && allowed <= 1000, "allowed " + allowed);
+  }
+
+  @Test
+  public void invalidBucketsTest() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SlidingWindowThrottler(1, TimeUnit.SECONDS, 0));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Helper hammering a throttler from several threads at once.
+ */
+final class ThrottlerTestSupport {
+
+  private ThrottlerTestSupport() {
+  }
+
+  /**
+   * Makes the calls from the given number of threads, starting them together.
+   *
+   * @return number of allowed calls
+   */
+  static int callConcurrently(Throttler throttler, Tenant tenant, CallsCount callsCount,
+                              int threads, int callsPerThread) throws Exception {
+    var executor = Executors.newFixedThreadPool(threads);
+    try {
+      var start = new CountDownLatch(1);
+      var calls = new ArrayList<Callable<Integer>>();
+      for (var t = 0; t < threads; t++) {
+        calls.add(() -> {
+          start.await();
+          var allowed = 0;
+          for (var i = 0; i < callsPerThread; i++) {
+            if (throttler.tryAcquire(tenant, callsCount)) {
+              allowed++;
+            }
+          }
+          return allowed;
+        });
+      }
+      var futures = new ArrayList<Future<Integer>>();
+      for (var call : calls) {
+        futures.add(executor.submit(call));
+      }
+      start.countDown();
+      var allowed = 0;
+      for (var future : futures) {
+        allowed += future.get();
+      }
+      return allowed;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
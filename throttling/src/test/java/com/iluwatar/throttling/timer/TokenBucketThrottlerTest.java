@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2019 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.throttling.timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TokenBucketThrottlerTest to test the token bucket with a fake clock.
+ */
+public class TokenBucketThrottlerTest {
+
+  private final CallsCount callsCount = new CallsCount();
+  private final AtomicLong now = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+  private final TokenBucketThrottler throttler =
+      new TokenBucketThrottler(1, TimeUnit.SECONDS, now::get);
+
+  @Test
+  public void burstUpToLimitTest() {
+    var tenant = new Tenant("burst", 3, callsCount);
+    assertEquals(3, throttler.getAvailableTokens(tenant));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+    assertEquals(0, throttler.getAvailableTokens(tenant));
+    assertEquals(0, callsCount.getCount(tenant.getName()));
+  }
+
+  @Test
+  public void lazyRefillTest() {
+    var tenant = new Tenant("refill", 4, callsCount);
+    for (var i = 0; i < 4; i++) {
+      assertTrue(throttler.tryAcquire(tenant, callsCount));
+    }
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+
+    // a token every 250 milliseconds
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(260));
+    assertEquals(1, throttler.getAvailableTokens(tenant));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+
+    // an idle bucket does not fill up beyond the limit
+    now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+    assertEquals(4, throttler.getAvailableTokens(tenant));
+    for (var i = 0; i < 4; i++) {
+      assertTrue(throttler.tryAcquire(tenant, callsCount));
+    }
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+  }
+
+  @Test
+  public void steadyRateTest() {
+    var tenant = new Tenant("steady", 10, callsCount);
+    var allowed = 0;
+    // 100 calls per second for 10 seconds
+    for (var i = 0; i < 1000; i++) {
+      if (throttler.tryAcquire(tenant, callsCount)) {
+        allowed++;
+      }
+      now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    // a full bucket and 10 tokens per second
+    assertTrue(allowed >= 100 && allowed <= 110, "allowed " + allowed);
+  }
+
+  @Test
+  public void noCallsAllowedTest() {
+    var tenant = new Tenant("none", 0, callsCount);
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+    assertEquals(0, throttler.getAvailableTokens(tenant));
+  }
+
+  @Test
+  public void concurrentCallsNeverExceedLimitTest() throws Exception {
+    var tenant = new Tenant("concurrent", 1000, callsCount);
+    var allowed = ThrottlerTestSupport.callConcurrently(throttler, tenant, callsCount, 8, 10_000);
+    assertEquals(1000, allowed);
+  }
+}